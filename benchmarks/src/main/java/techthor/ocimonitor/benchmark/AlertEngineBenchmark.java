@@ -0,0 +1,84 @@
+package techthor.ocimonitor.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.io.ByteArrayResource;
+import techthor.ocimonitor.alerting.AlertEngine;
+import techthor.ocimonitor.alerting.AlertRule;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One poll tick of the {@link AlertEngine}: a new CPU datapoint for every instance, each
+ * committed point checked against all CPU rules.
+ * <p>
+ * The cost per tick should grow with instances × rules only, not with the length of the
+ * sliding window.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AlertEngineBenchmark {
+
+    private static final AlertRule.Statistic[] STATISTICS = AlertRule.Statistic.values();
+
+    @Param({"20", "500"})
+    public int instances;
+
+    @Param({"10", "500"})
+    public int rules;
+
+    @Param({"60", "1440"})
+    public int windowPoints;
+
+    private AlertEngine engine;
+    private String[] resourceIds;
+    private double[] values;
+    private long timestamp;
+
+    @Setup
+    public void setUp() {
+        engine = new AlertEngine(true, new ByteArrayResource("[]".getBytes(StandardCharsets.UTF_8)), windowPoints,
+                0.1, 10, 1000, Duration.ofDays(1), 0);
+        for (int i = 0; i < rules; i++) {
+            engine.putRule(new AlertRule("rule-" + i, "cpu", null, STATISTICS[i % STATISTICS.length],
+                    AlertRule.Operator.ABOVE, i % STATISTICS.length == 4 ? 3 : 50 + i % 50, 1 + i % 3));
+        }
+        resourceIds = new String[instances];
+        for (int i = 0; i < instances; i++) {
+            resourceIds[i] = "ocid1.instance.oc1..bench" + i;
+        }
+        Random random = new Random(42);
+        values = new double[4096];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = Math.min(100, Math.max(0, 40 + random.nextGaussian() * 25));
+        }
+        // Fill the windows, so evaluation sees warm series
+        for (int i = 0; i < windowPoints + 1; i++) {
+            tick();
+        }
+    }
+
+    @Benchmark
+    public void tick() {
+        timestamp += 60_000;
+        for (int i = 0; i < resourceIds.length; i++) {
+            engine.accept("cpu", resourceIds[i], timestamp, values[(int) ((timestamp / 60_000 + i) % values.length)]);
+        }
+    }
+}
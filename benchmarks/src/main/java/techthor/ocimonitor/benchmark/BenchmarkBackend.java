@@ -0,0 +1,82 @@
+package techthor.ocimonitor.benchmark;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import org.springframework.core.io.ByteArrayResource;
+import techthor.ocimonitor.alerting.AlertEngine;
+import techthor.ocimonitor.benchmark.fake.FakeOci;
+import techthor.ocimonitor.cache.CacheRegistry;
+import techthor.ocimonitor.config.ObjectStorageNamespace;
+import techthor.ocimonitor.config.TenancyId;
+import techthor.ocimonitor.dao.ObjectStorageDao;
+import techthor.ocimonitor.metrics.MetricWindowStore;
+import techthor.ocimonitor.metrics.history.MetricHistoryStore;
+import techthor.ocimonitor.service.BucketCrawler;
+import techthor.ocimonitor.service.DashboardService;
+import techthor.ocimonitor.service.InstanceTableService;
+import techthor.ocimonitor.service.ObjectInventoryService;
+import techthor.ocimonitor.service.ObjectStorageService;
+import techthor.ocimonitor.service.OciResourceService;
+import techthor.ocimonitor.topology.TopologyService;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * The backend services wired by hand against a {@link FakeOci}, the same way Spring wires
+ * them against the real clients. Local metric history, alert evaluation, the object
+ * inventory and the scheduled topology refresh are disabled, so benchmarks measure the
+ * request path only.
+ */
+public final class BenchmarkBackend implements AutoCloseable {
+
+    private final CacheRegistry caches;
+    private final BucketCrawler bucketCrawler;
+
+    final DashboardService dashboard;
+    final InstanceTableService instanceTable;
+    final ObjectStorageService objectStorage;
+    final OciResourceService resources;
+    final TopologyService topology;
+
+    /**
+     * @param oci      fake OCI tenancy
+     * @param cacheTtl freshness of the resource caches; {@link Duration#ZERO} loads on every call
+     */
+    BenchmarkBackend(FakeOci oci, Duration cacheTtl) {
+        String tenancy = FakeOci.tenancyOcid();
+        TenancyId tenancyId = TenancyId.of(tenancy);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+        this.caches = new CacheRegistry(Duration.ZERO, 256, meterRegistry);
+        this.dashboard = new DashboardService(tenancy, tenancyId,
+                oci.compute(), oci.monitoring(), oci.identity(), oci.virtualNetwork(),
+                caches,
+                new MetricWindowStore(Duration.ofHours(1), Duration.ofMinutes(1)),
+                new MetricHistoryStore(false, Path.of("unused"), 120,
+                        Duration.ofDays(7), Duration.ofDays(30), Duration.ofDays(365)),
+                new AlertEngine(false, new ByteArrayResource(new byte[0]), 60, 0.1, 10, 1000,
+                        Duration.ofMinutes(30), 0),
+                120, cacheTtl, cacheTtl, cacheTtl, cacheTtl, cacheTtl);
+        this.instanceTable = new InstanceTableService(tenancy, oci.compute(), oci.virtualNetwork(), dashboard,
+                caches, cacheTtl);
+
+        ObjectStorageNamespace namespace = new ObjectStorageNamespace(oci.objectStorage(), Duration.ofHours(24));
+        this.bucketCrawler = new BucketCrawler(oci.objectStorage(), oci.identity(), tenancyId, 8, 32, 16);
+        this.objectStorage = new ObjectStorageService(oci.objectStorage(), namespace, bucketCrawler, meterRegistry,
+                caches, cacheTtl);
+        this.resources = new OciResourceService(dashboard,
+                new ObjectStorageDao(oci.objectStorage(), namespace, tenancyId),
+                new ObjectInventoryService(objectStorage, false, Duration.ofHours(6), 8),
+                Duration.ofSeconds(30),
+                ObservationRegistry.NOOP);
+        this.topology = new TopologyService(tenancy, oci.virtualNetwork(), oci.compute(), false);
+    }
+
+    @Override
+    public void close() {
+        resources.shutdown();
+        bucketCrawler.shutdown();
+        caches.shutdown();
+    }
+}
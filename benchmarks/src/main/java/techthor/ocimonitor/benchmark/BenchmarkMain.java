@@ -0,0 +1,36 @@
+package techthor.ocimonitor.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point of {@code benchmarks.jar}.
+ * <p>
+ * Accepts the usual JMH command line (benchmark regex, {@code -p}, {@code -f}, ...), and by
+ * default adds the GC profiler for allocation per operation ({@code gc.alloc.rate.norm}) and
+ * writes JSON results to {@code jmh-result.json}, so runs can be compared across releases.
+ */
+public final class BenchmarkMain {
+
+    private BenchmarkMain() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        OptionsBuilder builder = new OptionsBuilder();
+        builder.parent(commandLine);
+        builder.resultFormat(commandLine.getResultFormat().orElse(ResultFormatType.JSON));
+        builder.result(commandLine.getResult().orElse("jmh-result.json"));
+        boolean gcProfiler = commandLine.getProfilers().stream()
+                .anyMatch(p -> p.getKlass().equals("gc") || p.getKlass().equals(GCProfiler.class.getName()));
+        if (!gcProfiler) {
+            builder.addProfiler(GCProfiler.class);
+        }
+        Options options = builder.build();
+        new Runner(options).run();
+    }
+}
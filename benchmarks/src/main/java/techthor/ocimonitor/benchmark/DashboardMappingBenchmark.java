@@ -0,0 +1,78 @@
+package techthor.ocimonitor.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import techthor.ocimonitor.benchmark.fake.FakeOci;
+import techthor.ocimonitor.dto.InstanceDto;
+import techthor.ocimonitor.dto.PolicyDto;
+import techthor.ocimonitor.dto.VcnDto;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Paging and SDK model → DTO conversion of the dashboard lists (instances, VCNs, policies),
+ * without caching and without upstream latency.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DashboardMappingBenchmark {
+
+    @Param({"100", "1000"})
+    public int pageSize;
+
+    @Param({"200", "5000"})
+    public int items;
+
+    private BenchmarkBackend backend;
+
+    @Setup
+    public void setUp() {
+        FakeOci oci = new FakeOci(FakeOci.Settings.defaults()
+                .withPageSize(pageSize)
+                .withInstances(items));
+        backend = new BenchmarkBackend(oci, Duration.ZERO);
+    }
+
+    @TearDown
+    public void tearDown() {
+        backend.close();
+    }
+
+    @Benchmark
+    public List<InstanceDto> instances() {
+        return backend.dashboard.streamResourcePages()
+                .flatMap(List::stream)
+                .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public List<VcnDto> vcns() {
+        return backend.dashboard.streamVcnPages()
+                .flatMap(List::stream)
+                .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public List<PolicyDto> policies() {
+        return backend.dashboard.streamPolicyPages()
+                .flatMap(List::stream)
+                .collect(Collectors.toList());
+    }
+}
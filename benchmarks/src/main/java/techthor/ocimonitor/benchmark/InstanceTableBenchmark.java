@@ -0,0 +1,75 @@
+package techthor.ocimonitor.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import techthor.ocimonitor.benchmark.fake.FakeOci;
+import techthor.ocimonitor.inventory.InstanceTable;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The enriched instance table of {@code InstanceTableService}.
+ * <p>
+ * {@code build} joins instances, the newest metrics (warm windows) and VNIC addresses on every
+ * call, with upstream latency; its cost follows the fixed number of OCI calls, not the number
+ * of instances. {@code sortedPage} and {@code filteredPage} query the cached table, which is
+ * what a dashboard request costs between rebuilds.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InstanceTableBenchmark {
+
+    @Param({"200", "2000"})
+    public int instances;
+
+    @Param({"0", "20"})
+    public int latencyMillis;
+
+    private BenchmarkBackend uncached;
+    private InstanceTable table;
+
+    @Setup
+    public void setUp() {
+        FakeOci oci = new FakeOci(FakeOci.Settings.defaults()
+                .withInstances(instances)
+                .withPageSize(1000)
+                .withLatency(Duration.ofMillis(latencyMillis)));
+        uncached = new BenchmarkBackend(oci, Duration.ZERO);
+        table = uncached.instanceTable.getTable();
+    }
+
+    @TearDown
+    public void tearDown() {
+        uncached.close();
+    }
+
+    @Benchmark
+    public InstanceTable build() {
+        return uncached.instanceTable.getTable();
+    }
+
+    @Benchmark
+    public InstanceTable.Page sortedPage() {
+        return table.query("cpu_usage", true, null, null, 0, 100);
+    }
+
+    @Benchmark
+    public InstanceTable.Page filteredPage() {
+        return table.query("privateIp", false, "RUNNING", "10.0.3.", 0, 100);
+    }
+}
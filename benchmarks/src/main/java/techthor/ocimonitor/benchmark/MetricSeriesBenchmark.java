@@ -0,0 +1,98 @@
+package techthor.ocimonitor.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import techthor.ocimonitor.benchmark.fake.FakeOci;
+import techthor.ocimonitor.dto.MetricSeriesDto;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Metric fetch and series conversion of {@code DashboardService.getMetrics} for CPU and memory.
+ * <p>
+ * {@code steadyState} reuses warm metric windows, so each call fetches only the newest
+ * datapoints, as the poller does. {@code coldWindow} starts from empty windows and converts
+ * a full hour per series.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MetricSeriesBenchmark {
+
+    private static final List<String> METRICS = List.of("cpu", "memory");
+
+    @State(Scope.Benchmark)
+    public static class Tenancy {
+
+        @Param({"20", "500"})
+        public int instances;
+
+        @Param({"120", "0"})
+        public int maxPoints;
+
+        FakeOci oci;
+
+        @Setup
+        public void setUp() {
+            oci = new FakeOci(FakeOci.Settings.defaults().withInstances(instances).withPageSize(1000));
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class WarmBackend {
+        BenchmarkBackend backend;
+
+        @Setup
+        public void setUp(Tenancy tenancy) {
+            backend = new BenchmarkBackend(tenancy.oci, Duration.ofHours(1));
+            backend.dashboard.getMetrics(METRICS, tenancy.maxPoints);
+        }
+
+        @TearDown
+        public void tearDown() {
+            backend.close();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class ColdBackend {
+        BenchmarkBackend backend;
+
+        @Setup(Level.Invocation)
+        public void setUp(Tenancy tenancy) {
+            backend = new BenchmarkBackend(tenancy.oci, Duration.ofHours(1));
+            backend.dashboard.getResources();
+        }
+
+        @TearDown(Level.Invocation)
+        public void tearDown() {
+            backend.close();
+        }
+    }
+
+    @Benchmark
+    public Map<String, List<MetricSeriesDto>> steadyState(Tenancy tenancy, WarmBackend warm) {
+        return warm.backend.dashboard.getMetrics(METRICS, tenancy.maxPoints);
+    }
+
+    @Benchmark
+    public Map<String, List<MetricSeriesDto>> coldWindow(Tenancy tenancy, ColdBackend cold) {
+        return cold.backend.dashboard.getMetrics(METRICS, tenancy.maxPoints);
+    }
+}
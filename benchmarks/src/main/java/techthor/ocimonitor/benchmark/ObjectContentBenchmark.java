@@ -0,0 +1,61 @@
+package techthor.ocimonitor.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import techthor.ocimonitor.benchmark.fake.FakeOci;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reading object content: fully buffered ({@code getObjectContent}) against streaming
+ * through the fixed copy buffer ({@code openObject} + {@code copyTo}).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ObjectContentBenchmark {
+
+    @Param({"65536", "1048576", "16777216"})
+    public int objectSize;
+
+    private BenchmarkBackend backend;
+
+    @Setup
+    public void setUp() {
+        FakeOci oci = new FakeOci(FakeOci.Settings.defaults().withObjectSize(objectSize));
+        backend = new BenchmarkBackend(oci, Duration.ZERO);
+    }
+
+    @TearDown
+    public void tearDown() {
+        backend.close();
+    }
+
+    @Benchmark
+    public byte[] buffered() {
+        return backend.objectStorage.getObjectContent("bucket-0", "object.bin");
+    }
+
+    @Benchmark
+    public void streamed() throws IOException {
+        backend.objectStorage.copyTo(
+                backend.objectStorage.openObject("bucket-0", "object.bin", null),
+                OutputStream.nullOutputStream());
+    }
+}
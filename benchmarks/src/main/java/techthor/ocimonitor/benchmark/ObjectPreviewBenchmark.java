@@ -0,0 +1,87 @@
+package techthor.ocimonitor.benchmark;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.util.unit.DataSize;
+import techthor.ocimonitor.benchmark.fake.FakeOci;
+import techthor.ocimonitor.config.ObjectStorageNamespace;
+import techthor.ocimonitor.dto.ObjectPreview;
+import techthor.ocimonitor.service.ObjectPreviewService;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Preview of a gzip-compressed CSV object through {@code ObjectPreviewService}: a cold preview
+ * (ranged read, streaming decompression and CSV detection on every call) against a cached
+ * one. The cold cost depends on the preview size only, not on the object size, so
+ * {@code gc.alloc.rate.norm} stays near the decoded limit for any {@code objectMegabytes}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ObjectPreviewBenchmark {
+
+    @Param({"cold", "cached"})
+    public String cache;
+
+    @Param({"64"})
+    public int objectMegabytes;
+
+    private ObjectPreviewService previews;
+
+    @Setup
+    public void setUp() throws IOException {
+        FakeOci oci = new FakeOci(FakeOci.Settings.defaults(), gzippedCsv(objectMegabytes * 1024L * 1024));
+        DataSize cacheSize = cache.equals("cached") ? DataSize.ofMegabytes(32) : DataSize.ofBytes(0);
+        previews = new ObjectPreviewService(oci.objectStorage(),
+                new ObjectStorageNamespace(oci.objectStorage(), Duration.ofHours(24)),
+                DataSize.ofKilobytes(64), DataSize.ofMegabytes(1), DataSize.ofKilobytes(256), cacheSize,
+                Duration.ofHours(1), new SimpleMeterRegistry());
+    }
+
+    @Benchmark
+    public ObjectPreview preview() {
+        return previews.preview("bucket-0", "logs/events.csv.gz", null);
+    }
+
+    /**
+     * CSV rows of timestamped metrics, gzip-compressed, with the given uncompressed size.
+     */
+    private static byte[] gzippedCsv(long uncompressedBytes) throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (OutputStream gzip = new GZIPOutputStream(compressed, 64 * 1024);
+             Writer out = new OutputStreamWriter(gzip, StandardCharsets.UTF_8)) {
+            String header = "timestamp,resource,metric,value\n";
+            out.write(header);
+            long written = header.length();
+            for (long row = 0; written < uncompressedBytes; row++) {
+                String line = (1_700_000_000_000L + row * 60_000) + ",instance-" + (row % 200) + ",CpuUtilization,"
+                        + (row * 7919 % 10_000) / 100.0 + "\n";
+                out.write(line);
+                written += line.length();
+            }
+        }
+        return compressed.toByteArray();
+    }
+}
@@ -0,0 +1,100 @@
+package techthor.ocimonitor.benchmark;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.util.unit.DataSize;
+import techthor.ocimonitor.benchmark.fake.FakeOci;
+import techthor.ocimonitor.config.ObjectStorageNamespace;
+import techthor.ocimonitor.dto.UploadResult;
+import techthor.ocimonitor.service.ParallelObjectUploader;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Streaming upload of a 256 MB body in 8 MB parts through {@code ParallelObjectUploader}, with
+ * upstream latency per part. Upload time should drop with part concurrency, while
+ * {@code gc.alloc.rate.norm} stays at about {@code concurrency × 8 MB} per upload.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+public class ObjectUploadBenchmark {
+
+    private static final long OBJECT_SIZE = 256L * 1024 * 1024;
+
+    @Param({"1", "4", "8"})
+    public int concurrency;
+
+    @Param({"50"})
+    public int latencyMillis;
+
+    private ParallelObjectUploader uploader;
+
+    @Setup
+    public void setUp() {
+        FakeOci oci = new FakeOci(FakeOci.Settings.defaults().withLatency(Duration.ofMillis(latencyMillis)));
+        uploader = new ParallelObjectUploader(oci.objectStorage(),
+                new ObjectStorageNamespace(oci.objectStorage(), Duration.ofHours(24)),
+                DataSize.ofMegabytes(8), concurrency, 0, new SimpleMeterRegistry());
+    }
+
+    @TearDown
+    public void tearDown() {
+        uploader.shutdown();
+    }
+
+    @Benchmark
+    public UploadResult upload() throws IOException {
+        return uploader.upload("bucket-0", "upload.bin", "application/octet-stream", new PatternStream(OBJECT_SIZE));
+    }
+
+    /**
+     * Request body stand-in of a given length that does not hold the content in memory.
+     */
+    private static final class PatternStream extends InputStream {
+        private long remaining;
+
+        private PatternStream(long length) {
+            this.remaining = length;
+        }
+
+        @Override
+        public int read() {
+            if (remaining == 0) {
+                return -1;
+            }
+            remaining--;
+            return (int) (remaining & 0xff);
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (remaining == 0) {
+                return -1;
+            }
+            int n = (int) Math.min(len, remaining);
+            for (int i = 0; i < n; i++) {
+                b[off + i] = (byte) (remaining - i);
+            }
+            remaining -= n;
+            return n;
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package techthor.ocimonitor.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import techthor.ocimonitor.benchmark.fake.FakeOci;
+import techthor.ocimonitor.dto.InstanceDto;
+import techthor.ocimonitor.dto.MetricSeriesDto;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Response serialization of the dashboard metrics and instance list, as JSON and as CBOR
+ * ({@code Accept: application/cbor}). Run with the GC profiler to compare allocation per
+ * response.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializationBenchmark {
+
+    private static final List<String> METRICS = List.of("cpu", "memory");
+
+    @Param({"20", "500"})
+    public int instances;
+
+    private final ObjectMapper json = new ObjectMapper();
+    private final ObjectMapper cbor = new ObjectMapper(new CBORFactory());
+    private final OutputStream sink = OutputStream.nullOutputStream();
+
+    private BenchmarkBackend backend;
+    private Map<String, List<MetricSeriesDto>> metrics;
+    private List<InstanceDto> resources;
+
+    @Setup
+    public void setUp() {
+        FakeOci oci = new FakeOci(FakeOci.Settings.defaults().withInstances(instances).withPageSize(1000));
+        backend = new BenchmarkBackend(oci, Duration.ofHours(1));
+        metrics = backend.dashboard.getMetrics(METRICS, 120);
+        resources = backend.dashboard.getResources();
+    }
+
+    @TearDown
+    public void tearDown() {
+        backend.close();
+    }
+
+    @Benchmark
+    public void metricsJson() throws IOException {
+        json.writeValue(sink, metrics);
+    }
+
+    @Benchmark
+    public void metricsCbor() throws IOException {
+        cbor.writeValue(sink, metrics);
+    }
+
+    @Benchmark
+    public void resourcesJson() throws IOException {
+        json.writeValue(sink, resources);
+    }
+
+    @Benchmark
+    public void resourcesCbor() throws IOException {
+        cbor.writeValue(sink, resources);
+    }
+}
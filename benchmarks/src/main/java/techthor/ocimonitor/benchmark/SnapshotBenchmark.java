@@ -0,0 +1,64 @@
+package techthor.ocimonitor.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import techthor.ocimonitor.benchmark.fake.FakeOci;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end {@code getDashboardSnapshot}: all sections fetched concurrently and aggregated.
+ * <p>
+ * With {@code cached=false} every section goes to the fake OCI on every call, so the result
+ * shows how much of the per-call latency the concurrent sections hide. With {@code cached=true}
+ * the list sections are cache hits and only the metric deltas are fetched.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SnapshotBenchmark {
+
+    @Param({"0", "20"})
+    public int latencyMillis;
+
+    @Param({"100", "1000"})
+    public int pageSize;
+
+    @Param({"false", "true"})
+    public boolean cached;
+
+    private BenchmarkBackend backend;
+
+    @Setup
+    public void setUp() {
+        FakeOci oci = new FakeOci(FakeOci.Settings.defaults()
+                .withLatency(Duration.ofMillis(latencyMillis))
+                .withPageSize(pageSize));
+        backend = new BenchmarkBackend(oci, cached ? Duration.ofHours(1) : Duration.ZERO);
+    }
+
+    @TearDown
+    public void tearDown() {
+        backend.close();
+    }
+
+    @Benchmark
+    public Map<String, Object> snapshot() {
+        return backend.resources.getDashboardSnapshot();
+    }
+}
@@ -0,0 +1,176 @@
+package techthor.ocimonitor.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time from launching the packaged application to its first answered request, for a plain
+ * start, a start with a CDS archive, with Spring AOT, and with both. Each invocation starts a
+ * fresh JVM; no OCI account is needed, since startup does not touch OCI.
+ * <p>
+ * The jar is taken from {@code -Dstartup.jar} (default: the backend's {@code target}
+ * directory). The AOT variants need a jar built with {@code mvn -Paot package}. The jar is
+ * extracted once, and each CDS archive is recorded by a training run on first use.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 5)
+@Fork(1)
+public class StartupBenchmark {
+
+    private static final Duration START_TIMEOUT = Duration.ofSeconds(60);
+
+    @Param({"plain", "cds", "aot", "aot-cds"})
+    public String mode;
+
+    private Path workDir;
+    private Path appJar;
+    private Path archive;
+    private HttpClient http;
+    private Process process;
+
+    @Setup
+    public void setUp() throws IOException, InterruptedException {
+        Path jar = Path.of(System.getProperty("startup.jar", "../target/oci-resource-monitor-1.0-SNAPSHOT-exec.jar"))
+                .toAbsolutePath().normalize();
+        if (!Files.isRegularFile(jar)) {
+            throw new IllegalStateException("Application jar not found: " + jar + " (build it, or set -Dstartup.jar)");
+        }
+        workDir = jar.resolveSibling("startup-benchmark");
+        Path extracted = workDir.resolve("app");
+        appJar = extracted.resolve(jar.getFileName());
+        if (!Files.isRegularFile(appJar)) {
+            run(List.of(java(), "-Djarmode=tools", "-jar", jar.toString(), "extract", "--destination", extracted.toString()));
+        }
+        archive = workDir.resolve(mode + ".jsa");
+        if (mode.endsWith("cds") && !Files.isRegularFile(archive)) {
+            List<String> training = new ArrayList<>(List.of(java(), "-XX:ArchiveClassesAtExit=" + archive));
+            training.addAll(jvmOptions(false));
+            training.add("-Dspring.context.exit=onRefresh");
+            training.addAll(List.of("-jar", appJar.toString()));
+            training.addAll(appArguments(freePort()));
+            run(training);
+        }
+        http = HttpClient.newBuilder().connectTimeout(Duration.ofMillis(200)).build();
+    }
+
+    @TearDown(Level.Invocation)
+    public void stopApplication() throws InterruptedException {
+        if (process != null) {
+            process.destroy();
+            if (!process.waitFor(10, TimeUnit.SECONDS)) {
+                process.destroyForcibly().waitFor();
+            }
+            process = null;
+        }
+    }
+
+    @Benchmark
+    public int startUntilFirstResponse() throws IOException, InterruptedException {
+        int port = freePort();
+        List<String> command = new ArrayList<>(List.of(java()));
+        command.addAll(jvmOptions(true));
+        command.addAll(List.of("-jar", appJar.toString()));
+        command.addAll(appArguments(port));
+        process = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(workDir.resolve(mode + ".log").toFile())
+                .start();
+
+        HttpRequest probe = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/cache/stats"))
+                .timeout(Duration.ofSeconds(5))
+                .build();
+        long deadline = System.nanoTime() + START_TIMEOUT.toNanos();
+        while (System.nanoTime() < deadline) {
+            if (!process.isAlive()) {
+                throw new IllegalStateException("Application exited with " + process.exitValue()
+                        + ", see " + workDir.resolve(mode + ".log"));
+            }
+            try {
+                int status = http.send(probe, HttpResponse.BodyHandlers.discarding()).statusCode();
+                if (status == 200) {
+                    return status;
+                }
+            } catch (IOException e) {
+                // not listening yet
+            }
+            Thread.sleep(10);
+        }
+        throw new IllegalStateException("Application did not answer within " + START_TIMEOUT);
+    }
+
+    private List<String> jvmOptions(boolean useArchive) {
+        List<String> options = new ArrayList<>();
+        if (useArchive && mode.endsWith("cds")) {
+            options.add("-XX:SharedArchiveFile=" + archive);
+        }
+        if (mode.startsWith("aot")) {
+            options.add("-Dspring.aot.enabled=true");
+        }
+        return options;
+    }
+
+    // No OCI config and no background OCI work, so every variant measures the same boot path
+    private List<String> appArguments(int port) throws IOException {
+        return List.of(
+                "--server.port=" + port,
+                "--oci.config.path=" + workDir.resolve("no-oci-config"),
+                "--oci.compartment.ocid=ocid1.compartment.oc1..benchmark",
+                "--oci.clients.prewarm=false",
+                "--oci.scan.enabled=false",
+                "--oci.sync.enabled=false",
+                "--oci.storage.inventory.enabled=false",
+                "--oci.poller.initial-delay-ms=3600000",
+                "--oci.metrics.history.dir=" + Files.createDirectories(workDir.resolve("metrics")));
+    }
+
+    private void run(List<String> command) throws IOException, InterruptedException {
+        Process p = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .start();
+        if (!p.waitFor(START_TIMEOUT.toSeconds(), TimeUnit.SECONDS)) {
+            p.destroyForcibly();
+            throw new IllegalStateException("Timed out: " + String.join(" ", command));
+        }
+        if (p.exitValue() != 0) {
+            throw new IllegalStateException("Exit code " + p.exitValue() + ": " + String.join(" ", command));
+        }
+    }
+
+    private static String java() {
+        return Path.of(System.getProperty("java.home"), "bin", "java").toString();
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package techthor.ocimonitor.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import techthor.ocimonitor.benchmark.fake.FakeOci;
+import techthor.ocimonitor.topology.TopologyGraph;
+import techthor.ocimonitor.topology.TopologyNode;
+
+import java.time.Duration;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The network topology graph of {@code TopologyService}.
+ * <p>
+ * {@code refresh} runs the six listings with upstream latency and applies an unchanged
+ * snapshot, which is what a scheduled refresh costs when nothing changed.
+ * {@code applyUnchanged} and {@code applyFull} isolate the graph update: the same snapshot
+ * applied to the loaded graph (a diff that finds nothing) and to an empty one (every node
+ * and edge added). The query benchmarks run against the loaded graph.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TopologyBenchmark {
+
+    @Param({"200", "2000"})
+    public int instances;
+
+    @Param({"0", "20"})
+    public int latencyMillis;
+
+    private BenchmarkBackend backend;
+    private TopologyGraph graph;
+    private List<TopologyNode> snapshotNodes;
+    private List<TopologyGraph.Edge> snapshotEdges;
+    private String subnet;
+    private String firstInstance;
+    private String lastInstance;
+
+    @Setup
+    public void setUp() {
+        FakeOci oci = new FakeOci(FakeOci.Settings.defaults()
+                .withInstances(instances)
+                .withPageSize(1000)
+                .withLatency(Duration.ofMillis(latencyMillis)));
+        backend = new BenchmarkBackend(oci, Duration.ZERO);
+        graph = backend.topology.graph();
+
+        snapshotNodes = graph.nodes(null, Integer.MAX_VALUE);
+        Set<TopologyGraph.Edge> edges = new LinkedHashSet<>();
+        for (TopologyNode node : snapshotNodes) {
+            edges.addAll(graph.neighbourhood(node.id(), 1, snapshotNodes.size()).edges());
+        }
+        snapshotEdges = List.copyOf(edges);
+
+        subnet = graph.nodes(TopologyNode.Kind.SUBNET, 1).getFirst().id();
+        List<TopologyNode> instanceNodes = graph.nodes(TopologyNode.Kind.INSTANCE, Integer.MAX_VALUE);
+        firstInstance = instanceNodes.getFirst().id();
+        lastInstance = instanceNodes.getLast().id();
+    }
+
+    @TearDown
+    public void tearDown() {
+        backend.close();
+    }
+
+    @Benchmark
+    public Map<String, Object> refresh() {
+        return backend.topology.refresh();
+    }
+
+    @Benchmark
+    public TopologyGraph.Changes applyUnchanged() {
+        return graph.apply(snapshotNodes, snapshotEdges);
+    }
+
+    @Benchmark
+    public TopologyGraph.Changes applyFull() {
+        return new TopologyGraph().apply(snapshotNodes, snapshotEdges);
+    }
+
+    @Benchmark
+    public TopologyGraph.Subgraph neighbourhood() {
+        return graph.neighbourhood(subnet, 2, 500);
+    }
+
+    @Benchmark
+    public List<TopologyNode> path() {
+        return graph.path(firstInstance, lastInstance);
+    }
+
+    @Benchmark
+    public TopologyGraph.Reachability reachability() {
+        return graph.reachability(firstInstance);
+    }
+}
@@ -0,0 +1,639 @@
+package techthor.ocimonitor.benchmark.fake;
+
+import com.oracle.bmc.core.Compute;
+import com.oracle.bmc.core.VirtualNetwork;
+import com.oracle.bmc.core.model.IngressSecurityRule;
+import com.oracle.bmc.core.model.Instance;
+import com.oracle.bmc.core.model.PortRange;
+import com.oracle.bmc.core.model.PrivateIp;
+import com.oracle.bmc.core.model.PublicIp;
+import com.oracle.bmc.core.model.RouteRule;
+import com.oracle.bmc.core.model.RouteTable;
+import com.oracle.bmc.core.model.SecurityList;
+import com.oracle.bmc.core.model.Subnet;
+import com.oracle.bmc.core.model.TcpOptions;
+import com.oracle.bmc.core.model.Vcn;
+import com.oracle.bmc.core.model.VnicAttachment;
+import com.oracle.bmc.core.requests.ListInstancesRequest;
+import com.oracle.bmc.core.requests.ListPrivateIpsRequest;
+import com.oracle.bmc.core.requests.ListPublicIpsRequest;
+import com.oracle.bmc.core.requests.ListRouteTablesRequest;
+import com.oracle.bmc.core.requests.ListSecurityListsRequest;
+import com.oracle.bmc.core.requests.ListSubnetsRequest;
+import com.oracle.bmc.core.requests.ListVcnsRequest;
+import com.oracle.bmc.core.requests.ListVnicAttachmentsRequest;
+import com.oracle.bmc.core.responses.ListInstancesResponse;
+import com.oracle.bmc.core.responses.ListPrivateIpsResponse;
+import com.oracle.bmc.core.responses.ListPublicIpsResponse;
+import com.oracle.bmc.core.responses.ListRouteTablesResponse;
+import com.oracle.bmc.core.responses.ListSecurityListsResponse;
+import com.oracle.bmc.core.responses.ListSubnetsResponse;
+import com.oracle.bmc.core.responses.ListVcnsResponse;
+import com.oracle.bmc.core.responses.ListVnicAttachmentsResponse;
+import com.oracle.bmc.identity.Identity;
+import com.oracle.bmc.identity.model.Compartment;
+import com.oracle.bmc.identity.model.DomainSummary;
+import com.oracle.bmc.identity.model.Policy;
+import com.oracle.bmc.identity.requests.ListCompartmentsRequest;
+import com.oracle.bmc.identity.requests.ListDomainsRequest;
+import com.oracle.bmc.identity.requests.ListPoliciesRequest;
+import com.oracle.bmc.identity.responses.ListCompartmentsResponse;
+import com.oracle.bmc.identity.responses.ListDomainsResponse;
+import com.oracle.bmc.identity.responses.ListPoliciesResponse;
+import com.oracle.bmc.model.Range;
+import com.oracle.bmc.monitoring.Monitoring;
+import com.oracle.bmc.monitoring.model.AggregatedDatapoint;
+import com.oracle.bmc.monitoring.model.MetricData;
+import com.oracle.bmc.monitoring.model.SummarizeMetricsDataDetails;
+import com.oracle.bmc.monitoring.requests.SummarizeMetricsDataRequest;
+import com.oracle.bmc.monitoring.responses.SummarizeMetricsDataResponse;
+import com.oracle.bmc.objectstorage.ObjectStorage;
+import com.oracle.bmc.objectstorage.model.BucketSummary;
+import com.oracle.bmc.objectstorage.model.MultipartUpload;
+import com.oracle.bmc.objectstorage.model.ListObjects;
+import com.oracle.bmc.objectstorage.model.ObjectSummary;
+import com.oracle.bmc.objectstorage.requests.CommitMultipartUploadRequest;
+import com.oracle.bmc.objectstorage.requests.GetObjectRequest;
+import com.oracle.bmc.objectstorage.requests.HeadObjectRequest;
+import com.oracle.bmc.objectstorage.requests.ListBucketsRequest;
+import com.oracle.bmc.objectstorage.requests.ListObjectsRequest;
+import com.oracle.bmc.objectstorage.requests.PutObjectRequest;
+import com.oracle.bmc.objectstorage.requests.UploadPartRequest;
+import com.oracle.bmc.objectstorage.responses.AbortMultipartUploadResponse;
+import com.oracle.bmc.objectstorage.responses.CommitMultipartUploadResponse;
+import com.oracle.bmc.objectstorage.responses.CreateMultipartUploadResponse;
+import com.oracle.bmc.objectstorage.responses.GetNamespaceResponse;
+import com.oracle.bmc.objectstorage.responses.GetObjectResponse;
+import com.oracle.bmc.objectstorage.responses.HeadObjectResponse;
+import com.oracle.bmc.objectstorage.responses.ListBucketsResponse;
+import com.oracle.bmc.objectstorage.responses.ListObjectsResponse;
+import com.oracle.bmc.objectstorage.responses.PutObjectResponse;
+import com.oracle.bmc.objectstorage.responses.UploadPartResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * In-process stand-in for the OCI SDK clients used by the backend.
+ * <p>
+ * Each client is a dynamic proxy of the SDK interface that serves a fixed, generated
+ * tenancy: instances (each with one VNIC, a primary private IP and, for some, a public IP),
+ * VCNs (the first with the instance subnets, their route tables and security lists), policies,
+ * compartments, domains, buckets with objects, and one metric series per instance.
+ * Uploads (single and multipart) read and discard the body; object reads honour byte ranges
+ * and {@code If-None-Match}. List operations are paged with {@code opc-next-page} at the
+ * configured page size, and {@code getPaginators()} is bound to the proxy, so the
+ * SDK paginators follow the pages exactly as against OCI. Every call waits for the
+ * configured latency before answering. Operations that are not modelled throw
+ * {@link UnsupportedOperationException}.
+ */
+public final class FakeOci {
+
+    private static final String NAMESPACE = "benchns";
+    private static final long METRIC_INTERVAL_MILLIS = TimeUnit.MINUTES.toMillis(1);
+    private static final int AVAILABILITY_DOMAINS = 3;
+    private static final int SUBNETS = 8;
+
+    private final Settings settings;
+    private final List<Instance> instances;
+    private final List<VnicAttachment> vnicAttachments;
+    private final Map<String, List<PrivateIp>> privateIpsBySubnet = new HashMap<>();
+    private final List<PublicIp> reservedIps = new ArrayList<>();
+    private final Map<String, List<PublicIp>> ephemeralIpsByDomain = new HashMap<>();
+    private final List<Vcn> vcns;
+    private final List<Subnet> subnets;
+    private final List<RouteTable> routeTables;
+    private final List<SecurityList> securityLists;
+    private final List<Policy> policies;
+    private final List<Compartment> compartments;
+    private final List<DomainSummary> domains;
+    private final List<BucketSummary> buckets;
+    private final List<ObjectSummary> objects;
+    private final byte[] objectContent;
+    private final LongAdder calls = new LongAdder();
+
+    /**
+     * Size and behaviour of the fake tenancy.
+     *
+     * @param latency          time every call waits before answering
+     * @param pageSize         items per list page
+     * @param instances        compute instances, each with one CPU and one memory series
+     * @param vcns             VCNs
+     * @param policies         IAM policies
+     * @param compartments     compartments
+     * @param domains          identity domains
+     * @param buckets          buckets
+     * @param objectsPerBucket objects listed in every bucket
+     * @param objectSize       bytes returned by getObject
+     */
+    public record Settings(Duration latency, int pageSize, int instances, int vcns, int policies,
+                           int compartments, int domains, int buckets, int objectsPerBucket, int objectSize) {
+
+        /**
+         * A small tenancy without latency; adjust with the {@code with*} methods.
+         */
+        public static Settings defaults() {
+            return new Settings(Duration.ZERO, 100, 200, 20, 100, 50, 2, 20, 1_000, 1024 * 1024);
+        }
+
+        public Settings withLatency(Duration latency) {
+            return new Settings(latency, pageSize, instances, vcns, policies, compartments, domains, buckets, objectsPerBucket, objectSize);
+        }
+
+        public Settings withPageSize(int pageSize) {
+            return new Settings(latency, pageSize, instances, vcns, policies, compartments, domains, buckets, objectsPerBucket, objectSize);
+        }
+
+        public Settings withInstances(int instances) {
+            return new Settings(latency, pageSize, instances, vcns, policies, compartments, domains, buckets, objectsPerBucket, objectSize);
+        }
+
+        public Settings withObjectSize(int objectSize) {
+            return new Settings(latency, pageSize, instances, vcns, policies, compartments, domains, buckets, objectsPerBucket, objectSize);
+        }
+    }
+
+    public FakeOci(Settings settings) {
+        this(settings, null);
+    }
+
+    /**
+     * @param objectContent bytes returned by getObject for every object, or null for
+     *                      {@code settings.objectSize()} random bytes
+     */
+    public FakeOci(Settings settings, byte[] objectContent) {
+        this.settings = settings;
+        Date created = new Date(0);
+        this.instances = generate(settings.instances(), i -> Instance.builder()
+                .id(ocid("instance", i))
+                .displayName("instance-" + i)
+                .compartmentId(ocid("compartment", i % Math.max(1, settings.compartments())))
+                .shape("VM.Standard.E4.Flex")
+                .availabilityDomain(availabilityDomain(i))
+                .timeCreated(created)
+                .lifecycleState(i % 10 == 0 ? Instance.LifecycleState.Stopped : Instance.LifecycleState.Running)
+                .build());
+        this.vnicAttachments = generate(settings.instances(), i -> VnicAttachment.builder()
+                .id(ocid("vnicattachment", i))
+                .instanceId(ocid("instance", i))
+                .vnicId(ocid("vnic", i))
+                .subnetId(ocid("subnet", i % SUBNETS))
+                .availabilityDomain(availabilityDomain(i))
+                .nicIndex(0)
+                .lifecycleState(VnicAttachment.LifecycleState.Attached)
+                .build());
+        for (int i = 0; i < settings.instances(); i++) {
+            privateIpsBySubnet.computeIfAbsent(ocid("subnet", i % SUBNETS), k -> new ArrayList<>()).add(PrivateIp.builder()
+                    .id(ocid("privateip", i))
+                    .vnicId(ocid("vnic", i))
+                    .subnetId(ocid("subnet", i % SUBNETS))
+                    .ipAddress("10.0." + (i % SUBNETS) + "." + (i / SUBNETS % 250 + 2))
+                    .isPrimary(true)
+                    .build());
+        }
+        // Every third instance has an ephemeral public IP, every seventh other one a reserved one
+        for (int i = 0; i < settings.instances(); i++) {
+            if (i % 3 == 0 || i % 7 == 0) {
+                boolean ephemeral = i % 3 == 0;
+                PublicIp ip = PublicIp.builder()
+                        .id(ocid("publicip", i))
+                        .ipAddress("203.0." + (i / 250 % 256) + "." + (i % 250 + 1))
+                        .assignedEntityId(ocid("privateip", i))
+                        .assignedEntityType(PublicIp.AssignedEntityType.PrivateIp)
+                        .lifetime(ephemeral ? PublicIp.Lifetime.Ephemeral : PublicIp.Lifetime.Reserved)
+                        .build();
+                if (ephemeral) {
+                    ephemeralIpsByDomain.computeIfAbsent(availabilityDomain(i), k -> new ArrayList<>()).add(ip);
+                } else {
+                    reservedIps.add(ip);
+                }
+            }
+        }
+        this.vcns = generate(settings.vcns(), i -> Vcn.builder()
+                .id(ocid("vcn", i))
+                .displayName("vcn-" + i)
+                .cidrBlocks(List.of("10." + (i % 256) + ".0.0/16"))
+                .lifecycleState(Vcn.LifecycleState.Available)
+                .build());
+        // The instance subnets live in the first VCN; even ones route to an internet gateway and
+        // admit SSH and HTTPS from anywhere, odd ones route to a NAT gateway and admit the VCN only
+        String vcnCidr = "10.0.0.0/16";
+        this.subnets = generate(SUBNETS, i -> Subnet.builder()
+                .id(ocid("subnet", i))
+                .vcnId(ocid("vcn", 0))
+                .displayName((i % 2 == 0 ? "public-" : "private-") + i)
+                .cidrBlock("10.0." + i + ".0/24")
+                .routeTableId(ocid("routetable", i % 2))
+                .securityListIds(List.of(ocid("securitylist", i % 2)))
+                .prohibitPublicIpOnVnic(false)
+                .lifecycleState(Subnet.LifecycleState.Available)
+                .build());
+        this.routeTables = List.of(
+                RouteTable.builder()
+                        .id(ocid("routetable", 0))
+                        .vcnId(ocid("vcn", 0))
+                        .displayName("public-routes")
+                        .routeRules(List.of(RouteRule.builder()
+                                .destination("0.0.0.0/0").networkEntityId(ocid("internetgateway", 0)).build()))
+                        .lifecycleState(RouteTable.LifecycleState.Available)
+                        .build(),
+                RouteTable.builder()
+                        .id(ocid("routetable", 1))
+                        .vcnId(ocid("vcn", 0))
+                        .displayName("private-routes")
+                        .routeRules(List.of(RouteRule.builder()
+                                .destination("0.0.0.0/0").networkEntityId(ocid("natgateway", 0)).build()))
+                        .lifecycleState(RouteTable.LifecycleState.Available)
+                        .build());
+        IngressSecurityRule fromVcn = IngressSecurityRule.builder().source(vcnCidr).protocol("all").build();
+        this.securityLists = List.of(
+                SecurityList.builder()
+                        .id(ocid("securitylist", 0))
+                        .vcnId(ocid("vcn", 0))
+                        .displayName("public-ingress")
+                        .ingressSecurityRules(List.of(tcpFromAnywhere(22), tcpFromAnywhere(443), fromVcn))
+                        .lifecycleState(SecurityList.LifecycleState.Available)
+                        .build(),
+                SecurityList.builder()
+                        .id(ocid("securitylist", 1))
+                        .vcnId(ocid("vcn", 0))
+                        .displayName("private-ingress")
+                        .ingressSecurityRules(List.of(fromVcn))
+                        .lifecycleState(SecurityList.LifecycleState.Available)
+                        .build());
+        this.policies = generate(settings.policies(), i -> Policy.builder()
+                .id(ocid("policy", i))
+                .name("policy-" + i)
+                .statements(List.of("Allow group Readers-" + i + " to read all-resources in tenancy"))
+                .build());
+        this.compartments = generate(settings.compartments(), i -> Compartment.builder()
+                .id(ocid("compartment", i))
+                .name("compartment-" + i)
+                .lifecycleState(Compartment.LifecycleState.Active)
+                .build());
+        this.domains = generate(settings.domains(), i -> DomainSummary.builder()
+                .id(ocid("domain", i))
+                .displayName("domain-" + i)
+                .build());
+        this.buckets = generate(settings.buckets(), i -> BucketSummary.builder()
+                .namespace(NAMESPACE)
+                .name("bucket-" + i)
+                .compartmentId(ocid("compartment", 0))
+                .timeCreated(created)
+                .build());
+        this.objects = generate(settings.objectsPerBucket(), i -> ObjectSummary.builder()
+                .name(String.format(Locale.ROOT, "logs/%04d/part-%06d.gz", i / 100, i))
+                .size(1024L + i)
+                .etag("etag-" + i)
+                .timeCreated(created)
+                .build());
+        if (objectContent != null) {
+            this.objectContent = objectContent;
+        } else {
+            this.objectContent = new byte[settings.objectSize()];
+            new SplittableRandom(42).nextBytes(this.objectContent);
+        }
+    }
+
+    /**
+     * @return OCID of the root compartment the fake tenancy lives in
+     */
+    public static String tenancyOcid() {
+        return ocid("tenancy", 0);
+    }
+
+    /**
+     * @return number of calls answered so far, across all clients
+     */
+    public long calls() {
+        return calls.sum();
+    }
+
+    public Compute compute() {
+        return client(Compute.class, Map.of(
+                "listInstances", request -> {
+                    ListInstancesRequest r = (ListInstancesRequest) request;
+                    return page(instances, r.getPage(), (items, next) -> ListInstancesResponse.builder()
+                            .items(items).opcNextPage(next).build());
+                },
+                "listVnicAttachments", request -> {
+                    ListVnicAttachmentsRequest r = (ListVnicAttachmentsRequest) request;
+                    return page(vnicAttachments, r.getPage(), (items, next) -> ListVnicAttachmentsResponse.builder()
+                            .items(items).opcNextPage(next).build());
+                }));
+    }
+
+    public VirtualNetwork virtualNetwork() {
+        return client(VirtualNetwork.class, Map.of(
+                "listVcns", request -> {
+                    ListVcnsRequest r = (ListVcnsRequest) request;
+                    return page(vcns, r.getPage(), (items, next) -> ListVcnsResponse.builder()
+                            .items(items).opcNextPage(next).build());
+                },
+                "listPrivateIps", request -> {
+                    ListPrivateIpsRequest r = (ListPrivateIpsRequest) request;
+                    return page(privateIpsBySubnet.getOrDefault(r.getSubnetId(), List.of()), r.getPage(),
+                            (items, next) -> ListPrivateIpsResponse.builder().items(items).opcNextPage(next).build());
+                },
+                "listPublicIps", request -> listPublicIps((ListPublicIpsRequest) request),
+                "listSubnets", request -> {
+                    ListSubnetsRequest r = (ListSubnetsRequest) request;
+                    return page(subnets, r.getPage(), (items, next) -> ListSubnetsResponse.builder()
+                            .items(items).opcNextPage(next).build());
+                },
+                "listRouteTables", request -> {
+                    ListRouteTablesRequest r = (ListRouteTablesRequest) request;
+                    return page(routeTables, r.getPage(), (items, next) -> ListRouteTablesResponse.builder()
+                            .items(items).opcNextPage(next).build());
+                },
+                "listSecurityLists", request -> {
+                    ListSecurityListsRequest r = (ListSecurityListsRequest) request;
+                    return page(securityLists, r.getPage(), (items, next) -> ListSecurityListsResponse.builder()
+                            .items(items).opcNextPage(next).build());
+                }));
+    }
+
+    public Identity identity() {
+        return client(Identity.class, Map.of(
+                "listPolicies", request -> {
+                    ListPoliciesRequest r = (ListPoliciesRequest) request;
+                    return page(policies, r.getPage(), (items, next) -> ListPoliciesResponse.builder()
+                            .items(items).opcNextPage(next).build());
+                },
+                "listCompartments", request -> {
+                    ListCompartmentsRequest r = (ListCompartmentsRequest) request;
+                    return page(compartments, r.getPage(), (items, next) -> ListCompartmentsResponse.builder()
+                            .items(items).opcNextPage(next).build());
+                },
+                "listDomains", request -> {
+                    ListDomainsRequest r = (ListDomainsRequest) request;
+                    return page(domains, r.getPage(), (items, next) -> ListDomainsResponse.builder()
+                            .items(items).opcNextPage(next).build());
+                }));
+    }
+
+    public Monitoring monitoring() {
+        return client(Monitoring.class, Map.of(
+                "summarizeMetricsData", request -> summarizeMetricsData((SummarizeMetricsDataRequest) request)));
+    }
+
+    public ObjectStorage objectStorage() {
+        return client(ObjectStorage.class, Map.of(
+                "getNamespace", request -> GetNamespaceResponse.builder().value(NAMESPACE).build(),
+                "listBuckets", request -> {
+                    ListBucketsRequest r = (ListBucketsRequest) request;
+                    return page(buckets, r.getPage(), (items, next) -> ListBucketsResponse.builder()
+                            .items(items).opcNextPage(next).build());
+                },
+                "listObjects", request -> listObjects((ListObjectsRequest) request),
+                "getObject", request -> getObject((GetObjectRequest) request),
+                "headObject", request -> {
+                    HeadObjectRequest r = (HeadObjectRequest) request;
+                    String etag = etag(r.getObjectName());
+                    return etag.equals(r.getIfNoneMatch())
+                            ? HeadObjectResponse.builder().eTag(etag).isNotModified(true).build()
+                            : HeadObjectResponse.builder().eTag(etag).contentLength((long) objectContent.length)
+                                    .contentType("application/octet-stream").build();
+                },
+                "putObject", request -> PutObjectResponse.builder()
+                        .eTag("etag-" + drain(((PutObjectRequest) request).getPutObjectBody()))
+                        .build(),
+                "createMultipartUpload", request -> CreateMultipartUploadResponse.builder()
+                        .multipartUpload(MultipartUpload.builder().uploadId("upload-" + calls.sum()).build())
+                        .build(),
+                "uploadPart", request -> UploadPartResponse.builder()
+                        .eTag("etag-" + ((UploadPartRequest) request).getUploadPartNum() + "-"
+                                + drain(((UploadPartRequest) request).getUploadPartBody()))
+                        .build(),
+                "commitMultipartUpload", request -> CommitMultipartUploadResponse.builder()
+                        .eTag("etag-" + ((CommitMultipartUploadRequest) request).getUploadId())
+                        .build(),
+                "abortMultipartUpload", request -> AbortMultipartUploadResponse.builder().build()));
+    }
+
+    /**
+     * Public IPs of the requested lifetime: reserved ones are region-scoped, ephemeral ones
+     * belong to the availability domain of their instance.
+     */
+    private ListPublicIpsResponse listPublicIps(ListPublicIpsRequest request) {
+        List<PublicIp> matching;
+        if (request.getScope() == ListPublicIpsRequest.Scope.Region) {
+            matching = request.getLifetime() == ListPublicIpsRequest.Lifetime.Ephemeral ? List.of() : reservedIps;
+        } else {
+            matching = request.getLifetime() == ListPublicIpsRequest.Lifetime.Reserved ? List.of()
+                    : ephemeralIpsByDomain.getOrDefault(request.getAvailabilityDomain(), List.of());
+        }
+        return page(matching, request.getPage(), (items, next) -> ListPublicIpsResponse.builder()
+                .items(items).opcNextPage(next).build());
+    }
+
+    /**
+     * One series per instance with a datapoint on every full minute inside the requested range.
+     */
+    private SummarizeMetricsDataResponse summarizeMetricsData(SummarizeMetricsDataRequest request) {
+        SummarizeMetricsDataDetails details = request.getSummarizeMetricsDataDetails();
+        long start = details.getStartTime().getTime();
+        long end = details.getEndTime().getTime();
+        long first = (start + METRIC_INTERVAL_MILLIS - 1) / METRIC_INTERVAL_MILLIS * METRIC_INTERVAL_MILLIS;
+        SplittableRandom random = new SplittableRandom(details.getQuery().hashCode());
+
+        List<MetricData> items = new ArrayList<>(instances.size());
+        for (Instance instance : instances) {
+            List<AggregatedDatapoint> datapoints = new ArrayList<>();
+            for (long t = first; t <= end; t += METRIC_INTERVAL_MILLIS) {
+                datapoints.add(AggregatedDatapoint.builder()
+                        .timestamp(new Date(t))
+                        .value(random.nextDouble(100))
+                        .build());
+            }
+            Map<String, String> dimensions = new HashMap<>();
+            dimensions.put("resourceId", instance.getId());
+            items.add(MetricData.builder()
+                    .namespace(details.getNamespace())
+                    .dimensions(dimensions)
+                    .aggregatedDatapoints(datapoints)
+                    .build());
+        }
+        return SummarizeMetricsDataResponse.builder().items(items).build();
+    }
+
+    /**
+     * Object listing paged by {@code startAfter}/{@code start} names, as Object Storage does.
+     */
+    private ListObjectsResponse listObjects(ListObjectsRequest request) {
+        int from = 0;
+        String after = request.getStartAfter() != null ? request.getStartAfter() : request.getStart();
+        if (after != null) {
+            int position = Collections.binarySearch(objects, ObjectSummary.builder().name(after).build(),
+                    (a, b) -> a.getName().compareTo(b.getName()));
+            from = position >= 0 ? position + (request.getStartAfter() != null ? 1 : 0) : -position - 1;
+        }
+        int limit = request.getLimit() != null ? Math.min(request.getLimit(), settings.pageSize()) : settings.pageSize();
+        int to = Math.min(objects.size(), from + limit);
+        return ListObjectsResponse.builder()
+                .listObjects(ListObjects.builder()
+                        .objects(objects.subList(from, to))
+                        .nextStartWith(to < objects.size() ? objects.get(to).getName() : null)
+                        .build())
+                .build();
+    }
+
+    /**
+     * Whole object or a byte range of it (including suffix ranges); answers If-None-Match
+     * with the ETag of the object name as not modified.
+     */
+    private GetObjectResponse getObject(GetObjectRequest request) {
+        String etag = etag(request.getObjectName());
+        if (etag.equals(request.getIfNoneMatch())) {
+            return GetObjectResponse.builder().eTag(etag).isNotModified(true).build();
+        }
+        Range range = request.getRange();
+        int from = 0;
+        int to = objectContent.length;
+        if (range != null) {
+            if (range.getStartByte() == null) {
+                from = (int) Math.max(0, objectContent.length - range.getEndByte());
+            } else {
+                from = (int) Math.min(objectContent.length, range.getStartByte());
+                if (range.getEndByte() != null) {
+                    to = (int) Math.min(objectContent.length, range.getEndByte() + 1);
+                }
+            }
+        }
+        return GetObjectResponse.builder()
+                .inputStream(new ByteArrayInputStream(objectContent, from, to - from))
+                .contentLength((long) (to - from))
+                .contentRange(range == null ? null
+                        : Range.parse("bytes " + from + "-" + (to - 1) + "/" + objectContent.length))
+                .contentType("application/octet-stream")
+                .eTag(etag)
+                .build();
+    }
+
+    private static String etag(String objectName) {
+        return "etag-" + objectName.hashCode();
+    }
+
+    /**
+     * Reads an upload body to the end.
+     *
+     * @return number of bytes read
+     */
+    private static long drain(InputStream body) {
+        try (body) {
+            return body.transferTo(OutputStream.nullOutputStream());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private <T, R> R page(List<T> all, String pageToken, BiFunction<List<T>, String, R> response) {
+        int from = pageToken == null ? 0 : Integer.parseInt(pageToken);
+        int to = Math.min(all.size(), from + settings.pageSize());
+        return response.apply(all.subList(from, to), to < all.size() ? String.valueOf(to) : null);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T client(Class<T> serviceInterface, Map<String, Function<Object, Object>> operations) {
+        String endpoint = "https://" + serviceInterface.getSimpleName().toLowerCase(Locale.ROOT) + ".fake-region-1.oraclecloud.com";
+        return (T) Proxy.newProxyInstance(serviceInterface.getClassLoader(), new Class<?>[]{serviceInterface},
+                new FakeClient(serviceInterface, endpoint, operations));
+    }
+
+    /**
+     * Proxy handler dispatching SDK operations by method name.
+     */
+    private final class FakeClient implements InvocationHandler {
+        private final Class<?> serviceInterface;
+        private final String endpoint;
+        private final Map<String, Function<Object, Object>> operations;
+        private volatile Object paginators;
+
+        private FakeClient(Class<?> serviceInterface, String endpoint, Map<String, Function<Object, Object>> operations) {
+            this.serviceInterface = serviceInterface;
+            this.endpoint = endpoint;
+            this.operations = operations;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Exception {
+            String name = method.getName();
+            if (method.getDeclaringClass() == Object.class) {
+                return switch (name) {
+                    case "equals" -> proxy == args[0];
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    default -> "Fake" + serviceInterface.getSimpleName();
+                };
+            }
+            Function<Object, Object> operation = operations.get(name);
+            if (operation != null && args != null && args.length == 1) {
+                calls.increment();
+                long latencyNanos = settings.latency().toNanos();
+                if (latencyNanos > 0) {
+                    LockSupport.parkNanos(latencyNanos);
+                }
+                return operation.apply(args[0]);
+            }
+            return switch (name) {
+                case "getPaginators" -> paginators(proxy, method);
+                case "getEndpoint" -> endpoint;
+                case "close", "setRegion", "setEndpoint", "refreshClient" -> null;
+                default -> throw new UnsupportedOperationException(
+                        serviceInterface.getSimpleName() + "." + name + " is not modelled by FakeOci");
+            };
+        }
+
+        private Object paginators(Object proxy, Method method) throws ReflectiveOperationException {
+            if (paginators == null) {
+                paginators = method.getReturnType().getConstructor(serviceInterface).newInstance(proxy);
+            }
+            return paginators;
+        }
+    }
+
+    private static IngressSecurityRule tcpFromAnywhere(int port) {
+        return IngressSecurityRule.builder()
+                .source("0.0.0.0/0")
+                .protocol("6")
+                .tcpOptions(TcpOptions.builder()
+                        .destinationPortRange(PortRange.builder().min(port).max(port).build())
+                        .build())
+                .build();
+    }
+
+        private static String availabilityDomain(int instance) {
+        return "Fake:FAKE-REGION-1-AD-" + (instance % AVAILABILITY_DOMAINS + 1);
+    }
+
+    private static String ocid(String type, int index) {
+        return "ocid1." + type + ".oc1.fake-region-1." + Integer.toHexString(0x100000 + index);
+    }
+
+    private static <T> List<T> generate(int count, Function<Integer, T> factory) {
+        List<T> items = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            items.add(factory.apply(i));
+        }
+        return List.copyOf(items);
+    }
+}
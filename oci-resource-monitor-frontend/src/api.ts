@@ -18,6 +18,40 @@ export interface ResourceView {
   status: string;
 }
 
+/** Instance joined on the server with its latest metrics and primary VNIC addresses */
+export interface InstanceRow {
+  id: string;
+  name: string;
+  status: string;
+  shape: string | null;
+  availabilityDomain: string | null;
+  cpu_usage: number | null; // null if no datapoint is stored yet
+  memory_usage: number | null;
+  ts: string | null; // ISO-8601 time of the newest datapoint
+  privateIp: string | null;
+  publicIp: string | null;
+  subnetId: string | null;
+}
+
+/** One sorted, filtered page of the instance table */
+export interface InstanceTablePage {
+  total: number;
+  items: InstanceRow[];
+  statuses: Record<string, number>; // counts of all rows matching `q`
+  sort: string;
+  descending: boolean;
+  builtAt: number; // Unix ms
+}
+
+export interface InstanceTableQuery {
+  sort?: string;
+  desc?: boolean;
+  status?: string;
+  q?: string;
+  offset?: number;
+  limit?: number;
+}
+
 /** Single data point in a time series */
 export interface MetricPoint {
   t: number; // Unix ms
@@ -31,6 +65,21 @@ export interface MetricSeries {
   resourceId?: string; // optional, if provided by backend
 }
 
+/** Compact series as sent by the backend: parallel timestamp/value arrays */
+export interface ColumnarSeries {
+  label: string;
+  resourceId: string;
+  t: number[]; // Unix ms
+  v: number[];
+}
+
+/** Expands a columnar series into the point list used by the charts */
+export const toMetricSeries = (c: ColumnarSeries): MetricSeries => ({
+  label: c.label,
+  resourceId: c.resourceId,
+  points: c.t.map((t, i) => ({ t, v: c.v[i] })),
+});
+
 // ---- Fetch functions ----
 async function fetchJson<T>(path: string): Promise<T> {
   const res = await fetch(`${API_BASE}${path}`);
@@ -39,11 +88,156 @@ async function fetchJson<T>(path: string): Promise<T> {
 }
 
 export const fetchResources = () => fetchJson<ResourceView[]>('/resources');
-export const fetchCpuMetrics = () => fetchJson<MetricSeries[]>('/metrics/cpu');
-export const fetchMemoryMetrics = () => fetchJson<MetricSeries[]>('/metrics/memory');
+
+/** Instances with latest CPU/memory and IPs, sorted, filtered and paged by the backend */
+export const fetchInstanceTable = (query: InstanceTableQuery = {}) => {
+  const params = new URLSearchParams();
+  Object.entries(query).forEach(([key, value]) => {
+    if (value !== undefined && value !== '') params.set(key, String(value));
+  });
+  return fetchJson<InstanceTablePage>(`/resources/table?${params}`);
+};
+export const fetchCpuMetrics = () =>
+  fetchJson<ColumnarSeries[]>('/metrics/cpu').then((s) => s.map(toMetricSeries));
+export const fetchMemoryMetrics = () =>
+  fetchJson<ColumnarSeries[]>('/metrics/memory').then((s) => s.map(toMetricSeries));
+
+/** Fetches several metrics in one request, downsampled to at most `points` per series */
+export const fetchMetrics = async (names: string[], points = 120) => {
+  const data = await fetchJson<Record<string, ColumnarSeries[]>>(
+    `/metrics?names=${names.join(',')}&points=${points}`
+  );
+  const result: Record<string, MetricSeries[]> = {};
+  Object.entries(data).forEach(([name, series]) => (result[name] = series.map(toMetricSeries)));
+  return result;
+};
+/** Bounded preview of the start of an object, as returned by the backend */
+export interface ObjectPreview {
+  bucket: string;
+  objectName: string;
+  etag: string;
+  contentType: string | null;
+  objectSize: number; // -1 if unknown
+  compression: 'gzip' | 'zstd' | 'none';
+  format: 'text' | 'json' | 'ndjson' | 'csv' | 'parquet' | 'binary' | 'empty';
+  bytesFetched: number;
+  decodedBytes: number;
+  truncated: boolean;
+  text: string | null; // hex dump for binary content
+  rows: string[][] | null; // CSV rows, header first
+  parquet: { footerBytes: number; rowCount: number; columns: string[] } | null;
+}
+
+export const fetchObjectPreview = (bucket: string, name: string, kb?: number) =>
+  fetchJson<ObjectPreview>(
+    `/storage/buckets/${encodeURIComponent(bucket)}/objects/preview?name=${encodeURIComponent(name)}` +
+      (kb ? `&kb=${kb}` : '')
+  );
+
 export const fetchVcns = () => fetchJson<any[]>('/networking/vcns');
 export const fetchPolicies = () => fetchJson<any[]>('/identity/policies');
 
+// ---- Network topology graph ----
+export type TopologyKind =
+  | 'VCN' | 'SUBNET' | 'ROUTE_TABLE' | 'SECURITY_LIST' | 'GATEWAY' | 'VNIC' | 'INSTANCE';
+
+export interface TopologyRule {
+  cidr: string;
+  protocol: string | null; // ingress rules only
+  ports: string | null; // ingress rules only
+  target: string | null; // route rules only
+}
+
+export interface TopologyNode {
+  id: string;
+  kind: TopologyKind;
+  name: string;
+  state: string | null;
+  cidrs: string[];
+  publicIps: boolean;
+  rules: TopologyRule[];
+}
+
+export interface TopologyEdge {
+  from: string;
+  to: string;
+}
+
+export interface TopologySubgraph {
+  nodes: TopologyNode[];
+  edges: TopologyEdge[];
+  truncated: boolean;
+}
+
+export interface TopologyReachability {
+  instance: TopologyNode;
+  subnets: TopologyNode[];
+  sources: {
+    kind: 'internet' | 'subnet' | 'cidr';
+    id: string | null;
+    name: string | null;
+    cidr: string;
+    protocol: string;
+    ports: string;
+    securityListId: string;
+  }[];
+}
+
+export const fetchTopologyNodes = (kind?: TopologyKind) =>
+  fetchJson<TopologyNode[]>(`/topology/nodes${kind ? `?kind=${kind}` : ''}`);
+export const fetchTopologyNeighbours = (id: string, depth = 1) =>
+  fetchJson<TopologySubgraph>(`/topology/nodes/${encodeURIComponent(id)}/neighbours?depth=${depth}`);
+export const fetchTopologyPath = (from: string, to: string) =>
+  fetchJson<TopologyNode[]>(`/topology/path?from=${encodeURIComponent(from)}&to=${encodeURIComponent(to)}`);
+export const fetchReachability = (instanceId: string) =>
+  fetchJson<TopologyReachability>(`/topology/reachability?instanceId=${encodeURIComponent(instanceId)}`);
+
+// ---- Live updates (Server-Sent Events) ----
+
+/** Full state sent once when subscribing */
+export interface InventorySnapshot {
+  computeInstances?: ResourceView[];
+  vcns?: any[];
+  policies?: any[];
+  cpuMetrics?: ColumnarSeries[];
+  memoryMetrics?: ColumnarSeries[];
+}
+
+/** Changes of a list section since the previous backend poll */
+export interface SectionDiff<T = any> {
+  section: 'computeInstances' | 'vcns' | 'policies';
+  added: T[];
+  changed: T[];
+  removed: string[];
+}
+
+/** New datapoints per resource for a metric section */
+export interface MetricsDelta {
+  section: 'cpuMetrics' | 'memoryMetrics';
+  series: Record<string, { t: number[]; v: number[] }>;
+}
+
+export interface InventoryHandlers {
+  onSnapshot: (snapshot: InventorySnapshot) => void;
+  onDiff: (diff: SectionDiff) => void;
+  onMetrics: (delta: MetricsDelta) => void;
+}
+
+/** Subscribes to the backend poller; returns an unsubscribe function */
+export function subscribeInventory(handlers: InventoryHandlers): () => void {
+  const source = new EventSource(`${API_BASE}/events`);
+  source.addEventListener('snapshot', (e) =>
+    handlers.onSnapshot(JSON.parse((e as MessageEvent).data))
+  );
+  source.addEventListener('diff', (e) =>
+    handlers.onDiff(JSON.parse((e as MessageEvent).data))
+  );
+  source.addEventListener('metrics', (e) =>
+    handlers.onMetrics(JSON.parse((e as MessageEvent).data))
+  );
+  return () => source.close();
+}
+
 // Placeholders for not-yet-implemented endpoints
 export async function fetchCompartments(): Promise<any[]> {
   console.warn('[Stub] /api/compartments not implemented in backend');
@@ -1,14 +1,17 @@
 import { useEffect, useState } from "react";
 import {
   fetchResources,
-  fetchCpuMetrics,
-  fetchMemoryMetrics,
+  fetchInstanceTable,
+  fetchMetrics,
   fetchVcns,
   fetchPolicies,
   fetchCompartments,
   fetchDomains,
+  subscribeInventory,
+  toMetricSeries,
 } from "../../api";
-import type { ResourceView, MetricSeries, Resource } from "../../api";
+import type { ResourceView, MetricSeries, MetricPoint, Resource, InstanceRow } from "../../api";
+import { applyDiff, latestPoints, mergeMetricPoints } from "../../utils/liveUpdates";
 
 import AppLayout from "../../components/layout/AppLayout";
 import ResourceTable from "./components/ResourceTable";
@@ -20,6 +23,7 @@ export default function Dashboard() {
   const [resources, setResources] = useState<ResourceView[]>([]);
   const [cpuMetrics, setCpuMetrics] = useState<MetricSeries[]>([]);
   const [memoryMetrics, setMemoryMetrics] = useState<MetricSeries[]>([]);
+  const [instanceRows, setInstanceRows] = useState<Map<string, InstanceRow>>(new Map());
   const [vcns, setVcns] = useState<any[]>([]);
   const [policies, setPolicies] = useState<any[]>([]);
   const [compartments, setCompartments] = useState<any[]>([]);
@@ -73,12 +77,14 @@ export default function Dashboard() {
   // ---------- LOAD METRICS ONLY ----------
   const loadMetrics = async () => {
     try {
-      const [cpuData, memoryData] = await Promise.all([
-        fetchCpuMetrics(),
-        fetchMemoryMetrics(),
+      // One batched request for both charts, and the per-instance latest values joined on the server
+      const [metrics, table] = await Promise.all([
+        fetchMetrics(["cpu", "memory"]),
+        fetchInstanceTable({ limit: 1000 }),
       ]);
-      setCpuMetrics(cpuData);
-      setMemoryMetrics(memoryData);
+      setCpuMetrics(metrics.cpu ?? []);
+      setMemoryMetrics(metrics.memory ?? []);
+      setInstanceRows(new Map(table.items.map((row) => [row.id, row])));
     } catch (err) {
       console.error("Failed to load metrics:", err);
     }
@@ -88,17 +94,54 @@ export default function Dashboard() {
     // initial load
     loadStaticData();
     loadMetrics();
-    const id = setInterval(loadMetrics, 60000); // refresh metrics every 60s
-    return () => clearInterval(id);
+
+    // Live updates: the backend polls OCI once for all viewers and pushes only the changes
+    const unsubscribe = subscribeInventory({
+      onSnapshot: (snapshot) => {
+        if (snapshot.computeInstances) setResources(snapshot.computeInstances);
+        if (snapshot.vcns) setVcns(snapshot.vcns);
+        if (snapshot.policies) setPolicies(snapshot.policies);
+        if (snapshot.cpuMetrics) setCpuMetrics(snapshot.cpuMetrics.map(toMetricSeries));
+        if (snapshot.memoryMetrics) setMemoryMetrics(snapshot.memoryMetrics.map(toMetricSeries));
+      },
+      onDiff: (diff) => {
+        if (diff.section === "computeInstances") setResources((rows) => applyDiff(rows, diff));
+        if (diff.section === "vcns") setVcns((rows) => applyDiff(rows, diff));
+        if (diff.section === "policies") setPolicies((rows) => applyDiff(rows, diff));
+      },
+      onMetrics: (delta) => {
+        if (delta.section === "cpuMetrics") {
+          setCpuMetrics((series) => mergeMetricPoints(series, delta.series));
+        }
+        if (delta.section === "memoryMetrics") {
+          setMemoryMetrics((series) => mergeMetricPoints(series, delta.series));
+        }
+      },
+    });
+    return unsubscribe;
   }, []);
 
   // ---------- MERGE METRICS INTO RESOURCES ----------
-  const mappedResources: Resource[] = resources.map((r) => ({
-    ...r,
-    cpu_usage: latestCpuValue ?? 0,
-    memory_usage: latestMemoryValue ?? 0,
-    ts: new Date().toISOString(),
-  }));
+  // The instance table is loaded once; pushed metrics deltas only reach the series, so a newer
+  // live point wins over the table row
+  const liveCpu = latestPoints(cpuMetrics);
+  const liveMemory = latestPoints(memoryMetrics);
+  const newest = (rowValue: number | null | undefined, rowTs: number, live?: MetricPoint) =>
+    live && live.t >= rowTs ? live.v : rowValue ?? 0;
+
+  const mappedResources: Resource[] = resources.map((r) => {
+    const row = instanceRows.get(r.id);
+    const rowTs = row?.ts ? Date.parse(row.ts) : 0;
+    const cpu = liveCpu.get(r.id);
+    const memory = liveMemory.get(r.id);
+    const ts = Math.max(rowTs, cpu?.t ?? 0, memory?.t ?? 0);
+    return {
+      ...r,
+      cpu_usage: newest(row?.cpu_usage, rowTs, cpu),
+      memory_usage: newest(row?.memory_usage, rowTs, memory),
+      ts: ts > 0 ? new Date(ts).toISOString() : "",
+    };
+  });
 
   const targetVm = mappedResources.find(
     (r) => r.name === "springboot-ubuntu-vm"
@@ -2,6 +2,8 @@ import React, { useEffect, useState } from "react";
 import { useParams, useNavigate } from "react-router-dom";
 import Spinner from "../../components/shared/Spinner";
 import AppLayout from "../../components/layout/AppLayout";
+import { fetchObjectPreview } from "../../api";
+import type { ObjectPreview } from "../../api";
 
 const ObjectsPage: React.FC = () => {
   const { bucketName } = useParams<{ bucketName: string }>();
@@ -10,6 +12,8 @@ const ObjectsPage: React.FC = () => {
   const [error, setError] = useState<string | null>(null);
   const [currentPrefix, setCurrentPrefix] = useState<string>("");
   const [selectedItem, setSelectedItem] = useState<string | null>(null);
+  const [preview, setPreview] = useState<ObjectPreview | null>(null);
+  const [previewError, setPreviewError] = useState<string | null>(null);
 
   const navigate = useNavigate();
 
@@ -39,6 +43,22 @@ const ObjectsPage: React.FC = () => {
     fetchObjects();
   }, [bucketName]);
 
+  // Preview of the selected object: only its first KB are read, so large objects are cheap
+  useEffect(() => {
+    setPreview(null);
+    setPreviewError(null);
+    if (!bucketName || !selectedItem) {
+      return;
+    }
+    let cancelled = false;
+    fetchObjectPreview(bucketName, selectedItem)
+      .then((p) => !cancelled && setPreview(p))
+      .catch((err) => !cancelled && setPreviewError(err.message));
+    return () => {
+      cancelled = true;
+    };
+  }, [bucketName, selectedItem]);
+
   const handleDrillDown = (name: string) => {
     setCurrentPrefix(name);
     setSelectedItem(null); // Clear selection when drilling down
@@ -212,7 +232,65 @@ const ObjectsPage: React.FC = () => {
           {selectedItem ? (
             <div className="space-y-2">
               <p className="text-gray-700">Name: **{selectedItem}**</p>
-              {/* Hier könnten weitere Details von einem anderen API-Aufruf angezeigt werden */}
+              {previewError && (
+                <p className="text-red-500">Preview failed: {previewError}</p>
+              )}
+              {!preview && !previewError && <Spinner />}
+              {preview && (
+                <>
+                  <p className="text-sm text-gray-500">
+                    {preview.format}
+                    {preview.compression !== "none" && ` (${preview.compression})`}
+                    {preview.objectSize >= 0 &&
+                      ` · ${preview.objectSize.toLocaleString()} bytes`}
+                    {preview.truncated &&
+                      ` · first ${preview.decodedBytes.toLocaleString()} bytes shown`}
+                  </p>
+                  {preview.parquet && (
+                    <div className="text-sm text-gray-700">
+                      <p>
+                        Rows:{" "}
+                        {preview.parquet.rowCount >= 0
+                          ? preview.parquet.rowCount.toLocaleString()
+                          : "unknown"}
+                      </p>
+                      <p>Columns: {preview.parquet.columns.join(", ")}</p>
+                    </div>
+                  )}
+                  {preview.rows ? (
+                    <div className="overflow-auto max-h-96 border border-gray-200">
+                      <table className="min-w-full text-xs">
+                        <thead className="bg-gray-50">
+                          <tr>
+                            {preview.rows[0].map((cell, i) => (
+                              <th key={i} className="px-2 py-1 text-left font-medium">
+                                {cell}
+                              </th>
+                            ))}
+                          </tr>
+                        </thead>
+                        <tbody>
+                          {preview.rows.slice(1).map((row, r) => (
+                            <tr key={r} className="border-t border-gray-100">
+                              {row.map((cell, i) => (
+                                <td key={i} className="px-2 py-1 whitespace-nowrap">
+                                  {cell}
+                                </td>
+                              ))}
+                            </tr>
+                          ))}
+                        </tbody>
+                      </table>
+                    </div>
+                  ) : (
+                    preview.text && (
+                      <pre className="overflow-auto max-h-96 text-xs bg-gray-50 p-2 border border-gray-200">
+                        {preview.text}
+                      </pre>
+                    )
+                  )}
+                </>
+              )}
             </div>
           ) : (
             <div className="text-gray-500 italic">
@@ -0,0 +1,46 @@
+// src/utils/liveUpdates.ts
+import type { MetricPoint, MetricsDelta, MetricSeries, SectionDiff } from '../api';
+
+const WINDOW_MS = 60 * 60 * 1000; // keep the same 1h window as the backend
+
+/** Applies added/changed/removed rows (matched by id) to a list */
+export function applyDiff<T extends { id: string }>(rows: T[], diff: SectionDiff<T>): T[] {
+  const removed = new Set(diff.removed);
+  const changed = new Map(diff.changed.map((r) => [r.id, r]));
+  return rows
+    .filter((r) => !removed.has(r.id))
+    .map((r) => changed.get(r.id) ?? r)
+    .concat(diff.added);
+}
+
+/** Upserts pushed datapoints (by timestamp) into the series of each resource */
+export function mergeMetricPoints(
+  series: MetricSeries[],
+  delta: MetricsDelta['series']
+): MetricSeries[] {
+  const cutoff = Date.now() - WINDOW_MS;
+  const byResource = new Map(series.map((s) => [s.resourceId ?? s.label, s]));
+
+  Object.entries(delta).forEach(([resourceId, columns]) => {
+    const existing = byResource.get(resourceId);
+    const merged = new Map((existing?.points ?? []).map((p) => [p.t, p]));
+    columns.t.forEach((t, i) => merged.set(t, { t, v: columns.v[i] }));
+    byResource.set(resourceId, {
+      label: existing?.label ?? resourceId,
+      resourceId,
+      points: [...merged.values()].filter((p) => p.t >= cutoff).sort((a, b) => a.t - b.t),
+    });
+  });
+
+  return [...byResource.values()];
+}
+
+/** Newest datapoint of each resource's series, keyed by resourceId */
+export function latestPoints(series: MetricSeries[]): Map<string, MetricPoint> {
+  const latest = new Map<string, MetricPoint>();
+  series.forEach((s) => {
+    const point = s.points.at(-1);
+    if (s.resourceId && point) latest.set(s.resourceId, point);
+  });
+  return latest;
+}
@@ -2,8 +2,10 @@ package techthor.ocimonitor;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class OciResourceMonitorApplication {
     public static void main(String[] args) {
         SpringApplication.run(OciResourceMonitorApplication.class, args);
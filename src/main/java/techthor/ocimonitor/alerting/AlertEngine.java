@@ -0,0 +1,539 @@
+package techthor.ocimonitor.alerting;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Streaming alert evaluation over the metric datapoints fetched from OCI Monitoring.
+ * <p>
+ * Every fetched datapoint is passed to {@link #accept} once it arrives. OCI may still revise
+ * the newest, aggregating minute, so each series holds its newest point back as pending:
+ * a point with the same timestamp replaces it, and only when a newer point arrives is the
+ * pending one committed. A committed point updates the {@link SeriesStats} of its series in
+ * O(1) and is then checked against every rule of its metric; rules never rescan history.
+ * <p>
+ * A rule fires after {@link AlertRule#forPoints()} consecutive breaching points and resolves on
+ * the first point that does not breach. Statistics other than {@code VALUE} are only used once
+ * a series has {@code minSamples} points. Firing and resolved events are kept in a bounded log
+ * (polled by sequence number) and pushed to Server-Sent Events subscribers.
+ * <p>
+ * Events are queued to every subscriber under the lock, in sequence order, and each subscriber
+ * has its own virtual thread that sends them, so the thread feeding datapoints never waits
+ * for a slow connection. A subscriber that falls more than {@code eventLogSize} events behind
+ * is disconnected; its browser reconnects and starts again from the firing alerts.
+ */
+@Component
+public class AlertEngine {
+
+    private final boolean enabled;
+    private final int windowPoints;
+    private final double ewmaAlpha;
+    private final int minSamples;
+    private final int eventLogSize;
+    private final long seriesExpiryMillis;
+    private final long emitterTimeoutMillis;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    // Rules by ID and by metric; guarded by lock
+    private final Map<String, AlertRule> rules = new LinkedHashMap<>();
+    private final Map<String, List<AlertRule>> rulesByMetric = new HashMap<>();
+    // Series state by metric and resource ID; guarded by lock
+    private final Map<String, Map<String, Series>> series = new HashMap<>();
+    private final ArrayDeque<AlertEvent> events = new ArrayDeque<>();
+    private long lastSeq;
+
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    private final LongAdder pointsEvaluated = new LongAdder();
+    private final LongAdder ruleEvaluations = new LongAdder();
+
+    /**
+     * @param enabled              whether datapoints are evaluated at all
+     * @param rulesFile            JSON array of {@link AlertRule}s loaded at startup
+     * @param windowPoints         points in the sliding window behind {@code MEAN} and {@code P95}
+     * @param ewmaAlpha            smoothing factor of the EWMA baseline
+     * @param minSamples           points a series needs before its statistics are evaluated
+     * @param eventLogSize         number of alert events kept
+     * @param seriesExpiry         series without new points for this long are dropped, resolving their alerts
+     * @param emitterTimeoutMillis how long an SSE connection stays open before the browser reconnects
+     */
+    public AlertEngine(@Value("${oci.alerts.enabled:true}") boolean enabled,
+                       @Value("${oci.alerts.rules-file:classpath:alerts/rules.json}") Resource rulesFile,
+                       @Value("${oci.alerts.window-points:60}") int windowPoints,
+                       @Value("${oci.alerts.ewma-alpha:0.1}") double ewmaAlpha,
+                       @Value("${oci.alerts.min-samples:10}") int minSamples,
+                       @Value("${oci.alerts.event-log-size:1000}") int eventLogSize,
+                       @Value("${oci.alerts.series-expiry:30m}") Duration seriesExpiry,
+                       @Value("${oci.poller.emitter-timeout-ms:1800000}") long emitterTimeoutMillis) {
+        this.enabled = enabled;
+        this.windowPoints = windowPoints;
+        this.ewmaAlpha = ewmaAlpha;
+        this.minSamples = minSamples;
+        this.eventLogSize = Math.max(1, eventLogSize);
+        this.seriesExpiryMillis = seriesExpiry.toMillis();
+        this.emitterTimeoutMillis = emitterTimeoutMillis;
+        if (enabled) {
+            try (InputStream in = rulesFile.getInputStream()) {
+                new ObjectMapper().readValue(in, new TypeReference<List<AlertRule>>() {}).forEach(this::putRule);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to read alert rules from " + rulesFile, e);
+            }
+        }
+    }
+
+    /**
+     * Feeds one fetched datapoint. Datapoints older than the newest one of the series are ignored.
+     *
+     * @param metric     metric name, e.g. "cpu"
+     * @param resourceId series key within the metric
+     * @param timestamp  epoch millis
+     * @param value      datapoint value
+     */
+    public void accept(String metric, String resourceId, long timestamp, double value) {
+        if (!enabled || Double.isNaN(value)) {
+            return;
+        }
+        lock.lock();
+        try {
+            Series state = series.computeIfAbsent(metric, m -> new HashMap<>())
+                    .computeIfAbsent(resourceId, id -> new Series(new SeriesStats(windowPoints, ewmaAlpha)));
+            if (state.hasPending && timestamp == state.pendingTimestamp) {
+                state.pendingValue = value;
+                return;
+            }
+            if (timestamp <= (state.hasPending ? state.pendingTimestamp : state.stats.lastTimestamp())) {
+                return;
+            }
+            if (state.hasPending) {
+                state.stats.add(state.pendingTimestamp, state.pendingValue);
+                evaluate(metric, resourceId, state);
+            }
+            state.pendingTimestamp = timestamp;
+            state.pendingValue = value;
+            state.hasPending = true;
+            state.receivedAt = System.currentTimeMillis();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Adds a rule or replaces the rule with the same ID. Alerts firing under the replaced rule
+     * are resolved, and the new rule starts from the next committed datapoint.
+     */
+    public void putRule(AlertRule rule) {
+        lock.lock();
+        try {
+            AlertRule previous = rules.put(rule.id(), rule);
+            if (previous != null) {
+                unindex(previous);
+            }
+            rulesByMetric.computeIfAbsent(rule.metric(), m -> new ArrayList<>()).add(rule);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Removes a rule, resolving its firing alerts.
+     *
+     * @return whether the rule existed
+     */
+    public boolean removeRule(String id) {
+        lock.lock();
+        try {
+            AlertRule previous = rules.remove(id);
+            if (previous == null) {
+                return false;
+            }
+            unindex(previous);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public List<AlertRule> rules() {
+        lock.lock();
+        try {
+            return List.copyOf(rules.values());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return currently firing alerts, one per rule and series
+     */
+    public List<ActiveAlert> active() {
+        lock.lock();
+        try {
+            List<ActiveAlert> active = new ArrayList<>();
+            series.forEach((metric, byResource) -> byResource.forEach((resourceId, state) ->
+                    state.rules.forEach((ruleId, ruleState) -> {
+                        if (ruleState.firing) {
+                            active.add(new ActiveAlert(ruleId, metric, resourceId, ruleState.firingSince,
+                                    ruleState.lastObserved, rules.get(ruleId).threshold()));
+                        }
+                    })));
+            return active;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @param afterSeq last sequence number the client has seen; 0 for the whole log
+     * @param limit    maximum events to return
+     * @return events after {@code afterSeq} (oldest first), the sequence number to poll with
+     *         next, and whether events were dropped before the client could see them
+     */
+    public Map<String, Object> events(long afterSeq, int limit) {
+        lock.lock();
+        try {
+            List<AlertEvent> page = new ArrayList<>();
+            for (AlertEvent event : events) {
+                if (event.seq() > afterSeq && page.size() < limit) {
+                    page.add(event);
+                }
+            }
+            long oldest = events.isEmpty() ? lastSeq + 1 : events.peekFirst().seq();
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("events", page);
+            result.put("nextSeq", page.isEmpty() ? Math.max(afterSeq, 0) : page.get(page.size() - 1).seq());
+            result.put("lastSeq", lastSeq);
+            result.put("truncated", afterSeq + 1 < oldest);
+            return result;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Current statistics of the series of a metric, as used by the rules.
+     *
+     * @param metric     metric name
+     * @param resourceId single series, or null for all series of the metric
+     */
+    public List<Map<String, Object>> seriesStats(String metric, String resourceId) {
+        lock.lock();
+        try {
+            List<Map<String, Object>> result = new ArrayList<>();
+            series.getOrDefault(metric, Map.of()).forEach((id, state) -> {
+                if (resourceId != null && !resourceId.equals(id)) {
+                    return;
+                }
+                SeriesStats stats = state.stats;
+                Map<String, Object> entry = new LinkedHashMap<>();
+                entry.put("resourceId", id);
+                entry.put("points", stats.count());
+                entry.put("lastTimestamp", stats.lastTimestamp());
+                entry.put("value", finite(stats.lastValue()));
+                entry.put("mean", finite(stats.mean()));
+                entry.put("p95", finite(stats.quantile(0.95)));
+                entry.put("ewma", stats.ewma());
+                entry.put("ewmaStd", stats.ewmaStd());
+                entry.put("zScore", stats.zScore());
+                entry.put("pendingTimestamp", state.hasPending ? state.pendingTimestamp : null);
+                result.add(entry);
+            });
+            return result;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return rule, series and evaluation counters
+     */
+    public Map<String, Object> stats() {
+        lock.lock();
+        try {
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("enabled", enabled);
+            stats.put("rules", rules.size());
+            stats.put("series", series.values().stream().mapToInt(Map::size).sum());
+            stats.put("pointsEvaluated", pointsEvaluated.sum());
+            stats.put("ruleEvaluations", ruleEvaluations.sum());
+            stats.put("events", lastSeq);
+            stats.put("subscribers", subscribers.size());
+            return stats;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Registers an SSE subscriber and sends it the currently firing alerts as an {@code active}
+     * event; {@code alert} events follow as alerts fire and resolve.
+     *
+     * @return emitter bound to the subscriber's HTTP connection
+     */
+    public SseEmitter subscribe() {
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMillis);
+        Subscriber subscriber = new Subscriber(emitter, eventLogSize);
+        emitter.onCompletion(subscriber::close);
+        emitter.onTimeout(subscriber::close);
+        emitter.onError(e -> subscriber.close());
+        // Queued under the lock, so no event is missed or sent twice between the snapshot and the first alert
+        lock.lock();
+        try {
+            subscriber.offer(SseEmitter.event().name("active").data(active()));
+            subscribers.add(subscriber);
+        } finally {
+            lock.unlock();
+        }
+        subscriber.start();
+        return emitter;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        subscribers.forEach(Subscriber::close);
+    }
+
+    /**
+     * Drops series that stopped receiving datapoints (e.g. terminated instances) and resolves
+     * their firing alerts.
+     */
+    @Scheduled(fixedDelayString = "${oci.alerts.expiry-check-interval-ms:300000}")
+    public void expireSeries() {
+        long cutoff = System.currentTimeMillis() - seriesExpiryMillis;
+        lock.lock();
+        try {
+            series.forEach((metric, byResource) -> {
+                Iterator<Map.Entry<String, Series>> it = byResource.entrySet().iterator();
+                while (it.hasNext()) {
+                    Map.Entry<String, Series> entry = it.next();
+                    Series state = entry.getValue();
+                    if (state.receivedAt < cutoff) {
+                        state.rules.forEach((ruleId, ruleState) -> {
+                            if (ruleState.firing) {
+                                record("RESOLVED", rules.get(ruleId), metric, entry.getKey(),
+                                        ruleState.lastObserved, state.stats.lastTimestamp());
+                            }
+                        });
+                        it.remove();
+                    }
+                }
+            });
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Checks all rules of a metric against the newest committed point of a series. Called under the lock.
+     */
+    private void evaluate(String metric, String resourceId, Series state) {
+        pointsEvaluated.increment();
+        List<AlertRule> metricRules = rulesByMetric.get(metric);
+        if (metricRules == null) {
+            return;
+        }
+        SeriesStats stats = state.stats;
+        for (AlertRule rule : metricRules) {
+            if (rule.resourceId() != null && !rule.resourceId().equals(resourceId)) {
+                continue;
+            }
+            double observed = observe(rule.statistic(), stats);
+            if (Double.isNaN(observed)) {
+                continue;
+            }
+            ruleEvaluations.increment();
+            RuleState ruleState = state.rules.computeIfAbsent(rule.id(), id -> new RuleState());
+            ruleState.lastObserved = observed;
+            if (rule.breached(observed)) {
+                ruleState.breaches++;
+                if (!ruleState.firing && ruleState.breaches >= rule.forPoints()) {
+                    ruleState.firing = true;
+                    ruleState.firingSince = stats.lastTimestamp();
+                    record("FIRING", rule, metric, resourceId, observed, stats.lastTimestamp());
+                }
+            } else {
+                ruleState.breaches = 0;
+                if (ruleState.firing) {
+                    ruleState.firing = false;
+                    record("RESOLVED", rule, metric, resourceId, observed, stats.lastTimestamp());
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the statistic, or NaN while the series is still warming up
+     */
+    private double observe(AlertRule.Statistic statistic, SeriesStats stats) {
+        if (statistic != AlertRule.Statistic.VALUE && stats.count() < minSamples) {
+            return Double.NaN;
+        }
+        return switch (statistic) {
+            case VALUE -> stats.lastValue();
+            case MEAN -> stats.mean();
+            case P95 -> stats.quantile(0.95);
+            case EWMA -> stats.ewma();
+            case ZSCORE -> stats.zScore();
+        };
+    }
+
+    /**
+     * Removes a rule from the metric index and its state from all series. Called under the lock.
+     */
+    private void unindex(AlertRule rule) {
+        List<AlertRule> metricRules = rulesByMetric.get(rule.metric());
+        if (metricRules != null) {
+            metricRules.removeIf(r -> r.id().equals(rule.id()));
+        }
+        series.getOrDefault(rule.metric(), Map.of()).forEach((resourceId, state) -> {
+            RuleState ruleState = state.rules.remove(rule.id());
+            if (ruleState != null && ruleState.firing) {
+                record("RESOLVED", rule, rule.metric(), resourceId, ruleState.lastObserved,
+                        state.stats.lastTimestamp());
+            }
+        });
+    }
+
+    /**
+     * Appends an event to the log and queues it to every subscriber. Called under the lock.
+     */
+    private void record(String state, AlertRule rule, String metric, String resourceId, double observed,
+                              long pointTimestamp) {
+        AlertEvent event = new AlertEvent(++lastSeq, System.currentTimeMillis(), state, rule.id(), metric,
+                resourceId, rule.statistic(), observed, rule.threshold(), pointTimestamp);
+        events.addLast(event);
+        if (events.size() > eventLogSize) {
+            events.removeFirst();
+        }
+        for (Subscriber subscriber : subscribers) {
+            subscriber.offer(SseEmitter.event().name("alert").data(event));
+        }
+    }
+
+    private static Double finite(double value) {
+        return Double.isNaN(value) ? null : value;
+    }
+
+    /**
+     * Aggregates, pending point and per-rule state of one series.
+     */
+    private static final class Series {
+        private final SeriesStats stats;
+        private final Map<String, RuleState> rules = new HashMap<>();
+        private boolean hasPending;
+        private long pendingTimestamp;
+        private double pendingValue;
+        private long receivedAt;
+
+        private Series(SeriesStats stats) {
+            this.stats = stats;
+        }
+    }
+
+    /**
+     * SSE connection with its queue of unsent events and the virtual thread that sends them.
+     */
+    private final class Subscriber {
+        private final SseEmitter emitter;
+        private final BlockingQueue<SseEmitter.SseEventBuilder> queue;
+        private final Thread sender;
+        private volatile boolean overflowed;
+        private volatile boolean closed;
+
+        private Subscriber(SseEmitter emitter, int capacity) {
+            this.emitter = emitter;
+            this.queue = new ArrayBlockingQueue<>(capacity + 1);
+            this.sender = Thread.ofVirtual().name("alert-sse").unstarted(this::drain);
+        }
+
+        private void start() {
+            sender.start();
+            // The emitter may have completed before the thread started, when an interrupt would be lost
+            if (closed) {
+                sender.interrupt();
+            }
+        }
+
+        /**
+         * Queues an event without blocking; a subscriber too far behind is disconnected instead.
+         */
+        private void offer(SseEmitter.SseEventBuilder event) {
+            if (!queue.offer(event)) {
+                overflowed = true;
+                subscribers.remove(this);
+            }
+        }
+
+        private void drain() {
+            try {
+                while (!overflowed) {
+                    emitter.send(queue.take());
+                }
+                // The browser reconnects and starts again from the firing alerts
+                emitter.complete();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (IOException | IllegalStateException e) {
+                // Subscriber went away; the container completes the emitter
+                subscribers.remove(this);
+            }
+        }
+
+        private void close() {
+            closed = true;
+            subscribers.remove(this);
+            sender.interrupt();
+        }
+    }
+
+    private static final class RuleState {
+        private int breaches;
+        private boolean firing;
+        private long firingSince;
+        private double lastObserved;
+    }
+
+    /**
+     * A rule that started or stopped firing for one series.
+     *
+     * @param seq            sequence number, increasing by one per event
+     * @param time           time the event was raised, epoch millis
+     * @param state          {@code FIRING} or {@code RESOLVED}
+     * @param observed       value of the statistic at the datapoint that changed the state
+     * @param pointTimestamp timestamp of that datapoint, epoch millis
+     */
+    public record AlertEvent(long seq, long time, String state, String ruleId, String metric, String resourceId,
+                             AlertRule.Statistic statistic, double observed, double threshold, long pointTimestamp) {
+    }
+
+    /**
+     * A firing alert.
+     *
+     * @param since    timestamp of the datapoint at which the alert fired, epoch millis
+     * @param observed latest value of the statistic
+     */
+    public record ActiveAlert(String ruleId, String metric, String resourceId, long since, double observed,
+                              double threshold) {
+    }
+}
@@ -0,0 +1,53 @@
+package techthor.ocimonitor.alerting;
+
+/**
+ * Alert condition on one statistic of a metric, evaluated for every instance series of the
+ * metric (or a single one).
+ * <p>
+ * Example: {@code {"id": "cpu-hot", "metric": "cpu", "statistic": "P95", "operator": "ABOVE",
+ * "threshold": 90, "forPoints": 3}} fires once the hourly p95 CPU of an instance has been
+ * above 90% for three consecutive datapoints, and resolves on the first datapoint below.
+ *
+ * @param id         unique rule ID
+ * @param metric     metric name, e.g. {@code cpu} or {@code memory}
+ * @param resourceId single instance to watch, or null for all instances
+ * @param statistic  value compared against the threshold
+ * @param operator   {@code ABOVE} or {@code BELOW}
+ * @param threshold  threshold of the statistic; for {@code ZSCORE} in standard deviations
+ * @param forPoints  consecutive breaching datapoints before the alert fires (at least 1)
+ */
+public record AlertRule(String id, String metric, String resourceId, Statistic statistic, Operator operator,
+                        double threshold, int forPoints) {
+
+    public AlertRule {
+        if (id == null || id.isBlank() || metric == null || statistic == null || operator == null) {
+            throw new IllegalArgumentException("Alert rule needs id, metric, statistic and operator");
+        }
+        forPoints = Math.max(1, forPoints);
+    }
+
+    /**
+     * Statistic of a series that a rule looks at.
+     */
+    public enum Statistic {
+        /** newest datapoint */
+        VALUE,
+        /** mean of the sliding window */
+        MEAN,
+        /** 95th percentile of the sliding window */
+        P95,
+        /** exponentially weighted moving average */
+        EWMA,
+        /** deviation of the newest datapoint from the EWMA baseline, in standard deviations */
+        ZSCORE
+    }
+
+    public enum Operator {
+        ABOVE,
+        BELOW
+    }
+
+    boolean breached(double observed) {
+        return operator == Operator.ABOVE ? observed > threshold : observed < threshold;
+    }
+}
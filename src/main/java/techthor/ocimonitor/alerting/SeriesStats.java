@@ -0,0 +1,139 @@
+package techthor.ocimonitor.alerting;
+
+/**
+ * Streaming aggregates of one metric series, updated in O(1) per datapoint and kept in
+ * primitive fields and arrays.
+ * <p>
+ * <ul>
+ *   <li>Sliding window of the last {@code windowPoints} values: a ring of values with a running
+ *       sum gives the mean, and a fixed-bin histogram over the same values gives the p95. The
+ *       evicted value is subtracted from both, so the window is never rescanned.</li>
+ *   <li>Exponentially weighted mean and variance (EWMA). The z-score of a point is taken
+ *       against the baseline <em>before</em> the point is added, so a spike is not absorbed
+ *       into its own baseline.</li>
+ * </ul>
+ * The histogram covers {@code [0, 100]} (utilization metrics are percentages) in 0.5 wide
+ * bins; values outside the range count towards the first or last bin.
+ * <p>
+ * Not thread-safe; callers synchronize externally.
+ */
+final class SeriesStats {
+
+    static final double HISTOGRAM_MAX = 100.0;
+    static final int BINS = 200;
+
+    private final double[] window;
+    private final int[] histogram = new int[BINS];
+    private final double alpha;
+    private int head; // index of the oldest value
+    private int size;
+    private double sum;
+
+    private long count;
+    private double ewmaMean;
+    private double ewmaVariance;
+
+    private long lastTimestamp = Long.MIN_VALUE;
+    private double lastValue = Double.NaN;
+    private double zScore;
+
+    /**
+     * @param windowPoints number of points in the sliding window
+     * @param alpha        EWMA smoothing factor in (0, 1]; higher follows changes faster
+     */
+    SeriesStats(int windowPoints, double alpha) {
+        this.window = new double[Math.max(1, windowPoints)];
+        this.alpha = alpha;
+    }
+
+    /**
+     * Adds a datapoint to all aggregates.
+     */
+    void add(long timestamp, double value) {
+        double deviation = value - ewmaMean;
+        double std = Math.sqrt(ewmaVariance);
+        zScore = count > 1 && std > 0 ? deviation / std : 0;
+        if (count == 0) {
+            ewmaMean = value;
+        } else {
+            double increment = alpha * deviation;
+            ewmaMean += increment;
+            ewmaVariance = (1 - alpha) * (ewmaVariance + deviation * increment);
+        }
+        count++;
+
+        if (size == window.length) {
+            double evicted = window[head];
+            sum -= evicted;
+            histogram[bin(evicted)]--;
+            window[head] = value;
+            head = (head + 1) % window.length;
+        } else {
+            window[(head + size) % window.length] = value;
+            size++;
+        }
+        sum += value;
+        histogram[bin(value)]++;
+
+        lastTimestamp = timestamp;
+        lastValue = value;
+    }
+
+    /**
+     * @param q quantile in [0, 1]
+     * @return upper edge of the histogram bin holding the quantile; NaN if the window is empty
+     */
+    double quantile(double q) {
+        if (size == 0) {
+            return Double.NaN;
+        }
+        long rank = Math.max(1, (long) Math.ceil(q * size));
+        long seen = 0;
+        for (int i = 0; i < BINS; i++) {
+            seen += histogram[i];
+            if (seen >= rank) {
+                return (i + 1) * HISTOGRAM_MAX / BINS;
+            }
+        }
+        return HISTOGRAM_MAX;
+    }
+
+    double mean() {
+        return size == 0 ? Double.NaN : sum / size;
+    }
+
+    double ewma() {
+        return ewmaMean;
+    }
+
+    double ewmaStd() {
+        return Math.sqrt(ewmaVariance);
+    }
+
+    /**
+     * @return z-score of the newest point against the EWMA baseline before it
+     */
+    double zScore() {
+        return zScore;
+    }
+
+    double lastValue() {
+        return lastValue;
+    }
+
+    long lastTimestamp() {
+        return lastTimestamp;
+    }
+
+    /**
+     * @return number of points added since the series was first seen
+     */
+    long count() {
+        return count;
+    }
+
+    private static int bin(double value) {
+        int bin = (int) (value * BINS / HISTOGRAM_MAX);
+        return Math.min(BINS - 1, Math.max(0, bin));
+    }
+}
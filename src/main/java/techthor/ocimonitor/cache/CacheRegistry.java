@@ -0,0 +1,64 @@
+package techthor.ocimonitor.cache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Creates {@link RefreshingCache} instances and keeps track of them for stats reporting.
+ * <p>
+ * All caches share one virtual-thread executor for background refreshes, plus the
+ * global stale window and size bound from application.properties. Each cache publishes its
+ * counters to the meter registry when it is created.
+ */
+@Component
+public class CacheRegistry {
+
+    private final Duration maxStale;
+    private final int maxEntries;
+    private final MeterRegistry meterRegistry;
+    private final ExecutorService refreshExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    private final List<RefreshingCache<?, ?>> caches = new CopyOnWriteArrayList<>();
+
+    public CacheRegistry(@Value("${oci.cache.max-stale:10m}") Duration maxStale,
+                         @Value("${oci.cache.max-entries:256}") int maxEntries,
+                         MeterRegistry meterRegistry) {
+        this.maxStale = maxStale;
+        this.maxEntries = maxEntries;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Creates and registers a new cache.
+     *
+     * @param name cache name shown in stats
+     * @param ttl  freshness period for entries of this cache
+     * @return the new cache
+     */
+    public <K, V> RefreshingCache<K, V> create(String name, Duration ttl) {
+        RefreshingCache<K, V> cache = new RefreshingCache<>(name, ttl, maxStale, maxEntries, refreshExecutor);
+        caches.add(cache);
+        cache.bindTo(meterRegistry);
+        return cache;
+    }
+
+    /**
+     * Returns the counters of all registered caches.
+     */
+    public List<Map<String, Object>> stats() {
+        return caches.stream().map(RefreshingCache::stats).toList();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refreshExecutor.shutdownNow();
+    }
+}
@@ -0,0 +1,309 @@
+package techthor.ocimonitor.cache;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Bounded TTL cache with stale-while-revalidate and single-flight loading.
+ * <p>
+ * Lookup rules:
+ * <ul>
+ *   <li>Fresh entry (younger than the TTL) – returned directly.</li>
+ *   <li>Stale entry (older than the TTL but within the stale window) – returned directly,
+ *       and one background refresh is started.</li>
+ *   <li>Missing or expired entry – loaded synchronously. Concurrent callers for the same key
+ *       share a single upstream call.</li>
+ * </ul>
+ * A failed background refresh keeps the stale value, and a failed synchronous load falls
+ * back to the expired entry if there is one (stale-if-error), so the last good value is
+ * served while OCI is unavailable. The entry count is bounded, and the least recently used
+ * entry is evicted first.
+ * <p>
+ * Every entry carries a version that only changes when a load returns a value that is not
+ * {@code equals} to the previous one, so {@link #getVersioned} yields an entity tag that stays
+ * the same across refreshes of unchanged data.
+ *
+ * @param <K> key type
+ * @param <V> value type
+ */
+public class RefreshingCache<K, V> {
+
+    private final String name;
+    private final long ttlNanos;
+    private final long maxStaleNanos;
+    private final Executor refreshExecutor;
+
+    // Access-ordered map gives LRU eviction; guarded by its own monitor
+    private final Map<K, Entry<V>> entries;
+    private final Map<K, CompletableFuture<Entry<V>>> inFlight = new ConcurrentHashMap<>();
+    private final AtomicLong versions = new AtomicLong();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder staleHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder refreshes = new LongAdder();
+    private final LongAdder refreshSuccesses = new LongAdder();
+    private final LongAdder refreshFailures = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder errorFallbacks = new LongAdder();
+
+    /**
+     * @param name            name used in stats output
+     * @param ttl             age after which an entry is refreshed
+     * @param maxStale        how long past the TTL a stale entry may still be served
+     * @param maxEntries      upper bound on cached keys
+     * @param refreshExecutor executor running background refreshes
+     */
+    public RefreshingCache(String name, Duration ttl, Duration maxStale, int maxEntries, Executor refreshExecutor) {
+        this.name = name;
+        this.ttlNanos = ttl.toNanos();
+        this.maxStaleNanos = maxStale.toNanos();
+        this.refreshExecutor = refreshExecutor;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                boolean evict = size() > maxEntries;
+                if (evict) {
+                    evictions.increment();
+                }
+                return evict;
+            }
+        };
+    }
+
+    /**
+     * Returns the cached value for the key, loading it with the given loader if needed.
+     *
+     * @param key    cache key
+     * @param loader upstream call; exceptions propagate to the caller on synchronous loads
+     *               unless an expired entry can be served instead
+     * @return cached, freshly loaded or (after a failed load) expired value
+     */
+    public V get(K key, Supplier<V> loader) {
+        return lookup(key, loader).value();
+    }
+
+    /**
+     * Like {@link #get}, but also returns the entity tag of the value and how long it stays
+     * fresh: the rest of its TTL, or zero for a stale or expired value.
+     *
+     * @param key    cache key
+     * @param loader upstream call
+     * @return value, entity tag and remaining freshness
+     */
+    public Versioned<V> getVersioned(K key, Supplier<V> loader) {
+        Entry<V> entry = lookup(key, loader);
+        long remaining = Math.max(0, ttlNanos - (System.nanoTime() - entry.loadedAt()));
+        return new Versioned<>(entry.value(), Versioned.etag(name, entry.version()), Duration.ofNanos(remaining));
+    }
+
+    private Entry<V> lookup(K key, Supplier<V> loader) {
+        Entry<V> entry;
+        synchronized (entries) {
+            entry = entries.get(key);
+        }
+
+        long now = System.nanoTime();
+        if (entry != null) {
+            long age = now - entry.loadedAt();
+            if (age <= ttlNanos) {
+                hits.increment();
+                return entry;
+            }
+            if (age <= ttlNanos + maxStaleNanos) {
+                staleHits.increment();
+                refreshAsync(key, loader);
+                return entry;
+            }
+        }
+
+        misses.increment();
+        try {
+            return loadShared(key, loader);
+        } catch (RuntimeException e) {
+            if (entry == null) {
+                throw e;
+            }
+            // Stale-if-error: an old value is better than none while OCI is unavailable
+            errorFallbacks.increment();
+            System.err.println("Cache '" + name + "' load failed, serving expired value: " + e.getMessage());
+            return entry;
+        }
+    }
+
+    /**
+     * Loads the value for a key now, regardless of the age of the current entry, and
+     * stores it. Shares the upstream call with concurrent loads of the same key.
+     *
+     * @param key    cache key
+     * @param loader upstream call; exceptions propagate and leave the current entry untouched
+     * @return freshly loaded value
+     */
+    public V reload(K key, Supplier<V> loader) {
+        refreshes.increment();
+        try {
+            V value = loadShared(key, loader).value();
+            refreshSuccesses.increment();
+            return value;
+        } catch (RuntimeException e) {
+            refreshFailures.increment();
+            throw e;
+        }
+    }
+
+    /**
+     * Drops the entry for a key so that the next lookup loads it again.
+     */
+    public void invalidate(K key) {
+        synchronized (entries) {
+            entries.remove(key);
+        }
+    }
+
+    /**
+     * Returns the counters of this cache.
+     */
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("name", name);
+        stats.put("size", size());
+        stats.put("hits", hits.sum());
+        stats.put("staleHits", staleHits.sum());
+        stats.put("misses", misses.sum());
+        stats.put("refreshes", refreshes.sum());
+        stats.put("refreshFailures", refreshFailures.sum());
+        stats.put("evictions", evictions.sum());
+        stats.put("errorFallbacks", errorFallbacks.sum());
+        return stats;
+    }
+
+    /**
+     * Registers the counters of this cache as meters tagged with the cache name:
+     * {@code cache.gets} by result ({@code hit}, {@code stale}, {@code miss}),
+     * {@code cache.refreshes} by result, {@code cache.evictions}, {@code cache.error.fallbacks}
+     * and the {@code cache.size} gauge.
+     *
+     * @param registry registry to publish to
+     */
+    public void bindTo(MeterRegistry registry) {
+        counter(registry, "cache.gets", "hit", hits);
+        counter(registry, "cache.gets", "stale", staleHits);
+        counter(registry, "cache.gets", "miss", misses);
+        counter(registry, "cache.refreshes", "success", refreshSuccesses);
+        counter(registry, "cache.refreshes", "failure", refreshFailures);
+        FunctionCounter.builder("cache.evictions", evictions, LongAdder::sum)
+                .tag("cache", name)
+                .register(registry);
+        FunctionCounter.builder("cache.error.fallbacks", errorFallbacks, LongAdder::sum)
+                .description("Expired entries served because a load failed")
+                .tag("cache", name)
+                .register(registry);
+        Gauge.builder("cache.size", this, RefreshingCache::size)
+                .tag("cache", name)
+                .register(registry);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    private void counter(MeterRegistry registry, String meter, String result, LongAdder counter) {
+        FunctionCounter.builder(meter, counter, LongAdder::sum)
+                .tag("cache", name)
+                .tag("result", result)
+                .register(registry);
+    }
+
+    private int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    private Entry<V> loadShared(K key, Supplier<V> loader) {
+        CompletableFuture<Entry<V>> mine = new CompletableFuture<>();
+        CompletableFuture<Entry<V>> existing = inFlight.putIfAbsent(key, mine);
+        if (existing != null) {
+            return join(existing);
+        }
+        try {
+            Entry<V> entry = put(key, loader.get());
+            mine.complete(entry);
+            return entry;
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    private void refreshAsync(K key, Supplier<V> loader) {
+        CompletableFuture<Entry<V>> mine = new CompletableFuture<>();
+        if (inFlight.putIfAbsent(key, mine) != null) {
+            return; // a refresh or load for this key is already running
+        }
+        refreshes.increment();
+        refreshExecutor.execute(() -> {
+            try {
+                mine.complete(put(key, loader.get()));
+                refreshSuccesses.increment();
+            } catch (RuntimeException e) {
+                refreshFailures.increment();
+                mine.completeExceptionally(e);
+                System.err.println("Cache '" + name + "' refresh failed, serving stale value: " + e.getMessage());
+            } finally {
+                inFlight.remove(key, mine);
+            }
+        });
+    }
+
+    /**
+     * Stores a loaded value, keeping the version of the previous entry if the value is unchanged.
+     */
+    private Entry<V> put(K key, V value) {
+        Entry<V> previous;
+        synchronized (entries) {
+            previous = entries.get(key);
+        }
+        // Compared outside the lock; concurrent loads of one key are already single-flight
+        long version = previous != null && Objects.equals(previous.value(), value)
+                ? previous.version()
+                : versions.incrementAndGet();
+        Entry<V> entry = new Entry<>(value, System.nanoTime(), version);
+        synchronized (entries) {
+            entries.put(key, entry);
+        }
+        return entry;
+    }
+
+    private static <V> V join(CompletableFuture<V> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CompletionException(e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException re) {
+                throw re;
+            }
+            throw new CompletionException(e.getCause());
+        }
+    }
+
+    private record Entry<V>(V value, long loadedAt, long version) {}
+}
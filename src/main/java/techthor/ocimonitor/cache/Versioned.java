@@ -0,0 +1,27 @@
+package techthor.ocimonitor.cache;
+
+import java.time.Duration;
+
+/**
+ * A value together with an entity tag that changes only when the value changes, and the time
+ * it stays fresh. Used for conditional HTTP responses ({@code ETag}, {@code If-None-Match},
+ * {@code Cache-Control: max-age}).
+ *
+ * @param value  the value
+ * @param etag   weak entity tag, e.g. {@code W/"instances-lx3k9a-7"}
+ * @param maxAge remaining freshness; zero if the value must be revalidated on every use
+ */
+public record Versioned<V>(V value, String etag, Duration maxAge) {
+
+    // Distinguishes versions of different application runs, which all count from 1
+    private static final String RUN = Long.toString(System.currentTimeMillis(), 36);
+
+    /**
+     * @param scope   what the version counts, e.g. a cache name
+     * @param version version number, unique within the scope for the lifetime of the process
+     * @return weak entity tag for the version
+     */
+    public static String etag(String scope, long version) {
+        return "W/\"" + scope + "-" + RUN + "-" + version + "\"";
+    }
+}
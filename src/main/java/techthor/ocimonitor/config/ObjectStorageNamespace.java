@@ -0,0 +1,51 @@
+package techthor.ocimonitor.config;
+
+import com.oracle.bmc.objectstorage.ObjectStorage;
+import com.oracle.bmc.objectstorage.requests.GetNamespaceRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Resolves the tenancy's Object Storage namespace once and caches it.
+ * <p>
+ * The namespace is fixed for the lifetime of a tenancy, so it is only re-checked after
+ * the configured refresh interval instead of being fetched before every storage call.
+ */
+@Component
+public class ObjectStorageNamespace {
+
+    private final ObjectStorage objectStorageClient;
+    private final long refreshNanos;
+
+    private volatile String namespace;
+    private volatile long resolvedAt;
+
+    /**
+     * @param objectStorageClient OCI Object Storage client
+     * @param refreshInterval     how long a resolved namespace is reused
+     */
+    public ObjectStorageNamespace(ObjectStorage objectStorageClient,
+                                  @Value("${oci.storage.namespace-refresh:24h}") Duration refreshInterval) {
+        this.objectStorageClient = objectStorageClient;
+        this.refreshNanos = refreshInterval.toNanos();
+    }
+
+    /**
+     * @return the Object Storage namespace of the tenancy
+     */
+    public String get() {
+        String current = namespace;
+        if (current != null && System.nanoTime() - resolvedAt < refreshNanos) {
+            return current;
+        }
+        synchronized (this) {
+            if (namespace == null || System.nanoTime() - resolvedAt >= refreshNanos) {
+                namespace = objectStorageClient.getNamespace(GetNamespaceRequest.builder().build()).getValue();
+                resolvedAt = System.nanoTime();
+            }
+            return namespace;
+        }
+    }
+}
@@ -1,49 +1,79 @@
 package techthor.ocimonitor.config;
 
-import com.oracle.bmc.auth.AuthenticationDetailsProvider;
+import com.oracle.bmc.core.Compute;
+import com.oracle.bmc.core.VirtualNetwork;
 import com.oracle.bmc.identity.Identity;
-import com.oracle.bmc.identity.IdentityClient;
+import com.oracle.bmc.monitoring.Monitoring;
 import com.oracle.bmc.objectstorage.ObjectStorage;
-import com.oracle.bmc.objectstorage.ObjectStorageClient;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import techthor.ocimonitor.resilience.OciResilience;
 
 /**
  * Spring configuration for OCI service clients.
  * <p>
  * Exposes OCI SDK clients as Spring beans so they can be injected
- * wherever needed (DAOs, services, etc.).
+ * wherever needed (DAOs, services, etc.). The clients themselves are owned
+ * by the {@link OciClientRegistry}, which also closes them on shutdown. Each bean is
+ * a proxy that runs all calls through the {@link OciResilience} layer (rate limiting,
+ * bulkheads, circuit breakers and retries). The proxies ask the registry for the client
+ * on each call, so no SDK client is built while the context starts.
  */
 @Configuration
 public class OciClientConfig {
 
     /**
-     * Creates an OCI Object Storage client.
-     * @param authProvider the authentication provider bean
-     * @return configured ObjectStorage client
+     * Exposes the shared OCI Object Storage client.
+     * @param registry   the client registry
+     * @param resilience resilience layer wrapping the client
+     * @return shared ObjectStorage client, guarded by the resilience layer
      */
-    @Bean
-    public ObjectStorage objectStorageClient(AuthenticationDetailsProvider authProvider) {
-        return new ObjectStorageClient(authProvider);
+    @Bean(destroyMethod = "")
+    public ObjectStorage objectStorageClient(OciClientRegistry registry, OciResilience resilience) {
+        return resilience.wrapLazily(ObjectStorage.class, registry::objectStorage);
     }
 
     /**
-     * Creates an OCI Identity client.
-     * @param authProvider the authentication provider bean
-     * @return configured Identity client
+     * Exposes the shared OCI Identity client.
+     * @param registry   the client registry
+     * @param resilience resilience layer wrapping the client
+     * @return shared Identity client, guarded by the resilience layer
      */
-    @Bean
-    public Identity identityClient(AuthenticationDetailsProvider authProvider) {
-        return new IdentityClient(authProvider);
+    @Bean(destroyMethod = "")
+    public Identity identityClient(OciClientRegistry registry, OciResilience resilience) {
+        return resilience.wrapLazily(Identity.class, registry::identity);
     }
 
     /**
-     * Exposes tenancy OCID from properties as a Spring bean.
-     * This allows injection without hard-coding.
+     * Exposes the shared OCI Compute client.
+     * @param registry   the client registry
+     * @param resilience resilience layer wrapping the client
+     * @return shared Compute client, guarded by the resilience layer
      */
-    @Bean
-    public String tenancyOcid(@Value("${oci.tenancy.ocid}") String tenancyOcid) {
-        return tenancyOcid;
+    @Bean(destroyMethod = "")
+    public Compute computeClient(OciClientRegistry registry, OciResilience resilience) {
+        return resilience.wrapLazily(Compute.class, registry::compute);
+    }
+
+    /**
+     * Exposes the shared OCI Monitoring client.
+     * @param registry   the client registry
+     * @param resilience resilience layer wrapping the client
+     * @return shared Monitoring client, guarded by the resilience layer
+     */
+    @Bean(destroyMethod = "")
+    public Monitoring monitoringClient(OciClientRegistry registry, OciResilience resilience) {
+        return resilience.wrapLazily(Monitoring.class, registry::monitoring);
+    }
+
+    /**
+     * Exposes the shared OCI VirtualNetwork client.
+     * @param registry   the client registry
+     * @param resilience resilience layer wrapping the client
+     * @return shared VirtualNetwork client, guarded by the resilience layer
+     */
+    @Bean(destroyMethod = "")
+    public VirtualNetwork virtualNetworkClient(OciClientRegistry registry, OciResilience resilience) {
+        return resilience.wrapLazily(VirtualNetwork.class, registry::virtualNetwork);
     }
 }
@@ -0,0 +1,271 @@
+package techthor.ocimonitor.config;
+
+import com.oracle.bmc.ClientConfiguration;
+import com.oracle.bmc.Region;
+import com.oracle.bmc.auth.AuthenticationDetailsProvider;
+import com.oracle.bmc.core.Compute;
+import com.oracle.bmc.core.ComputeClient;
+import com.oracle.bmc.core.VirtualNetwork;
+import com.oracle.bmc.core.VirtualNetworkClient;
+import com.oracle.bmc.http.ClientConfigurator;
+import com.oracle.bmc.http.client.jersey3.ApacheClientProperties;
+import com.oracle.bmc.identity.Identity;
+import com.oracle.bmc.identity.IdentityClient;
+import com.oracle.bmc.monitoring.Monitoring;
+import com.oracle.bmc.monitoring.MonitoringClient;
+import com.oracle.bmc.objectstorage.ObjectStorage;
+import com.oracle.bmc.objectstorage.ObjectStorageClient;
+import com.oracle.bmc.resourcesearch.ResourceSearch;
+import com.oracle.bmc.resourcesearch.ResourceSearchClient;
+import jakarta.annotation.PreDestroy;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Single owner of all OCI SDK clients used by the application.
+ * <p>
+ * Every client is built once from the shared {@link AuthenticationDetailsProvider} and
+ * one {@link ClientConfiguration}, and all clients use the same pooled Apache connection
+ * manager. Keep-alive connections (and their TLS sessions) are therefore reused across
+ * Compute, Monitoring, Identity, VirtualNetwork and Object Storage calls, instead of
+ * each client holding its own pool.
+ * <p>
+ * The default clients talk to the region of the configured OCI profile. Clients for other
+ * regions are created on first use per region, on the same pool and configuration.
+ * <p>
+ * Building an SDK client is expensive (each one sets up a Jersey HTTP stack), and the
+ * credentials come from the OCI config file. Neither happens during startup: the config
+ * file is read and each client built on its first use. Once the application is ready, the
+ * default clients are built in the background ({@code oci.clients.prewarm}), so the first
+ * requests do not pay for it. A missing or broken config then fails those calls, not the boot.
+ */
+@Component
+public class OciClientRegistry {
+
+    private final ObjectProvider<AuthenticationDetailsProvider> authProvider;
+    private final boolean prewarm;
+    private final PoolingHttpClientConnectionManager connectionManager;
+    private final ClientConfiguration configuration;
+    private final List<ClientConfigurator> pooling;
+
+    private final LazyClient<Compute> compute;
+    private final LazyClient<Monitoring> monitoring;
+    private final LazyClient<Identity> identity;
+    private final LazyClient<VirtualNetwork> virtualNetwork;
+    private final LazyClient<ObjectStorage> objectStorage;
+    private final Map<String, RegionClients> regionClients = new ConcurrentHashMap<>();
+
+    /**
+     * @param authProvider       shared OCI credentials, created on first use
+     * @param prewarm            whether the default clients are built in the background once the application is ready
+     * @param maxConnections     total connections across all OCI endpoints
+     * @param maxPerRoute        connections per OCI endpoint (host)
+     * @param connectionTtl      maximum lifetime of a pooled keep-alive connection
+     * @param connectTimeout     TCP/TLS connect timeout
+     * @param readTimeout        socket read timeout
+     */
+    public OciClientRegistry(ObjectProvider<AuthenticationDetailsProvider> authProvider,
+                             @Value("${oci.clients.prewarm:true}") boolean prewarm,
+                             @Value("${oci.http.max-connections:100}") int maxConnections,
+                             @Value("${oci.http.max-connections-per-route:50}") int maxPerRoute,
+                             @Value("${oci.http.connection-ttl:5m}") Duration connectionTtl,
+                             @Value("${oci.http.connect-timeout:10s}") Duration connectTimeout,
+                             @Value("${oci.http.read-timeout:60s}") Duration readTimeout) {
+        this.authProvider = authProvider;
+        this.prewarm = prewarm;
+        this.connectionManager = new PoolingHttpClientConnectionManager(connectionTtl.toMillis(), TimeUnit.MILLISECONDS);
+        connectionManager.setMaxTotal(maxConnections);
+        connectionManager.setDefaultMaxPerRoute(maxPerRoute);
+        connectionManager.setValidateAfterInactivity(2_000);
+
+        this.configuration = ClientConfiguration.builder()
+                .connectionTimeoutMillis((int) connectTimeout.toMillis())
+                .readTimeoutMillis((int) readTimeout.toMillis())
+                .build();
+
+        // Shared pool: clients must not shut it down when one of them is closed
+        this.pooling = List.of(builder -> builder
+                .property(ApacheClientProperties.CONNECTION_MANAGER, connectionManager)
+                .property(ApacheClientProperties.CONNECTION_MANAGER_SHARED, true));
+
+        this.compute = new LazyClient<>(() -> ComputeClient.builder()
+                .configuration(configuration)
+                .additionalClientConfigurators(pooling)
+                .build(authProvider.getObject()));
+        this.monitoring = new LazyClient<>(() -> MonitoringClient.builder()
+                .configuration(configuration)
+                .additionalClientConfigurators(pooling)
+                .build(authProvider.getObject()));
+        this.identity = new LazyClient<>(() -> IdentityClient.builder()
+                .configuration(configuration)
+                .additionalClientConfigurators(pooling)
+                .build(authProvider.getObject()));
+        this.virtualNetwork = new LazyClient<>(() -> VirtualNetworkClient.builder()
+                .configuration(configuration)
+                .additionalClientConfigurators(pooling)
+                .build(authProvider.getObject()));
+        this.objectStorage = new LazyClient<>(() -> ObjectStorageClient.builder()
+                .configuration(configuration)
+                .additionalClientConfigurators(pooling)
+                .build(authProvider.getObject()));
+    }
+
+    public Compute compute() {
+        return compute.get();
+    }
+
+    public Monitoring monitoring() {
+        return monitoring.get();
+    }
+
+    public Identity identity() {
+        return identity.get();
+    }
+
+    public VirtualNetwork virtualNetwork() {
+        return virtualNetwork.get();
+    }
+
+    public ObjectStorage objectStorage() {
+        return objectStorage.get();
+    }
+
+    /**
+     * Builds the default clients on a background thread once the application serves requests.
+     * Failures (e.g. a missing OCI config) are logged; the clients are then built, and fail
+     * again, on their first use.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void prewarm() {
+        if (!prewarm) {
+            return;
+        }
+        Thread.ofVirtual().name("oci-client-prewarm").start(() -> {
+            try {
+                List.of(compute, monitoring, identity, virtualNetwork, objectStorage).forEach(LazyClient::get);
+            } catch (RuntimeException e) {
+                System.err.println("Failed to pre-warm OCI clients: " + e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * @param regionId region identifier, e.g. {@code eu-frankfurt-1}
+     * @return Compute client bound to the given region
+     */
+    public Compute compute(String regionId) {
+        return regionClients(regionId).compute().get();
+    }
+
+    /**
+     * @param regionId region identifier, e.g. {@code eu-frankfurt-1}
+     * @return VirtualNetwork client bound to the given region
+     */
+    public VirtualNetwork virtualNetwork(String regionId) {
+        return regionClients(regionId).virtualNetwork().get();
+    }
+
+    /**
+     * @param regionId region identifier, e.g. {@code eu-frankfurt-1}
+     * @return Resource Search client bound to the given region
+     */
+    public ResourceSearch resourceSearch(String regionId) {
+        return regionClients(regionId).resourceSearch().get();
+    }
+
+    /**
+     * Closes all clients, including the per-region ones, and then the shared connection pool.
+     */
+    @PreDestroy
+    public void close() {
+        List<LazyClient<?>> clients = new ArrayList<>(List.of(compute, monitoring, identity, virtualNetwork, objectStorage));
+        regionClients.values().forEach(region -> clients.addAll(List.of(region.compute(), region.virtualNetwork(), region.resourceSearch())));
+        for (LazyClient<?> client : clients) {
+            try {
+                client.closeIfBuilt();
+            } catch (Exception e) {
+                System.err.println("Failed to close OCI client: " + e.getMessage());
+            }
+        }
+        connectionManager.shutdown();
+    }
+
+    private RegionClients regionClients(String regionId) {
+        return regionClients.computeIfAbsent(regionId, id -> {
+            Region region = Region.fromRegionId(id);
+            return new RegionClients(
+                    new LazyClient<>(() -> ComputeClient.builder()
+                            .configuration(configuration)
+                            .additionalClientConfigurators(pooling)
+                            .region(region)
+                            .build(authProvider.getObject())),
+                    new LazyClient<>(() -> VirtualNetworkClient.builder()
+                            .configuration(configuration)
+                            .additionalClientConfigurators(pooling)
+                            .region(region)
+                            .build(authProvider.getObject())),
+                    new LazyClient<>(() -> ResourceSearchClient.builder()
+                            .configuration(configuration)
+                            .additionalClientConfigurators(pooling)
+                            .region(region)
+                            .build(authProvider.getObject())));
+        });
+    }
+
+    /**
+     * Clients of one non-default region; each is built on its first use.
+     */
+    private record RegionClients(LazyClient<Compute> compute, LazyClient<VirtualNetwork> virtualNetwork,
+                                 LazyClient<ResourceSearch> resourceSearch) {}
+
+    /**
+     * Client built once, on the first {@link #get()}. A failed build is not cached, so the
+     * next use tries again (e.g. after the OCI config has been fixed).
+     */
+    private static final class LazyClient<T extends AutoCloseable> {
+        private final Supplier<T> factory;
+        private final ReentrantLock lock = new ReentrantLock();
+        private volatile T client;
+
+        private LazyClient(Supplier<T> factory) {
+            this.factory = factory;
+        }
+
+        T get() {
+            T current = client;
+            if (current == null) {
+                lock.lock();
+                try {
+                    current = client;
+                    if (current == null) {
+                        current = factory.get();
+                        client = current;
+                    }
+                } finally {
+                    lock.unlock();
+                }
+            }
+            return current;
+        }
+
+        void closeIfBuilt() throws Exception {
+            T current = client;
+            if (current != null) {
+                current.close();
+            }
+        }
+    }
+}
@@ -2,15 +2,18 @@ package techthor.ocimonitor.config;
 
 import com.oracle.bmc.auth.AuthenticationDetailsProvider;
 import com.oracle.bmc.auth.ConfigFileAuthenticationDetailsProvider;
-import com.oracle.bmc.ConfigFileReader;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
 
 /**
  * Spring configuration that sets up authentication for OCI SDK clients.
  * <p>
- * Reads from the standard OCI config file (~/.oci/config by default)
- * and uses the "DEFAULT" profile to authenticate.
+ * Reads from the OCI config file and profile configured via {@code oci.config.path}
+ * and {@code oci.profile} (defaulting to ~/.oci/config and "DEFAULT"). This is the only
+ * place credentials are loaded; all clients share the resulting provider. The provider
+ * is lazy: the config file is read when the first client is built, not during startup.
  */
 @Configuration
 public class OciConfig {
@@ -20,10 +23,9 @@ public class OciConfig {
      * This provider will be injected into OCI service client beans.
      */
     @Bean
-    public AuthenticationDetailsProvider authProvider() throws Exception {
-        return new ConfigFileAuthenticationDetailsProvider(
-                ConfigFileReader.DEFAULT_FILE_PATH, // ~/.oci/config
-                "DEFAULT" // Profile name in the config file
-        );
+    @Lazy
+    public AuthenticationDetailsProvider authProvider(@Value("${oci.config.path}") String configPath,
+                                                      @Value("${oci.profile}") String profile) throws Exception {
+        return new ConfigFileAuthenticationDetailsProvider(configPath, profile);
     }
 }
@@ -0,0 +1,60 @@
+package techthor.ocimonitor.config;
+
+import com.oracle.bmc.core.Compute;
+import com.oracle.bmc.core.VirtualNetwork;
+import com.oracle.bmc.resourcesearch.ResourceSearch;
+import org.springframework.stereotype.Component;
+import techthor.ocimonitor.resilience.OciResilience;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-region OCI clients for tenancy-wide scans and change detection.
+ * <p>
+ * The clients are owned by the {@link OciClientRegistry} and wrapped by the
+ * {@link OciResilience} layer once per region. Each region therefore has its own rate
+ * limiter, bulkhead and circuit breakers, so a slow or failing region does not hold back
+ * the others. A region's clients are only built when the first call is made on them.
+ */
+@Component
+public class RegionalOciClients {
+
+    private final OciClientRegistry registry;
+    private final OciResilience resilience;
+    private final Map<String, Compute> computeClients = new ConcurrentHashMap<>();
+    private final Map<String, VirtualNetwork> virtualNetworkClients = new ConcurrentHashMap<>();
+    private final Map<String, ResourceSearch> resourceSearchClients = new ConcurrentHashMap<>();
+
+    public RegionalOciClients(OciClientRegistry registry, OciResilience resilience) {
+        this.registry = registry;
+        this.resilience = resilience;
+    }
+
+    /**
+     * @param regionId region identifier, e.g. {@code eu-frankfurt-1}
+     * @return guarded Compute client of the region
+     */
+    public Compute compute(String regionId) {
+        return computeClients.computeIfAbsent(regionId,
+                id -> resilience.wrapLazily(Compute.class, () -> registry.compute(id)));
+    }
+
+    /**
+     * @param regionId region identifier, e.g. {@code eu-frankfurt-1}
+     * @return guarded VirtualNetwork client of the region
+     */
+    public VirtualNetwork virtualNetwork(String regionId) {
+        return virtualNetworkClients.computeIfAbsent(regionId,
+                id -> resilience.wrapLazily(VirtualNetwork.class, () -> registry.virtualNetwork(id)));
+    }
+
+    /**
+     * @param regionId region identifier, e.g. {@code eu-frankfurt-1}
+     * @return guarded Resource Search client of the region
+     */
+    public ResourceSearch resourceSearch(String regionId) {
+        return resourceSearchClients.computeIfAbsent(regionId,
+                id -> resilience.wrapLazily(ResourceSearch.class, () -> registry.resourceSearch(id)));
+    }
+}
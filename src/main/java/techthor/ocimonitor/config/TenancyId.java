@@ -0,0 +1,75 @@
+package techthor.ocimonitor.config;
+
+import com.oracle.bmc.auth.AuthenticationDetailsProvider;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Supplier;
+
+/**
+ * Resolves the root tenancy OCID on first use.
+ * <p>
+ * The OCID comes from {@code oci.tenancy.ocid}. When that property is empty, it is taken from
+ * the configured OCI profile, which is only read when a caller first needs the OCID, so the
+ * context starts without touching the OCI config file. If the profile cannot be read, the
+ * OCID is empty and resolving is tried again on the next call.
+ */
+@Component
+public class TenancyId {
+
+    private final String configured;
+    private final Supplier<String> fromProfile;
+
+    private volatile String tenancyOcid;
+
+    /**
+     * @param configured   tenancy OCID from the properties, may be empty
+     * @param authProvider provider of the OCI profile, used when {@code configured} is empty
+     */
+    @Autowired
+    public TenancyId(@Value("${oci.tenancy.ocid:}") String configured,
+                     ObjectProvider<AuthenticationDetailsProvider> authProvider) {
+        this(configured, () -> authProvider.getObject().getTenantId());
+    }
+
+    private TenancyId(String configured, Supplier<String> fromProfile) {
+        this.configured = configured;
+        this.fromProfile = fromProfile;
+    }
+
+    /**
+     * @param tenancyOcid fixed tenancy OCID
+     * @return holder that always returns the given OCID
+     */
+    public static TenancyId of(String tenancyOcid) {
+        return new TenancyId(tenancyOcid, () -> tenancyOcid);
+    }
+
+    /**
+     * @return the root tenancy OCID, or an empty string if it cannot be determined
+     */
+    public String get() {
+        String current = tenancyOcid;
+        if (current != null) {
+            return current;
+        }
+        if (!configured.isBlank()) {
+            tenancyOcid = configured;
+            return configured;
+        }
+        synchronized (this) {
+            if (tenancyOcid == null) {
+                try {
+                    tenancyOcid = fromProfile.get();
+                } catch (BeansException e) {
+                    System.err.println("Tenancy OCID unavailable, OCI config could not be read: " + e.getMessage());
+                    return "";
+                }
+            }
+            return tenancyOcid;
+        }
+    }
+}
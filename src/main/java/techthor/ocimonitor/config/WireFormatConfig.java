@@ -0,0 +1,29 @@
+package techthor.ocimonitor.config;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * Compact binary responses via content negotiation.
+ * <p>
+ * Clients sending {@code Accept: application/cbor} receive the same response objects encoded
+ * as CBOR instead of JSON. Metric timestamps and values are then written as binary numbers
+ * instead of decimal text, which makes large metric responses considerably smaller and
+ * cheaper to encode. JSON remains the default.
+ */
+@Configuration
+public class WireFormatConfig {
+
+    /**
+     * CBOR converter built from the application's Jackson settings.
+     *
+     * @param builder Spring Boot's pre-configured Jackson builder (a new instance per injection point)
+     */
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+}
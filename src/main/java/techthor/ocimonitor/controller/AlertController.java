@@ -0,0 +1,83 @@
+// This controller exposes the AlertEngine: its rules, the currently firing alerts and the firing/resolved events.
+
+package techthor.ocimonitor.controller;
+
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import techthor.ocimonitor.alerting.AlertEngine;
+import techthor.ocimonitor.alerting.AlertRule;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/alerts")
+public class AlertController {
+
+    private final AlertEngine engine;
+
+    // The controller injects the engine via the constructor
+    public AlertController(AlertEngine engine) {
+        this.engine = engine;
+    }
+
+    // Returns the currently firing alerts, one per rule and instance
+    @GetMapping
+    public List<AlertEngine.ActiveAlert> getActive() {
+        return engine.active();
+    }
+
+    // Returns firing/resolved events after the given sequence number (oldest first) and the number to poll with next
+    @GetMapping("/events")
+    public Map<String, Object> getEvents(@RequestParam(name = "since", defaultValue = "0") long since,
+                                         @RequestParam(name = "limit", defaultValue = "500") int limit) {
+        return engine.events(since, Math.min(limit, 5000));
+    }
+
+    // Opens a Server-Sent Events stream: one 'active' event, then an 'alert' event per firing or resolved alert
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribe() {
+        return engine.subscribe();
+    }
+
+    // Returns all alert rules
+    @GetMapping("/rules")
+    public List<AlertRule> getRules() {
+        return engine.rules();
+    }
+
+    // Adds a rule, or replaces the rule with the same ID
+    @PostMapping("/rules")
+    public AlertRule putRule(@RequestBody AlertRule rule) {
+        engine.putRule(rule);
+        return rule;
+    }
+
+    // Removes a rule and resolves its firing alerts
+    @DeleteMapping("/rules/{id}")
+    public ResponseEntity<Void> deleteRule(@PathVariable String id) {
+        return engine.removeRule(id) ? ResponseEntity.noContent().build() : ResponseEntity.notFound().build();
+    }
+
+    // Returns the streaming statistics (mean, p95, EWMA, z-score) the rules see for each instance of a metric
+    @GetMapping("/series")
+    public List<Map<String, Object>> getSeries(@RequestParam("metric") String metric,
+                                               @RequestParam(name = "resourceId", required = false) String resourceId) {
+        return engine.seriesStats(metric, resourceId);
+    }
+
+    // Returns rule, series and evaluation counters
+    @GetMapping("/stats")
+    public Map<String, Object> getStats() {
+        return engine.stats();
+    }
+}
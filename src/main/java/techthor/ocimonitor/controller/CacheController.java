@@ -0,0 +1,29 @@
+// This controller is lean and only exposes cache statistics from the CacheRegistry.
+
+package techthor.ocimonitor.controller;
+
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import techthor.ocimonitor.cache.CacheRegistry;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/cache")
+public class CacheController {
+
+    private final CacheRegistry caches;
+
+    // The controller injects the registry via the constructor
+    public CacheController(CacheRegistry caches) {
+        this.caches = caches;
+    }
+
+    // Returns hit/miss/refresh counters of every resource cache
+    @GetMapping("/stats")
+    public List<Map<String, Object>> getStats() {
+        return caches.stats();
+    }
+}
@@ -1,53 +1,164 @@
-// This controller is lean and delegates all tasks to the DashboardService.
+// This controller is lean and delegates all tasks to the DashboardService, InstanceTableService and OciResourceService.
 
 package techthor.ocimonitor.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import techthor.ocimonitor.cache.Versioned;
+import techthor.ocimonitor.dto.InstanceDto;
+import techthor.ocimonitor.dto.MetricHistoryDto;
+import techthor.ocimonitor.dto.MetricSeriesDto;
+import techthor.ocimonitor.dto.PolicyDto;
+import techthor.ocimonitor.dto.VcnDto;
+import techthor.ocimonitor.inventory.InstanceTable;
 import techthor.ocimonitor.service.DashboardService;
+import techthor.ocimonitor.service.InstanceTableService;
+import techthor.ocimonitor.service.OciResourceService;
 
+import java.time.Duration;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 
 @RestController
 @RequestMapping("/api")
 public class DashboardController {
 
     private final DashboardService service;
+    private final InstanceTableService instanceTable;
+    private final OciResourceService resourceService;
+    private final ObjectMapper mapper;
 
-    // The controller injects the service via the constructor
-    public DashboardController(DashboardService service) {
+    // The controller injects the services via the constructor
+    public DashboardController(DashboardService service, InstanceTableService instanceTable,
+                               OciResourceService resourceService, ObjectMapper mapper) {
         this.service = service;
+        this.instanceTable = instanceTable;
+        this.resourceService = resourceService;
+        this.mapper = mapper;
     }
 
-    // Returns a list of compute resources
+    // Returns all dashboard sections at once, fetched concurrently, with per-section status and timings
+    @GetMapping("/snapshot")
+    public Map<String, Object> getSnapshot() {
+        return resourceService.getDashboardSnapshot();
+    }
+
+    // Returns a list of compute resources; 304 if unchanged since the client's ETag
     @GetMapping("/resources")
-    public List<Map<String, Object>> getResources() {
-        return service.getResources();
+    public ResponseEntity<List<InstanceDto>> getResources(WebRequest request) {
+        return HttpCaching.of(request, service.getResourcesVersioned());
+    }
+
+    // Returns compute resources joined with their latest CPU/memory values and primary IPs, sorted, filtered and paged
+    @GetMapping("/resources/table")
+    public ResponseEntity<InstanceTable.Page> getResourceTable(
+            @RequestParam(name = "sort", defaultValue = "name") String sort,
+            @RequestParam(name = "desc", defaultValue = "false") boolean descending,
+            @RequestParam(name = "status", required = false) String status,
+            @RequestParam(name = "q", required = false) String text,
+            @RequestParam(name = "offset", defaultValue = "0") int offset,
+            @RequestParam(name = "limit", defaultValue = "100") int limit,
+            WebRequest request) {
+        Versioned<InstanceTable> table = instanceTable.getTableVersioned();
+        int pageLimit = Math.min(limit, 1000);
+        long fingerprint = 31L * table.etag().hashCode() + Objects.hash(sort, descending, status, text, offset, pageLimit);
+        return HttpCaching.revalidated(request, "instance-table", fingerprint,
+                () -> table.value().query(sort, descending, status, text, offset, pageLimit));
+    }
+
+    // Streams all compute resources as NDJSON, page by page
+    @GetMapping("/resources/stream")
+    public ResponseEntity<StreamingResponseBody> streamResources() {
+        return NdjsonStreams.of(mapper, service::streamResourcePages);
+    }
+
+    // Returns several metrics in one batch as columnar series, downsampled to at most 'points' per series
+    @GetMapping("/metrics")
+    public ResponseEntity<Map<String, List<MetricSeriesDto>>> getMetrics(
+            @RequestParam(name = "names", defaultValue = "cpu,memory") List<String> names,
+            @RequestParam(name = "points", required = false) Integer points,
+            WebRequest request) {
+        Map<String, List<MetricSeriesDto>> metrics = points == null ? service.getMetrics(names) : service.getMetrics(names, points);
+        long fingerprint = 17;
+        for (Map.Entry<String, List<MetricSeriesDto>> entry : metrics.entrySet()) {
+            fingerprint = 31 * fingerprint + entry.getKey().hashCode();
+            fingerprint = 31 * fingerprint + fingerprint(entry.getValue());
+        }
+        return HttpCaching.revalidated(request, "metrics", fingerprint, () -> metrics);
+    }
+
+    // Returns recorded metric history for an arbitrary range from local storage (epoch millis; default: last 24h)
+    @GetMapping("/metrics/history")
+    public ResponseEntity<MetricHistoryDto> getMetricHistory(
+            @RequestParam("name") String name,
+            @RequestParam(name = "resourceId", required = false) String resourceId,
+            @RequestParam(name = "from", required = false) Long from,
+            @RequestParam(name = "to", required = false) Long to,
+            @RequestParam(name = "points", defaultValue = "500") int points,
+            WebRequest request) {
+        long end = to != null ? to : System.currentTimeMillis();
+        long start = from != null ? from : end - Duration.ofHours(24).toMillis();
+        MetricHistoryDto history = service.getMetricHistory(name, resourceId, start, end, points);
+        long fingerprint = 31L * String.valueOf(history.resolution()).hashCode() + fingerprint(history.series());
+        return HttpCaching.revalidated(request, "history", fingerprint, () -> history);
     }
 
-    // Returns recent CPU metrics
+    // Returns recent CPU metrics; 304 if unchanged since the client's ETag
     @GetMapping("/metrics/cpu")
-    public List<Map<String, Object>> getCpuMetrics() {
-        return service.getCpuMetrics();
+    public ResponseEntity<List<MetricSeriesDto>> getCpuMetrics(WebRequest request) {
+        List<MetricSeriesDto> series = service.getCpuMetrics();
+        return HttpCaching.revalidated(request, "cpu", fingerprint(series), () -> series);
     }
 
-    // Returns recent memory metrics
+    // Returns recent memory metrics; 304 if unchanged since the client's ETag
     @GetMapping("/metrics/memory")
-    public List<Map<String, Object>> getMemoryMetrics() {
-        return service.getMemoryMetrics();
+    public ResponseEntity<List<MetricSeriesDto>> getMemoryMetrics(WebRequest request) {
+        List<MetricSeriesDto> series = service.getMemoryMetrics();
+        return HttpCaching.revalidated(request, "memory", fingerprint(series), () -> series);
     }
 
-    // Returns networking VCN information
+    // Returns networking VCN information; 304 if unchanged since the client's ETag
     @GetMapping("/networking/vcns")
-    public List<Map<String, String>> getVcns() {
-        return service.getVcns();
+    public ResponseEntity<List<VcnDto>> getVcns(WebRequest request) {
+        return HttpCaching.of(request, service.getVcnsVersioned());
+    }
+
+    // Streams all VCNs as NDJSON, page by page
+    @GetMapping("/networking/vcns/stream")
+    public ResponseEntity<StreamingResponseBody> streamVcns() {
+        return NdjsonStreams.of(mapper, service::streamVcnPages);
     }
 
-    // Returns IAM policies
+    // Returns IAM policies; 304 if unchanged since the client's ETag
     @GetMapping("/identity/policies")
-    public List<Map<String, String>> getPolicies() {
-        return service.getPolicies();
+    public ResponseEntity<List<PolicyDto>> getPolicies(WebRequest request) {
+        return HttpCaching.of(request, service.getPoliciesVersioned());
+    }
+
+    // Streams all IAM policies as NDJSON, page by page
+    @GetMapping("/identity/policies/stream")
+    public ResponseEntity<StreamingResponseBody> streamPolicies() {
+        return NdjsonStreams.of(mapper, service::streamPolicyPages);
+    }
+
+    // Streams all compartments of the tenancy as NDJSON, page by page
+    @GetMapping("/identity/compartments/stream")
+    public ResponseEntity<StreamingResponseBody> streamCompartments() {
+        return NdjsonStreams.of(mapper, service::streamCompartmentPages);
+    }
+
+    private static long fingerprint(List<MetricSeriesDto> seriesList) {
+        long fingerprint = 1;
+        for (MetricSeriesDto series : seriesList) {
+            fingerprint = 31 * fingerprint + series.fingerprint();
+        }
+        return fingerprint;
     }
 }
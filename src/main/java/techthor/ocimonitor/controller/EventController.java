@@ -0,0 +1,28 @@
+// This controller is lean and delegates all tasks to the InventoryPushService.
+
+package techthor.ocimonitor.controller;
+
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import techthor.ocimonitor.service.InventoryPushService;
+
+@RestController
+@RequestMapping("/api/events")
+public class EventController {
+
+    private final InventoryPushService service;
+
+    // The controller injects the service via the constructor
+    public EventController(InventoryPushService service) {
+        this.service = service;
+    }
+
+    // Opens a Server-Sent Events stream: one 'snapshot' event, then 'diff' and 'metrics' events per poll
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribe() {
+        return service.subscribe();
+    }
+}
@@ -0,0 +1,52 @@
+package techthor.ocimonitor.controller;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.WebRequest;
+import techthor.ocimonitor.cache.Versioned;
+
+import java.util.function.Supplier;
+
+/**
+ * Helper for conditional GET responses.
+ * <p>
+ * The entity tag is known before the body is built or serialized: it comes from the version
+ * of a cached value, an index, or a fingerprint of primitive metric arrays. A request whose
+ * {@code If-None-Match} matches is answered with {@code 304 Not Modified} and no body, so an
+ * unchanged poll costs neither serialization nor bandwidth.
+ */
+final class HttpCaching {
+
+    private HttpCaching() {
+    }
+
+    /**
+     * Cached value: fresh for the rest of its cache TTL, then revalidated with its entity tag.
+     */
+    static <T> ResponseEntity<T> of(WebRequest request, Versioned<T> versioned) {
+        return conditional(request, versioned.etag(), CacheControl.maxAge(versioned.maxAge()).cachePrivate(),
+                versioned::value);
+    }
+
+    /**
+     * Value that may change at any time: the client revalidates on every use.
+     *
+     * @param fingerprint hash of the response content
+     */
+    static <T> ResponseEntity<T> revalidated(WebRequest request, String scope, long fingerprint, Supplier<T> body) {
+        return conditional(request, "W/\"" + scope + "-" + Long.toHexString(fingerprint) + "\"",
+                CacheControl.noCache().cachePrivate(), body);
+    }
+
+    /**
+     * @param body supplier of the body; only invoked if the client's copy is outdated
+     */
+    static <T> ResponseEntity<T> conditional(WebRequest request, String etag, CacheControl cacheControl,
+                                             Supplier<T> body) {
+        if (request.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(cacheControl).build();
+        }
+        return ResponseEntity.ok().eTag(etag).cacheControl(cacheControl).body(body.get());
+    }
+}
@@ -0,0 +1,54 @@
+package techthor.ocimonitor.controller;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Helper for streaming endpoints that write newline-delimited JSON (one row per line).
+ * <p>
+ * Each page is written as soon as it arrives and flushed, so the client sees the first
+ * rows after the first upstream page. Nothing is accumulated in memory.
+ */
+final class NdjsonStreams {
+
+    private NdjsonStreams() {
+    }
+
+    /**
+     * Builds a streaming NDJSON response from a lazily evaluated stream of pages.
+     *
+     * @param mapper Jackson mapper used to serialize each row
+     * @param pages  supplier of the page stream; invoked on the async streaming thread
+     */
+    static <T> ResponseEntity<StreamingResponseBody> of(ObjectMapper mapper, Supplier<Stream<List<T>>> pages) {
+        StreamingResponseBody body = out -> {
+            try (JsonGenerator generator = mapper.getFactory().createGenerator(out);
+                 Stream<List<T>> stream = pages.get()) {
+                generator.setRootValueSeparator(null);
+                stream.forEach(page -> {
+                    try {
+                        for (T row : page) {
+                            generator.writeObject(row);
+                            generator.writeRaw('\n');
+                        }
+                        generator.flush();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+}
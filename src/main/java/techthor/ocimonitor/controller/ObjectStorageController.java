@@ -1,35 +1,238 @@
-// This controller is lean and delegates all tasks to the ObjectStorageService.
+// This controller is lean and delegates all tasks to the ObjectStorageService, ObjectInventoryService,
+// ObjectPreviewService, ParallelObjectDownloader and ParallelObjectUploader.
 
 package techthor.ocimonitor.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.oracle.bmc.model.Range;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import techthor.ocimonitor.dto.DownloadResult;
+import techthor.ocimonitor.dto.ObjectContent;
+import techthor.ocimonitor.dto.ObjectPreview;
+import techthor.ocimonitor.dto.OciObjectDto;
+import techthor.ocimonitor.dto.UploadResult;
+import techthor.ocimonitor.service.ObjectInventoryService;
+import techthor.ocimonitor.service.ObjectPreviewService;
 import techthor.ocimonitor.service.ObjectStorageService;
+import techthor.ocimonitor.service.ParallelObjectDownloader;
+import techthor.ocimonitor.service.ParallelObjectUploader;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 @RestController
 @RequestMapping("/api/storage")
 public class ObjectStorageController {
 
+    private static final Pattern BYTE_RANGE = Pattern.compile("bytes\\s*=\\s*(\\d*)\\s*-\\s*(\\d*)",
+            Pattern.CASE_INSENSITIVE);
+
     private final ObjectStorageService service;
+    private final ObjectInventoryService inventory;
+    private final ObjectPreviewService previews;
+    private final ParallelObjectDownloader downloader;
+    private final ParallelObjectUploader uploader;
+    private final ObjectMapper mapper;
 
-    // The controller injects the service via the constructor
-    public ObjectStorageController(ObjectStorageService service) {
+    // The controller injects the services via the constructor
+    public ObjectStorageController(ObjectStorageService service, ObjectInventoryService inventory,
+                                   ObjectPreviewService previews, ParallelObjectDownloader downloader,
+                                   ParallelObjectUploader uploader, ObjectMapper mapper) {
         this.service = service;
+        this.inventory = inventory;
+        this.previews = previews;
+        this.downloader = downloader;
+        this.uploader = uploader;
+        this.mapper = mapper;
     }
 
-    // Returns all bucket names
+    // Returns all bucket names; 304 if unchanged since the client's ETag
     @GetMapping("/buckets")
-    public List<String> listBuckets() {
-        return service.getAllBucketNames();
+    public ResponseEntity<List<String>> listBuckets(WebRequest request) {
+        return HttpCaching.of(request, service.getAllBucketNamesVersioned());
+    }
+
+    // Streams all buckets (name, compartmentId) as NDJSON, compartment by compartment
+    @GetMapping("/buckets/stream")
+    public ResponseEntity<StreamingResponseBody> streamBuckets() {
+        return NdjsonStreams.of(mapper, service::streamAllBuckets);
     }
 
-    // Returns object names in a specific bucket
+    // Returns object names in a specific bucket, served from the object inventory index; 304 if the index is unchanged
     @GetMapping("/buckets/{bucket}/objects")
-    public List<String> listObjects(@PathVariable String bucket) {
-        return service.getObjectNamesFromBucket(bucket);
+    public ResponseEntity<List<String>> listObjects(@PathVariable String bucket, WebRequest request) {
+        return HttpCaching.conditional(request, inventory.getObjectsEtag(bucket), CacheControl.noCache().cachePrivate(),
+                () -> inventory.getObjectNames(bucket));
+    }
+
+    // Streams objects (name, size, etag) in a specific bucket as NDJSON, page by page
+    @GetMapping("/buckets/{bucket}/objects/stream")
+    public ResponseEntity<StreamingResponseBody> streamObjects(@PathVariable String bucket) {
+        return NdjsonStreams.of(mapper, () -> service.streamObjectPages(bucket));
+    }
+
+    // Finds objects by name prefix in one bucket or across all indexed buckets (at most 10000 per bucket)
+    @GetMapping("/inventory/search")
+    public Map<String, List<OciObjectDto>> searchObjects(@RequestParam(name = "prefix", defaultValue = "") String prefix,
+                                                         @RequestParam(name = "bucket", required = false) String bucket,
+                                                         @RequestParam(name = "limit", defaultValue = "1000") int limit) {
+        return inventory.search(bucket, prefix, Math.clamp(limit, 0, 10000));
+    }
+
+    // Returns object count and total size under a prefix, per child folder or per bucket
+    @GetMapping("/inventory/usage")
+    public Map<String, Object> getUsage(@RequestParam(name = "bucket", required = false) String bucket,
+                                        @RequestParam(name = "prefix", defaultValue = "") String prefix) {
+        return inventory.usage(bucket, prefix);
+    }
+
+    // Returns the largest objects in one bucket or across all indexed buckets (at most 1000)
+    @GetMapping("/inventory/largest")
+    public List<Map<String, Object>> getLargestObjects(@RequestParam(name = "bucket", required = false) String bucket,
+                                                       @RequestParam(name = "prefix", defaultValue = "") String prefix,
+                                                       @RequestParam(name = "n", defaultValue = "10") int n) {
+        return inventory.largest(bucket, prefix, Math.clamp(n, 0, 1000));
+    }
+
+    // Returns indexed bucket/object counts and index memory
+    @GetMapping("/inventory/stats")
+    public Map<String, Object> getInventoryStats() {
+        return inventory.stats();
+    }
+
+    // Streams the content of an object without buffering it; supports single HTTP Range requests (416 if unsatisfiable)
+    @GetMapping("/buckets/{bucket}/objects/content")
+    public ResponseEntity<StreamingResponseBody> downloadObject(@PathVariable String bucket,
+                                                                @RequestParam("name") String objectName,
+                                                                @RequestHeader(value = HttpHeaders.RANGE, required = false) String rangeHeader) {
+        ObjectContent content = service.openObject(bucket, objectName, parseRange(rangeHeader));
+        try {
+            HttpHeaders headers = new HttpHeaders();
+            headers.setContentLength(content.contentLength());
+            headers.set(HttpHeaders.ACCEPT_RANGES, "bytes");
+            if (content.etag() != null) {
+                headers.setETag(quoted(content.etag()));
+            }
+            headers.setContentType(mediaType(content.contentType()));
+            headers.setContentDisposition(ContentDisposition.attachment()
+                    .filename(objectName.substring(objectName.lastIndexOf('/') + 1))
+                    .build());
+
+            HttpStatus status = HttpStatus.OK;
+            if (content.isPartial()) {
+                status = HttpStatus.PARTIAL_CONTENT;
+                headers.set(HttpHeaders.CONTENT_RANGE, "bytes " + content.rangeStart() + "-" + content.rangeEnd() + "/"
+                        + (content.totalLength() >= 0 ? content.totalLength() : "*"));
+            }
+
+            StreamingResponseBody body = out -> service.copyTo(content, out);
+            return new ResponseEntity<>(body, headers, status);
+        } catch (RuntimeException e) {
+            // The body never runs, so release the OCI response stream and its pooled connection here
+            try {
+                content.close();
+            } catch (IOException closeFailure) {
+                e.addSuppressed(closeFailure);
+            }
+            throw e;
+        }
+    }
+
+    // Returns a preview of the first KB of an object (gzip/zstd decoded, format detected), cached per object version
+    @GetMapping("/buckets/{bucket}/objects/preview")
+    public ResponseEntity<ObjectPreview> previewObject(@PathVariable String bucket,
+                                                       @RequestParam("name") String objectName,
+                                                       @RequestParam(name = "kb", required = false) Integer kilobytes,
+                                                       WebRequest request) {
+        ObjectPreview preview = previews.preview(bucket, objectName, kilobytes);
+        long fingerprint = 31L * String.valueOf(preview.etag()).hashCode() + preview.bytesFetched();
+        return HttpCaching.revalidated(request, "preview", fingerprint, () -> preview);
+    }
+
+    // Returns size, budget and hit counters of the preview cache
+    @GetMapping("/preview/stats")
+    public Map<String, Object> getPreviewStats() {
+        return previews.stats();
+    }
+
+    // Downloads a large object into the server-side download directory using parallel ranged GETs
+    @PostMapping("/buckets/{bucket}/objects/download")
+    public DownloadResult downloadToFile(@PathVariable String bucket,
+                                         @RequestParam("name") String objectName) throws IOException {
+        return downloader.download(bucket, objectName);
+    }
+
+    // Uploads the raw request body as an object, streamed to OCI as parallel multipart upload parts
+    @PutMapping("/buckets/{bucket}/objects/content")
+    public UploadResult uploadObject(@PathVariable String bucket,
+                                     @RequestParam("name") String objectName,
+                                     @RequestHeader(value = HttpHeaders.CONTENT_TYPE, required = false) String contentType,
+                                     InputStream body) throws IOException {
+        return uploader.upload(bucket, objectName, contentType, body);
+    }
+
+    // Content type stored with the object; a missing or unparsable one is served as application/octet-stream
+    private static MediaType mediaType(String contentType) {
+        if (contentType == null) {
+            return MediaType.APPLICATION_OCTET_STREAM;
+        }
+        try {
+            return MediaType.parseMediaType(contentType);
+        } catch (InvalidMediaTypeException e) {
+            return MediaType.APPLICATION_OCTET_STREAM;
+        }
+    }
+
+    // Parses a single byte range (bytes=a-b, bytes=a-, bytes=-n) into an OCI range GET; malformed and multi-range
+    // headers are served as a full response (allowed by RFC 9110), ranges that can match no byte are rejected with 416
+    private static Range parseRange(String rangeHeader) {
+        Matcher matcher = rangeHeader == null ? null : BYTE_RANGE.matcher(rangeHeader.trim());
+        if (matcher == null || !matcher.matches()) {
+            return null;
+        }
+        String first = matcher.group(1);
+        String last = matcher.group(2);
+        // 18 digits always fit a long; larger positions cannot address an object anyway
+        if ((first.isEmpty() && last.isEmpty()) || first.length() > 18 || last.length() > 18) {
+            return null;
+        }
+        if (first.isEmpty()) {
+            long suffixLength = Long.parseLong(last);
+            if (suffixLength == 0) {
+                throw new ResponseStatusException(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE, "Empty suffix range");
+            }
+            return new Range(null, suffixLength);
+        }
+        long start = Long.parseLong(first);
+        if (last.isEmpty()) {
+            return new Range(start, null);
+        }
+        long end = Long.parseLong(last);
+        return start <= end ? new Range(start, end) : null;
+    }
+
+    private static String quoted(String etag) {
+        return etag.startsWith("\"") ? etag : "\"" + etag + "\"";
     }
 }
@@ -0,0 +1,49 @@
+// Translates OCI failures into HTTP errors, so that an unavailable or throttled OCI endpoint is not reported as "no data".
+
+package techthor.ocimonitor.controller;
+
+import com.oracle.bmc.model.BmcException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import techthor.ocimonitor.resilience.OciUnavailableException;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@RestControllerAdvice
+public class OciExceptionHandler {
+
+    // Call rejected by the resilience layer (open circuit, full bulkhead, rate limit): 503 with Retry-After
+    @ExceptionHandler(OciUnavailableException.class)
+    public ResponseEntity<Map<String, Object>> handleUnavailable(OciUnavailableException e) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("error", e.getMessage());
+        body.put("endpoint", e.getEndpoint());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, (e.getRetryAfterMillis() + 999) / 1000)))
+                .body(body);
+    }
+
+    // Error returned by OCI after retries: throttling and server errors become 503/502, client errors keep their status
+    @ExceptionHandler(BmcException.class)
+    public ResponseEntity<Map<String, Object>> handleBmc(BmcException e) {
+        int status = e.getStatusCode();
+        HttpStatus httpStatus;
+        if (status == 429) {
+            httpStatus = HttpStatus.SERVICE_UNAVAILABLE;
+        } else if (status >= 500 || status <= 0 || e.isTimeout()) {
+            httpStatus = HttpStatus.BAD_GATEWAY;
+        } else {
+            HttpStatus resolved = HttpStatus.resolve(status);
+            httpStatus = resolved != null ? resolved : HttpStatus.BAD_GATEWAY;
+        }
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("error", e.getMessage());
+        body.put("ociStatus", status);
+        body.put("opcRequestId", e.getOpcRequestId());
+        return ResponseEntity.status(httpStatus).body(body);
+    }
+}
@@ -0,0 +1,29 @@
+// This controller is lean and only exposes the state of the OCI resilience layer.
+
+package techthor.ocimonitor.controller;
+
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import techthor.ocimonitor.resilience.OciResilience;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/resilience")
+public class ResilienceController {
+
+    private final OciResilience resilience;
+
+    // The controller injects the resilience layer via the constructor
+    public ResilienceController(OciResilience resilience) {
+        this.resilience = resilience;
+    }
+
+    // Returns call counters, breaker state, current rate limit and bulkhead usage per OCI endpoint
+    @GetMapping("/stats")
+    public List<Map<String, Object>> getStats() {
+        return resilience.stats();
+    }
+}
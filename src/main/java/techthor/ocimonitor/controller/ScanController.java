@@ -0,0 +1,79 @@
+// This controller exposes the tenancy-wide inventory built by the TenancyScanner (all compartments and regions),
+// kept current by the IncrementalSync, and the log of changes to it.
+
+package techthor.ocimonitor.controller;
+
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import techthor.ocimonitor.scan.ChangeLog;
+import techthor.ocimonitor.scan.IncrementalSync;
+import techthor.ocimonitor.scan.ScanInventory;
+import techthor.ocimonitor.scan.TenancyScanner;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/scan")
+public class ScanController {
+
+    private final TenancyScanner scanner;
+    private final IncrementalSync incrementalSync;
+    private final ChangeLog changeLog;
+
+    // The controller injects the scanner, the incremental sync and the change log via the constructor
+    public ScanController(TenancyScanner scanner, IncrementalSync incrementalSync, ChangeLog changeLog) {
+        this.scanner = scanner;
+        this.incrementalSync = incrementalSync;
+        this.changeLog = changeLog;
+    }
+
+    // Queries the scanned inventory by kind, region, compartment and name; returns one page plus facet counts
+    @GetMapping("/resources")
+    public ScanInventory.Page getResources(@RequestParam(name = "kind", required = false) String kind,
+                                           @RequestParam(name = "region", required = false) String region,
+                                           @RequestParam(name = "compartmentId", required = false) String compartmentId,
+                                           @RequestParam(name = "q", required = false) String text,
+                                           @RequestParam(name = "offset", defaultValue = "0") int offset,
+                                           @RequestParam(name = "limit", defaultValue = "100") int limit) {
+        Map<String, String> filters = new LinkedHashMap<>();
+        filters.put("kind", kind);
+        filters.put("region", region);
+        filters.put("compartmentId", compartmentId);
+        return scanner.inventory().query(filters, text, offset, Math.min(limit, 1000));
+    }
+
+    // Returns the status of the last scan: duration, counts and per-region timings and failures
+    @GetMapping("/status")
+    public Map<String, Object> getStatus() {
+        return scanner.status();
+    }
+
+    // Runs a full scan now and returns its status (or the current status if a scan is already running)
+    @PostMapping("/refresh")
+    public Map<String, Object> refresh() {
+        return scanner.scan();
+    }
+
+    // Returns inventory changes after the given sequence number (oldest first) and the number to poll with next
+    @GetMapping("/changes")
+    public Map<String, Object> getChanges(@RequestParam(name = "since", defaultValue = "0") long since,
+                                          @RequestParam(name = "limit", defaultValue = "500") int limit) {
+        return changeLog.since(since, Math.min(limit, 5000));
+    }
+
+    // Returns the status of the last incremental sync and the current watermark
+    @GetMapping("/sync")
+    public Map<String, Object> getSyncStatus() {
+        return incrementalSync.status();
+    }
+
+    // Runs an incremental sync now: re-fetches only the resources changed since the watermark
+    @PostMapping("/sync")
+    public Map<String, Object> sync() {
+        return incrementalSync.sync();
+    }
+}
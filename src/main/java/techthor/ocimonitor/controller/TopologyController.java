@@ -0,0 +1,105 @@
+// This controller exposes the network topology graph (VCN → subnet → VNIC → instance, with route tables,
+// security lists and route targets) kept by the TopologyService.
+
+package techthor.ocimonitor.controller;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import techthor.ocimonitor.topology.TopologyGraph;
+import techthor.ocimonitor.topology.TopologyNode;
+import techthor.ocimonitor.topology.TopologyService;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+@RestController
+@RequestMapping("/api/topology")
+public class TopologyController {
+
+    private final TopologyService topology;
+
+    // The controller injects the topology service via the constructor
+    public TopologyController(TopologyService topology) {
+        this.topology = topology;
+    }
+
+    // Returns the nodes of the graph, optionally of one kind (VCN, SUBNET, ROUTE_TABLE, SECURITY_LIST, GATEWAY, VNIC, INSTANCE)
+    @GetMapping("/nodes")
+    public ResponseEntity<List<TopologyNode>> getNodes(
+            @RequestParam(name = "kind", required = false) TopologyNode.Kind kind,
+            @RequestParam(name = "limit", defaultValue = "1000") int limit,
+            WebRequest request) {
+        TopologyGraph graph = topology.graph();
+        int nodeLimit = Math.min(limit, 10000);
+        return HttpCaching.revalidated(request, "topology", fingerprint(graph, "nodes", kind, nodeLimit),
+                () -> graph.nodes(kind, nodeLimit));
+    }
+
+    // Returns the nodes within 'depth' hops of a node (edges followed both ways) and the edges between them
+    @GetMapping("/nodes/{id}/neighbours")
+    public ResponseEntity<TopologyGraph.Subgraph> getNeighbours(
+            @PathVariable("id") String id,
+            @RequestParam(name = "depth", defaultValue = "1") int depth,
+            @RequestParam(name = "limit", defaultValue = "500") int limit,
+            WebRequest request) {
+        TopologyGraph graph = topology.graph();
+        int maxDepth = Math.min(depth, 6);
+        int nodeLimit = Math.min(limit, 5000);
+        TopologyGraph.Subgraph subgraph = graph.neighbourhood(id, maxDepth, nodeLimit);
+        if (subgraph == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return HttpCaching.revalidated(request, "topology", fingerprint(graph, "neighbours", id, maxDepth, nodeLimit),
+                () -> subgraph);
+    }
+
+    // Returns the shortest chain of nodes connecting two resources (empty if they are not connected)
+    @GetMapping("/path")
+    public ResponseEntity<List<TopologyNode>> getPath(@RequestParam("from") String from,
+                                                      @RequestParam("to") String to,
+                                                      WebRequest request) {
+        TopologyGraph graph = topology.graph();
+        List<TopologyNode> path = graph.path(from, to);
+        if (path == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return HttpCaching.revalidated(request, "topology", fingerprint(graph, "path", from, to), () -> path);
+    }
+
+    // Returns what can reach an instance: subnets, external ranges and the internet admitted by its security lists
+    @GetMapping("/reachability")
+    public ResponseEntity<TopologyGraph.Reachability> getReachability(@RequestParam("instanceId") String instanceId,
+                                                                      WebRequest request) {
+        TopologyGraph graph = topology.graph();
+        TopologyGraph.Reachability reachability = graph.reachability(instanceId);
+        if (reachability == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return HttpCaching.revalidated(request, "topology", fingerprint(graph, "reachability", instanceId),
+                () -> reachability);
+    }
+
+    // Returns the status of the last refresh (listed resources, applied changes) and the graph size per node kind
+    @GetMapping("/status")
+    public Map<String, Object> getStatus() {
+        return topology.status();
+    }
+
+    // Reloads the topology now and applies only the differences to the graph
+    @PostMapping("/refresh")
+    public Map<String, Object> refresh() {
+        return topology.refresh();
+    }
+
+    // The graph version changes with every applied difference, so it identifies the answer together with the query
+    private static long fingerprint(TopologyGraph graph, Object... query) {
+        return 31L * graph.version() + Objects.hash(query);
+    }
+}
@@ -1,40 +1,41 @@
 package techthor.ocimonitor.dao;
 
-import com.oracle.bmc.auth.ConfigFileAuthenticationDetailsProvider;
-import com.oracle.bmc.objectstorage.ObjectStorageClient;
+import com.oracle.bmc.objectstorage.ObjectStorage;
 import com.oracle.bmc.objectstorage.model.BucketSummary;
-import com.oracle.bmc.objectstorage.requests.GetNamespaceRequest;
 import com.oracle.bmc.objectstorage.requests.ListBucketsRequest;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Repository;
+import techthor.ocimonitor.config.ObjectStorageNamespace;
+import techthor.ocimonitor.config.TenancyId;
 
-import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
 
 @Repository
 public class ObjectStorageDao {
 
-    private final ObjectStorageClient client;
-    private final String tenancyOcid; // <-- Root-OCID hier
+    private final ObjectStorage client;
+    private final ObjectStorageNamespace namespace;
+    private final TenancyId tenancyId; // <-- Root-OCID hier
 
     public ObjectStorageDao(
-            @Value("${oci.config.path}") String configPath,
-            @Value("${oci.profile}") String profile,
-            @Value("${oci.tenancy.ocid}") String tenancyOcid // aus application.properties
-    ) throws IOException {
-        var provider = new ConfigFileAuthenticationDetailsProvider(configPath, profile);
-        this.client = new ObjectStorageClient(provider);
-        this.tenancyOcid = tenancyOcid;
+            ObjectStorage client, // geteilter Client aus der OciClientRegistry
+            ObjectStorageNamespace namespace,
+            TenancyId tenancyId // aus application.properties
+    ) {
+        this.client = client;
+        this.namespace = namespace;
+        this.tenancyId = tenancyId;
     }
 
     public List<BucketSummary> listBuckets() {
-        String namespace = client.getNamespace(GetNamespaceRequest.builder().build()).getValue();
-
-        return client.listBuckets(
+        // Paginator follows opc-next-page, so large compartments are not truncated
+        List<BucketSummary> buckets = new ArrayList<>();
+        client.getPaginators().listBucketsRecordIterator(
                 ListBucketsRequest.builder()
-                        .namespaceName(namespace)
-                        .compartmentId(tenancyOcid) // Root-Scope verwenden
+                        .namespaceName(namespace.get())
+                        .compartmentId(tenancyId.get()) // Root-Scope verwenden
                         .build()
-        ).getItems();
+        ).forEach(buckets::add);
+        return buckets;
     }
 }
@@ -0,0 +1,10 @@
+package techthor.ocimonitor.dto;
+
+/**
+ * Compartment row of the dashboard.
+ *
+ * @param id       compartment OCID
+ * @param name     compartment name
+ * @param parentId OCID of the parent compartment (the tenancy for top-level compartments)
+ */
+public record CompartmentDto(String id, String name, String parentId) implements ResourceRow {}
@@ -0,0 +1,9 @@
+package techthor.ocimonitor.dto;
+
+/**
+ * Identity domain row of the dashboard.
+ *
+ * @param id   domain OCID
+ * @param name display name
+ */
+public record DomainDto(String id, String name) implements ResourceRow {}
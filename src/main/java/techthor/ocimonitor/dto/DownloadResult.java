@@ -0,0 +1,16 @@
+package techthor.ocimonitor.dto;
+
+/**
+ * Outcome of a parallel ranged object download to a local file.
+ *
+ * @param path       local file the object was written to
+ * @param bytes      object size in bytes
+ * @param chunks     number of ranges the object was split into
+ * @param retries    number of ranges re-fetched because their body broke off (failed calls are counted in oci.client.retries)
+ * @param durationMs wall-clock download time
+ * @param etag       ETag the download was pinned to
+ * @param verified   whether the file was checked against the object's Content-MD5
+ *                   (not possible for multipart-uploaded objects)
+ */
+public record DownloadResult(String path, long bytes, int chunks, int retries,
+                             long durationMs, String etag, boolean verified) {}
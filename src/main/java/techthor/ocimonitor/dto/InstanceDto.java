@@ -0,0 +1,10 @@
+package techthor.ocimonitor.dto;
+
+/**
+ * Compute instance row of the dashboard.
+ *
+ * @param id     instance OCID
+ * @param name   display name
+ * @param status lifecycle state, e.g. {@code RUNNING}
+ */
+public record InstanceDto(String id, String name, String status) implements ResourceRow {}
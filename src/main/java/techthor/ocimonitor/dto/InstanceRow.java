@@ -0,0 +1,33 @@
+package techthor.ocimonitor.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Compute instance joined with its latest metrics and primary VNIC addresses.
+ * <p>
+ * The metric fields are serialized as {@code cpu_usage}, {@code memory_usage} and {@code ts},
+ * matching the {@code Resource} type of the frontend.
+ *
+ * @param id                 instance OCID
+ * @param name               display name
+ * @param status             lifecycle state, e.g. {@code RUNNING}
+ * @param shape              shape, e.g. {@code VM.Standard.E4.Flex}
+ * @param availabilityDomain availability domain
+ * @param cpuUsage           newest CPU utilization in percent, or null if no datapoint is stored
+ * @param memoryUsage        newest memory utilization in percent, or null if no datapoint is stored
+ * @param ts                 time of the newest of these datapoints (ISO-8601), or null
+ * @param privateIp          primary private IP of the primary VNIC, or null
+ * @param publicIp           public IP assigned to that private IP, or null
+ * @param subnetId           subnet OCID of the primary VNIC, or null
+ */
+public record InstanceRow(String id,
+                          String name,
+                          String status,
+                          String shape,
+                          String availabilityDomain,
+                          @JsonProperty("cpu_usage") Double cpuUsage,
+                          @JsonProperty("memory_usage") Double memoryUsage,
+                          String ts,
+                          String privateIp,
+                          String publicIp,
+                          String subnetId) implements ResourceRow {}
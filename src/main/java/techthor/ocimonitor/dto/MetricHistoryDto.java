@@ -0,0 +1,13 @@
+package techthor.ocimonitor.dto;
+
+import java.util.List;
+
+/**
+ * Recorded history of one metric.
+ *
+ * @param name       metric name
+ * @param resolution resolution the series were read at ({@code 1m}, {@code 5m} or {@code 1h});
+ *                   null if the history could not be read
+ * @param series     one series per resource
+ */
+public record MetricHistoryDto(String name, String resolution, List<MetricSeriesDto> series) {}
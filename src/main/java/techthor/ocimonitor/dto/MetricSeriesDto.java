@@ -0,0 +1,38 @@
+package techthor.ocimonitor.dto;
+
+import techthor.ocimonitor.metrics.MetricColumns;
+
+/**
+ * One metric series in columnar form, serialized as
+ * {@code {"label":..., "resourceId":..., "t":[...], "v":[...]}}.
+ * <p>
+ * The points stay in primitive arrays from the metric store to the response: Jackson writes
+ * {@code long[]} and {@code double[]} straight to the generator, without boxing a number or
+ * allocating an object per point.
+ *
+ * @param label      instance name, or the resource OCID if the name is unknown
+ * @param resourceId resource OCID
+ * @param t          timestamps in epoch millis, ascending
+ * @param v          values, same length as {@code t}
+ */
+public record MetricSeriesDto(String label, String resourceId, long[] t, double[] v) {
+
+    public MetricSeriesDto(String label, String resourceId, MetricColumns columns) {
+        this(label, resourceId, columns.t(), columns.v());
+    }
+
+    /**
+     * 64-bit hash of the label, resource and points, computed from the primitive arrays
+     * without serializing them. Used to derive entity tags of metric responses.
+     */
+    public long fingerprint() {
+        long hash = 1125899906842597L;
+        hash = 31 * hash + String.valueOf(label).hashCode();
+        hash = 31 * hash + String.valueOf(resourceId).hashCode();
+        for (int i = 0; i < t.length; i++) {
+            hash = 31 * hash + t[i];
+            hash = 31 * hash + Double.doubleToLongBits(v[i]);
+        }
+        return hash;
+    }
+}
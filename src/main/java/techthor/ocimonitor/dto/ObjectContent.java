@@ -0,0 +1,34 @@
+package techthor.ocimonitor.dto;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Open handle on (a range of) an OCI Object Storage object, together with the metadata
+ * needed for HTTP response headers. The caller must close it to release the connection.
+ *
+ * @param stream        object bytes as returned by OCI, not buffered
+ * @param contentLength number of bytes in {@code stream}
+ * @param etag          object ETag
+ * @param contentType   object content type, may be null
+ * @param rangeStart    first byte of a partial response, or -1 for a full response
+ * @param rangeEnd      last byte of a partial response, or -1 for a full response
+ * @param totalLength   full object size for partial responses, or -1 if unknown
+ */
+public record ObjectContent(InputStream stream,
+                            long contentLength,
+                            String etag,
+                            String contentType,
+                            long rangeStart,
+                            long rangeEnd,
+                            long totalLength) implements AutoCloseable {
+
+    public boolean isPartial() {
+        return rangeStart >= 0;
+    }
+
+    @Override
+    public void close() throws IOException {
+        stream.close();
+    }
+}
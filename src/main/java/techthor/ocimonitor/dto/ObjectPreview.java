@@ -0,0 +1,44 @@
+package techthor.ocimonitor.dto;
+
+import java.util.List;
+
+/**
+ * Bounded preview of the beginning of an object, decompressed and classified.
+ *
+ * @param bucket       bucket name
+ * @param objectName   object name
+ * @param etag         ETag of the previewed object version
+ * @param contentType  object content type, may be null
+ * @param objectSize   full object size in bytes, or -1 if unknown
+ * @param compression  {@code gzip}, {@code zstd} or {@code none}
+ * @param format       {@code text}, {@code json}, {@code ndjson}, {@code csv}, {@code parquet}, {@code binary} or {@code empty}
+ * @param bytesFetched raw bytes read from OCI for this preview
+ * @param decodedBytes bytes of (decompressed) content behind the preview
+ * @param truncated    whether the preview covers only the beginning of the content
+ * @param text         content as text, cut after the last complete line; a hex dump for binary content
+ * @param rows         parsed CSV rows, header first; null for other formats
+ * @param parquet      Parquet footer summary; null for other formats
+ */
+public record ObjectPreview(String bucket,
+                            String objectName,
+                            String etag,
+                            String contentType,
+                            long objectSize,
+                            String compression,
+                            String format,
+                            long bytesFetched,
+                            long decodedBytes,
+                            boolean truncated,
+                            String text,
+                            List<List<String>> rows,
+                            Parquet parquet) {
+
+    /**
+     * Summary of a Parquet file, read from its footer.
+     *
+     * @param footerBytes size of the file metadata in bytes
+     * @param rowCount    number of rows, or -1 if the footer could not be read completely
+     * @param columns     leaf column paths (nested fields joined with '.'); empty if the footer could not be read
+     */
+    public record Parquet(long footerBytes, long rowCount, List<String> columns) {}
+}
@@ -2,5 +2,10 @@ package techthor.ocimonitor.dto;
 
 /**
  * Data Transfer Object for representing an OCI Object inside a Bucket.
+ *
+ * @param name        object name
+ * @param size        size in bytes
+ * @param etag        entity tag of the current object version
+ * @param timeCreated creation time in epoch millis, 0 if unknown
  */
-public record OciObjectDto(String name, long size, String etag) {}
+public record OciObjectDto(String name, long size, String etag, long timeCreated) {}
@@ -0,0 +1,9 @@
+package techthor.ocimonitor.dto;
+
+/**
+ * IAM policy row of the dashboard.
+ *
+ * @param id   policy OCID
+ * @param name policy name
+ */
+public record PolicyDto(String id, String name) implements ResourceRow {}
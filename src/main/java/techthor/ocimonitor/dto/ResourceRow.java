@@ -0,0 +1,10 @@
+package techthor.ocimonitor.dto;
+
+/**
+ * A row of a dashboard list, identified by its OCID. Rows are records, so two polls of the
+ * same resource compare equal unless one of its fields changed.
+ */
+public interface ResourceRow {
+
+    String id();
+}
@@ -0,0 +1,16 @@
+package techthor.ocimonitor.dto;
+
+/**
+ * Outcome of a streaming object upload.
+ *
+ * @param bucket     bucket the object was written to
+ * @param objectName object name
+ * @param bytes      object size in bytes
+ * @param parts      number of parts uploaded; 1 for a single PutObject
+ * @param multipart  whether the object was uploaded with OCI multipart upload
+ * @param retries    number of part uploads that had to be repeated
+ * @param durationMs wall-clock upload time
+ * @param etag       ETag of the new object
+ */
+public record UploadResult(String bucket, String objectName, long bytes, int parts, boolean multipart,
+                           int retries, long durationMs, String etag) {}
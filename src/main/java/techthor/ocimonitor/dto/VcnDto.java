@@ -0,0 +1,9 @@
+package techthor.ocimonitor.dto;
+
+/**
+ * Virtual Cloud Network row of the dashboard.
+ *
+ * @param id          VCN OCID
+ * @param displayName display name
+ */
+public record VcnDto(String id, String displayName) implements ResourceRow {}
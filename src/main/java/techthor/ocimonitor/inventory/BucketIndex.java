@@ -0,0 +1,423 @@
+package techthor.ocimonitor.inventory;
+
+import techthor.ocimonitor.dto.OciObjectDto;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.stream.IntStream;
+
+/**
+ * Immutable, compact index of the objects of one bucket.
+ * <p>
+ * Objects are sorted by the UTF-8 bytes of their name, so all objects sharing a prefix form
+ * one contiguous range. Names are front-coded in blocks of {@value #BLOCK_SIZE}: each entry
+ * stores only the length of the prefix shared with its predecessor plus the remaining
+ * suffix, so names that share folder or date prefixes cost little more than their distinct
+ * tail. Sizes and creation times are kept in primitive arrays, with prefix sums over the
+ * sizes, so the total size of any prefix costs two binary searches.
+ * <p>
+ * Compared to a {@code List<OciObjectDto>}, memory use drops to the compressed name and ETag
+ * bytes plus about 32 bytes per object, and scans touch a few dense arrays instead of
+ * chasing pointers. Instances are safe to share between threads.
+ */
+public final class BucketIndex {
+
+    private static final int BLOCK_SIZE = 16;
+    private static final BucketIndex EMPTY = of(List.of());
+
+    private final int size;
+    private final byte[] names;
+    private final int[] blockOffsets;
+    private final int maxNameLength;
+    private final long[] sizes;
+    private final long[] timesCreated;
+    private final long[] cumulativeSizes; // cumulativeSizes[i] = sum of sizes[0 .. i-1]
+    private final byte[] etags;
+    private final int[] etagOffsets;
+    private final int[] bySizeDescending;
+
+    private BucketIndex(int size, byte[] names, int[] blockOffsets, int maxNameLength, long[] sizes,
+                        long[] timesCreated, byte[] etags, int[] etagOffsets) {
+        this.size = size;
+        this.names = names;
+        this.blockOffsets = blockOffsets;
+        this.maxNameLength = maxNameLength;
+        this.sizes = sizes;
+        this.timesCreated = timesCreated;
+        this.etags = etags;
+        this.etagOffsets = etagOffsets;
+
+        this.cumulativeSizes = new long[size + 1];
+        for (int i = 0; i < size; i++) {
+            cumulativeSizes[i + 1] = cumulativeSizes[i] + sizes[i];
+        }
+        this.bySizeDescending = IntStream.range(0, size).boxed()
+                .sorted(Comparator.comparingLong((Integer i) -> sizes[i]).reversed())
+                .mapToInt(Integer::intValue)
+                .toArray();
+    }
+
+    /**
+     * @return an index without objects
+     */
+    public static BucketIndex empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Builds an index from objects in any order. If a name occurs more than once, the
+     * last occurrence wins.
+     */
+    public static BucketIndex of(List<OciObjectDto> objects) {
+        int count = objects.size();
+        byte[][] nameBytes = new byte[count][];
+        for (int i = 0; i < count; i++) {
+            nameBytes[i] = objects.get(i).name().getBytes(StandardCharsets.UTF_8);
+        }
+        // Stable sort keeps later duplicates after earlier ones
+        Integer[] order = new Integer[count];
+        Arrays.setAll(order, i -> i);
+        Arrays.sort(order, (a, b) -> Arrays.compareUnsigned(nameBytes[a], nameBytes[b]));
+
+        List<Integer> unique = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            boolean duplicate = i + 1 < count && Arrays.equals(nameBytes[order[i]], nameBytes[order[i + 1]]);
+            if (!duplicate) {
+                unique.add(order[i]);
+            }
+        }
+
+        int size = unique.size();
+        VarIntWriter nameOut = new VarIntWriter();
+        VarIntWriter etagOut = new VarIntWriter();
+        int[] blockOffsets = new int[(size + BLOCK_SIZE - 1) / BLOCK_SIZE];
+        int[] etagOffsets = new int[size + 1];
+        long[] sizes = new long[size];
+        long[] timesCreated = new long[size];
+        int maxNameLength = 0;
+
+        byte[] previous = new byte[0];
+        for (int i = 0; i < size; i++) {
+            OciObjectDto object = objects.get(unique.get(i));
+            byte[] name = nameBytes[unique.get(i)];
+            int shared = 0;
+            if (i % BLOCK_SIZE == 0) {
+                blockOffsets[i / BLOCK_SIZE] = nameOut.size();
+            } else {
+                shared = Arrays.mismatch(previous, name);
+                if (shared < 0) {
+                    shared = name.length;
+                }
+            }
+            nameOut.writeVarInt(shared);
+            nameOut.writeVarInt(name.length - shared);
+            nameOut.write(name, shared, name.length - shared);
+            previous = name;
+            maxNameLength = Math.max(maxNameLength, name.length);
+
+            sizes[i] = object.size();
+            timesCreated[i] = object.timeCreated();
+            etagOffsets[i] = etagOut.size();
+            if (object.etag() != null) {
+                byte[] etag = object.etag().getBytes(StandardCharsets.UTF_8);
+                etagOut.write(etag, 0, etag.length);
+            }
+        }
+        etagOffsets[size] = etagOut.size();
+
+        return new BucketIndex(size, nameOut.toByteArray(), blockOffsets, maxNameLength, sizes,
+                timesCreated, etagOut.toByteArray(), etagOffsets);
+    }
+
+    /**
+     * Returns a new index that additionally contains the given objects. Objects with a name
+     * that is already indexed replace the existing entry.
+     */
+    public BucketIndex withObjects(List<OciObjectDto> objects) {
+        if (objects.isEmpty()) {
+            return this;
+        }
+        List<OciObjectDto> all = new ArrayList<>(size + objects.size());
+        all.addAll(toList(0, size));
+        all.addAll(objects);
+        return of(all);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return name of the last object in sort order, or null if the index is empty
+     */
+    public String lastName() {
+        return size == 0 ? null : name(size - 1);
+    }
+
+    /**
+     * Decodes the name of the object at the given position.
+     */
+    public String name(int index) {
+        byte[] buffer = new byte[maxNameLength];
+        int length = decodeName(index, buffer);
+        return new String(buffer, 0, length, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Materializes the object at the given position.
+     */
+    public OciObjectDto get(int index) {
+        return new OciObjectDto(name(index), sizes[index], etag(index), timesCreated[index]);
+    }
+
+    public long sizeAt(int index) {
+        return sizes[index];
+    }
+
+    /**
+     * Materializes the objects in {@code [from, to)}, decoding names sequentially.
+     */
+    public List<OciObjectDto> toList(int from, int to) {
+        List<OciObjectDto> result = new ArrayList<>(to - from);
+        forEachName(from, to, (index, name) ->
+                result.add(new OciObjectDto(name, sizes[index], etag(index), timesCreated[index])));
+        return result;
+    }
+
+    /**
+     * Visits the names in {@code [from, to)} in sort order. Each name is decoded from its
+     * predecessor, so a scan decodes every entry once.
+     */
+    public void forEachName(int from, int to, NameVisitor visitor) {
+        if (from >= to) {
+            return;
+        }
+        byte[] buffer = new byte[maxNameLength];
+        int position = seek(from, buffer);
+        for (int index = from; index < to; index++) {
+            if (index % BLOCK_SIZE == 0) {
+                position = blockOffsets[index / BLOCK_SIZE];
+            }
+            long decoded = decodeEntry(position, buffer);
+            position = position(decoded);
+            visitor.visit(index, new String(buffer, 0, length(decoded), StandardCharsets.UTF_8));
+        }
+    }
+
+    /**
+     * Finds the range of objects whose name starts with the prefix.
+     *
+     * @return {@code [from, to)} positions; empty if no name matches
+     */
+    public int[] prefixRange(String prefix) {
+        if (prefix == null || prefix.isEmpty()) {
+            return new int[]{0, size};
+        }
+        byte[] key = prefix.getBytes(StandardCharsets.UTF_8);
+        int from = lowerBound(key);
+        byte[] successor = successor(key);
+        int to = successor == null ? size : lowerBound(successor);
+        return new int[]{from, to};
+    }
+
+    /**
+     * @return total size in bytes of the objects in {@code [from, to)}
+     */
+    public long totalBytes(int from, int to) {
+        return cumulativeSizes[to] - cumulativeSizes[from];
+    }
+
+    /**
+     * Positions of the {@code n} largest objects in {@code [from, to)}, largest first.
+     */
+    public int[] largest(int from, int to, int n) {
+        n = Math.clamp(n, 0, to - from);
+        if (n == 0) {
+            return new int[0];
+        }
+        if (from == 0 && to == size) {
+            return Arrays.copyOf(bySizeDescending, n);
+        }
+        PriorityQueue<Integer> smallest = new PriorityQueue<>(Comparator.comparingLong(i -> sizes[i]));
+        for (int i = from; i < to; i++) {
+            if (smallest.size() < n) {
+                smallest.add(i);
+            } else if (sizes[i] > sizes[smallest.peek()]) {
+                smallest.poll();
+                smallest.add(i);
+            }
+        }
+        return smallest.stream()
+                .sorted(Comparator.comparingLong((Integer i) -> sizes[i]).reversed())
+                .mapToInt(Integer::intValue)
+                .toArray();
+    }
+
+    /**
+     * @return approximate heap footprint of the index arrays in bytes
+     */
+    public long memoryBytes() {
+        return names.length + etags.length
+                + 4L * (blockOffsets.length + etagOffsets.length + bySizeDescending.length)
+                + 8L * (sizes.length + timesCreated.length + cumulativeSizes.length);
+    }
+
+    private String etag(int index) {
+        int start = etagOffsets[index];
+        int end = etagOffsets[index + 1];
+        return start == end ? null : new String(etags, start, end - start, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * First position whose name is not smaller than the key.
+     */
+    private int lowerBound(byte[] key) {
+        // Binary search over the first (fully stored) name of each block
+        byte[] buffer = new byte[Math.max(maxNameLength, 1)];
+        int low = 0;
+        int high = blockOffsets.length - 1;
+        int block = -1; // last block whose first name is smaller than the key
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int length = length(decodeEntry(blockOffsets[mid], buffer));
+            if (Arrays.compareUnsigned(buffer, 0, length, key, 0, key.length) < 0) {
+                block = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        if (block < 0) {
+            return 0;
+        }
+        // Linear scan inside the block
+        int position = blockOffsets[block];
+        int end = Math.min(size, (block + 1) * BLOCK_SIZE);
+        for (int index = block * BLOCK_SIZE; index < end; index++) {
+            long decoded = decodeEntry(position, buffer);
+            position = position(decoded);
+            if (Arrays.compareUnsigned(buffer, 0, length(decoded), key, 0, key.length) >= 0) {
+                return index;
+            }
+        }
+        return end;
+    }
+
+    /**
+     * Smallest byte string greater than every string starting with the key, or null if
+     * there is none (the key consists of 0xFF bytes only).
+     */
+    private static byte[] successor(byte[] key) {
+        for (int i = key.length - 1; i >= 0; i--) {
+            if (key[i] != (byte) 0xFF) {
+                byte[] result = Arrays.copyOf(key, i + 1);
+                result[i]++;
+                return result;
+            }
+        }
+        return null;
+    }
+
+    private int decodeName(int index, byte[] buffer) {
+        return length(decodeEntry(seek(index, buffer), buffer));
+    }
+
+    /**
+     * Decodes the entries of the block up to (excluding) the given index into the buffer.
+     *
+     * @return position of the entry at {@code index}
+     */
+    private int seek(int index, byte[] buffer) {
+        int position = blockOffsets[index / BLOCK_SIZE];
+        for (int i = index - index % BLOCK_SIZE; i < index; i++) {
+            position = position(decodeEntry(position, buffer));
+        }
+        return position;
+    }
+
+    /**
+     * Decodes one front-coded entry on top of the previous name in the buffer.
+     *
+     * @return position of the next entry and length of the decoded name, packed into a long
+     */
+    private long decodeEntry(int position, byte[] buffer) {
+        int shared = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = names[position++];
+            shared |= (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        int suffix = 0;
+        shift = 0;
+        do {
+            b = names[position++];
+            suffix |= (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        System.arraycopy(names, position, buffer, shared, suffix);
+        return ((long) (position + suffix) << 32) | (shared + suffix);
+    }
+
+    private static int position(long decoded) {
+        return (int) (decoded >>> 32);
+    }
+
+    private static int length(long decoded) {
+        return (int) decoded;
+    }
+
+    /**
+     * Receives a position and its decoded name.
+     */
+    @FunctionalInterface
+    public interface NameVisitor {
+        void visit(int index, String name);
+    }
+
+    /**
+     * Growable byte buffer with unsigned LEB128 var-ints.
+     */
+    private static final class VarIntWriter {
+        private byte[] bytes = new byte[1024];
+        private int size;
+
+        private void writeVarInt(int value) {
+            while ((value & ~0x7F) != 0) {
+                writeByte((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            writeByte(value);
+        }
+
+        private void write(byte[] source, int offset, int length) {
+            ensure(length);
+            System.arraycopy(source, offset, bytes, size, length);
+            size += length;
+        }
+
+        private void writeByte(int value) {
+            ensure(1);
+            bytes[size++] = (byte) value;
+        }
+
+        private void ensure(int extra) {
+            if (size + extra > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + extra));
+            }
+        }
+
+        private int size() {
+            return size;
+        }
+
+        private byte[] toByteArray() {
+            return Arrays.copyOf(bytes, size);
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package techthor.ocimonitor.inventory;
+
+import techthor.ocimonitor.dto.InstanceRow;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+/**
+ * Immutable, queryable table of compute instance rows.
+ * <p>
+ * Everything a query needs is computed once when the table is built: for every sortable
+ * column the row positions in ascending order (rows without a value last), and a lower-case
+ * search key per row. A query walks the precomputed order of its sort column, forwards or
+ * backwards, and applies the filters on the way, so sorting, filtering and paging cost one
+ * pass over the positions and no comparisons. Instances are safe to share between threads.
+ */
+public final class InstanceTable {
+
+    private static final Map<String, Function<InstanceRow, Comparable<?>>> COLUMNS = columns();
+    private static final String DEFAULT_SORT = "name";
+
+    public static final InstanceTable EMPTY = new InstanceTable(List.of(), 0);
+
+    private final List<InstanceRow> rows;
+    private final String[] searchKeys;
+    private final Map<String, int[]> orders = new LinkedHashMap<>();
+    private final Map<String, Integer> valued = new LinkedHashMap<>();
+    private final long builtAt;
+
+    /**
+     * @param rows    rows in any order
+     * @param builtAt time the rows were joined, epoch millis
+     */
+    public InstanceTable(List<InstanceRow> rows, long builtAt) {
+        this.rows = rows.stream()
+                .sorted(Comparator.comparing((InstanceRow row) -> String.valueOf(row.name()))
+                        .thenComparing(InstanceRow::id))
+                .toList();
+        this.builtAt = builtAt;
+
+        this.searchKeys = new String[this.rows.size()];
+        for (int i = 0; i < searchKeys.length; i++) {
+            InstanceRow row = this.rows.get(i);
+            searchKeys[i] = String.join("\n", Objects.toString(row.name(), ""), row.id(),
+                            Objects.toString(row.privateIp(), ""), Objects.toString(row.publicIp(), ""))
+                    .toLowerCase(Locale.ROOT);
+        }
+
+        COLUMNS.forEach((column, key) -> {
+            Comparable<?>[] keys = new Comparable<?>[this.rows.size()];
+            List<Integer> withValue = new ArrayList<>();
+            List<Integer> withoutValue = new ArrayList<>();
+            for (int i = 0; i < keys.length; i++) {
+                keys[i] = key.apply(this.rows.get(i));
+                (keys[i] != null ? withValue : withoutValue).add(i);
+            }
+            // Stable sort over the name order, so equal values stay sorted by name
+            withValue.sort((a, b) -> compare(keys[a], keys[b]));
+            int[] order = new int[this.rows.size()];
+            int n = 0;
+            for (int i : withValue) {
+                order[n++] = i;
+            }
+            for (int i : withoutValue) {
+                order[n++] = i;
+            }
+            orders.put(column, order);
+            valued.put(column, withValue.size());
+        });
+    }
+
+    /**
+     * Sorts, filters and pages the rows.
+     *
+     * @param sort       column to sort by ({@link #sortColumns()}); null or unknown sorts by name
+     * @param descending whether to sort in descending order; rows without a value stay last
+     * @param status     lifecycle state to keep (case-insensitive), or null for all
+     * @param text       case-insensitive substring of the name, OCID or IP addresses, or null
+     * @param offset     number of matches to skip
+     * @param limit      maximum matches to return
+     * @return one page of matches with the total and the status counts of all text matches
+     */
+    public Page query(String sort, boolean descending, String status, String text, int offset, int limit) {
+        String column = sort != null && COLUMNS.containsKey(sort) ? sort : DEFAULT_SORT;
+        int[] order = orders.get(column);
+        int withValue = valued.get(column);
+        String needle = text == null || text.isBlank() ? null : text.toLowerCase(Locale.ROOT);
+        boolean filterStatus = status != null && !status.isBlank();
+
+        int from = Math.max(0, offset);
+        int to = from + Math.max(0, limit);
+        List<InstanceRow> items = new ArrayList<>(Math.min(Math.max(0, limit), rows.size()));
+        Map<String, Integer> statuses = new TreeMap<>();
+        int total = 0;
+        for (int k = 0; k < order.length; k++) {
+            // Descending walks the rows with a value backwards, then the rows without one
+            int position = !descending ? order[k] : k < withValue ? order[withValue - 1 - k] : order[k];
+            if (needle != null && !searchKeys[position].contains(needle)) {
+                continue;
+            }
+            InstanceRow row = rows.get(position);
+            statuses.merge(String.valueOf(row.status()), 1, Integer::sum);
+            if (filterStatus && !status.equalsIgnoreCase(row.status())) {
+                continue;
+            }
+            if (total >= from && total < to) {
+                items.add(row);
+            }
+            total++;
+        }
+        return new Page(total, items, statuses, column, descending, builtAt);
+    }
+
+    /**
+     * @return all rows, sorted by name
+     */
+    public List<InstanceRow> rows() {
+        return rows;
+    }
+
+    public int size() {
+        return rows.size();
+    }
+
+    /**
+     * @return time the rows were joined, epoch millis; 0 for the empty table
+     */
+    public long builtAt() {
+        return builtAt;
+    }
+
+    /**
+     * @return names of the columns a query can sort by
+     */
+    public static List<String> sortColumns() {
+        return List.copyOf(COLUMNS.keySet());
+    }
+
+    /**
+     * One page of query results.
+     *
+     * @param total      number of matches
+     * @param items      matches in this page
+     * @param statuses   per lifecycle state, the number of rows matching the text filter
+     * @param sort       column the matches are sorted by
+     * @param descending whether the order is descending
+     * @param builtAt    time the table was joined, epoch millis
+     */
+    public record Page(int total, List<InstanceRow> items, Map<String, Integer> statuses,
+                       String sort, boolean descending, long builtAt) {
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static int compare(Comparable<?> a, Comparable<?> b) {
+        return ((Comparable) a).compareTo(b);
+    }
+
+    private static Map<String, Function<InstanceRow, Comparable<?>>> columns() {
+        Map<String, Function<InstanceRow, Comparable<?>>> columns = new LinkedHashMap<>();
+        columns.put("name", row -> row.name() == null ? null : row.name().toLowerCase(Locale.ROOT));
+        columns.put("status", InstanceRow::status);
+        columns.put("shape", InstanceRow::shape);
+        columns.put("availabilityDomain", InstanceRow::availabilityDomain);
+        columns.put("cpu_usage", InstanceRow::cpuUsage);
+        columns.put("memory_usage", InstanceRow::memoryUsage);
+        columns.put("ts", InstanceRow::ts);
+        columns.put("privateIp", row -> row.privateIp() == null ? null : ipSortKey(row.privateIp()));
+        columns.put("publicIp", row -> row.publicIp() == null ? null : ipSortKey(row.publicIp()));
+        return columns;
+    }
+
+    /**
+     * Sort key that orders IPv4 addresses numerically (10.0.0.9 before 10.0.0.10); other
+     * addresses sort after them as text.
+     */
+    private static String ipSortKey(String ip) {
+        String[] octets = ip.split("\\.");
+        if (octets.length != 4) {
+            return "~" + ip;
+        }
+        try {
+            StringBuilder key = new StringBuilder(12);
+            for (String octet : octets) {
+                key.append(String.format(Locale.ROOT, "%03d", Integer.parseInt(octet)));
+            }
+            return key.toString();
+        } catch (NumberFormatException e) {
+            return "~" + ip;
+        }
+    }
+}
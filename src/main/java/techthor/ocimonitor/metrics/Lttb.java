@@ -0,0 +1,76 @@
+package techthor.ocimonitor.metrics;
+
+/**
+ * Largest-Triangle-Three-Buckets downsampling.
+ * <p>
+ * Reduces a series to a fixed number of points while keeping its visual shape: the first
+ * and last points are always kept, and from each bucket in between the point forming the
+ * largest triangle with the previously selected point and the average of the next bucket
+ * is chosen. Peaks and dips therefore survive, unlike with plain averaging.
+ */
+public final class Lttb {
+
+    private Lttb() {
+    }
+
+    /**
+     * Downsamples a series to at most {@code threshold} points.
+     *
+     * @param series    series to reduce, timestamps ascending
+     * @param threshold maximum number of points; values below 3 disable downsampling
+     * @return the series itself if it is already small enough, otherwise a new reduced series
+     */
+    public static MetricColumns downsample(MetricColumns series, int threshold) {
+        int n = series.size();
+        if (threshold < 3 || n <= threshold) {
+            return series;
+        }
+        long[] t = series.t();
+        double[] v = series.v();
+        long[] outT = new long[threshold];
+        double[] outV = new double[threshold];
+
+        // Points 0 and n-1 are kept as-is; the remaining n-2 are split into threshold-2 buckets
+        double bucketSize = (double) (n - 2) / (threshold - 2);
+        int selected = 0;
+        outT[0] = t[0];
+        outV[0] = v[0];
+
+        for (int bucket = 0; bucket < threshold - 2; bucket++) {
+            // Average of the next bucket (the last point for the final bucket)
+            int avgStart = (int) ((bucket + 1) * bucketSize) + 1;
+            int avgEnd = Math.min((int) ((bucket + 2) * bucketSize) + 1, n);
+            double avgT = 0;
+            double avgV = 0;
+            for (int i = avgStart; i < avgEnd; i++) {
+                avgT += t[i];
+                avgV += v[i];
+            }
+            int avgLength = avgEnd - avgStart;
+            avgT /= avgLength;
+            avgV /= avgLength;
+
+            // Point of the current bucket with the largest triangle area
+            int rangeStart = (int) (bucket * bucketSize) + 1;
+            int rangeEnd = (int) ((bucket + 1) * bucketSize) + 1;
+            double aT = t[selected];
+            double aV = v[selected];
+            double maxArea = -1;
+            int next = rangeStart;
+            for (int i = rangeStart; i < rangeEnd; i++) {
+                double area = Math.abs((aT - avgT) * (v[i] - aV) - (aT - t[i]) * (avgV - aV));
+                if (area > maxArea) {
+                    maxArea = area;
+                    next = i;
+                }
+            }
+            outT[bucket + 1] = t[next];
+            outV[bucket + 1] = v[next];
+            selected = next;
+        }
+
+        outT[threshold - 1] = t[n - 1];
+        outV[threshold - 1] = v[n - 1];
+        return new MetricColumns(outT, outV);
+    }
+}
@@ -0,0 +1,16 @@
+package techthor.ocimonitor.metrics;
+
+/**
+ * Columnar view of one metric series: parallel arrays of timestamps (epoch millis) and
+ * values, oldest first. Serialized as {@code {"t":[...],"v":[...]}}, which is several
+ * times smaller than one object per point.
+ *
+ * @param t timestamps in epoch millis, ascending
+ * @param v values, same length as {@code t}
+ */
+public record MetricColumns(long[] t, double[] v) {
+
+    public int size() {
+        return t.length;
+    }
+}
@@ -0,0 +1,130 @@
+package techthor.ocimonitor.metrics;
+
+/**
+ * Fixed-capacity ring buffer of metric datapoints, stored in primitive arrays.
+ * <p>
+ * Timestamps are expected in ascending order. A point with the same timestamp as the
+ * newest point replaces its value (OCI may revise the latest, still aggregating, minute),
+ * and points older than the newest one are ignored. When the buffer is full the oldest
+ * point is overwritten.
+ * <p>
+ * Not thread-safe; callers synchronize externally.
+ */
+public class MetricRingBuffer {
+
+    private final long[] timestamps;
+    private final double[] values;
+    private int head; // index of the oldest point
+    private int size;
+
+    /**
+     * @param capacity maximum number of points kept
+     */
+    public MetricRingBuffer(int capacity) {
+        this.timestamps = new long[capacity];
+        this.values = new double[capacity];
+    }
+
+    /**
+     * Appends a datapoint.
+     *
+     * @param timestamp epoch millis
+     * @param value     datapoint value
+     */
+    public void append(long timestamp, double value) {
+        if (size > 0) {
+            int last = index(size - 1);
+            if (timestamp == timestamps[last]) {
+                values[last] = value;
+                return;
+            }
+            if (timestamp < timestamps[last]) {
+                return;
+            }
+        }
+        int slot = index(size);
+        timestamps[slot] = timestamp;
+        values[slot] = value;
+        if (size == timestamps.length) {
+            head = (head + 1) % timestamps.length;
+        } else {
+            size++;
+        }
+    }
+
+    /**
+     * Discards all points older than the cutoff.
+     *
+     * @param cutoff epoch millis; points with a smaller timestamp are dropped
+     */
+    public void dropBefore(long cutoff) {
+        while (size > 0 && timestamps[head] < cutoff) {
+            head = (head + 1) % timestamps.length;
+            size--;
+        }
+    }
+
+    /**
+     * Visits all points with a timestamp at or after {@code from}, oldest first.
+     */
+    public void forEach(long from, PointConsumer consumer) {
+        for (int i = 0; i < size; i++) {
+            int slot = index(i);
+            if (timestamps[slot] >= from) {
+                consumer.accept(timestamps[slot], values[slot]);
+            }
+        }
+    }
+
+    /**
+     * Copies all points with a timestamp at or after {@code from} into columnar arrays.
+     */
+    public MetricColumns columns(long from) {
+        int skip = 0;
+        while (skip < size && timestamps[index(skip)] < from) {
+            skip++;
+        }
+        long[] t = new long[size - skip];
+        double[] v = new double[size - skip];
+        for (int i = skip; i < size; i++) {
+            int slot = index(i);
+            t[i - skip] = timestamps[slot];
+            v[i - skip] = values[slot];
+        }
+        return new MetricColumns(t, v);
+    }
+
+    /**
+     * @return timestamp of the newest point, or {@link Long#MIN_VALUE} if empty
+     */
+    public long lastTimestamp() {
+        return size == 0 ? Long.MIN_VALUE : timestamps[index(size - 1)];
+    }
+
+    /**
+     * @return value of the newest point, or {@link Double#NaN} if empty
+     */
+    public double lastValue() {
+        return size == 0 ? Double.NaN : values[index(size - 1)];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    private int index(int offset) {
+        return (head + offset) % timestamps.length;
+    }
+
+    /**
+     * Receives datapoints without boxing.
+     */
+    @FunctionalInterface
+    public interface PointConsumer {
+        void accept(long timestamp, double value);
+    }
+}
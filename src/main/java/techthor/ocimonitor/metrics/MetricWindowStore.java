@@ -0,0 +1,197 @@
+package techthor.ocimonitor.metrics;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-process rolling window of metric datapoints, one window per query and one
+ * {@link MetricRingBuffer} per series within it.
+ * <p>
+ * Instead of re-querying the full window on every poll, {@link #refresh} only asks the
+ * fetcher for the range since the last stored timestamp of the series that lags most.
+ * That timestamp is included again so that the latest, possibly partial, datapoint is
+ * updated. In steady state a poll therefore returns one or two datapoints per series. A
+ * series that first appears in such a delta (e.g. a new instance) is back-filled with a
+ * full-window fetch, so it does not start with only the points since the last poll.
+ */
+@Component
+public class MetricWindowStore {
+
+    // A series this far behind the newest one has stopped reporting and no longer holds back the delta start
+    private static final long STOPPED_LAG_MILLIS = Duration.ofMinutes(10).toMillis();
+
+    private final long windowMillis;
+    private final int capacity;
+    private final Map<String, QueryWindow> windows = new ConcurrentHashMap<>();
+
+    /**
+     * @param window     length of the rolling window kept per series
+     * @param resolution expected spacing between datapoints, used to size the buffers
+     */
+    public MetricWindowStore(@Value("${oci.metrics.window:1h}") Duration window,
+                             @Value("${oci.metrics.resolution:1m}") Duration resolution) {
+        this.windowMillis = window.toMillis();
+        // One slot per interval plus headroom for the revised trailing point
+        this.capacity = (int) (window.toMillis() / resolution.toMillis()) + 2;
+    }
+
+    /**
+     * Fetches new datapoints for a query and merges them into its window.
+     * <p>
+     * Concurrent refreshes of the same query are serialized, so a second caller reuses the
+     * delta fetched by the first. If the fetcher throws, points merged before the failure
+     * are kept; series that were about to be back-filled are dropped and back-filled on a
+     * later refresh.
+     *
+     * @param query   key of the window, usually the MQL expression
+     * @param fetcher performs the upstream call for the given time range
+     */
+    public void refresh(String query, DeltaFetcher fetcher) throws Exception {
+        QueryWindow window = windows.computeIfAbsent(query, q -> new QueryWindow());
+        synchronized (window) {
+            long now = System.currentTimeMillis();
+            long windowStart = now - windowMillis;
+            long start = Math.max(windowStart, window.deltaStart());
+            boolean delta = start > windowStart;
+
+            Set<String> added = new HashSet<>();
+            fetcher.fetch(start, now, (seriesKey, timestamp, value) -> {
+                MetricRingBuffer buffer = window.series.get(seriesKey);
+                if (buffer == null) {
+                    buffer = new MetricRingBuffer(capacity);
+                    window.series.put(seriesKey, buffer);
+                    if (delta) {
+                        added.add(seriesKey);
+                    }
+                }
+                buffer.append(timestamp, value);
+            });
+
+            if (!added.isEmpty()) {
+                // Older points are ignored once a buffer has newer ones, so new series get fresh buffers
+                Map<String, MetricRingBuffer> backfilled = new HashMap<>();
+                try {
+                    fetcher.fetch(windowStart, now, (seriesKey, timestamp, value) -> {
+                        if (added.contains(seriesKey)) {
+                            backfilled.computeIfAbsent(seriesKey, k -> new MetricRingBuffer(capacity))
+                                    .append(timestamp, value);
+                        }
+                    });
+                } catch (Exception e) {
+                    // Forget the new series, so the next refresh discovers and back-fills them again
+                    added.forEach(window.series::remove);
+                    throw e;
+                }
+                window.series.putAll(backfilled);
+            }
+
+            window.series.values().forEach(buffer -> buffer.dropBefore(windowStart));
+            window.series.values().removeIf(MetricRingBuffer::isEmpty);
+        }
+    }
+
+    /**
+     * Visits every series of a query with the points inside the current window.
+     *
+     * @param query   key of the window
+     * @param visitor receives the series key and its buffer; called under the window lock
+     */
+    public void forEachSeries(String query, SeriesVisitor visitor) {
+        QueryWindow window = windows.get(query);
+        if (window == null) {
+            return;
+        }
+        synchronized (window) {
+            window.series.forEach(visitor::visit);
+        }
+    }
+
+    /**
+     * Newest point of every series of a query, regardless of the window start.
+     *
+     * @param query key of the window
+     * @return newest point by series key; empty if the query has not been refreshed yet
+     */
+    public Map<String, Point> latest(String query) {
+        Map<String, Point> latest = new HashMap<>();
+        forEachSeries(query, (seriesKey, buffer) -> {
+            if (!buffer.isEmpty()) {
+                latest.put(seriesKey, new Point(buffer.lastTimestamp(), buffer.lastValue()));
+            }
+        });
+        return latest;
+    }
+
+    /**
+     * @return window start (epoch millis) for reads at the current time
+     */
+    public long windowStart() {
+        return System.currentTimeMillis() - windowMillis;
+    }
+
+    /**
+     * Series buffers of one query, keyed by series (e.g. resource ID).
+     */
+    private static final class QueryWindow {
+        private final Map<String, MetricRingBuffer> series = new LinkedHashMap<>();
+
+        /**
+         * @return oldest last timestamp among the series still reporting, or
+         *         {@link Long#MIN_VALUE} if there are none
+         */
+        private long deltaStart() {
+            long newest = Long.MIN_VALUE;
+            for (MetricRingBuffer buffer : series.values()) {
+                newest = Math.max(newest, buffer.lastTimestamp());
+            }
+            long start = newest;
+            for (MetricRingBuffer buffer : series.values()) {
+                if (buffer.lastTimestamp() >= newest - STOPPED_LAG_MILLIS) {
+                    start = Math.min(start, buffer.lastTimestamp());
+                }
+            }
+            return start;
+        }
+    }
+
+    /**
+     * A single datapoint.
+     *
+     * @param timestamp epoch millis
+     * @param value     datapoint value
+     */
+    public record Point(long timestamp, double value) {
+    }
+
+    /**
+     * Upstream fetch for a time range, pushing each datapoint into the sink.
+     */
+    @FunctionalInterface
+    public interface DeltaFetcher {
+        void fetch(long startMillis, long endMillis, PointSink sink) throws Exception;
+    }
+
+    /**
+     * Receives fetched datapoints without boxing.
+     */
+    @FunctionalInterface
+    public interface PointSink {
+        void accept(String seriesKey, long timestamp, double value);
+    }
+
+    /**
+     * Receives one series of a query window.
+     */
+    @FunctionalInterface
+    public interface SeriesVisitor {
+        void visit(String seriesKey, MetricRingBuffer buffer);
+    }
+}
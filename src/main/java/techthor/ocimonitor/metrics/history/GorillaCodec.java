@@ -0,0 +1,194 @@
+package techthor.ocimonitor.metrics.history;
+
+import techthor.ocimonitor.metrics.MetricRingBuffer;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Gorilla-style compression of a block of datapoints (Pelkonen et al., "Gorilla: A Fast,
+ * Scalable, In-Memory Time Series Database").
+ * <p>
+ * Timestamps are stored as delta-of-delta with variable-length prefixes, so evenly spaced
+ * datapoints cost one bit each. Values are XORed with their predecessor and only the
+ * meaningful bits are written, so an unchanged value costs one bit as well, and values
+ * that share sign, exponent and high mantissa bits cost well under 64.
+ */
+final class GorillaCodec {
+
+    private GorillaCodec() {
+    }
+
+    /**
+     * Encodes the first {@code count} points.
+     *
+     * @param t     timestamps, ascending
+     * @param v     values
+     * @param count number of points to encode, at least 1
+     * @return compressed block payload
+     */
+    static byte[] encode(long[] t, double[] v, int count) {
+        BitOutput out = new BitOutput(count * 2 + 16);
+        out.write(t[0], 64);
+        long previousBits = Double.doubleToRawLongBits(v[0]);
+        out.write(previousBits, 64);
+
+        long previousTimestamp = t[0];
+        long previousDelta = 0;
+        int previousLeading = -1;
+        int previousTrailing = 0;
+
+        for (int i = 1; i < count; i++) {
+            long delta = t[i] - previousTimestamp;
+            long deltaOfDelta = delta - previousDelta;
+            if (deltaOfDelta == 0) {
+                out.write(0, 1);
+            } else if (deltaOfDelta >= -64 && deltaOfDelta < 64) {
+                out.write(0b10, 2);
+                out.write(deltaOfDelta, 7);
+            } else if (deltaOfDelta >= -256 && deltaOfDelta < 256) {
+                out.write(0b110, 3);
+                out.write(deltaOfDelta, 9);
+            } else if (deltaOfDelta >= -2048 && deltaOfDelta < 2048) {
+                out.write(0b1110, 4);
+                out.write(deltaOfDelta, 12);
+            } else {
+                out.write(0b1111, 4);
+                out.write(deltaOfDelta, 64);
+            }
+            previousTimestamp = t[i];
+            previousDelta = delta;
+
+            long bits = Double.doubleToRawLongBits(v[i]);
+            long xor = bits ^ previousBits;
+            previousBits = bits;
+            if (xor == 0) {
+                out.write(0, 1);
+                continue;
+            }
+            out.write(1, 1);
+            int leading = Math.min(Long.numberOfLeadingZeros(xor), 31);
+            int trailing = Long.numberOfTrailingZeros(xor);
+            if (previousLeading >= 0 && leading >= previousLeading && trailing >= previousTrailing) {
+                // Meaningful bits fit into the previous window
+                out.write(0, 1);
+                out.write(xor >>> previousTrailing, 64 - previousLeading - previousTrailing);
+            } else {
+                int significant = 64 - leading - trailing;
+                out.write(1, 1);
+                out.write(leading, 5);
+                out.write(significant == 64 ? 0 : significant, 6);
+                out.write(xor >>> trailing, significant);
+                previousLeading = leading;
+                previousTrailing = trailing;
+            }
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Decodes a block payload starting at the buffer's absolute {@code offset}.
+     *
+     * @param buffer   buffer holding the payload, usually a memory-mapped file
+     * @param offset   absolute position of the payload
+     * @param count    number of points in the block
+     * @param consumer receives the points in order
+     */
+    static void decode(ByteBuffer buffer, int offset, int count, MetricRingBuffer.PointConsumer consumer) {
+        BitInput in = new BitInput(buffer, offset);
+        long timestamp = in.read(64);
+        long bits = in.read(64);
+        consumer.accept(timestamp, Double.longBitsToDouble(bits));
+
+        long delta = 0;
+        int leading = 0;
+        int trailing = 0;
+        for (int i = 1; i < count; i++) {
+            long deltaOfDelta;
+            if (in.read(1) == 0) {
+                deltaOfDelta = 0;
+            } else if (in.read(1) == 0) {
+                deltaOfDelta = signed(in.read(7), 7);
+            } else if (in.read(1) == 0) {
+                deltaOfDelta = signed(in.read(9), 9);
+            } else if (in.read(1) == 0) {
+                deltaOfDelta = signed(in.read(12), 12);
+            } else {
+                deltaOfDelta = in.read(64);
+            }
+            delta += deltaOfDelta;
+            timestamp += delta;
+
+            if (in.read(1) == 1) {
+                if (in.read(1) == 1) {
+                    leading = (int) in.read(5);
+                    int significant = (int) in.read(6);
+                    if (significant == 0) {
+                        significant = 64;
+                    }
+                    trailing = 64 - leading - significant;
+                }
+                bits ^= in.read(64 - leading - trailing) << trailing;
+            }
+            consumer.accept(timestamp, Double.longBitsToDouble(bits));
+        }
+    }
+
+    private static long signed(long value, int bits) {
+        return (value << (64 - bits)) >> (64 - bits);
+    }
+
+    /**
+     * Append-only bit stream backed by a growing byte array.
+     */
+    private static final class BitOutput {
+        private byte[] bytes;
+        private int bitCount;
+
+        private BitOutput(int initialBytes) {
+            this.bytes = new byte[initialBytes];
+        }
+
+        /** Writes the lowest {@code bits} bits of {@code value}, most significant first. */
+        private void write(long value, int bits) {
+            for (int i = bits - 1; i >= 0; i--) {
+                int index = bitCount >>> 3;
+                if (index == bytes.length) {
+                    bytes = Arrays.copyOf(bytes, bytes.length * 2);
+                }
+                if (((value >>> i) & 1) != 0) {
+                    bytes[index] |= (byte) (0x80 >>> (bitCount & 7));
+                }
+                bitCount++;
+            }
+        }
+
+        private byte[] toByteArray() {
+            return Arrays.copyOf(bytes, (bitCount + 7) >>> 3);
+        }
+    }
+
+    /**
+     * Bit stream reader over a buffer region, using absolute reads only.
+     */
+    private static final class BitInput {
+        private final ByteBuffer buffer;
+        private final int offset;
+        private long bitPosition;
+
+        private BitInput(ByteBuffer buffer, int offset) {
+            this.buffer = buffer;
+            this.offset = offset;
+        }
+
+        private long read(int bits) {
+            long value = 0;
+            for (int i = 0; i < bits; i++) {
+                int b = buffer.get(offset + (int) (bitPosition >>> 3));
+                value = (value << 1) | ((b >>> (7 - (bitPosition & 7))) & 1);
+                bitPosition++;
+            }
+            return value;
+        }
+    }
+}
@@ -0,0 +1,370 @@
+package techthor.ocimonitor.metrics.history;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import techthor.ocimonitor.metrics.Lttb;
+import techthor.ocimonitor.metrics.MetricColumns;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Embedded on-disk history of metric datapoints.
+ * <p>
+ * Every polled datapoint is appended to a compressed column file per series (see
+ * {@link SeriesFile}), laid out as {@code <dir>/<metric>/<resolution>/<resourceId>.gts}.
+ * Two rollups are maintained alongside the raw one-minute data: five-minute and one-hour
+ * means, each computed from the raw points of its bucket. Every resolution has its own
+ * retention, enforced by a periodic compaction.
+ * <p>
+ * Queries pick the finest resolution that still covers the start of the range and does not
+ * return far more points than requested, then downsample with {@link Lttb}. Arbitrary
+ * historical ranges are therefore answered from local files without Monitoring API calls.
+ * <p>
+ * Points of the open (unsealed) block live in memory until the block is full or the
+ * application shuts down; a crash loses at most one block per series. Open rollup buckets
+ * are never written partially: when a series is opened again, they are rebuilt from the raw
+ * points of the current bucket, so rollups stay correct across restarts.
+ */
+@Component
+public class MetricHistoryStore {
+
+    private static final String FILE_SUFFIX = ".gts";
+
+    private final boolean enabled;
+    private final Path directory;
+    private final int blockSize;
+    private final List<Resolution> resolutions;
+    private final Map<String, SeriesHistory> series = new ConcurrentHashMap<>();
+
+    /**
+     * @param enabled             whether datapoints are recorded at all
+     * @param directory           root directory of the column files
+     * @param blockSize           points per compressed block
+     * @param minuteRetention     retention of the raw one-minute data
+     * @param fiveMinuteRetention retention of the five-minute rollup
+     * @param hourRetention       retention of the one-hour rollup
+     */
+    public MetricHistoryStore(@Value("${oci.metrics.history.enabled:true}") boolean enabled,
+                              @Value("${oci.metrics.history.dir:./data/metrics}") Path directory,
+                              @Value("${oci.metrics.history.block-size:120}") int blockSize,
+                              @Value("${oci.metrics.history.retention.minute:7d}") Duration minuteRetention,
+                              @Value("${oci.metrics.history.retention.five-minute:30d}") Duration fiveMinuteRetention,
+                              @Value("${oci.metrics.history.retention.hour:365d}") Duration hourRetention) {
+        this.enabled = enabled;
+        this.directory = directory;
+        this.blockSize = blockSize;
+        this.resolutions = List.of(
+                new Resolution("1m", Duration.ofMinutes(1).toMillis(), minuteRetention.toMillis()),
+                new Resolution("5m", Duration.ofMinutes(5).toMillis(), fiveMinuteRetention.toMillis()),
+                new Resolution("1h", Duration.ofHours(1).toMillis(), hourRetention.toMillis()));
+    }
+
+    /**
+     * Records a datapoint. Points older than the newest recorded one are ignored, a point
+     * with the same timestamp revises it. Storage errors are logged and do not propagate,
+     * so live metrics keep working if the disk is unavailable.
+     *
+     * @param metric     metric name, e.g. "cpu"
+     * @param resourceId series key within the metric
+     */
+    public void append(String metric, String resourceId, long timestamp, double value) {
+        if (!enabled) {
+            return;
+        }
+        try {
+            seriesFor(metric, resourceId).append(timestamp, value);
+        } catch (IOException e) {
+            System.err.println("Failed to record " + metric + " history for " + resourceId + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Reads the history of a metric.
+     *
+     * @param metric     metric name
+     * @param resourceId single series to read, or null for all series of the metric
+     * @param from       range start, epoch millis (inclusive)
+     * @param to         range end, epoch millis (inclusive)
+     * @param maxPoints  maximum points per series; below 3 disables downsampling
+     * @return the resolution used and the series keyed by resource ID
+     */
+    public HistoryResult query(String metric, String resourceId, long from, long to, int maxPoints) throws IOException {
+        int level = resolutionLevel(from, to, maxPoints);
+        Map<String, MetricColumns> result = new LinkedHashMap<>();
+        for (String id : resourceId != null ? List.of(resourceId) : seriesIds(metric)) {
+            MetricColumns columns = seriesFor(metric, id).read(level, from, to);
+            if (columns.size() > 0) {
+                result.put(id, Lttb.downsample(columns, maxPoints));
+            }
+        }
+        return new HistoryResult(resolutions.get(level).name(), result);
+    }
+
+    /**
+     * Applies the retention of every resolution, dropping expired blocks.
+     */
+    @Scheduled(fixedDelayString = "${oci.metrics.history.compaction-interval-ms:3600000}",
+            initialDelayString = "${oci.metrics.history.compaction-interval-ms:3600000}")
+    public void compact() {
+        if (!enabled || !Files.isDirectory(directory)) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        try (Stream<Path> metrics = Files.list(directory)) {
+            for (Path metricDir : metrics.filter(Files::isDirectory).toList()) {
+                String metric = metricDir.getFileName().toString();
+                for (String id : seriesIds(metric)) {
+                    if (seriesFor(metric, id).compact(now)) {
+                        series.remove(key(metric, id));
+                    }
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Failed to compact metric history: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Seals all open blocks, so that no recorded points are lost on shutdown.
+     */
+    @PreDestroy
+    public void flush() {
+        series.values().forEach(history -> {
+            try {
+                history.seal();
+            } catch (IOException e) {
+                System.err.println("Failed to flush metric history: " + e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Finest resolution whose retention covers {@code from} and whose point count for the
+     * range stays within a small multiple of {@code maxPoints}; the coarsest one otherwise.
+     */
+    private int resolutionLevel(long from, long to, int maxPoints) {
+        long now = System.currentTimeMillis();
+        for (int level = 0; level < resolutions.size() - 1; level++) {
+            Resolution resolution = resolutions.get(level);
+            boolean retained = from >= now - resolution.retentionMillis();
+            boolean dense = maxPoints >= 3 && (to - from) / resolution.stepMillis() > 4L * maxPoints;
+            if (retained && !dense) {
+                return level;
+            }
+        }
+        return resolutions.size() - 1;
+    }
+
+    /**
+     * IDs of all series of a metric, from disk and from memory.
+     */
+    private List<String> seriesIds(String metric) throws IOException {
+        List<String> ids = new ArrayList<>();
+        Path rawDir = directory.resolve(fileName(metric)).resolve(resolutions.get(0).name());
+        if (Files.isDirectory(rawDir)) {
+            try (Stream<Path> files = Files.list(rawDir)) {
+                files.map(file -> file.getFileName().toString())
+                        .filter(name -> name.endsWith(FILE_SUFFIX))
+                        .map(name -> name.substring(0, name.length() - FILE_SUFFIX.length()))
+                        .forEach(ids::add);
+            }
+        }
+        String prefix = metric + "/";
+        series.keySet().stream()
+                .filter(key -> key.startsWith(prefix))
+                .map(key -> key.substring(prefix.length()))
+                .filter(id -> !ids.contains(fileName(id)))
+                .forEach(ids::add);
+        return ids;
+    }
+
+    private SeriesHistory seriesFor(String metric, String resourceId) throws IOException {
+        String key = key(metric, resourceId);
+        SeriesHistory history = series.get(key);
+        if (history == null) {
+            Path metricDir = directory.resolve(fileName(metric));
+            SeriesFile[] files = new SeriesFile[resolutions.size()];
+            for (int level = 0; level < files.length; level++) {
+                files[level] = new SeriesFile(metricDir.resolve(resolutions.get(level).name())
+                        .resolve(fileName(resourceId) + FILE_SUFFIX), blockSize);
+            }
+            SeriesHistory created = new SeriesHistory(files);
+            created.rebuildOpenBuckets();
+            history = series.putIfAbsent(key, created);
+            if (history == null) {
+                history = created;
+            }
+        }
+        return history;
+    }
+
+    private static String key(String metric, String resourceId) {
+        return metric + "/" + resourceId;
+    }
+
+    /**
+     * Keeps OCIDs as-is and replaces anything that is not safe in a file name. Series found
+     * on disk are identified by this name, so series keys should already be file-name safe.
+     */
+    private static String fileName(String id) {
+        return id.replaceAll("[^A-Za-z0-9._-]", "_");
+    }
+
+    /**
+     * Result of a history query.
+     *
+     * @param resolution resolution the data was read at, e.g. "5m"
+     * @param series     series keyed by resource ID
+     */
+    public record HistoryResult(String resolution, Map<String, MetricColumns> series) {
+    }
+
+    private record Resolution(String name, long stepMillis, long retentionMillis) {
+    }
+
+    /**
+     * Column files of one series at every resolution, plus the open rollup buckets.
+     */
+    private final class SeriesHistory {
+        private final SeriesFile[] files;
+        // Open rollup bucket per level; index 0 (raw) is unused
+        private final long[] bucketStart;
+        private final double[] bucketSum;
+        private final int[] bucketCount;
+        private double lastValue = Double.NaN;
+
+        private SeriesHistory(SeriesFile[] files) {
+            this.files = files;
+            this.bucketStart = new long[files.length];
+            this.bucketSum = new double[files.length];
+            this.bucketCount = new int[files.length];
+        }
+
+        /**
+         * Restores the open rollup buckets and the newest value from the raw points on disk.
+         * A bucket whose rollup point is already on disk stays closed.
+         */
+        private synchronized void rebuildOpenBuckets() throws IOException {
+            long last = files[0].lastTimestamp();
+            if (last == Long.MIN_VALUE) {
+                return;
+            }
+            for (int level = 1; level < files.length; level++) {
+                long step = resolutions.get(level).stepMillis();
+                long start = last - Math.floorMod(last, step);
+                if (start > files[level].lastTimestamp()) {
+                    int bucket = level;
+                    bucketStart[bucket] = start;
+                    files[0].read(start, last, (t, v) -> {
+                        bucketSum[bucket] += v;
+                        bucketCount[bucket]++;
+                    });
+                }
+            }
+            files[0].read(last, last, (t, v) -> lastValue = v);
+        }
+
+        private synchronized void append(long timestamp, double value) throws IOException {
+            long last = files[0].lastTimestamp();
+            if (timestamp < last) {
+                return;
+            }
+            if (timestamp == last) {
+                // Revision of the newest point: correct the open rollup buckets it went into
+                if (!Double.isNaN(lastValue)) {
+                    for (int level = 1; level < files.length; level++) {
+                        if (bucketCount[level] > 0) {
+                            bucketSum[level] += value - lastValue;
+                        }
+                    }
+                    files[0].append(timestamp, value);
+                    lastValue = value;
+                }
+                return;
+            }
+
+            files[0].append(timestamp, value);
+            lastValue = value;
+            for (int level = 1; level < files.length; level++) {
+                long step = resolutions.get(level).stepMillis();
+                long start = timestamp - Math.floorMod(timestamp, step);
+                if (bucketCount[level] > 0 && start != bucketStart[level]) {
+                    files[level].append(bucketStart[level], bucketSum[level] / bucketCount[level]);
+                    bucketSum[level] = 0;
+                    bucketCount[level] = 0;
+                }
+                bucketStart[level] = start;
+                bucketSum[level] += value;
+                bucketCount[level]++;
+            }
+        }
+
+        private synchronized MetricColumns read(int level, long from, long to) throws IOException {
+            PointList points = new PointList();
+            files[level].read(from, to, points::add);
+            // Include the still open rollup bucket as the newest point
+            if (level > 0 && bucketCount[level] > 0
+                    && bucketStart[level] >= from && bucketStart[level] <= to
+                    && bucketStart[level] > files[level].lastTimestamp()) {
+                points.add(bucketStart[level], bucketSum[level] / bucketCount[level]);
+            }
+            return points.toColumns();
+        }
+
+        private synchronized boolean compact(long now) throws IOException {
+            boolean empty = true;
+            for (int level = 0; level < files.length; level++) {
+                empty &= files[level].compact(now - resolutions.get(level).retentionMillis());
+            }
+            for (int level = 1; level < files.length; level++) {
+                empty &= bucketCount[level] == 0;
+            }
+            return empty;
+        }
+
+        /**
+         * Seals all files. Open rollup buckets are not written; they are rebuilt from the raw
+         * points when the series is opened again.
+         */
+        private synchronized void seal() throws IOException {
+            for (SeriesFile file : files) {
+                file.seal();
+            }
+        }
+    }
+
+    /**
+     * Growable primitive point list used while reading.
+     */
+    private static final class PointList {
+        private long[] t = new long[256];
+        private double[] v = new double[256];
+        private int size;
+
+        private void add(long timestamp, double value) {
+            if (size == t.length) {
+                t = Arrays.copyOf(t, size * 2);
+                v = Arrays.copyOf(v, size * 2);
+            }
+            t[size] = timestamp;
+            v[size] = value;
+            size++;
+        }
+
+        private MetricColumns toColumns() {
+            return new MetricColumns(Arrays.copyOf(t, size), Arrays.copyOf(v, size));
+        }
+    }
+}
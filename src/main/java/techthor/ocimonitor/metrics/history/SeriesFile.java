@@ -0,0 +1,236 @@
+package techthor.ocimonitor.metrics.history;
+
+import techthor.ocimonitor.metrics.MetricRingBuffer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Append-only column file of one series at one resolution.
+ * <p>
+ * The file is a sequence of blocks, each a fixed header followed by a {@link GorillaCodec}
+ * payload:
+ * <pre>
+ *   long minTimestamp | long maxTimestamp | int count | int payloadLength | payload
+ * </pre>
+ * New points collect in an open in-memory block that is sealed to disk once it is full
+ * (or on {@link #seal()}), so the newest point can still be revised in place. Reads map the
+ * file read-only and skip blocks by their header, decoding only blocks that overlap the
+ * requested range.
+ * <p>
+ * A crash during an append can leave a torn last block. Opening the file validates every
+ * block header and truncates the file after the last complete block, so reads never run
+ * past the end and new blocks are appended to a well-formed file.
+ * <p>
+ * Not thread-safe; callers synchronize externally.
+ */
+final class SeriesFile {
+
+    private static final int HEADER_BYTES = 24;
+
+    private final Path path;
+    private final long[] openTimestamps;
+    private final double[] openValues;
+    private int openCount;
+    private long sealedLastTimestamp;
+
+    /**
+     * @param path      column file, created on first seal
+     * @param blockSize points per sealed block
+     */
+    SeriesFile(Path path, int blockSize) throws IOException {
+        this.path = path;
+        this.openTimestamps = new long[blockSize];
+        this.openValues = new double[blockSize];
+        this.sealedLastTimestamp = recover();
+    }
+
+    /**
+     * Appends a point. A point with the newest timestamp replaces its value while it is
+     * still in the open block; older points are ignored.
+     */
+    void append(long timestamp, double value) throws IOException {
+        if (openCount > 0 && timestamp == openTimestamps[openCount - 1]) {
+            openValues[openCount - 1] = value;
+            return;
+        }
+        if (timestamp <= lastTimestamp()) {
+            return;
+        }
+        if (openCount == openTimestamps.length) {
+            seal();
+        }
+        openTimestamps[openCount] = timestamp;
+        openValues[openCount] = value;
+        openCount++;
+    }
+
+    /**
+     * @return timestamp of the newest point, or {@link Long#MIN_VALUE} if empty
+     */
+    long lastTimestamp() {
+        return openCount > 0 ? openTimestamps[openCount - 1] : sealedLastTimestamp;
+    }
+
+    /**
+     * Compresses the open block and appends it to the file.
+     */
+    void seal() throws IOException {
+        if (openCount == 0) {
+            return;
+        }
+        byte[] payload = GorillaCodec.encode(openTimestamps, openValues, openCount);
+        ByteBuffer block = ByteBuffer.allocate(HEADER_BYTES + payload.length)
+                .putLong(openTimestamps[0])
+                .putLong(openTimestamps[openCount - 1])
+                .putInt(openCount)
+                .putInt(payload.length)
+                .put(payload)
+                .flip();
+
+        Files.createDirectories(path.getParent());
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            while (block.hasRemaining()) {
+                channel.write(block);
+            }
+        }
+        sealedLastTimestamp = openTimestamps[openCount - 1];
+        openCount = 0;
+    }
+
+    /**
+     * Visits all points within {@code [from, to]}, oldest first.
+     */
+    void read(long from, long to, MetricRingBuffer.PointConsumer consumer) throws IOException {
+        MappedByteBuffer buffer = map();
+        if (buffer != null) {
+            int position = 0;
+            while (isCompleteBlock(buffer, position)) {
+                long minTimestamp = buffer.getLong(position);
+                long maxTimestamp = buffer.getLong(position + 8);
+                int count = buffer.getInt(position + 16);
+                int length = buffer.getInt(position + 20);
+                if (minTimestamp > to) {
+                    break;
+                }
+                if (maxTimestamp >= from) {
+                    GorillaCodec.decode(buffer, position + HEADER_BYTES, count, (t, v) -> {
+                        if (t >= from && t <= to) {
+                            consumer.accept(t, v);
+                        }
+                    });
+                }
+                position += HEADER_BYTES + length;
+            }
+        }
+        for (int i = 0; i < openCount; i++) {
+            if (openTimestamps[i] >= from && openTimestamps[i] <= to) {
+                consumer.accept(openTimestamps[i], openValues[i]);
+            }
+        }
+    }
+
+    /**
+     * Drops all sealed blocks whose newest point is older than the cutoff. The remaining
+     * blocks are copied to a temporary file that atomically replaces the original.
+     *
+     * @return true if the series has no data left
+     */
+    boolean compact(long cutoff) throws IOException {
+        MappedByteBuffer buffer = map();
+        if (buffer != null) {
+            int keepFrom = 0;
+            while (isCompleteBlock(buffer, keepFrom) && buffer.getLong(keepFrom + 8) < cutoff) {
+                keepFrom += HEADER_BYTES + buffer.getInt(keepFrom + 20);
+            }
+            if (keepFrom >= buffer.limit()) {
+                Files.delete(path);
+            } else if (keepFrom > 0) {
+                Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+                try (FileChannel source = FileChannel.open(path, StandardOpenOption.READ);
+                     FileChannel target = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                             StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                    long size = source.size();
+                    long position = keepFrom;
+                    while (position < size) {
+                        position += source.transferTo(position, size - position, target);
+                    }
+                }
+                Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            }
+        }
+        return openCount == 0 && !Files.exists(path);
+    }
+
+    /**
+     * @return read-only mapping of the sealed blocks, or null if nothing is sealed yet
+     */
+    private MappedByteBuffer map() throws IOException {
+        if (!Files.exists(path)) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            return size == 0 ? null : channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+    }
+
+    /**
+     * Validates the block headers and truncates the file after the last complete block.
+     *
+     * @return newest sealed timestamp, or {@link Long#MIN_VALUE} if nothing is sealed
+     */
+    private long recover() throws IOException {
+        if (!Files.exists(path)) {
+            return Long.MIN_VALUE;
+        }
+        long last = Long.MIN_VALUE;
+        // Headers are read through the channel rather than a mapping, so the file can be truncated afterwards
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long size = channel.size();
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            long position = 0;
+            while (position + HEADER_BYTES <= size) {
+                header.clear();
+                while (header.hasRemaining()) {
+                    if (channel.read(header, position + header.position()) < 0) {
+                        throw new IOException("Unexpected end of " + path);
+                    }
+                }
+                long minTimestamp = header.getLong(0);
+                long maxTimestamp = header.getLong(8);
+                int count = header.getInt(16);
+                int length = header.getInt(20);
+                if (count <= 0 || length < 0 || position + HEADER_BYTES + length > size
+                        || minTimestamp > maxTimestamp || minTimestamp <= last) {
+                    break;
+                }
+                last = maxTimestamp;
+                position += HEADER_BYTES + length;
+            }
+            if (position < size) {
+                System.err.println("Truncating " + (size - position) + " bytes after the last complete block of " + path);
+                channel.truncate(position);
+            }
+        }
+        return last;
+    }
+
+    /**
+     * @return whether a whole block (header and payload) starts at {@code position}
+     */
+    private static boolean isCompleteBlock(ByteBuffer buffer, int position) {
+        if (position + HEADER_BYTES > buffer.limit()) {
+            return false;
+        }
+        int length = buffer.getInt(position + 20);
+        return length >= 0 && length <= buffer.limit() - position - HEADER_BYTES;
+    }
+}
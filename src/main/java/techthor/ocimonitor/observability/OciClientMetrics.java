@@ -0,0 +1,179 @@
+package techthor.ocimonitor.observability;
+
+import com.oracle.bmc.model.BmcException;
+import io.micrometer.common.KeyValues;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Metrics and tracing of OCI SDK calls.
+ * <p>
+ * Every upstream call is wrapped in an {@link Observation} named {@code oci.client.requests}.
+ * The actuator turns it into a latency timer and, with a tracing bridge on the classpath, into a
+ * span that nests under the current HTTP request or snapshot section. Besides the timer, each
+ * endpoint (service, region and operation) counts throttled, retried and rejected calls and
+ * records the number of items returned per list page.
+ */
+@Component
+public class OciClientMetrics {
+
+    public static final String CALL_OBSERVATION = "oci.client.requests";
+
+    // getItems() of list responses, looked up once per response class
+    private static final ClassValue<Method> ITEMS_ACCESSOR = new ClassValue<>() {
+        @Override
+        protected Method computeValue(Class<?> type) {
+            try {
+                Method method = type.getMethod("getItems");
+                return List.class.isAssignableFrom(method.getReturnType()) ? method : null;
+            } catch (NoSuchMethodException e) {
+                return null;
+            }
+        }
+    };
+
+    private final MeterRegistry meterRegistry;
+    private final ObservationRegistry observationRegistry;
+
+    /**
+     * @param meterRegistry       registry for the counters and page size summaries
+     * @param observationRegistry registry creating the timer and span of each call
+     */
+    public OciClientMetrics(MeterRegistry meterRegistry, ObservationRegistry observationRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.observationRegistry = observationRegistry;
+    }
+
+    /**
+     * Creates the meters of one operation. Callers keep the result, so that the hot path does
+     * not look meters up again.
+     *
+     * @param service   OCI service, e.g. {@code compute}
+     * @param region    region of the client endpoint
+     * @param operation SDK method name, e.g. {@code listInstances}
+     */
+    public EndpointMeters endpoint(String service, String region, String operation) {
+        return new EndpointMeters(service, region, operation);
+    }
+
+    /**
+     * Meters of one OCI operation in one region.
+     */
+    public final class EndpointMeters {
+        private final String contextualName;
+        private final KeyValues keyValues;
+        private final Tags tags;
+        private final Counter throttled;
+        private final Counter retried;
+        private final DistributionSummary pageItems;
+        private final Map<String, Counter> rejected = new ConcurrentHashMap<>();
+
+        private EndpointMeters(String service, String region, String operation) {
+            this.contextualName = service + " " + operation;
+            this.keyValues = KeyValues.of("service", service, "region", region, "operation", operation);
+            this.tags = Tags.of("service", service, "region", region, "operation", operation);
+            this.throttled = Counter.builder("oci.client.throttled")
+                    .description("OCI calls answered with HTTP 429")
+                    .tags(tags)
+                    .register(meterRegistry);
+            this.retried = Counter.builder("oci.client.retries")
+                    .description("OCI calls retried by the resilience layer")
+                    .tags(tags)
+                    .register(meterRegistry);
+            this.pageItems = DistributionSummary.builder("oci.client.page.items")
+                    .description("Items returned per list page")
+                    .tags(tags)
+                    .register(meterRegistry);
+        }
+
+        /**
+         * Runs one upstream call under its observation and records the page size of list responses.
+         */
+        public <T> T observe(Supplier<T> call) {
+            Observation observation = Observation.createNotStarted(CALL_OBSERVATION, observationRegistry)
+                    .contextualName(contextualName)
+                    .lowCardinalityKeyValues(keyValues)
+                    .start();
+            try (Observation.Scope scope = observation.openScope()) {
+                T result = call.get();
+                observation.lowCardinalityKeyValue("outcome", "SUCCESS");
+                recordPageItems(result);
+                return result;
+            } catch (RuntimeException e) {
+                observation.lowCardinalityKeyValue("outcome", outcome(e));
+                observation.error(e);
+                throw e;
+            } finally {
+                observation.stop();
+            }
+        }
+
+        public void throttled() {
+            throttled.increment();
+        }
+
+        public void retried() {
+            retried.increment();
+        }
+
+        /**
+         * Counts a call rejected before reaching OCI.
+         *
+         * @param reason guard that rejected the call, e.g. {@code circuit open}
+         */
+        public void rejected(String reason) {
+            rejected.computeIfAbsent(reason, r -> Counter.builder("oci.client.rejected")
+                    .description("OCI calls rejected by the resilience layer")
+                    .tags(tags)
+                    .tag("reason", r.replace(' ', '_'))
+                    .register(meterRegistry)).increment();
+        }
+
+        private void recordPageItems(Object response) {
+            if (response == null) {
+                return;
+            }
+            Method items = ITEMS_ACCESSOR.get(response.getClass());
+            if (items == null) {
+                return;
+            }
+            try {
+                Object page = items.invoke(response);
+                if (page instanceof List<?> list) {
+                    pageItems.record(list.size());
+                }
+            } catch (ReflectiveOperationException e) {
+                // Not a list page after all; nothing to record
+            }
+        }
+    }
+
+    private static String outcome(RuntimeException e) {
+        if (!(e instanceof BmcException bmc)) {
+            return e.getClass().getSimpleName().toUpperCase(Locale.ROOT);
+        }
+        int status = bmc.getStatusCode();
+        if (status == 429) {
+            return "THROTTLED";
+        }
+        if (bmc.isTimeout()) {
+            return "TIMEOUT";
+        }
+        if (status >= 500 || status <= 0) {
+            return "SERVER_ERROR";
+        }
+        return "CLIENT_ERROR";
+    }
+}
@@ -0,0 +1,351 @@
+package techthor.ocimonitor.preview;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import io.airlift.compress.zstd.ZstdInputStream;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Decodes and classifies the first bytes of an object for previews.
+ * <p>
+ * gzip and zstd are recognized by their magic bytes and decompressed while the bytes arrive,
+ * so a preview never holds more than the decoded limit, whatever the size of the object. A
+ * compressed stream that is cut off by the end of the fetched range yields the content
+ * decoded up to that point. The decoded bytes are then classified as text, JSON, NDJSON,
+ * CSV or binary.
+ */
+public final class ContentSniffer {
+
+    /** Bytes that start every Parquet file and end its footer. */
+    public static final byte[] PARQUET_MAGIC = {'P', 'A', 'R', '1'};
+
+    private static final int BUFFER_SIZE = 8 * 1024;
+    private static final int BINARY_PROBE_BYTES = 8 * 1024;
+    private static final int HEX_DUMP_BYTES = 512;
+    private static final int SAMPLE_LINES = 20;
+    private static final int MAX_ROWS = 100;
+    private static final char[] CSV_DELIMITERS = {',', '\t', ';', '|'};
+    private static final JsonFactory JSON = new JsonFactory();
+
+    private ContentSniffer() {
+    }
+
+    /**
+     * Result of {@link #decode}.
+     *
+     * @param compression {@code gzip}, {@code zstd} or {@code none}
+     * @param bytes       decoded content, at most the requested limit
+     * @param rawBytes    bytes read from the source stream
+     * @param complete    whether the decoded stream ended within the limit (the source may still be a range of a larger object)
+     */
+    public record Decoded(String compression, byte[] bytes, long rawBytes, boolean complete) {}
+
+    /**
+     * Result of {@link #describe}.
+     *
+     * @param format {@code text}, {@code json}, {@code ndjson}, {@code csv}, {@code binary} or {@code empty}
+     * @param text   text to show: the content, cut after the last complete line if truncated, or a hex dump
+     * @param rows   parsed CSV rows, header first; null for other formats
+     */
+    public record Description(String format, String text, List<List<String>> rows) {}
+
+    /**
+     * Reads and, if compressed, decompresses a stream up to a limit.
+     *
+     * @param raw             object bytes as returned by OCI; not closed
+     * @param maxDecodedBytes maximum number of decoded bytes kept
+     * @return decoded bytes and how much of the source was read
+     * @throws IOException if the source fails, or a compressed stream is corrupt before its end
+     */
+    public static Decoded decode(InputStream raw, int maxDecodedBytes) throws IOException {
+        CountingInputStream counted = new CountingInputStream(raw);
+        BufferedInputStream source = new BufferedInputStream(counted, BUFFER_SIZE);
+        source.mark(4);
+        byte[] magic = source.readNBytes(4);
+        source.reset();
+
+        String compression;
+        if (magic.length >= 2 && (magic[0] & 0xff) == 0x1f && (magic[1] & 0xff) == 0x8b) {
+            compression = "gzip";
+        } else if (magic.length == 4 && (magic[0] & 0xff) == 0x28 && (magic[1] & 0xff) == 0xb5
+                && (magic[2] & 0xff) == 0x2f && (magic[3] & 0xff) == 0xfd) {
+            compression = "zstd";
+        } else {
+            compression = "none";
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.min(maxDecodedBytes, 64 * 1024));
+        byte[] buffer = new byte[BUFFER_SIZE];
+        boolean complete = false;
+        try {
+            InputStream decoded = switch (compression) {
+                case "gzip" -> new GZIPInputStream(source, BUFFER_SIZE);
+                case "zstd" -> new ZstdInputStream(source);
+                default -> source;
+            };
+            while (out.size() < maxDecodedBytes) {
+                int n = decoded.read(buffer, 0, Math.min(buffer.length, maxDecodedBytes - out.size()));
+                if (n < 0) {
+                    complete = true;
+                    break;
+                }
+                out.write(buffer, 0, n);
+            }
+            if (!complete) {
+                complete = decoded.read() < 0;
+            }
+        } catch (IOException | RuntimeException e) {
+            // A compressed stream cut off by the end of the range: keep what was decoded so far
+            if (compression.equals("none") || !counted.atEnd()) {
+                throw e;
+            }
+        }
+        return new Decoded(compression, out.toByteArray(), counted.count(), complete);
+    }
+
+    /**
+     * Classifies decoded content.
+     *
+     * @param content   decoded bytes
+     * @param truncated whether the content is only the beginning of the object
+     * @return format and what to show for it
+     */
+    public static Description describe(byte[] content, boolean truncated) {
+        if (content.length == 0) {
+            return new Description("empty", "", null);
+        }
+        String text = utf8(content, truncated);
+        if (text == null) {
+            return new Description("binary", hexDump(content), null);
+        }
+        if (truncated) {
+            int lastNewline = text.lastIndexOf('\n');
+            if (lastNewline > 0) {
+                text = text.substring(0, lastNewline + 1);
+            }
+        }
+
+        List<String> lines = lines(text);
+        String first = text.stripLeading();
+        if (lines.size() >= 2 && lines.stream().allMatch(ContentSniffer::isJson)) {
+            return new Description("ndjson", text, null);
+        }
+        if ((first.startsWith("{") || first.startsWith("[")) && (truncated || isJson(text))) {
+            return new Description("json", text, null);
+        }
+        char delimiter = csvDelimiter(lines);
+        if (delimiter != 0) {
+            List<List<String>> rows = new ArrayList<>();
+            for (String line : lines.subList(0, Math.min(lines.size(), MAX_ROWS))) {
+                rows.add(splitCsv(line, delimiter));
+            }
+            return new Description("csv", text, rows);
+        }
+        return new Description("text", text, null);
+    }
+
+    /**
+     * @return whether the content starts with the Parquet magic bytes
+     */
+    public static boolean isParquet(byte[] content) {
+        if (content.length < PARQUET_MAGIC.length) {
+            return false;
+        }
+        for (int i = 0; i < PARQUET_MAGIC.length; i++) {
+            if (content[i] != PARQUET_MAGIC[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Decodes UTF-8 text; an incomplete character at the end of truncated content is dropped.
+     *
+     * @return the text, or null if the content contains NUL bytes or invalid UTF-8
+     */
+    private static String utf8(byte[] content, boolean truncated) {
+        for (int i = 0; i < Math.min(content.length, BINARY_PROBE_BYTES); i++) {
+            if (content[i] == 0) {
+                return null;
+            }
+        }
+        CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPORT)
+                .onUnmappableCharacter(CodingErrorAction.REPORT);
+        CharBuffer chars = CharBuffer.allocate(content.length);
+        if (decoder.decode(ByteBuffer.wrap(content), chars, !truncated).isError()) {
+            return null;
+        }
+        if (!truncated && decoder.flush(chars).isError()) {
+            return null;
+        }
+        return chars.flip().toString();
+    }
+
+    private static List<String> lines(String text) {
+        List<String> lines = new ArrayList<>();
+        for (String line : text.split("\r?\n")) {
+            if (!line.isBlank()) {
+                lines.add(line);
+            }
+        }
+        return lines;
+    }
+
+    private static boolean isJson(String text) {
+        try (JsonParser parser = JSON.createParser(text)) {
+            if (parser.nextToken() == null) {
+                return false;
+            }
+            while (parser.nextToken() != null) {
+                // walk to the end to validate the document
+            }
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Picks the delimiter that splits the sampled lines into the same number (at least two) of
+     * fields, preferring more fields.
+     *
+     * @return the delimiter, or 0 if the lines do not look like CSV
+     */
+    private static char csvDelimiter(List<String> lines) {
+        if (lines.size() < 2) {
+            return 0;
+        }
+        List<String> sample = lines.subList(0, Math.min(lines.size(), SAMPLE_LINES));
+        char best = 0;
+        int bestFields = 1;
+        for (char delimiter : CSV_DELIMITERS) {
+            int fields = splitCsv(sample.get(0), delimiter).size();
+            if (fields <= bestFields) {
+                continue;
+            }
+            boolean consistent = true;
+            for (String line : sample) {
+                if (splitCsv(line, delimiter).size() != fields) {
+                    consistent = false;
+                    break;
+                }
+            }
+            if (consistent) {
+                best = delimiter;
+                bestFields = fields;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Splits one CSV line, honouring double-quoted fields and doubled quotes inside them.
+     */
+    private static List<String> splitCsv(String line, char delimiter) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == delimiter) {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    /**
+     * Classic hex dump of the first bytes: offset, 16 bytes in hex, printable ASCII.
+     */
+    private static String hexDump(byte[] content) {
+        int length = Math.min(content.length, HEX_DUMP_BYTES);
+        StringBuilder dump = new StringBuilder(length * 5);
+        for (int offset = 0; offset < length; offset += 16) {
+            dump.append(String.format("%08x ", offset));
+            StringBuilder ascii = new StringBuilder(16);
+            for (int i = offset; i < offset + 16; i++) {
+                if (i < length) {
+                    int b = content[i] & 0xff;
+                    dump.append(String.format(" %02x", b));
+                    ascii.append(b >= 0x20 && b < 0x7f ? (char) b : '.');
+                } else {
+                    dump.append("   ");
+                }
+            }
+            dump.append("  |").append(ascii).append("|\n");
+        }
+        return dump.toString();
+    }
+
+    /**
+     * Counts the bytes read from the source and whether its end was reached.
+     */
+    private static final class CountingInputStream extends FilterInputStream {
+        private long count;
+        private boolean atEnd;
+
+        private CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b < 0) {
+                atEnd = true;
+            } else {
+                count++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n < 0) {
+                atEnd = true;
+            } else {
+                count += n;
+            }
+            return n;
+        }
+
+        long count() {
+            return count;
+        }
+
+        boolean atEnd() {
+            return atEnd;
+        }
+    }
+}
@@ -0,0 +1,276 @@
+package techthor.ocimonitor.preview;
+
+import techthor.ocimonitor.dto.ObjectPreview;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads the summary of a Parquet file from its last bytes.
+ * <p>
+ * A Parquet file ends with its metadata (Thrift compact protocol), the 4-byte little-endian
+ * length of that metadata and the magic {@code PAR1}. Only the row count and the schema are
+ * decoded; all other fields (row groups, statistics, key/value metadata) are skipped without
+ * being materialized, so no Parquet library is needed.
+ */
+public final class ParquetFooter {
+
+    private static final int MAX_COLUMNS = 1000;
+
+    // Thrift compact protocol type ids
+    private static final int BOOLEAN_TRUE = 1;
+    private static final int BOOLEAN_FALSE = 2;
+    private static final int BYTE = 3;
+    private static final int I16 = 4;
+    private static final int I32 = 5;
+    private static final int I64 = 6;
+    private static final int DOUBLE = 7;
+    private static final int BINARY = 8;
+    private static final int LIST = 9;
+    private static final int SET = 10;
+    private static final int MAP = 11;
+    private static final int STRUCT = 12;
+
+    private ParquetFooter() {
+    }
+
+    /**
+     * @param tail last bytes of the file
+     * @return summary, with {@code rowCount} -1 if the metadata does not fit in {@code tail}
+     *         or cannot be decoded; null if {@code tail} does not end like a Parquet file
+     */
+    public static ObjectPreview.Parquet parse(byte[] tail) {
+        int magic = ContentSniffer.PARQUET_MAGIC.length;
+        if (tail.length < magic + 4) {
+            return null;
+        }
+        for (int i = 0; i < magic; i++) {
+            if (tail[tail.length - magic + i] != ContentSniffer.PARQUET_MAGIC[i]) {
+                return null;
+            }
+        }
+        int lengthAt = tail.length - magic - 4;
+        long footerBytes = (tail[lengthAt] & 0xffL)
+                | (tail[lengthAt + 1] & 0xffL) << 8
+                | (tail[lengthAt + 2] & 0xffL) << 16
+                | (tail[lengthAt + 3] & 0xffL) << 24;
+        if (footerBytes > lengthAt) {
+            return new ObjectPreview.Parquet(footerBytes, -1, List.of());
+        }
+        try {
+            return readFileMetaData(new CompactReader(tail, lengthAt - (int) footerBytes, lengthAt), footerBytes);
+        } catch (IllegalArgumentException e) {
+            return new ObjectPreview.Parquet(footerBytes, -1, List.of());
+        }
+    }
+
+    /**
+     * FileMetaData: field 2 is the flattened schema (depth-first, each element with its child
+     * count), field 3 the row count.
+     */
+    private static ObjectPreview.Parquet readFileMetaData(CompactReader reader, long footerBytes) {
+        List<String> names = new ArrayList<>();
+        List<Integer> childCounts = new ArrayList<>();
+        long rowCount = -1;
+        int lastField = 0;
+        while (true) {
+            int header = reader.readByte();
+            if (header == 0) {
+                break;
+            }
+            int type = header & 0x0f;
+            int field = reader.fieldId(header, lastField);
+            lastField = field;
+            if (field == 2 && (type == LIST || type == SET)) {
+                int[] list = reader.listHeader();
+                for (int i = 0; i < list[0]; i++) {
+                    readSchemaElement(reader, names, childCounts);
+                }
+            } else if (field == 3 && type == I64) {
+                rowCount = reader.readZigzag();
+            } else {
+                reader.skip(type);
+            }
+        }
+        List<String> columns = new ArrayList<>();
+        if (!names.isEmpty()) {
+            collectLeaves(names, childCounts, new int[]{1}, childCounts.get(0), "", columns);
+        }
+        return new ObjectPreview.Parquet(footerBytes, rowCount, columns);
+    }
+
+    /**
+     * SchemaElement: field 4 is the name, field 5 the number of children (absent for leaves).
+     */
+    private static void readSchemaElement(CompactReader reader, List<String> names, List<Integer> childCounts) {
+        String name = "";
+        int children = 0;
+        int lastField = 0;
+        while (true) {
+            int header = reader.readByte();
+            if (header == 0) {
+                break;
+            }
+            int type = header & 0x0f;
+            int field = reader.fieldId(header, lastField);
+            lastField = field;
+            if (field == 4 && type == BINARY) {
+                name = reader.readString();
+            } else if (field == 5 && type == I32) {
+                children = (int) reader.readZigzag();
+            } else {
+                reader.skip(type);
+            }
+        }
+        names.add(name);
+        childCounts.add(children);
+    }
+
+    private static void collectLeaves(List<String> names, List<Integer> childCounts, int[] next, int children,
+                                      String parent, List<String> columns) {
+        for (int i = 0; i < children && next[0] < names.size() && columns.size() < MAX_COLUMNS; i++) {
+            int element = next[0]++;
+            String path = parent.isEmpty() ? names.get(element) : parent + "." + names.get(element);
+            if (childCounts.get(element) > 0) {
+                collectLeaves(names, childCounts, next, childCounts.get(element), path, columns);
+            } else {
+                columns.add(path);
+            }
+        }
+    }
+
+    /**
+     * Minimal reader for the Thrift compact protocol over a byte range. Reads past the range
+     * fail with {@link IllegalArgumentException}.
+     */
+    private static final class CompactReader {
+        private final byte[] buffer;
+        private final int end;
+        private int position;
+
+        private CompactReader(byte[] buffer, int start, int end) {
+            this.buffer = buffer;
+            this.position = start;
+            this.end = end;
+        }
+
+        int readByte() {
+            require(1);
+            return buffer[position++] & 0xff;
+        }
+
+        long readVarint() {
+            long result = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                int b = readByte();
+                result |= (long) (b & 0x7f) << shift;
+                if ((b & 0x80) == 0) {
+                    return result;
+                }
+            }
+            throw new IllegalArgumentException("Varint too long");
+        }
+
+        long readZigzag() {
+            long n = readVarint();
+            return (n >>> 1) ^ -(n & 1);
+        }
+
+        String readString() {
+            int length = length();
+            String value = new String(buffer, position, length, StandardCharsets.UTF_8);
+            position += length;
+            return value;
+        }
+
+        /**
+         * Field id from a field header byte: a delta to the previous id in the high nibble, or
+         * (if that is zero) a zigzag varint following the header.
+         */
+        int fieldId(int header, int lastField) {
+            int delta = header >>> 4;
+            return delta != 0 ? lastField + delta : (int) readZigzag();
+        }
+
+        /**
+         * @return element count and element type of a list or set
+         */
+        int[] listHeader() {
+            int header = readByte();
+            int size = header >>> 4;
+            if (size == 15) {
+                size = length();
+            }
+            return new int[]{size, header & 0x0f};
+        }
+
+        void skip(int type) {
+            switch (type) {
+                case BOOLEAN_TRUE, BOOLEAN_FALSE -> {
+                    // the value is part of the field header
+                }
+                case BYTE -> readByte();
+                case I16, I32, I64 -> readVarint();
+                case DOUBLE -> advance(8);
+                case BINARY -> advance(length());
+                case LIST, SET -> {
+                    int[] list = listHeader();
+                    for (int i = 0; i < list[0]; i++) {
+                        skipElement(list[1]);
+                    }
+                }
+                case MAP -> {
+                    int size = length();
+                    if (size > 0) {
+                        int types = readByte();
+                        for (int i = 0; i < size; i++) {
+                            skipElement(types >>> 4);
+                            skipElement(types & 0x0f);
+                        }
+                    }
+                }
+                case STRUCT -> {
+                    int lastField = 0;
+                    while (true) {
+                        int header = readByte();
+                        if (header == 0) {
+                            break;
+                        }
+                        lastField = fieldId(header, lastField);
+                        skip(header & 0x0f);
+                    }
+                }
+                default -> throw new IllegalArgumentException("Unknown Thrift type " + type);
+            }
+        }
+
+        // Inside lists and maps, booleans take a byte of their own
+        private void skipElement(int type) {
+            if (type == BOOLEAN_TRUE || type == BOOLEAN_FALSE) {
+                readByte();
+            } else {
+                skip(type);
+            }
+        }
+
+        private int length() {
+            long length = readVarint();
+            if (length < 0 || length > end - position) {
+                throw new IllegalArgumentException("Length " + length + " exceeds the footer");
+            }
+            return (int) length;
+        }
+
+        private void advance(int bytes) {
+            require(bytes);
+            position += bytes;
+        }
+
+        private void require(int bytes) {
+            if (position + bytes > end) {
+                throw new IllegalArgumentException("Truncated footer");
+            }
+        }
+    }
+}
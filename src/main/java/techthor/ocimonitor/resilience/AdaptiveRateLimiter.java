@@ -0,0 +1,114 @@
+package techthor.ocimonitor.resilience;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Token-bucket rate limiter whose rate adapts to upstream throttling (AIMD).
+ * <p>
+ * Tokens refill continuously at the current rate, up to the burst size. Every successful
+ * call raises the rate by a small step, and a throttling response (HTTP 429) halves it
+ * and empties the bucket, so the next calls are spread out at once. The rate always stays
+ * within {@code [minRate, maxRate]}.
+ * Uses a {@link ReentrantLock} instead of {@code synchronized} so that waiting virtual
+ * threads do not pin their carrier thread; the lock is not held while sleeping.
+ */
+public class AdaptiveRateLimiter {
+
+    private final double minRate;
+    private final double maxRate;
+    private final double burst;
+    private final double increaseStep;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private double rate;
+    private double tokens;
+    private long lastRefillNanos = System.nanoTime();
+
+    /**
+     * @param initialRate starting rate in calls per second
+     * @param minRate     lower bound of the rate
+     * @param maxRate     upper bound of the rate
+     * @param burst       maximum number of calls that may start back to back
+     */
+    public AdaptiveRateLimiter(double initialRate, double minRate, double maxRate, double burst) {
+        this.minRate = Math.max(0.01, minRate);
+        this.maxRate = Math.max(this.minRate, maxRate);
+        this.burst = Math.max(1, burst);
+        this.rate = Math.min(this.maxRate, Math.max(this.minRate, initialRate));
+        this.tokens = this.burst;
+        // Recover from a halving within roughly 100 successful calls
+        this.increaseStep = this.maxRate / 200;
+    }
+
+    /**
+     * Takes one token, waiting for the refill if necessary.
+     *
+     * @param maxWaitNanos longest time to wait for a token
+     * @return false if no token became available in time
+     */
+    public boolean acquire(long maxWaitNanos) throws InterruptedException {
+        long deadline = System.nanoTime() + maxWaitNanos;
+        while (true) {
+            long waitNanos;
+            lock.lock();
+            try {
+                long now = System.nanoTime();
+                refill(now);
+                if (tokens >= 1) {
+                    tokens -= 1;
+                    return true;
+                }
+                waitNanos = (long) ((1 - tokens) / rate * TimeUnit.SECONDS.toNanos(1));
+                if (now + waitNanos > deadline) {
+                    return false;
+                }
+            } finally {
+                lock.unlock();
+            }
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+
+    /**
+     * Records a successful call and raises the rate by one step.
+     */
+    public void onSuccess() {
+        lock.lock();
+        try {
+            rate = Math.min(maxRate, rate + increaseStep);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Records a throttled call: halves the rate and drops the saved-up burst.
+     */
+    public void onThrottled() {
+        lock.lock();
+        try {
+            rate = Math.max(minRate, rate / 2);
+            tokens = Math.min(tokens, 0);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return current rate in calls per second
+     */
+    public double getRate() {
+        lock.lock();
+        try {
+            return rate;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void refill(long now) {
+        tokens = Math.min(burst, tokens + (now - lastRefillNanos) * rate / TimeUnit.SECONDS.toNanos(1));
+        lastRefillNanos = now;
+    }
+}
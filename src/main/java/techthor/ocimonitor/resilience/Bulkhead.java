@@ -0,0 +1,45 @@
+package techthor.ocimonitor.resilience;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caps the number of concurrent calls to one upstream service.
+ * <p>
+ * A caller that cannot get a slot within the maximum wait is rejected instead of queuing.
+ * Therefore a slow service only ties up its own slots, and request threads serving other
+ * endpoints are not stuck behind it.
+ */
+public class Bulkhead {
+
+    private final int maxConcurrent;
+    private final Semaphore slots;
+
+    /**
+     * @param maxConcurrent maximum number of calls in flight
+     */
+    public Bulkhead(int maxConcurrent) {
+        this.maxConcurrent = Math.max(1, maxConcurrent);
+        this.slots = new Semaphore(this.maxConcurrent);
+    }
+
+    /**
+     * @param maxWaitNanos longest time to wait for a free slot
+     * @return false if the bulkhead stayed full
+     */
+    public boolean tryAcquire(long maxWaitNanos) throws InterruptedException {
+        return slots.tryAcquire(maxWaitNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void release() {
+        slots.release();
+    }
+
+    public int getMaxConcurrent() {
+        return maxConcurrent;
+    }
+
+    public int getInFlight() {
+        return maxConcurrent - slots.availablePermits();
+    }
+}
@@ -0,0 +1,118 @@
+package techthor.ocimonitor.resilience;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Circuit breaker for one upstream endpoint.
+ * <ul>
+ *   <li>{@code CLOSED} – calls pass; consecutive failures are counted, a success resets the count.</li>
+ *   <li>{@code OPEN} – entered after {@code failureThreshold} consecutive failures; calls are
+ *       rejected without reaching the upstream until the open duration has passed.</li>
+ *   <li>{@code HALF_OPEN} – a single trial call is let through. Its success closes the
+ *       breaker, its failure opens it again.</li>
+ * </ul>
+ */
+public class CircuitBreaker {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final int failureThreshold;
+    private final long openNanos;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAt;
+    private boolean trialInFlight;
+
+    /**
+     * @param failureThreshold consecutive failures that open the breaker
+     * @param openNanos        how long the breaker stays open before a trial call
+     */
+    public CircuitBreaker(int failureThreshold, long openNanos) {
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.openNanos = openNanos;
+    }
+
+    /**
+     * Decides whether a call may proceed. A true result must be followed by
+     * {@link #onSuccess()} or {@link #onFailure()}; in HALF_OPEN it reserves the trial call.
+     */
+    public boolean tryAcquire() {
+        lock.lock();
+        try {
+            if (state == State.OPEN && System.nanoTime() - openedAt >= openNanos) {
+                state = State.HALF_OPEN;
+                trialInFlight = false;
+            }
+            return switch (state) {
+                case CLOSED -> true;
+                case OPEN -> false;
+                case HALF_OPEN -> {
+                    if (trialInFlight) {
+                        yield false;
+                    }
+                    trialInFlight = true;
+                    yield true;
+                }
+            };
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Records a successful call (or one that failed for reasons unrelated to upstream health).
+     */
+    public void onSuccess() {
+        lock.lock();
+        try {
+            consecutiveFailures = 0;
+            trialInFlight = false;
+            state = State.CLOSED;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Records a failed call, opening the breaker if the threshold is reached or the trial failed.
+     */
+    public void onFailure() {
+        lock.lock();
+        try {
+            consecutiveFailures++;
+            trialInFlight = false;
+            if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+                state = State.OPEN;
+                openedAt = System.nanoTime();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return milliseconds until an open breaker admits a trial call, 0 if not open
+     */
+    public long remainingOpenMillis() {
+        lock.lock();
+        try {
+            if (state != State.OPEN) {
+                return 0;
+            }
+            return Math.max(0, (openNanos - (System.nanoTime() - openedAt)) / 1_000_000);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public State getState() {
+        lock.lock();
+        try {
+            return state;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
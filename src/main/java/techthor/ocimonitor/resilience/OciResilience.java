@@ -0,0 +1,376 @@
+package techthor.ocimonitor.resilience;
+
+import com.oracle.bmc.model.BmcException;
+import com.oracle.bmc.requests.BmcRequest;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+import techthor.ocimonitor.observability.OciClientMetrics;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Resilience layer around the OCI SDK clients.
+ * <p>
+ * {@link #wrap} puts a proxy in front of a client interface. Every operation (a method
+ * taking a single {@link BmcRequest}) then runs through the guards below. That includes the
+ * calls made by {@code getPaginators()}, because the paginators are rebuilt on top of the
+ * proxy. Per call:
+ * <ol>
+ *   <li>{@link Bulkhead} per service and region – caps concurrent calls; callers that find it
+ *       full are rejected after a short wait instead of blocking request threads.</li>
+ *   <li>{@link AdaptiveRateLimiter} per service and region – token bucket that halves its
+ *       rate on HTTP 429 and slowly recovers on success.</li>
+ *   <li>{@link CircuitBreaker} per endpoint (service, region and operation) – opens after
+ *       consecutive 5xx, timeout or connection failures and rejects calls while open.
+ *       Client errors (4xx) and throttling do not count as failures.</li>
+ *   <li>Retries of read operations (list, get, head, summarize) on throttling and transient
+ *       failures, with jittered exponential backoff. Slots are not held while backing off.</li>
+ * </ol>
+ * Rejected calls throw {@link OciUnavailableException}. Callers that hold a previous result,
+ * such as the resource caches, serve it instead.
+ * <p>
+ * Settings are read from {@code oci.resilience.<key>} and may be overridden per service with
+ * {@code oci.resilience.<service>.<key>}, e.g. {@code oci.resilience.monitoring.bulkhead.max-concurrent}.
+ * <p>
+ * Each attempt that reaches OCI is observed by {@link OciClientMetrics}. Throttling, retries
+ * and rejections are counted there too.
+ */
+@Component
+public class OciResilience {
+
+    private final Environment environment;
+    private final OciClientMetrics metrics;
+    private final Map<String, ServiceGuard> guards = new ConcurrentHashMap<>();
+    private final Map<String, EndpointGuard> endpoints = new ConcurrentHashMap<>();
+
+    /**
+     * @param environment source of the {@code oci.resilience.*} settings
+     * @param metrics     meters and spans of the calls made through the proxies
+     */
+    public OciResilience(Environment environment, OciClientMetrics metrics) {
+        this.environment = environment;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Returns a proxy of the client that runs every operation through the guards of its
+     * service and region.
+     *
+     * @param serviceInterface SDK client interface, e.g. {@code Compute.class}
+     * @param client           client to protect
+     * @return proxy implementing the same interface
+     */
+    public <T> T wrap(Class<T> serviceInterface, T client) {
+        return wrapLazily(serviceInterface, () -> client);
+    }
+
+    /**
+     * Like {@link #wrap}, but the client is only obtained, and the guards of its region
+     * resolved, when the first method is called on the proxy. Building SDK clients is
+     * expensive, so this keeps client construction out of application startup.
+     *
+     * @param serviceInterface SDK client interface, e.g. {@code Compute.class}
+     * @param client           supplier of the client to protect; called on every use, so it
+     *                         must return the same (cached) instance
+     * @return proxy implementing the same interface
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T wrapLazily(Class<T> serviceInterface, Supplier<T> client) {
+        return (T) Proxy.newProxyInstance(serviceInterface.getClassLoader(), new Class<?>[]{serviceInterface},
+                new GuardedClient(serviceInterface, client));
+    }
+
+    /**
+     * @return per-endpoint call counters and breaker state, with the limiter and bulkhead of its scope
+     */
+    public List<Map<String, Object>> stats() {
+        List<Map<String, Object>> stats = new ArrayList<>();
+        endpoints.values().stream()
+                .sorted((a, b) -> a.name.compareTo(b.name))
+                .forEach(endpoint -> {
+                    Map<String, Object> entry = new LinkedHashMap<>();
+                    entry.put("endpoint", endpoint.name);
+                    entry.put("breaker", endpoint.breaker.getState().name());
+                    entry.put("calls", endpoint.calls.sum());
+                    entry.put("failures", endpoint.failures.sum());
+                    entry.put("throttled", endpoint.throttled.sum());
+                    entry.put("retries", endpoint.retries.sum());
+                    entry.put("rejected", endpoint.rejected.sum());
+                    entry.put("rateLimit", Math.round(endpoint.guard.limiter.getRate() * 100) / 100.0);
+                    entry.put("inFlight", endpoint.guard.bulkhead.getInFlight());
+                    entry.put("maxConcurrent", endpoint.guard.bulkhead.getMaxConcurrent());
+                    stats.add(entry);
+                });
+        return stats;
+    }
+
+    /**
+     * Runs one OCI operation under the bulkhead, rate limiter and circuit breaker of its
+     * scope, retrying transient failures of read operations.
+     *
+     * @throws OciUnavailableException if the call was rejected by the resilience layer
+     */
+    private <T> T execute(ServiceGuard guard, String operation, Supplier<T> call) {
+        EndpointGuard endpoint = endpoints.computeIfAbsent(guard.scope + ":" + operation,
+                name -> new EndpointGuard(name, guard, metrics.endpoint(guard.service, guard.region, operation)));
+        boolean retryable = isReadOperation(operation);
+
+        for (int attempt = 0; ; attempt++) {
+            try {
+                // Wait for the rate token first, so a throttled caller does not hold a bulkhead permit meanwhile
+                if (!guard.limiter.acquire(guard.rateWaitNanos)) {
+                    throw reject(endpoint, "rate limited", TimeUnit.NANOSECONDS.toMillis(guard.rateWaitNanos));
+                }
+                if (!guard.bulkhead.tryAcquire(guard.bulkheadWaitNanos)) {
+                    throw reject(endpoint, "bulkhead full", TimeUnit.NANOSECONDS.toMillis(guard.bulkheadWaitNanos));
+                }
+                try {
+                    if (!endpoint.breaker.tryAcquire()) {
+                        throw reject(endpoint, "circuit open", endpoint.breaker.remainingOpenMillis());
+                    }
+                    endpoint.calls.increment();
+                    try {
+                        T result = endpoint.meters.observe(call);
+                        endpoint.breaker.onSuccess();
+                        guard.limiter.onSuccess();
+                        return result;
+                    } catch (RuntimeException e) {
+                        if (isThrottled(e)) {
+                            endpoint.throttled.increment();
+                            endpoint.meters.throttled();
+                            guard.limiter.onThrottled();
+                            endpoint.breaker.onSuccess(); // reachable, just busy
+                        } else if (isUpstreamFailure(e)) {
+                            endpoint.failures.increment();
+                            endpoint.breaker.onFailure();
+                        } else {
+                            endpoint.breaker.onSuccess();
+                        }
+                        if (!retryable || attempt >= guard.maxRetries || !(isThrottled(e) || isUpstreamFailure(e))) {
+                            throw e;
+                        }
+                        endpoint.retries.increment();
+                        endpoint.meters.retried();
+                        System.err.println(endpoint.name + " failed (" + e.getMessage() + "), retrying");
+                    } catch (Error e) {
+                        // Settle the breaker anyway, otherwise a HALF_OPEN trial stays reserved forever
+                        endpoint.breaker.onFailure();
+                        throw e;
+                    }
+                } finally {
+                    guard.bulkhead.release();
+                }
+                long backoff = Math.min(guard.maxBackoffMillis, guard.baseBackoffMillis << Math.min(attempt, 20));
+                Thread.sleep(backoff / 2 + ThreadLocalRandom.current().nextLong(backoff / 2 + 1));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new OciUnavailableException(endpoint.name, "interrupted", 0);
+            }
+        }
+    }
+
+    private static OciUnavailableException reject(EndpointGuard endpoint, String reason, long retryAfterMillis) {
+        endpoint.rejected.increment();
+        endpoint.meters.rejected(reason);
+        return new OciUnavailableException(endpoint.name, reason, retryAfterMillis);
+    }
+
+    private static boolean isReadOperation(String operation) {
+        return operation.startsWith("list") || operation.startsWith("get")
+                || operation.startsWith("head") || operation.startsWith("summarize");
+    }
+
+    private static boolean isThrottled(RuntimeException e) {
+        return e instanceof BmcException bmc && bmc.getStatusCode() == 429;
+    }
+
+    /**
+     * 5xx, timeouts and client-side (connection) failures; these say the endpoint is unhealthy.
+     */
+    private static boolean isUpstreamFailure(RuntimeException e) {
+        if (!(e instanceof BmcException bmc)) {
+            return false;
+        }
+        int status = bmc.getStatusCode();
+        return status >= 500 || status <= 0 || bmc.isTimeout();
+    }
+
+    /**
+     * Region of a client, taken from its endpoint host (e.g. iaas.eu-frankfurt-1.oraclecloud.com).
+     */
+    private static String region(Object client, Class<?> serviceInterface) {
+        try {
+            Object endpoint = serviceInterface.getMethod("getEndpoint").invoke(client);
+            String host = endpoint == null ? null : URI.create(endpoint.toString()).getHost();
+            if (host != null) {
+                String[] labels = host.split("\\.");
+                return labels.length > 2 ? labels[1] : host;
+            }
+        } catch (ReflectiveOperationException | IllegalArgumentException e) {
+            // Fall through to the default scope
+        }
+        return "default";
+    }
+
+    private <T> T setting(String service, String key, Class<T> type, T defaultValue) {
+        T global = environment.getProperty("oci.resilience." + key, type, defaultValue);
+        return environment.getProperty("oci.resilience." + service + "." + key, type, global);
+    }
+
+    /**
+     * Limiter, bulkhead and retry settings shared by all operations of one service in one region.
+     */
+    private final class ServiceGuard {
+        private final String service;
+        private final String region;
+        private final String scope;
+        private final AdaptiveRateLimiter limiter;
+        private final Bulkhead bulkhead;
+        private final long rateWaitNanos;
+        private final long bulkheadWaitNanos;
+        private final int maxRetries;
+        private final long baseBackoffMillis;
+        private final long maxBackoffMillis;
+        private final int breakerThreshold;
+        private final long breakerOpenNanos;
+
+        private ServiceGuard(String service, String region) {
+            this.service = service;
+            this.region = region;
+            this.scope = service + "/" + region;
+            this.limiter = new AdaptiveRateLimiter(
+                    setting(service, "rate.initial", Double.class, 20.0),
+                    setting(service, "rate.min", Double.class, 1.0),
+                    setting(service, "rate.max", Double.class, 50.0),
+                    setting(service, "rate.burst", Double.class, 10.0));
+            this.bulkhead = new Bulkhead(setting(service, "bulkhead.max-concurrent", Integer.class, 16));
+            this.rateWaitNanos = setting(service, "rate.max-wait", Duration.class, Duration.ofSeconds(5)).toNanos();
+            this.bulkheadWaitNanos = setting(service, "bulkhead.max-wait", Duration.class, Duration.ofMillis(500)).toNanos();
+            this.maxRetries = setting(service, "retry.max-retries", Integer.class, 3);
+            this.baseBackoffMillis = setting(service, "retry.base-backoff", Duration.class, Duration.ofMillis(200)).toMillis();
+            this.maxBackoffMillis = setting(service, "retry.max-backoff", Duration.class, Duration.ofSeconds(5)).toMillis();
+            this.breakerThreshold = setting(service, "breaker.failure-threshold", Integer.class, 5);
+            this.breakerOpenNanos = setting(service, "breaker.open-duration", Duration.class, Duration.ofSeconds(30)).toNanos();
+        }
+    }
+
+    /**
+     * Circuit breaker and counters of one operation within a scope.
+     */
+    private static final class EndpointGuard {
+        private final String name;
+        private final ServiceGuard guard;
+        private final CircuitBreaker breaker;
+        private final OciClientMetrics.EndpointMeters meters;
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+        private final LongAdder throttled = new LongAdder();
+        private final LongAdder retries = new LongAdder();
+        private final LongAdder rejected = new LongAdder();
+
+        private EndpointGuard(String name, ServiceGuard guard, OciClientMetrics.EndpointMeters meters) {
+            this.name = name;
+            this.guard = guard;
+            this.meters = meters;
+            this.breaker = new CircuitBreaker(guard.breakerThreshold, guard.breakerOpenNanos);
+        }
+    }
+
+    /**
+     * Proxy handler that routes SDK operations through the resilience layer.
+     */
+    private final class GuardedClient implements InvocationHandler {
+        private final Class<?> serviceInterface;
+        private final Supplier<?> client;
+        private volatile ServiceGuard guard;
+        private volatile Object paginators;
+
+        private GuardedClient(Class<?> serviceInterface, Supplier<?> client) {
+            this.serviceInterface = serviceInterface;
+            this.client = client;
+        }
+
+        /**
+         * Guards of the client's service and region, resolved on first use; concurrent first
+         * calls get the same guard from the shared map.
+         */
+        private ServiceGuard guard() {
+            ServiceGuard current = guard;
+            if (current == null) {
+                String service = serviceInterface.getSimpleName().toLowerCase(Locale.ROOT);
+                String region = region(client.get(), serviceInterface);
+                current = guards.computeIfAbsent(service + "/" + region, key -> new ServiceGuard(service, region));
+                guard = current;
+            }
+            return current;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (method.getDeclaringClass() == Object.class) {
+                return switch (method.getName()) {
+                    case "equals" -> proxy == args[0];
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    default -> "Guarded" + serviceInterface.getSimpleName();
+                };
+            }
+            if (method.getName().equals("getPaginators") && method.getParameterCount() == 0) {
+                return paginators(proxy, method);
+            }
+            if (args != null && args.length == 1 && args[0] instanceof BmcRequest<?>) {
+                return execute(guard(), method.getName(), () -> invokeClient(method, args));
+            }
+            return invokeClient(method, args);
+        }
+
+        /**
+         * Paginators bound to the proxy, so that each page request is guarded as well.
+         */
+        private Object paginators(Object proxy, Method method) {
+            if (paginators == null) {
+                try {
+                    paginators = method.getReturnType()
+                            .getConstructor(serviceInterface)
+                            .newInstance(proxy);
+                } catch (ReflectiveOperationException e) {
+                    // No public constructor taking the client; fall back to the unguarded paginators
+                    paginators = invokeClient(method, null);
+                }
+            }
+            return paginators;
+        }
+
+        private Object invokeClient(Method method, Object[] args) {
+            try {
+                return method.invoke(client.get(), args);
+            } catch (InvocationTargetException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof RuntimeException runtime) {
+                    throw runtime;
+                }
+                if (cause instanceof Error error) {
+                    throw error;
+                }
+                throw new UndeclaredThrowableException(cause);
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
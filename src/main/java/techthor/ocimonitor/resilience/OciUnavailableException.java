@@ -0,0 +1,31 @@
+package techthor.ocimonitor.resilience;
+
+/**
+ * Thrown when an OCI call is not attempted or given up by the resilience layer: the
+ * endpoint's circuit breaker is open, the service's bulkhead is full, or no rate-limit
+ * token became available in time.
+ */
+public class OciUnavailableException extends RuntimeException {
+
+    private final String endpoint;
+    private final long retryAfterMillis;
+
+    /**
+     * @param endpoint         service and operation, e.g. "monitoring.summarizeMetricsData"
+     * @param reason           why the call was rejected
+     * @param retryAfterMillis suggested wait before trying again
+     */
+    public OciUnavailableException(String endpoint, String reason, long retryAfterMillis) {
+        super(endpoint + ": " + reason);
+        this.endpoint = endpoint;
+        this.retryAfterMillis = retryAfterMillis;
+    }
+
+    public String getEndpoint() {
+        return endpoint;
+    }
+
+    public long getRetryAfterMillis() {
+        return retryAfterMillis;
+    }
+}
@@ -0,0 +1,33 @@
+package techthor.ocimonitor.scan;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Source of resource changes for the {@link IncrementalSync}.
+ * <p>
+ * {@link #poll} names the resources that changed in a time window, {@link #fetch} reads the
+ * current state of one of them. The OCI implementation is {@link ResourceSearchChangeFeed};
+ * {@link ReplayChangeFeed} replays canned change events so the sync path can run without a
+ * tenancy.
+ */
+public interface ChangeFeed {
+
+    /**
+     * @param since     start of the window, inclusive
+     * @param until     end of the window, exclusive
+     * @param inventory current local inventory, for feeds that detect changes by comparison
+     * @param regions   regions covered by the inventory
+     * @return resources that may have changed in the window, possibly with duplicates
+     */
+    List<ChangeHint> poll(Instant since, Instant until, ScanInventory inventory, List<String> regions);
+
+    /**
+     * Reads the current state of a resource. The compartment name of the result may be null;
+     * the sync fills it in from the scanned compartment tree.
+     *
+     * @return the resource, or empty if it no longer exists (or is terminated)
+     */
+    Optional<ScannedResource> fetch(ChangeHint hint);
+}
@@ -0,0 +1,14 @@
+package techthor.ocimonitor.scan;
+
+/**
+ * A resource that may have changed, as reported by a {@link ChangeFeed}. The resource is
+ * re-fetched before the inventory is updated, so a hint may be a false positive.
+ *
+ * @param kind          {@code instance}, {@code vcn} or {@code policy}
+ * @param id            resource OCID
+ * @param region        region identifier, or {@code global} for IAM resources
+ * @param compartmentId compartment OCID, if known
+ * @param deleted       whether the feed already knows the resource is gone (no re-fetch needed)
+ */
+public record ChangeHint(String kind, String id, String region, String compartmentId, boolean deleted) {
+}
@@ -0,0 +1,138 @@
+package techthor.ocimonitor.scan;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded, in-memory log of inventory changes, found by full scans and incremental syncs.
+ * <p>
+ * Every change gets a sequence number, so clients poll with the last number they have seen.
+ * The oldest changes are dropped once the log is full; a client that falls behind is told so
+ * and should re-read the inventory.
+ */
+@Component
+public class ChangeLog {
+
+    private final int capacity;
+    private final ArrayDeque<Change> changes = new ArrayDeque<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private long lastSeq;
+
+    /**
+     * @param capacity number of changes kept
+     */
+    public ChangeLog(@Value("${oci.sync.change-log-size:10000}") int capacity) {
+        this.capacity = Math.max(1, capacity);
+    }
+
+    /**
+     * Records the difference between two versions of a resource. Nothing is recorded if the
+     * name, state and compartment are unchanged.
+     *
+     * @param source {@code scan} or {@code sync}
+     * @param before previous version, or null if the resource is new
+     * @param after  current version, or null if the resource is gone
+     * @return whether a change was recorded
+     */
+    public boolean record(String source, ScannedResource before, ScannedResource after) {
+        String type;
+        if (before == null && after == null) {
+            return false;
+        } else if (before == null) {
+            type = "CREATED";
+        } else if (after == null) {
+            type = "DELETED";
+        } else if (Objects.equals(before.name(), after.name())
+                && Objects.equals(before.state(), after.state())
+                && Objects.equals(before.compartmentId(), after.compartmentId())) {
+            return false;
+        } else {
+            type = "UPDATED";
+        }
+        ScannedResource current = after != null ? after : before;
+        lock.lock();
+        try {
+            changes.addLast(new Change(++lastSeq, System.currentTimeMillis(), type, source, current.kind(),
+                    current.id(), current.name(), current.region(), current.compartmentId(),
+                    after == null ? null : after.state(), before == null ? null : before.state()));
+            if (changes.size() > capacity) {
+                changes.removeFirst();
+            }
+        } finally {
+            lock.unlock();
+        }
+        return true;
+    }
+
+    /**
+     * Records the differences between two inventories.
+     *
+     * @return number of changes recorded
+     */
+    public int diff(String source, ScanInventory before, ScanInventory after) {
+        Map<String, ScannedResource> previous = new HashMap<>();
+        before.resources().forEach(resource -> previous.put(resource.id(), resource));
+        int recorded = 0;
+        for (ScannedResource resource : after.resources()) {
+            if (record(source, previous.remove(resource.id()), resource)) {
+                recorded++;
+            }
+        }
+        for (ScannedResource gone : previous.values()) {
+            if (record(source, gone, null)) {
+                recorded++;
+            }
+        }
+        return recorded;
+    }
+
+    /**
+     * @param afterSeq last sequence number the client has seen; 0 for the whole log
+     * @param limit    maximum changes to return
+     * @return changes after {@code afterSeq} (oldest first), the sequence number to poll with
+     *         next, and whether changes were dropped before the client could see them
+     */
+    public Map<String, Object> since(long afterSeq, int limit) {
+        lock.lock();
+        try {
+            List<Change> page = new ArrayList<>();
+            for (Change change : changes) {
+                if (change.seq() > afterSeq && page.size() < limit) {
+                    page.add(change);
+                }
+            }
+            long oldest = changes.isEmpty() ? lastSeq + 1 : changes.peekFirst().seq();
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("changes", page);
+            result.put("nextSeq", page.isEmpty() ? Math.max(afterSeq, 0) : page.get(page.size() - 1).seq());
+            result.put("lastSeq", lastSeq);
+            result.put("truncated", afterSeq + 1 < oldest);
+            return result;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * One inventory change.
+     *
+     * @param seq           sequence number, increasing by one per change
+     * @param time          time the change was detected, epoch millis
+     * @param type          {@code CREATED}, {@code UPDATED} or {@code DELETED}
+     * @param source        {@code scan} or {@code sync}
+     * @param state         lifecycle state after the change; null when deleted
+     * @param previousState lifecycle state before the change; null when created
+     */
+    public record Change(long seq, long time, String type, String source, String kind, String id, String name,
+                         String region, String compartmentId, String state, String previousState) {
+    }
+}
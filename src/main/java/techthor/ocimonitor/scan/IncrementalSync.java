@@ -0,0 +1,204 @@
+package techthor.ocimonitor.scan;
+
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Keeps the {@link TenancyScanner} inventory current between full scans.
+ * <p>
+ * Each sync asks the {@link ChangeFeed} which resources changed since the watermark, re-fetches
+ * only those (on virtual threads, with bounded concurrency) and applies the differences to the
+ * inventory, which records them in the {@link ChangeLog}. The watermark is the start of the
+ * last successful sync or full scan, whichever is later, minus an overlap that covers the
+ * indexing delay of the feed. It only advances when every re-fetch succeeded, so a failed sync
+ * is repeated with the same window.
+ */
+@Component
+public class IncrementalSync {
+
+    private final ChangeFeed feed;
+    private final TenancyScanner scanner;
+    private final boolean enabled;
+    private final Duration overlap;
+    private final int fetchConcurrency;
+    private final ObservationRegistry observationRegistry;
+    private final Clock clock;
+
+    private final ReentrantLock syncLock = new ReentrantLock();
+    private volatile Instant watermark;
+    private volatile Map<String, Object> lastSync = Map.of("status", "NOT_RUN");
+
+    /**
+     * @param feed                source of changed resources
+     * @param scanner             owner of the inventory
+     * @param enabled             whether the scheduled sync runs
+     * @param overlap             how far each window reaches back before the watermark
+     * @param fetchConcurrency    re-fetches in flight
+     * @param observationRegistry registry for the sync timer and span
+     */
+    @Autowired
+    public IncrementalSync(ChangeFeed feed,
+                           TenancyScanner scanner,
+                           @Value("${oci.sync.enabled:true}") boolean enabled,
+                           @Value("${oci.sync.overlap:2m}") Duration overlap,
+                           @Value("${oci.sync.fetch-concurrency:8}") int fetchConcurrency,
+                           ObservationRegistry observationRegistry) {
+        this(feed, scanner, enabled, overlap, fetchConcurrency, observationRegistry, Clock.systemUTC());
+    }
+
+    /**
+     * @param clock source of the sync windows and the initial watermark
+     */
+    IncrementalSync(ChangeFeed feed, TenancyScanner scanner, boolean enabled, Duration overlap, int fetchConcurrency,
+                    ObservationRegistry observationRegistry, Clock clock) {
+        this.feed = feed;
+        this.scanner = scanner;
+        this.enabled = enabled;
+        this.overlap = overlap;
+        this.fetchConcurrency = Math.max(1, fetchConcurrency);
+        this.observationRegistry = observationRegistry;
+        this.clock = clock;
+        this.watermark = clock.instant();
+    }
+
+    /**
+     * Periodic incremental sync.
+     */
+    @Scheduled(fixedDelayString = "${oci.sync.interval-ms:60000}",
+            initialDelayString = "${oci.sync.initial-delay-ms:60000}")
+    public void scheduledSync() {
+        if (enabled) {
+            sync();
+        }
+    }
+
+    /**
+     * Applies the changes since the watermark. If a sync is already running, returns the
+     * status of the previous sync without starting another.
+     *
+     * @return status of the sync: window, hints, re-fetches, applied changes and errors
+     */
+    public Map<String, Object> sync() {
+        if (!syncLock.tryLock()) {
+            return status();
+        }
+        Observation observation = Observation.start("oci.sync", observationRegistry);
+        try {
+            lastSync = runSync();
+            return lastSync;
+        } catch (RuntimeException e) {
+            observation.error(e);
+            System.err.println("Incremental sync failed: " + e.getMessage());
+            Map<String, Object> failed = new LinkedHashMap<>(lastSync);
+            failed.put("status", "FAILED");
+            failed.put("error", String.valueOf(e.getMessage()));
+            lastSync = failed;
+            return failed;
+        } finally {
+            observation.stop();
+            syncLock.unlock();
+        }
+    }
+
+    /**
+     * @return status of the last sync, the current watermark and whether a sync is running
+     */
+    public Map<String, Object> status() {
+        Map<String, Object> status = new LinkedHashMap<>(lastSync);
+        status.put("watermark", watermark.toString());
+        status.put("running", syncLock.isLocked());
+        return status;
+    }
+
+    private Map<String, Object> runSync() {
+        long start = System.nanoTime();
+        Instant until = clock.instant();
+        Instant lastScan = Instant.ofEpochMilli(scanner.lastScanStartedAt());
+        Instant since = (lastScan.isAfter(watermark) ? lastScan : watermark).minus(overlap);
+
+        // One re-fetch per resource, however often the feed names it; a re-fetch beats a deletion hint
+        Map<String, ChangeHint> hints = new LinkedHashMap<>();
+        feed.poll(since, until, scanner.inventory(), scanner.regions())
+                .forEach(hint -> hints.merge(hint.id(), hint, (first, second) -> first.deleted() ? second : first));
+
+        ConcurrentLinkedQueue<ScannedResource> upserts = new ConcurrentLinkedQueue<>();
+        Set<String> deleted = ConcurrentHashMap.newKeySet();
+        ConcurrentLinkedQueue<String> errors = new ConcurrentLinkedQueue<>();
+        AtomicInteger fetched = new AtomicInteger();
+        Semaphore permits = new Semaphore(fetchConcurrency);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (ChangeHint hint : hints.values()) {
+                if (hint.deleted()) {
+                    deleted.add(hint.id());
+                    continue;
+                }
+                executor.submit(() -> {
+                    try {
+                        permits.acquire();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        errors.add(hint.kind() + " " + hint.id() + ": interrupted");
+                        return;
+                    }
+                    try {
+                        Optional<ScannedResource> resource = feed.fetch(hint);
+                        fetched.incrementAndGet();
+                        resource.ifPresentOrElse(r -> upserts.add(withCompartmentName(r)), () -> deleted.add(hint.id()));
+                    } catch (RuntimeException e) {
+                        errors.add(hint.kind() + " " + hint.id() + ": " + e.getMessage());
+                    } finally {
+                        permits.release();
+                    }
+                });
+            }
+        }
+
+        int changes = scanner.apply("sync", new ArrayList<>(upserts), deleted);
+        if (errors.isEmpty()) {
+            watermark = until;
+        }
+
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("status", errors.isEmpty() ? "OK" : "PARTIAL");
+        status.put("syncedAt", System.currentTimeMillis());
+        status.put("durationMs", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        status.put("since", since.toString());
+        status.put("until", until.toString());
+        status.put("hints", hints.size());
+        status.put("fetched", fetched.get());
+        status.put("changes", changes);
+        status.put("errors", errors.stream().limit(20).toList());
+        return status;
+    }
+
+    private ScannedResource withCompartmentName(ScannedResource resource) {
+        if (resource.compartmentName() != null) {
+            return resource;
+        }
+        String name = scanner.compartmentName(resource.compartmentId());
+        return new ScannedResource(resource.kind(), resource.id(), resource.name(), resource.state(),
+                resource.compartmentId(), name != null ? name : resource.compartmentId(), resource.region());
+    }
+}
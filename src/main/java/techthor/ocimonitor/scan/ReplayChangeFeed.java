@@ -0,0 +1,94 @@
+package techthor.ocimonitor.scan;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Local stand-in for {@link ResourceSearchChangeFeed} that replays canned change events.
+ * <p>
+ * Events are read from a JSON array (see {@code classpath:sync/replay-example.json}). Each event
+ * happens {@code offsetSeconds} after the events were loaded at startup and carries the new state of the
+ * resource, so {@link #fetch} answers from the events instead of calling OCI. Enable it with
+ * {@code oci.sync.feed=replay}, usually together with {@code oci.scan.enabled=false}.
+ */
+@Component
+@ConditionalOnProperty(name = "oci.sync.feed", havingValue = "replay")
+public class ReplayChangeFeed implements ChangeFeed {
+
+    private final List<ReplayEvent> events;
+    private final Clock clock;
+    private final Instant start;
+
+    /**
+     * @param events JSON array of {@link ReplayEvent}s
+     */
+    @Autowired
+    public ReplayChangeFeed(@Value("${oci.sync.replay-file:classpath:sync/replay-example.json}") Resource events) {
+        this(events, Clock.systemUTC());
+    }
+
+    /**
+     * @param clock source of the replay start and of the current time when fetching
+     */
+    ReplayChangeFeed(Resource events, Clock clock) {
+        try (InputStream in = events.getInputStream()) {
+            this.events = new ObjectMapper().readValue(in, new TypeReference<List<ReplayEvent>>() {}).stream()
+                    .sorted(Comparator.comparingLong(ReplayEvent::offsetSeconds))
+                    .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read replay events from " + events, e);
+        }
+        this.clock = clock;
+        this.start = clock.instant();
+    }
+
+    @Override
+    public List<ChangeHint> poll(Instant since, Instant until, ScanInventory inventory, List<String> regions) {
+        return events.stream()
+                .filter(event -> !time(event).isBefore(since) && time(event).isBefore(until))
+                .map(event -> new ChangeHint(event.kind(), event.id(), event.region(), event.compartmentId(),
+                        "DELETED".equals(event.type())))
+                .toList();
+    }
+
+    @Override
+    public Optional<ScannedResource> fetch(ChangeHint hint) {
+        Instant now = clock.instant();
+        return events.stream()
+                .filter(event -> event.id().equals(hint.id()) && !time(event).isAfter(now))
+                .reduce((first, second) -> second)
+                .filter(event -> !"DELETED".equals(event.type()))
+                .map(event -> new ScannedResource(event.kind(), event.id(), event.name(), event.state(),
+                        event.compartmentId(), null, event.region()));
+    }
+
+    private Instant time(ReplayEvent event) {
+        return start.plusSeconds(event.offsetSeconds());
+    }
+
+    /**
+     * One canned change.
+     *
+     * @param offsetSeconds seconds after startup at which the change happens
+     * @param type          {@code CREATED}, {@code UPDATED} or {@code DELETED}
+     * @param kind          {@code instance}, {@code vcn} or {@code policy}
+     * @param state         lifecycle state after the change
+     */
+    public record ReplayEvent(long offsetSeconds, String type, String kind, String id, String name, String state,
+                              String region, String compartmentId) {
+    }
+}
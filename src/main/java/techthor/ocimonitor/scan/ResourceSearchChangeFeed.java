@@ -0,0 +1,160 @@
+package techthor.ocimonitor.scan;
+
+import com.oracle.bmc.core.model.Instance;
+import com.oracle.bmc.core.model.Vcn;
+import com.oracle.bmc.core.requests.GetInstanceRequest;
+import com.oracle.bmc.core.requests.GetVcnRequest;
+import com.oracle.bmc.identity.Identity;
+import com.oracle.bmc.identity.model.Policy;
+import com.oracle.bmc.identity.requests.GetPolicyRequest;
+import com.oracle.bmc.model.BmcException;
+import com.oracle.bmc.resourcesearch.model.ResourceSummary;
+import com.oracle.bmc.resourcesearch.model.SearchDetails;
+import com.oracle.bmc.resourcesearch.model.StructuredSearchDetails;
+import com.oracle.bmc.resourcesearch.requests.SearchResourcesRequest;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import techthor.ocimonitor.config.RegionalOciClients;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Change feed backed by OCI Resource Search.
+ * <p>
+ * Each poll runs two structured queries per region instead of re-listing every compartment:
+ * <ul>
+ *     <li>resources created in the window ({@code timeCreated}), and</li>
+ *     <li>instances and VCNs that are not {@code RUNNING}/{@code AVAILABLE}. These are compared
+ *     with the local inventory: a resource whose state differs, or a local non-steady resource
+ *     that is no longer in the result, has changed its lifecycle state.</li>
+ * </ul>
+ * Search does not expose update times, so renames and IAM policy deletions are only picked up
+ * by the next full scan.
+ */
+@Component
+@ConditionalOnProperty(name = "oci.sync.feed", havingValue = "search", matchIfMissing = true)
+public class ResourceSearchChangeFeed implements ChangeFeed {
+
+    private static final Set<String> STEADY_STATES = Set.of("RUNNING", "AVAILABLE");
+    private static final String GLOBAL = "global";
+
+    private final RegionalOciClients regionalClients;
+    private final Identity identityClient;
+
+    /**
+     * @param regionalClients guarded Resource Search, Compute and VirtualNetwork clients per region
+     * @param identityClient  OCI Identity client, for re-fetching policies
+     */
+    public ResourceSearchChangeFeed(RegionalOciClients regionalClients, Identity identityClient) {
+        this.regionalClients = regionalClients;
+        this.identityClient = identityClient;
+    }
+
+    @Override
+    public List<ChangeHint> poll(Instant since, Instant until, ScanInventory inventory, List<String> regions) {
+        Map<String, ScannedResource> known = new HashMap<>();
+        inventory.resources().forEach(resource -> known.put(resource.id(), resource));
+
+        List<ChangeHint> hints = new ArrayList<>();
+        for (String region : regions) {
+            search(region, "query instance, vcn, policy resources where timeCreated >= '"
+                    + since.truncatedTo(ChronoUnit.SECONDS) + "'", summary -> {
+                String kind = kind(summary);
+                hints.add(new ChangeHint(kind, summary.getIdentifier(), "policy".equals(kind) ? GLOBAL : region,
+                        summary.getCompartmentId(), false));
+            });
+
+            Set<String> unsteady = new HashSet<>();
+            search(region, "query instance, vcn resources where lifecycleState != 'RUNNING' && lifecycleState != 'AVAILABLE'",
+                    summary -> {
+                        unsteady.add(summary.getIdentifier());
+                        ScannedResource local = known.get(summary.getIdentifier());
+                        boolean terminated = String.valueOf(summary.getLifecycleState()).equalsIgnoreCase("TERMINATED");
+                        if (local == null ? !terminated : !sameState(local.state(), summary.getLifecycleState())) {
+                            hints.add(new ChangeHint(kind(summary), summary.getIdentifier(), region,
+                                    summary.getCompartmentId(), terminated));
+                        }
+                    });
+            // Local resources in a transitional or stopped state that Search no longer reports as such
+            for (ScannedResource local : known.values()) {
+                if (local.region().equals(region) && !"policy".equals(local.kind())
+                        && !isSteady(local.state()) && !unsteady.contains(local.id())) {
+                    hints.add(new ChangeHint(local.kind(), local.id(), region, local.compartmentId(), false));
+                }
+            }
+        }
+        return hints;
+    }
+
+    @Override
+    public Optional<ScannedResource> fetch(ChangeHint hint) {
+        try {
+            return switch (hint.kind()) {
+                case "instance" -> {
+                    Instance instance = regionalClients.compute(hint.region())
+                            .getInstance(GetInstanceRequest.builder().instanceId(hint.id()).build())
+                            .getInstance();
+                    yield instance.getLifecycleState() == Instance.LifecycleState.Terminated
+                            ? Optional.empty()
+                            : Optional.of(new ScannedResource("instance", instance.getId(), instance.getDisplayName(),
+                            instance.getLifecycleState().getValue(), instance.getCompartmentId(), null, hint.region()));
+                }
+                case "vcn" -> {
+                    Vcn vcn = regionalClients.virtualNetwork(hint.region())
+                            .getVcn(GetVcnRequest.builder().vcnId(hint.id()).build())
+                            .getVcn();
+                    yield vcn.getLifecycleState() == Vcn.LifecycleState.Terminated
+                            ? Optional.empty()
+                            : Optional.of(new ScannedResource("vcn", vcn.getId(), vcn.getDisplayName(),
+                            vcn.getLifecycleState().getValue(), vcn.getCompartmentId(), null, hint.region()));
+                }
+                case "policy" -> {
+                    Policy policy = identityClient.getPolicy(GetPolicyRequest.builder().policyId(hint.id()).build())
+                            .getPolicy();
+                    yield Optional.of(new ScannedResource("policy", policy.getId(), policy.getName(), null,
+                            policy.getCompartmentId(), null, GLOBAL));
+                }
+                default -> throw new IllegalArgumentException("Unsupported resource kind: " + hint.kind());
+            };
+        } catch (BmcException e) {
+            if (e.getStatusCode() == 404) {
+                return Optional.empty();
+            }
+            throw e;
+        }
+    }
+
+    private void search(String region, String query, Consumer<ResourceSummary> consumer) {
+        regionalClients.resourceSearch(region).getPaginators().searchResourcesRecordIterator(
+                SearchResourcesRequest.builder()
+                        .searchDetails(StructuredSearchDetails.builder()
+                                .query(query)
+                                .matchingContextType(SearchDetails.MatchingContextType.None)
+                                .build())
+                        .build()
+        ).forEach(consumer);
+    }
+
+    private static String kind(ResourceSummary summary) {
+        // Search types are Instance, Vcn and Policy
+        return String.valueOf(summary.getResourceType()).toLowerCase(Locale.ROOT);
+    }
+
+    private static boolean sameState(String local, String searched) {
+        return local != null && local.equalsIgnoreCase(searched);
+    }
+
+    private static boolean isSteady(String state) {
+        return state == null || STEADY_STATES.contains(state.toUpperCase(Locale.ROOT));
+    }
+}
@@ -0,0 +1,162 @@
+package techthor.ocimonitor.scan;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+/**
+ * Immutable, queryable result of a tenancy scan.
+ * <p>
+ * Resources are sorted by kind, region, compartment and name. For each facet (kind, region,
+ * compartment) the inventory keeps a sorted posting list of resource positions per value,
+ * so a filtered query intersects the posting lists instead of scanning every resource.
+ * Facet counts are computed over the matches of a query.
+ */
+public final class ScanInventory {
+
+    private static final Map<String, Function<ScannedResource, String>> FACETS = facets();
+
+    public static final ScanInventory EMPTY = new ScanInventory(List.of(), 0);
+
+    private final List<ScannedResource> resources;
+    private final String[] lowerCaseNames;
+    private final Map<String, Map<String, int[]>> postings = new HashMap<>();
+    private final long scannedAt;
+
+    /**
+     * @param resources resources in any order
+     * @param scannedAt completion time of the scan, epoch millis
+     */
+    public ScanInventory(List<ScannedResource> resources, long scannedAt) {
+        this.resources = resources.stream()
+                .sorted(Comparator.comparing(ScannedResource::kind)
+                        .thenComparing(ScannedResource::region)
+                        .thenComparing(r -> String.valueOf(r.compartmentName()))
+                        .thenComparing(r -> String.valueOf(r.name())))
+                .toList();
+        this.scannedAt = scannedAt;
+        this.lowerCaseNames = new String[this.resources.size()];
+        for (int i = 0; i < lowerCaseNames.length; i++) {
+            String name = this.resources.get(i).name();
+            lowerCaseNames[i] = name == null ? "" : name.toLowerCase(Locale.ROOT);
+        }
+
+        FACETS.forEach((facet, value) -> {
+            Map<String, List<Integer>> positions = new HashMap<>();
+            for (int i = 0; i < this.resources.size(); i++) {
+                positions.computeIfAbsent(String.valueOf(value.apply(this.resources.get(i))), k -> new ArrayList<>()).add(i);
+            }
+            Map<String, int[]> facetPostings = new HashMap<>();
+            positions.forEach((key, list) -> facetPostings.put(key, list.stream().mapToInt(Integer::intValue).toArray()));
+            postings.put(facet, facetPostings);
+        });
+    }
+
+    /**
+     * Finds resources matching all given facet filters and an optional name substring.
+     *
+     * @param filters facet → value; facets are {@code kind}, {@code region} and {@code compartmentId}.
+     *                Null or blank values and unknown facets are ignored.
+     * @param text    case-insensitive substring of the name, or null
+     * @param offset  number of matches to skip
+     * @param limit   maximum matches to return
+     * @return one page of matches with the total and the facet counts of all matches
+     */
+    public Page query(Map<String, String> filters, String text, int offset, int limit) {
+        int[] candidates = null;
+        for (Map.Entry<String, String> filter : filters.entrySet()) {
+            Map<String, int[]> facetPostings = postings.get(filter.getKey());
+            if (facetPostings == null || filter.getValue() == null || filter.getValue().isBlank()) {
+                continue;
+            }
+            int[] matches = facetPostings.getOrDefault(filter.getValue(), new int[0]);
+            candidates = candidates == null ? matches : intersect(candidates, matches);
+        }
+        if (candidates == null) {
+            candidates = new int[resources.size()];
+            Arrays.setAll(candidates, i -> i);
+        }
+        if (text != null && !text.isBlank()) {
+            String needle = text.toLowerCase(Locale.ROOT);
+            candidates = Arrays.stream(candidates).filter(i -> lowerCaseNames[i].contains(needle)).toArray();
+        }
+
+        Map<String, Map<String, Integer>> facetCounts = new LinkedHashMap<>();
+        FACETS.keySet().forEach(facet -> facetCounts.put(facet, new TreeMap<>()));
+        for (int i : candidates) {
+            ScannedResource resource = resources.get(i);
+            FACETS.forEach((facet, value) ->
+                    facetCounts.get(facet).merge(String.valueOf(value.apply(resource)), 1, Integer::sum));
+        }
+
+        int from = Math.min(Math.max(0, offset), candidates.length);
+        int to = Math.min(candidates.length, from + Math.max(0, limit));
+        List<ScannedResource> items = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            items.add(resources.get(candidates[i]));
+        }
+        return new Page(candidates.length, items, facetCounts);
+    }
+
+    /**
+     * @return all resources, sorted by kind, region, compartment and name
+     */
+    public List<ScannedResource> resources() {
+        return resources;
+    }
+
+    public int size() {
+        return resources.size();
+    }
+
+    /**
+     * @return completion time of the scan, epoch millis; 0 if no scan has completed
+     */
+    public long scannedAt() {
+        return scannedAt;
+    }
+
+    /**
+     * One page of query results.
+     *
+     * @param total  number of matches
+     * @param items  matches in this page
+     * @param facets per facet, the number of matches for each value
+     */
+    public record Page(int total, List<ScannedResource> items, Map<String, Map<String, Integer>> facets) {
+    }
+
+    private static int[] intersect(int[] a, int[] b) {
+        int[] result = new int[Math.min(a.length, b.length)];
+        int i = 0;
+        int j = 0;
+        int n = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                result[n++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(result, n);
+    }
+
+    private static Map<String, Function<ScannedResource, String>> facets() {
+        Map<String, Function<ScannedResource, String>> facets = new LinkedHashMap<>();
+        facets.put("kind", ScannedResource::kind);
+        facets.put("region", ScannedResource::region);
+        facets.put("compartmentId", ScannedResource::compartmentId);
+        return facets;
+    }
+}
@@ -0,0 +1,21 @@
+package techthor.ocimonitor.scan;
+
+/**
+ * One resource found by a tenancy scan.
+ *
+ * @param kind            resource kind: {@code instance}, {@code vcn} or {@code policy}
+ * @param id              OCID
+ * @param name            display name
+ * @param state           lifecycle state, or null if the kind has none
+ * @param compartmentId   OCID of the compartment the resource lives in
+ * @param compartmentName name of that compartment
+ * @param region          region identifier, or {@code global} for IAM resources
+ */
+public record ScannedResource(String kind,
+                              String id,
+                              String name,
+                              String state,
+                              String compartmentId,
+                              String compartmentName,
+                              String region) {
+}
@@ -0,0 +1,395 @@
+package techthor.ocimonitor.scan;
+
+import com.oracle.bmc.core.requests.ListInstancesRequest;
+import com.oracle.bmc.core.requests.ListVcnsRequest;
+import com.oracle.bmc.identity.Identity;
+import com.oracle.bmc.identity.model.Compartment;
+import com.oracle.bmc.identity.model.RegionSubscription;
+import com.oracle.bmc.identity.requests.ListCompartmentsRequest;
+import com.oracle.bmc.identity.requests.ListPoliciesRequest;
+import com.oracle.bmc.identity.requests.ListRegionSubscriptionsRequest;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import techthor.ocimonitor.config.RegionalOciClients;
+import techthor.ocimonitor.config.TenancyId;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Tenancy-wide inventory of compute instances, VCNs and IAM policies across all compartments
+ * and regions.
+ * <p>
+ * A scan lists the whole compartment tree ({@code compartmentIdInSubtree}) and the subscribed
+ * regions (or the configured {@code oci.scan.regions}), then runs one listing per
+ * compartment × region × kind on virtual threads. Each region has its own concurrency limit
+ * and its own guarded clients ({@link RegionalOciClients}), and all regions run at the same
+ * time, so a full scan takes about as long as the slowest region. IAM policies are global and
+ * are listed once per compartment.
+ * <p>
+ * The results are merged into one {@link ScanInventory} with kind, region and compartment
+ * facets. A listing that fails keeps the resources it returned in the previous scan, so a
+ * flaky region does not empty its part of the inventory. Differences to the previous
+ * inventory are recorded in the {@link ChangeLog}. Between full scans, the
+ * {@link IncrementalSync} applies changes with {@link #apply}.
+ */
+@Component
+public class TenancyScanner {
+
+    private static final String GLOBAL = "global";
+
+    private final Identity identityClient;
+    private final RegionalOciClients regionalClients;
+    private final TenancyId tenancyId;
+    private final boolean enabled;
+    private final List<String> configuredRegions;
+    private final int regionConcurrency;
+    private final ObservationRegistry observationRegistry;
+    private final ChangeLog changeLog;
+
+    private final ReentrantLock scanLock = new ReentrantLock();
+    private volatile ScanInventory inventory = ScanInventory.EMPTY;
+    private volatile long lastScanStartedAt;
+    private volatile List<String> scannedRegions = List.of();
+    private volatile Map<String, String> compartmentNames = Map.of();
+    private volatile Map<String, Object> lastScan = Map.of("status", "NOT_RUN");
+
+    /**
+     * @param identityClient      OCI Identity client (compartments, regions, policies)
+     * @param regionalClients     guarded Compute and VirtualNetwork clients per region
+     * @param tenancyId           root tenancy OCID
+     * @param enabled             whether the scheduled scan runs
+     * @param regions             comma-separated region identifiers; empty scans all subscribed regions
+     * @param regionConcurrency   listings in flight per region (and for the global IAM listings)
+     * @param observationRegistry registry for the scan timer and span
+     * @param changeLog           log receiving the differences between consecutive inventories
+     */
+    public TenancyScanner(Identity identityClient,
+                          RegionalOciClients regionalClients,
+                          TenancyId tenancyId,
+                          @Value("${oci.scan.enabled:true}") boolean enabled,
+                          @Value("${oci.scan.regions:}") String regions,
+                          @Value("${oci.scan.region-concurrency:8}") int regionConcurrency,
+                          ObservationRegistry observationRegistry,
+                          ChangeLog changeLog) {
+        this.identityClient = identityClient;
+        this.regionalClients = regionalClients;
+        this.tenancyId = tenancyId;
+        this.enabled = enabled;
+        this.configuredRegions = Arrays.stream(regions.split(","))
+                .map(String::trim)
+                .filter(region -> !region.isEmpty())
+                .toList();
+        this.regionConcurrency = Math.max(1, regionConcurrency);
+        this.observationRegistry = observationRegistry;
+        this.changeLog = changeLog;
+    }
+
+    /**
+     * Periodic full scan.
+     */
+    @Scheduled(fixedDelayString = "${oci.scan.interval-ms:900000}",
+            initialDelayString = "${oci.scan.initial-delay-ms:30000}")
+    public void scheduledScan() {
+        if (enabled) {
+            scan();
+        }
+    }
+
+    /**
+     * Runs a full scan and replaces the inventory. If a scan is already running, returns
+     * the status of the previous scan without starting another.
+     *
+     * @return status of the scan: duration, resource counts and per-region timings and failures
+     */
+    public Map<String, Object> scan() {
+        if (!scanLock.tryLock()) {
+            return status();
+        }
+        Observation observation = Observation.start("oci.scan", observationRegistry);
+        try {
+            lastScan = runScan();
+            return lastScan;
+        } catch (RuntimeException e) {
+            observation.error(e);
+            System.err.println("Tenancy scan failed: " + e.getMessage());
+            Map<String, Object> failed = new LinkedHashMap<>(lastScan);
+            failed.put("status", "FAILED");
+            failed.put("error", String.valueOf(e.getMessage()));
+            lastScan = failed;
+            return failed;
+        } finally {
+            observation.stop();
+            scanLock.unlock();
+        }
+    }
+
+    /**
+     * @return the inventory of the last completed scan
+     */
+    public ScanInventory inventory() {
+        return inventory;
+    }
+
+    /**
+     * Replaces and removes single resources in the inventory, e.g. with the changes found by an
+     * incremental sync, and records them in the change log. Waits for a running scan to finish.
+     *
+     * @param source     {@code sync}, for the change log
+     * @param upserts    current versions of new or changed resources
+     * @param deletedIds OCIDs of resources that no longer exist
+     * @return number of resources that actually changed
+     */
+    public int apply(String source, Collection<ScannedResource> upserts, Collection<String> deletedIds) {
+        scanLock.lock();
+        try {
+            Map<String, ScannedResource> current = new LinkedHashMap<>();
+            inventory.resources().forEach(resource -> current.put(resource.id(), resource));
+            int changed = 0;
+            for (String id : deletedIds) {
+                if (changeLog.record(source, current.remove(id), null)) {
+                    changed++;
+                }
+            }
+            for (ScannedResource resource : upserts) {
+                if (changeLog.record(source, current.put(resource.id(), resource), resource)) {
+                    changed++;
+                }
+            }
+            if (changed > 0) {
+                inventory = new ScanInventory(new ArrayList<>(current.values()), inventory.scannedAt());
+            }
+            return changed;
+        } finally {
+            scanLock.unlock();
+        }
+    }
+
+    /**
+     * @return start of the last completed scan, epoch millis; 0 if no scan has completed
+     */
+    public long lastScanStartedAt() {
+        return lastScanStartedAt;
+    }
+
+    /**
+     * @return regions covered by the last completed scan
+     */
+    public List<String> regions() {
+        return scannedRegions;
+    }
+
+    /**
+     * @param compartmentId compartment OCID
+     * @return name of the compartment in the last completed scan, or null if unknown
+     */
+    public String compartmentName(String compartmentId) {
+        return compartmentNames.get(compartmentId);
+    }
+
+    /**
+     * @return status of the last scan, plus whether a scan is running right now
+     */
+    public Map<String, Object> status() {
+        Map<String, Object> status = new LinkedHashMap<>(lastScan);
+        status.put("running", scanLock.isLocked());
+        return status;
+    }
+
+    private Map<String, Object> runScan() {
+        long start = System.nanoTime();
+        long startedAt = System.currentTimeMillis();
+        List<CompartmentRef> compartments = listCompartments();
+        List<String> regions = configuredRegions.isEmpty() ? subscribedRegions() : configuredRegions;
+
+        // Previous results per listing, served again when the listing fails this time
+        Map<String, List<ScannedResource>> previous = new HashMap<>();
+        for (ScannedResource resource : inventory.resources()) {
+            previous.computeIfAbsent(taskKey(resource.kind(), resource.region(), resource.compartmentId()),
+                    k -> new ArrayList<>()).add(resource);
+        }
+
+        ConcurrentLinkedQueue<ScannedResource> found = new ConcurrentLinkedQueue<>();
+        ConcurrentLinkedQueue<String> errors = new ConcurrentLinkedQueue<>();
+        Map<String, RegionProgress> progress = new LinkedHashMap<>();
+        regions.forEach(region -> progress.put(region, new RegionProgress(regionConcurrency)));
+        progress.put(GLOBAL, new RegionProgress(regionConcurrency));
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (CompartmentRef compartment : compartments) {
+                for (String region : regions) {
+                    RegionProgress regionProgress = progress.get(region);
+                    executor.submit(() -> runListing("instance", region, compartment, regionProgress,
+                            found, previous, errors, () -> listInstances(region, compartment)));
+                    executor.submit(() -> runListing("vcn", region, compartment, regionProgress,
+                            found, previous, errors, () -> listVcns(region, compartment)));
+                }
+                executor.submit(() -> runListing("policy", GLOBAL, compartment, progress.get(GLOBAL),
+                        found, previous, errors, () -> listPolicies(compartment)));
+            }
+        }
+
+        ScanInventory scanned = new ScanInventory(new ArrayList<>(found), System.currentTimeMillis());
+        // The first scan fills the inventory; only later scans report changes
+        int changes = inventory.scannedAt() == 0 ? 0 : changeLog.diff("scan", inventory, scanned);
+        Map<String, String> names = new HashMap<>();
+        compartments.forEach(compartment -> names.put(compartment.id(), compartment.name()));
+        compartmentNames = names;
+        scannedRegions = List.copyOf(regions);
+        lastScanStartedAt = startedAt;
+        inventory = scanned;
+
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("status", errors.isEmpty() ? "OK" : "PARTIAL");
+        status.put("scannedAt", scanned.scannedAt());
+        status.put("durationMs", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        status.put("compartments", compartments.size());
+        status.put("resources", scanned.size());
+        status.put("changes", changes);
+        List<Map<String, Object>> regionStatus = new ArrayList<>();
+        progress.forEach((region, p) -> {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("region", region);
+            long lastFinished = p.lastFinished.get();
+            entry.put("durationMs", lastFinished == Long.MIN_VALUE ? 0 : TimeUnit.NANOSECONDS.toMillis(lastFinished - start));
+            entry.put("resources", p.resources.get());
+            entry.put("failedListings", p.failures.get());
+            regionStatus.add(entry);
+        });
+        status.put("regions", regionStatus);
+        status.put("errors", errors.stream().limit(20).toList());
+        return status;
+    }
+
+    /**
+     * Runs one listing under the concurrency limit of its region and records the outcome.
+     */
+    private void runListing(String kind, String region, CompartmentRef compartment, RegionProgress progress,
+                            ConcurrentLinkedQueue<ScannedResource> found,
+                            Map<String, List<ScannedResource>> previous, ConcurrentLinkedQueue<String> errors,
+                            Supplier<List<ScannedResource>> listing) {
+        try {
+            progress.permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        try {
+            List<ScannedResource> resources = listing.get();
+            found.addAll(resources);
+            progress.resources.addAndGet(resources.size());
+        } catch (RuntimeException e) {
+            List<ScannedResource> stale = previous.getOrDefault(taskKey(kind, region, compartment.id()), List.of());
+            found.addAll(stale);
+            progress.resources.addAndGet(stale.size());
+            progress.failures.incrementAndGet();
+            errors.add(kind + " in " + compartment.name() + " (" + region + "): " + e.getMessage());
+        } finally {
+            progress.permits.release();
+            progress.lastFinished.accumulate(System.nanoTime());
+        }
+    }
+
+    /**
+     * The root compartment and every active compartment below it.
+     */
+    private List<CompartmentRef> listCompartments() {
+        String tenancyOcid = tenancyId.get();
+        List<CompartmentRef> compartments = new ArrayList<>();
+        compartments.add(new CompartmentRef(tenancyOcid, "root"));
+        identityClient.getPaginators().listCompartmentsRecordIterator(
+                ListCompartmentsRequest.builder()
+                        .compartmentId(tenancyOcid)
+                        .accessLevel(ListCompartmentsRequest.AccessLevel.Accessible)
+                        .compartmentIdInSubtree(true)
+                        .build()
+        ).forEach(compartment -> {
+            if (compartment.getLifecycleState() == Compartment.LifecycleState.Active) {
+                compartments.add(new CompartmentRef(compartment.getId(), compartment.getName()));
+            }
+        });
+        return compartments;
+    }
+
+    private List<String> subscribedRegions() {
+        return identityClient.listRegionSubscriptions(ListRegionSubscriptionsRequest.builder()
+                        .tenancyId(tenancyId.get())
+                        .build())
+                .getItems().stream()
+                .filter(subscription -> subscription.getStatus() == RegionSubscription.Status.Ready)
+                .map(RegionSubscription::getRegionName)
+                .toList();
+    }
+
+    private List<ScannedResource> listInstances(String region, CompartmentRef compartment) {
+        List<ScannedResource> resources = new ArrayList<>();
+        regionalClients.compute(region).getPaginators().listInstancesRecordIterator(
+                ListInstancesRequest.builder()
+                        .compartmentId(compartment.id())
+                        .build()
+        ).forEach(instance -> resources.add(new ScannedResource("instance", instance.getId(),
+                instance.getDisplayName(), instance.getLifecycleState().getValue(),
+                compartment.id(), compartment.name(), region)));
+        return resources;
+    }
+
+    private List<ScannedResource> listVcns(String region, CompartmentRef compartment) {
+        List<ScannedResource> resources = new ArrayList<>();
+        regionalClients.virtualNetwork(region).getPaginators().listVcnsRecordIterator(
+                ListVcnsRequest.builder()
+                        .compartmentId(compartment.id())
+                        .build()
+        ).forEach(vcn -> resources.add(new ScannedResource("vcn", vcn.getId(),
+                vcn.getDisplayName(), vcn.getLifecycleState().getValue(),
+                compartment.id(), compartment.name(), region)));
+        return resources;
+    }
+
+    private List<ScannedResource> listPolicies(CompartmentRef compartment) {
+        List<ScannedResource> resources = new ArrayList<>();
+        identityClient.getPaginators().listPoliciesRecordIterator(
+                ListPoliciesRequest.builder()
+                        .compartmentId(compartment.id())
+                        .build()
+        ).forEach(policy -> resources.add(new ScannedResource("policy", policy.getId(),
+                policy.getName(), null, compartment.id(), compartment.name(), GLOBAL)));
+        return resources;
+    }
+
+    private static String taskKey(String kind, String region, String compartmentId) {
+        return kind + "|" + region + "|" + compartmentId;
+    }
+
+    private record CompartmentRef(String id, String name) {}
+
+    /**
+     * Concurrency limit and counters of one region during a scan.
+     */
+    private static final class RegionProgress {
+        private final Semaphore permits;
+        private final AtomicInteger resources = new AtomicInteger();
+        private final AtomicInteger failures = new AtomicInteger();
+        private final LongAccumulator lastFinished = new LongAccumulator(Math::max, Long.MIN_VALUE);
+
+        private RegionProgress(int concurrency) {
+            this.permits = new Semaphore(concurrency);
+        }
+    }
+}
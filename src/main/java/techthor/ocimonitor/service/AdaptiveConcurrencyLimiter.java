@@ -0,0 +1,81 @@
+package techthor.ocimonitor.service;
+
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Concurrency limit that adapts to upstream throttling (AIMD).
+ * <p>
+ * The limit grows by one after a full limit's worth of successful calls and is halved
+ * whenever a call is throttled (HTTP 429). It always stays within {@code [min, max]}.
+ * Uses a {@link ReentrantLock} instead of {@code synchronized} so that waiting virtual
+ * threads do not pin their carrier thread.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private final int min;
+    private final int max;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition permitAvailable = lock.newCondition();
+
+    private int limit;
+    private int inFlight;
+    private int successesSinceIncrease;
+
+    /**
+     * @param initial starting limit
+     * @param min     lower bound of the limit
+     * @param max     upper bound of the limit
+     */
+    public AdaptiveConcurrencyLimiter(int initial, int min, int max) {
+        this.min = Math.max(1, min);
+        this.max = Math.max(this.min, max);
+        this.limit = Math.min(this.max, Math.max(this.min, initial));
+    }
+
+    /**
+     * Blocks until a call may start.
+     */
+    public void acquire() throws InterruptedException {
+        lock.lock();
+        try {
+            while (inFlight >= limit) {
+                permitAvailable.await();
+            }
+            inFlight++;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Ends a call started with {@link #acquire()} and adjusts the limit.
+     *
+     * @param throttled whether the upstream answered with a throttling response
+     */
+    public void release(boolean throttled) {
+        lock.lock();
+        try {
+            inFlight--;
+            if (throttled) {
+                limit = Math.max(min, limit / 2);
+                successesSinceIncrease = 0;
+            } else if (++successesSinceIncrease >= limit && limit < max) {
+                limit++;
+                successesSinceIncrease = 0;
+            }
+            permitAvailable.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getLimit() {
+        lock.lock();
+        try {
+            return limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,244 @@
+package techthor.ocimonitor.service;
+
+import com.oracle.bmc.identity.Identity;
+import com.oracle.bmc.identity.model.Compartment;
+import com.oracle.bmc.identity.requests.ListCompartmentsRequest;
+import com.oracle.bmc.model.BmcException;
+import com.oracle.bmc.objectstorage.ObjectStorage;
+import com.oracle.bmc.objectstorage.model.BucketSummary;
+import com.oracle.bmc.objectstorage.requests.ListBucketsRequest;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import techthor.ocimonitor.config.TenancyId;
+import techthor.ocimonitor.resilience.OciUnavailableException;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Tenancy-wide bucket discovery with bounded, adaptive concurrency.
+ * <p>
+ * Lists every accessible compartment in the tenancy, then runs one {@code listBuckets}
+ * crawl per compartment on virtual threads. An {@link AdaptiveConcurrencyLimiter} caps
+ * how many run at once and backs off on 429s and on calls rejected by the resilience layer
+ * (full bulkhead, rate limit, open circuit). The limit never exceeds the Object Storage
+ * bulkhead, since crawls beyond it would only be rejected. Transient failures are retried by
+ * the resilience layer around the OCI clients, so a 429 seen here has already exhausted its
+ * retries. Buckets are handed out per compartment as soon as that compartment is done; a
+ * compartment that still fails is skipped and logged, and the stream ends only after every
+ * compartment has finished.
+ * <p>
+ * Every crawl also records bucket → compartment in an index, so later lookups do not
+ * need another full crawl.
+ */
+@Component
+public class BucketCrawler {
+
+    // Queue marker signalling that all compartment crawls have finished
+    private static final List<BucketSummary> END = new ArrayList<>();
+
+    private final ObjectStorage objectStorageClient;
+    private final Identity identityClient;
+    private final TenancyId tenancyId;
+    private final AdaptiveConcurrencyLimiter limiter;
+
+    private final Map<String, String> bucketCompartments = new ConcurrentHashMap<>();
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    /**
+     * @param objectStorageClient OCI Object Storage client
+     * @param identityClient      OCI Identity client (for compartment traversal)
+     * @param tenancyId           Root tenancy OCID
+     * @param initialConcurrency  starting number of concurrent compartment crawls
+     * @param maxConcurrency      upper bound the limiter may grow to
+     * @param bulkheadSize        concurrent calls the resilience layer admits to Object Storage;
+     *                            caps both concurrency settings
+     */
+    public BucketCrawler(ObjectStorage objectStorageClient,
+                         Identity identityClient,
+                         TenancyId tenancyId,
+                         @Value("${oci.storage.crawl.initial-concurrency:8}") int initialConcurrency,
+                         @Value("${oci.storage.crawl.max-concurrency:32}") int maxConcurrency,
+                         @Value("${oci.resilience.objectstorage.bulkhead.max-concurrent:${oci.resilience.bulkhead.max-concurrent:16}}")
+                         int bulkheadSize) {
+        this.objectStorageClient = objectStorageClient;
+        this.identityClient = identityClient;
+        this.tenancyId = tenancyId;
+        int limit = Math.max(1, Math.min(maxConcurrency, bulkheadSize));
+        this.limiter = new AdaptiveConcurrencyLimiter(Math.min(initialConcurrency, limit), 1, limit);
+    }
+
+    /**
+     * Crawls all compartments and streams their buckets.
+     * <p>
+     * The returned stream yields one list per compartment, in completion order. Closing
+     * the stream early stops compartments that have not started yet.
+     *
+     * @param namespace Object Storage namespace
+     * @return stream of per-compartment bucket lists
+     */
+    public Stream<List<BucketSummary>> crawl(String namespace) {
+        BlockingQueue<List<BucketSummary>> queue = new LinkedBlockingQueue<>();
+        AtomicBoolean cancelled = new AtomicBoolean();
+
+        executor.execute(() -> {
+            List<Future<?>> tasks = new ArrayList<>();
+            try {
+                tasks.add(executor.submit(() -> crawlCompartment(namespace, tenancyId.get(), queue, cancelled)));
+                for (Compartment compartment : limited(this::listCompartments)) {
+                    String compartmentId = compartment.getId();
+                    tasks.add(executor.submit(() -> crawlCompartment(namespace, compartmentId, queue, cancelled)));
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (RuntimeException e) {
+                System.err.println("Bucket crawl could not list compartments, crawling the tenancy root only: "
+                        + e.getMessage());
+            }
+            try {
+                // END goes out only after every started crawl has finished, so no compartment is dropped
+                for (Future<?> task : tasks) {
+                    try {
+                        task.get();
+                    } catch (ExecutionException e) {
+                        System.err.println("Bucket crawl task failed: " + e.getCause());
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                queue.add(END);
+            }
+        });
+
+        Iterator<List<BucketSummary>> iterator = new Iterator<>() {
+            private List<BucketSummary> next;
+
+            @Override
+            public boolean hasNext() {
+                if (next == null) {
+                    try {
+                        next = queue.take();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        next = END;
+                    }
+                }
+                return next != END;
+            }
+
+            @Override
+            public List<BucketSummary> next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                List<BucketSummary> page = next;
+                next = null;
+                return page;
+            }
+        };
+
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED), false)
+                .onClose(() -> cancelled.set(true));
+    }
+
+    /**
+     * Looks up the compartment of a bucket from the index built by previous crawls.
+     *
+     * @param bucketName bucket name
+     * @return compartment OCID, if the bucket has been seen
+     */
+    public Optional<String> findCompartment(String bucketName) {
+        return Optional.ofNullable(bucketCompartments.get(bucketName));
+    }
+
+    /**
+     * @return current adaptive concurrency limit
+     */
+    public int getConcurrencyLimit() {
+        return limiter.getLimit();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private Iterable<Compartment> listCompartments() {
+        List<Compartment> compartments = new ArrayList<>();
+        identityClient.getPaginators().listCompartmentsRecordIterator(
+                ListCompartmentsRequest.builder()
+                        .compartmentId(tenancyId.get())
+                        .accessLevel(ListCompartmentsRequest.AccessLevel.Accessible)
+                        .compartmentIdInSubtree(true)
+                        .build()
+        ).forEach(compartments::add);
+        return compartments;
+    }
+
+    private void crawlCompartment(String namespace, String compartmentId,
+                                  BlockingQueue<List<BucketSummary>> queue, AtomicBoolean cancelled) {
+        if (cancelled.get()) {
+            return;
+        }
+        try {
+            List<BucketSummary> buckets = limited(() -> {
+                List<BucketSummary> page = new ArrayList<>();
+                objectStorageClient.getPaginators().listBucketsRecordIterator(
+                        ListBucketsRequest.builder()
+                                .namespaceName(namespace)
+                                .compartmentId(compartmentId)
+                                .build()
+                ).forEach(page::add);
+                return page;
+            });
+            buckets.forEach(bucket -> bucketCompartments.put(bucket.getName(), compartmentId));
+            if (!buckets.isEmpty()) {
+                queue.add(buckets);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            // OCI errors after retries and calls rejected by the resilience layer
+            System.err.println("Skipping compartment " + compartmentId + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Runs a call under the concurrency limiter, shrinking the limit if it ends throttled:
+     * a 429 from OCI or a call the resilience layer rejected.
+     */
+    private <T> T limited(Supplier<T> call) throws InterruptedException {
+        limiter.acquire();
+        boolean throttled = false;
+        try {
+            return call.get();
+        } catch (BmcException e) {
+            throttled = e.getStatusCode() == 429;
+            throw e;
+        } catch (OciUnavailableException e) {
+            throttled = true;
+            throw e;
+        } finally {
+            limiter.release(throttled);
+        }
+    }
+}
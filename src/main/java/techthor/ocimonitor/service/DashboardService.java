@@ -1,28 +1,47 @@
 package techthor.ocimonitor.service;
 
-import com.oracle.bmc.ConfigFileReader;
-import com.oracle.bmc.auth.AuthenticationDetailsProvider;
-import com.oracle.bmc.auth.ConfigFileAuthenticationDetailsProvider;
-import com.oracle.bmc.core.ComputeClient;
-import com.oracle.bmc.core.VirtualNetworkClient;
+import com.oracle.bmc.core.Compute;
+import com.oracle.bmc.core.VirtualNetwork;
+import com.oracle.bmc.core.model.Instance;
 import com.oracle.bmc.core.requests.ListInstancesRequest;
 import com.oracle.bmc.core.requests.ListVcnsRequest;
-import com.oracle.bmc.identity.IdentityClient;
+import com.oracle.bmc.identity.Identity;
 import com.oracle.bmc.identity.requests.ListCompartmentsRequest;
 import com.oracle.bmc.identity.requests.ListDomainsRequest;
 import com.oracle.bmc.identity.requests.ListPoliciesRequest;
-import com.oracle.bmc.monitoring.MonitoringClient;
+import com.oracle.bmc.monitoring.Monitoring;
+import com.oracle.bmc.monitoring.model.AggregatedDatapoint;
 import com.oracle.bmc.monitoring.model.MetricData;
 import com.oracle.bmc.monitoring.model.SummarizeMetricsDataDetails;
 import com.oracle.bmc.monitoring.requests.SummarizeMetricsDataRequest;
 import com.oracle.bmc.monitoring.responses.SummarizeMetricsDataResponse;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import techthor.ocimonitor.alerting.AlertEngine;
+import techthor.ocimonitor.cache.CacheRegistry;
+import techthor.ocimonitor.cache.RefreshingCache;
+import techthor.ocimonitor.cache.Versioned;
+import techthor.ocimonitor.config.TenancyId;
+import techthor.ocimonitor.dto.CompartmentDto;
+import techthor.ocimonitor.dto.DomainDto;
+import techthor.ocimonitor.dto.InstanceDto;
+import techthor.ocimonitor.dto.MetricHistoryDto;
+import techthor.ocimonitor.dto.MetricSeriesDto;
+import techthor.ocimonitor.dto.PolicyDto;
+import techthor.ocimonitor.dto.VcnDto;
+import techthor.ocimonitor.metrics.Lttb;
+import techthor.ocimonitor.metrics.MetricWindowStore;
+import techthor.ocimonitor.metrics.history.MetricHistoryStore;
+import techthor.ocimonitor.resilience.OciUnavailableException;
 
-import java.io.IOException;
+import java.time.Duration;
 import java.util.*;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Service class that encapsulates business logic for retrieving:
@@ -31,224 +50,513 @@ import java.util.stream.Collectors;
  * - Networking resources (VCNs)
  * - IAM resources (policies, compartments, domains)
  * <p>
- * Uses OCI Java SDK 3.72.0 and loads credentials from the default OCI config.
+ * Uses OCI Java SDK 3.72.0 through the shared clients of the OciClientRegistry.
+ * List results are cached per resource kind (see {@link RefreshingCache}), so repeated
+ * dashboard requests do not translate into repeated OCI API calls. If OCI is unavailable,
+ * the last cached result is served; without one, the error propagates instead of being
+ * reported as an empty list.
+ * <p>
+ * Rows are typed records from {@code techthor.ocimonitor.dto}, and metric series keep their
+ * points in primitive arrays, so a response does not allocate a map per row or a boxed
+ * number per datapoint.
  */
 @Service
 public class DashboardService {
 
+    /**
+     * Metric names accepted by {@link #getMetrics}, mapped to their MQL query. All queries
+     * live in the oci_computeagent namespace and are grouped by resourceId.
+     */
+    public static final Map<String, String> METRIC_QUERIES = Map.of(
+            "cpu", "CpuUtilization[1m].groupBy(resourceId).mean()",
+            "memory", "MemoryUtilization[1m].groupBy(resourceId).mean()");
+
     private final String compartmentOcid;
-    private final AuthenticationDetailsProvider provider;
+    private final TenancyId tenancyId;
 
-    private final ComputeClient computeClient;
-    private final MonitoringClient monitoringClient;
-    private final IdentityClient identityClient;
-    private final VirtualNetworkClient virtualNetworkClient;
+    private final Compute computeClient;
+    private final Monitoring monitoringClient;
+    private final Identity identityClient;
+    private final VirtualNetwork virtualNetworkClient;
+
+    // Caches keyed by compartment (or tenancy) OCID, one per resource kind
+    private final RefreshingCache<String, List<InstanceDto>> instanceCache;
+    private final RefreshingCache<String, List<VcnDto>> vcnCache;
+    private final RefreshingCache<String, List<PolicyDto>> policyCache;
+    private final RefreshingCache<String, List<CompartmentDto>> compartmentCache;
+    private final RefreshingCache<String, List<DomainDto>> domainCache;
+
+    private final MetricWindowStore metricWindows;
+    private final MetricHistoryStore metricHistory;
+    private final AlertEngine alerts;
+    private final int maxPoints;
 
     /**
-     * Initializes OCI SDK clients using credentials from ~/.oci/config (DEFAULT profile).
+     * Creates the service on top of the shared OCI SDK clients.
      *
      * @param compartmentOcid The OCID of the compartment to operate on.
-     * @throws IOException if the OCI config file cannot be read.
+     * @param tenancyId       root tenancy OCID (for compartments and domains)
+     * @param computeClient        shared OCI Compute client
+     * @param monitoringClient     shared OCI Monitoring client
+     * @param identityClient       shared OCI Identity client
+     * @param virtualNetworkClient shared OCI VirtualNetwork client
+     * @param caches          registry used to create the per-kind list caches
+     * @param metricWindows   rolling store of metric datapoints, refreshed incrementally
+     * @param metricHistory   on-disk metric history, fed with every fetched datapoint
+     * @param alerts          alert engine, fed with every fetched datapoint
+     * @param maxPoints       default maximum points per metric series (LTTB downsampling)
+     * @param instanceTtl     freshness period for compute instances
+     * @param vcnTtl          freshness period for VCNs
+     * @param policyTtl       freshness period for IAM policies
+     * @param compartmentTtl  freshness period for compartments
+     * @param domainTtl       freshness period for identity domains
      */
-    public DashboardService(@Value("${oci.compartment.ocid}") String compartmentOcid) throws IOException {
-        ConfigFileReader.ConfigFile configFile = ConfigFileReader.parseDefault();
-        this.provider = new ConfigFileAuthenticationDetailsProvider(configFile);
+    public DashboardService(@Value("${oci.compartment.ocid}") String compartmentOcid,
+                            TenancyId tenancyId,
+                            Compute computeClient,
+                            Monitoring monitoringClient,
+                            Identity identityClient,
+                            VirtualNetwork virtualNetworkClient,
+                            CacheRegistry caches,
+                            MetricWindowStore metricWindows,
+                            MetricHistoryStore metricHistory,
+                            AlertEngine alerts,
+                            @Value("${oci.metrics.max-points:120}") int maxPoints,
+                            @Value("${oci.cache.ttl.instances:30s}") Duration instanceTtl,
+                            @Value("${oci.cache.ttl.vcns:5m}") Duration vcnTtl,
+                            @Value("${oci.cache.ttl.policies:15m}") Duration policyTtl,
+                            @Value("${oci.cache.ttl.compartments:15m}") Duration compartmentTtl,
+                            @Value("${oci.cache.ttl.domains:1h}") Duration domainTtl) {
         this.compartmentOcid = compartmentOcid;
+        this.tenancyId = tenancyId;
 
-        // Create clients for various OCI services
-        this.computeClient = ComputeClient.builder().build(provider);
-        this.monitoringClient = MonitoringClient.builder().build(provider);
-        this.identityClient = IdentityClient.builder().build(provider);
-        this.virtualNetworkClient = VirtualNetworkClient.builder().build(provider);
+        this.computeClient = computeClient;
+        this.monitoringClient = monitoringClient;
+        this.identityClient = identityClient;
+        this.virtualNetworkClient = virtualNetworkClient;
+
+        this.instanceCache = caches.create("instances", instanceTtl);
+        this.vcnCache = caches.create("vcns", vcnTtl);
+        this.policyCache = caches.create("policies", policyTtl);
+        this.compartmentCache = caches.create("compartments", compartmentTtl);
+        this.domainCache = caches.create("domains", domainTtl);
+        this.metricWindows = metricWindows;
+        this.metricHistory = metricHistory;
+        this.alerts = alerts;
+        this.maxPoints = maxPoints;
     }
 
     /**
      * Retrieves compute instances in the configured compartment.
      *
-     * @return List of maps: id, name, status.
+     * @return instances: id, name, status.
+     * @throws OciUnavailableException if OCI is unavailable and no previous result is cached
+     */
+    public List<InstanceDto> getResources() {
+        return instanceCache.get(compartmentOcid, this::fetchResources);
+    }
+
+    /**
+     * Compute instances with their entity tag, for conditional requests.
+     *
+     * @see #getResources()
+     */
+    public Versioned<List<InstanceDto>> getResourcesVersioned() {
+        return instanceCache.getVersioned(compartmentOcid, this::fetchResources);
+    }
+
+    /**
+     * Streams compute instances page by page, following opc-next-page
+     * lazily while the stream is consumed. Pages are not cached.
+     *
+     * @return stream of pages of instances: id, name, status.
+     */
+    public Stream<List<InstanceDto>> streamResourcePages() {
+        return pages(computeClient.getPaginators().listInstancesResponseIterator(
+                        ListInstancesRequest.builder()
+                                .compartmentId(compartmentOcid)
+                                .build()),
+                response -> response.getItems().stream()
+                        .map(DashboardService::toResource)
+                        .collect(Collectors.toList()));
+    }
+
+    private List<InstanceDto> fetchResources() {
+        return streamResourcePages()
+                .flatMap(List::stream)
+                .collect(Collectors.toList());
+    }
+
+    private static InstanceDto toResource(Instance instance) {
+        return new InstanceDto(instance.getId(), instance.getDisplayName(), instance.getLifecycleState().getValue());
+    }
+
+    /**
+     * Reloads the instance, VCN and policy caches from OCI right away, so that the next
+     * getter calls see current data. Used by the background poller; failures are logged
+     * and leave the previous values in place.
      */
-    public List<Map<String, Object>> getResources() {
+    public void refreshCaches() {
+        reload("compute instances", () -> instanceCache.reload(compartmentOcid, this::fetchResources));
+        reload("VCNs", () -> vcnCache.reload(compartmentOcid, this::fetchVcns));
+        reload("policies", () -> policyCache.reload(compartmentOcid, this::fetchPolicies));
+    }
+
+    private static void reload(String what, Runnable reload) {
         try {
-            return computeClient.listInstances(
-                            ListInstancesRequest.builder()
-                                    .compartmentId(compartmentOcid)
-                                    .build())
-                    .getItems()
-                    .stream()
-                    .map(instance -> {
-                        Map<String, Object> resource = new HashMap<>();
-                        resource.put("id", instance.getId());
-                        resource.put("name", instance.getDisplayName());
-                        resource.put("status", instance.getLifecycleState().getValue());
-                        return resource;
-                    })
-                    .collect(Collectors.toList());
+            reload.run();
         } catch (Exception e) {
-            System.err.println("Failed to fetch compute instances: " + e.getMessage());
-            return Collections.emptyList();
+            System.err.println("Failed to refresh " + what + ": " + e.getMessage());
         }
     }
 
     /**
-     * Retrieves average CPU utilization for the last hour.
+     * Retrieves average CPU utilization for the last hour, one series per instance.
      *
-     * @return List of metric time series.
+     * @return List of columnar metric series.
      */
-    public List<Map<String, Object>> getCpuMetrics() {
-        return getMetricsData("CpuUtilization[1m].mean()");
+    public List<MetricSeriesDto> getCpuMetrics() {
+        return getMetrics(List.of("cpu")).getOrDefault("cpu", List.of());
     }
 
     /**
-     * Retrieves average memory utilization for the last hour.
+     * Retrieves average memory utilization for the last hour, one series per instance.
      *
-     * @return List of metric time series.
+     * @return List of columnar metric series.
      */
-    public List<Map<String, Object>> getMemoryMetrics() {
-        return getMetricsData("MemoryUtilization[1m].mean()");
+    public List<MetricSeriesDto> getMemoryMetrics() {
+        return getMetrics(List.of("memory")).getOrDefault("memory", List.of());
     }
 
     /**
-     * Queries the Monitoring service and converts results to labeled series.
+     * Retrieves several metrics in one batch, downsampled to the configured default
+     * number of points per series.
      *
-     * @param query OCI Monitoring Query Language (MQL) expression.
-     * @return List of series maps with 'label' and 'points'.
+     * @param names metric names, see {@link #METRIC_QUERIES}
+     * @return series lists keyed by metric name
      */
-    private List<Map<String, Object>> getMetricsData(String query) {
-        try {
-            Date now = new Date();
-            Date oneHourAgo = new Date(now.getTime() - TimeUnit.HOURS.toMillis(1));
-
-            // Build the details of the metric query.
-            SummarizeMetricsDataDetails details = SummarizeMetricsDataDetails.builder()
-                    .namespace("oci_computeagent") // Most instance metrics use this namespace
-                    .query(query)
-                    .startTime(oneHourAgo)
-                    .endTime(now)
-                    .build();
-
-            // The compartment OCID is passed in the request, not in the details object.
-            SummarizeMetricsDataRequest request = SummarizeMetricsDataRequest.builder()
-                    .compartmentId(compartmentOcid)
-                    .summarizeMetricsDataDetails(details)
-                    .build();
-
-            SummarizeMetricsDataResponse response = monitoringClient.summarizeMetricsData(request);
-            List<MetricData> items = response.getItems();
-
-            if (items == null) {
-                return Collections.emptyList();
-            }
+    public Map<String, List<MetricSeriesDto>> getMetrics(Collection<String> names) {
+        return getMetrics(names, maxPoints);
+    }
 
-            // Convert the metric data into a list of maps for the controller.
-            return items.stream()
-                    .map(metricData -> {
-                        Map<String, Object> series = new HashMap<>();
-                        // No getName() in 3.72.0 → use query as label
-                        series.put("label", query);
-                        series.put("points", metricData.getAggregatedDatapoints().stream()
-                                .map(dp -> Map.of(
-                                        "t", dp.getTimestamp().getTime(),
-                                        "v", dp.getValue()))
-                                .collect(Collectors.toList()));
-                        return series;
-                    })
-                    .collect(Collectors.toList());
+    /**
+     * Retrieves several metrics in one batch.
+     * <p>
+     * The Monitoring API takes a single MQL expression per summarizeMetricsData call, so the
+     * batch runs the queries of all requested metrics concurrently over one shared time range.
+     * Each query is grouped by resourceId, which yields exactly one series per instance. Only
+     * the range since the newest stored datapoint is fetched (see {@link MetricWindowStore}),
+     * and if a fetch fails, the stored window of that metric is returned unchanged.
+     * <p>
+     * Every series is downsampled with {@link Lttb} to at most {@code maxPoints} points and
+     * returned in columnar form: 'label' (instance name), 'resourceId', 't' (epoch millis)
+     * and 'v' (values).
+     *
+     * @param names     metric names, see {@link #METRIC_QUERIES}; unknown names are ignored
+     * @param maxPoints maximum points per series; below 3 disables downsampling
+     * @return series lists keyed by metric name
+     */
+    public Map<String, List<MetricSeriesDto>> getMetrics(Collection<String> names, int maxPoints) {
+        Map<String, String> queries = new LinkedHashMap<>();
+        names.stream()
+                .filter(METRIC_QUERIES::containsKey)
+                .forEach(name -> queries.put(name, METRIC_QUERIES.get(name)));
 
-        } catch (Exception e) {
-            System.err.println("Failed to fetch metrics: " + e.getMessage());
-            return Collections.emptyList();
-        }
+        refreshMetricWindows(queries);
+
+        Map<String, String> instanceNames = instanceNames();
+
+        // Convert the stored windows into columnar series for the controller.
+        Map<String, List<MetricSeriesDto>> result = new LinkedHashMap<>();
+        long from = metricWindows.windowStart();
+        queries.forEach((name, query) -> {
+            List<MetricSeriesDto> seriesList = new ArrayList<>();
+            metricWindows.forEachSeries(query, (resourceId, buffer) -> seriesList.add(new MetricSeriesDto(
+                    instanceNames.getOrDefault(resourceId, resourceId), resourceId,
+                    Lttb.downsample(buffer.columns(from), maxPoints))));
+            result.put(name, seriesList);
+        });
+        return result;
     }
 
     /**
-     * Retrieves VCNs in the configured compartment.
+     * Retrieves the newest datapoint of several metrics for every instance, refreshing the
+     * metric windows first exactly as {@link #getMetrics} does (one query per metric, grouped
+     * by resourceId, fetching only the range since the newest stored datapoint).
      *
-     * @return List of maps: id, displayName.
+     * @param names metric names, see {@link #METRIC_QUERIES}; unknown names are ignored
+     * @return per metric name, the newest point keyed by instance OCID
      */
-    public List<Map<String, String>> getVcns() {
-        try {
-            return virtualNetworkClient.listVcns(
-                            ListVcnsRequest.builder()
-                                    .compartmentId(compartmentOcid)
-                                    .build())
-                    .getItems()
-                    .stream()
-                    .map(vcn -> Map.of(
-                            "id", vcn.getId(),
-                            "displayName", vcn.getDisplayName()))
-                    .collect(Collectors.toList());
-        } catch (Exception e) {
-            System.err.println("Failed to fetch VCNs: " + e.getMessage());
-            return Collections.emptyList();
+    public Map<String, Map<String, MetricWindowStore.Point>> getLatestMetrics(Collection<String> names) {
+        Map<String, String> queries = new LinkedHashMap<>();
+        names.stream()
+                .filter(METRIC_QUERIES::containsKey)
+                .forEach(name -> queries.put(name, METRIC_QUERIES.get(name)));
+
+        refreshMetricWindows(queries);
+
+        Map<String, Map<String, MetricWindowStore.Point>> result = new LinkedHashMap<>();
+        queries.forEach((name, query) -> result.put(name, metricWindows.latest(query)));
+        return result;
+    }
+
+    /**
+     * Refreshes the stored windows of the given queries concurrently over one shared time
+     * range, feeding the fetched datapoints to the history store and the alert engine. A
+     * failed fetch is logged and leaves the window of that metric unchanged.
+     *
+     * @param queries MQL queries keyed by metric name
+     */
+    private void refreshMetricWindows(Map<String, String> queries) {
+        long end = System.currentTimeMillis();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            queries.forEach((name, query) -> executor.submit(() -> {
+                try {
+                    metricWindows.refresh(query, (start, ignoredEnd, sink) ->
+                            fetchMetricsDelta(query, start, end, (resourceId, t, v) -> {
+                                sink.accept(resourceId, t, v);
+                                metricHistory.append(name, resourceId, t, v);
+                                alerts.accept(name, resourceId, t, v);
+                            }));
+                } catch (Exception e) {
+                    System.err.println("Failed to fetch " + name + " metrics: " + e.getMessage());
+                }
+            }));
         }
     }
 
     /**
-     * Retrieves IAM policies in the configured compartment.
+     * Reads the recorded history of a metric from the local {@link MetricHistoryStore}
+     * without calling the Monitoring API. The resolution (1m, 5m or 1h) is chosen from the
+     * range and its retention.
      *
-     * @return List of maps: id, name.
+     * @param name       metric name, see {@link #METRIC_QUERIES}
+     * @param resourceId single instance to read, or null for all instances
+     * @param from       range start, epoch millis
+     * @param to         range end, epoch millis
+     * @param maxPoints  maximum points per series
+     * @return the series (columnar, as in {@link #getMetrics}) and the resolution they were read at
      */
-    public List<Map<String, String>> getPolicies() {
+    public MetricHistoryDto getMetricHistory(String name, String resourceId, long from, long to, int maxPoints) {
         try {
-            return identityClient.listPolicies(
-                            ListPoliciesRequest.builder()
-                                    .compartmentId(compartmentOcid)
-                                    .build())
-                    .getItems()
-                    .stream()
-                    .map(policy -> Map.of(
-                            "id", policy.getId(),
-                            "name", policy.getName()))
-                    .collect(Collectors.toList());
+            MetricHistoryStore.HistoryResult history = metricHistory.query(name, resourceId, from, to, maxPoints);
+
+            Map<String, String> instanceNames = instanceNames();
+            List<MetricSeriesDto> seriesList = new ArrayList<>();
+            history.series().forEach((id, columns) ->
+                    seriesList.add(new MetricSeriesDto(instanceNames.getOrDefault(id, id), id, columns)));
+            return new MetricHistoryDto(name, history.resolution(), seriesList);
         } catch (Exception e) {
-            System.err.println("Failed to fetch policies: " + e.getMessage());
-            return Collections.emptyList();
+            System.err.println("Failed to read " + name + " history: " + e.getMessage());
+            return new MetricHistoryDto(name, null, List.of());
         }
     }
 
     /**
-     * Retrieves all compartments in the tenancy.
-     *
-     * @return List of maps: id, name.
+     * Instance display names by OCID, used to label metric series. Empty if the instances
+     * cannot be loaded; the series are then labelled with their OCID.
      */
-    public List<Map<String, String>> getCompartments() {
+    private Map<String, String> instanceNames() {
+        Map<String, String> names = new HashMap<>();
         try {
-            return identityClient.listCompartments(
-                            ListCompartmentsRequest.builder()
-                                    .compartmentId(provider.getTenantId()) // root tenancy OCID
-                                    .build())
-                    .getItems()
-                    .stream()
-                    .map(compartment -> Map.of(
-                            "id", compartment.getId(),
-                            "name", compartment.getName()))
-                    .collect(Collectors.toList());
-        } catch (Exception e) {
-            System.err.println("Failed to fetch compartments: " + e.getMessage());
-            return Collections.emptyList();
+            getResources().forEach(instance -> names.put(instance.id(), instance.name()));
+        } catch (RuntimeException e) {
+            System.err.println("Failed to load instance names for metric labels: " + e.getMessage());
         }
+        return names;
+    }
+
+    /**
+     * Runs a single summarizeMetricsData call for the given range and pushes the
+     * datapoints, keyed by resource, into the sink.
+     */
+    private void fetchMetricsDelta(String query, long startMillis, long endMillis,
+                                   MetricWindowStore.PointSink sink) {
+        // Build the details of the metric query.
+        SummarizeMetricsDataDetails details = SummarizeMetricsDataDetails.builder()
+                .namespace("oci_computeagent") // Most instance metrics use this namespace
+                .query(query)
+                .startTime(new Date(startMillis))
+                .endTime(new Date(endMillis))
+                .build();
+
+        // The compartment OCID is passed in the request, not in the details object.
+        SummarizeMetricsDataRequest request = SummarizeMetricsDataRequest.builder()
+                .compartmentId(compartmentOcid)
+                .summarizeMetricsDataDetails(details)
+                .build();
+
+        SummarizeMetricsDataResponse response = monitoringClient.summarizeMetricsData(request);
+        List<MetricData> items = response.getItems();
+
+        if (items == null) {
+            return;
+        }
+
+        for (MetricData metricData : items) {
+            String seriesKey = seriesKey(metricData);
+            for (AggregatedDatapoint dp : metricData.getAggregatedDatapoints()) {
+                sink.accept(seriesKey, dp.getTimestamp().getTime(), dp.getValue());
+            }
+        }
+    }
+
+    /**
+     * Identifies a metric stream by its resource, falling back to the full dimension set.
+     */
+    private static String seriesKey(MetricData metricData) {
+        Map<String, String> dimensions = metricData.getDimensions();
+        if (dimensions == null) {
+            return "";
+        }
+        return dimensions.getOrDefault("resourceId", dimensions.toString());
+    }
+
+    /**
+     * Retrieves VCNs in the configured compartment.
+     *
+     * @return VCNs: id, displayName.
+     * @throws OciUnavailableException if OCI is unavailable and no previous result is cached
+     */
+    public List<VcnDto> getVcns() {
+        return vcnCache.get(compartmentOcid, this::fetchVcns);
+    }
+
+    /**
+     * VCNs with their entity tag, for conditional requests.
+     *
+     * @see #getVcns()
+     */
+    public Versioned<List<VcnDto>> getVcnsVersioned() {
+        return vcnCache.getVersioned(compartmentOcid, this::fetchVcns);
+    }
+
+    /**
+     * Streams VCNs in the configured compartment page by page, following opc-next-page
+     * lazily while the stream is consumed. Pages are not cached.
+     */
+    public Stream<List<VcnDto>> streamVcnPages() {
+        return pages(virtualNetworkClient.getPaginators().listVcnsResponseIterator(
+                        ListVcnsRequest.builder()
+                                .compartmentId(compartmentOcid)
+                                .build()),
+                response -> response.getItems().stream()
+                        .map(vcn -> new VcnDto(vcn.getId(), vcn.getDisplayName()))
+                        .collect(Collectors.toList()));
+    }
+
+    private List<VcnDto> fetchVcns() {
+        return streamVcnPages()
+                .flatMap(List::stream)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Retrieves IAM policies in the configured compartment.
+     *
+     * @return policies: id, name.
+     * @throws OciUnavailableException if OCI is unavailable and no previous result is cached
+     */
+    public List<PolicyDto> getPolicies() {
+        return policyCache.get(compartmentOcid, this::fetchPolicies);
+    }
+
+    /**
+     * IAM policies with their entity tag, for conditional requests.
+     *
+     * @see #getPolicies()
+     */
+    public Versioned<List<PolicyDto>> getPoliciesVersioned() {
+        return policyCache.getVersioned(compartmentOcid, this::fetchPolicies);
+    }
+
+    /**
+     * Streams IAM policies in the configured compartment page by page, following
+     * opc-next-page lazily while the stream is consumed. Pages are not cached.
+     */
+    public Stream<List<PolicyDto>> streamPolicyPages() {
+        return pages(identityClient.getPaginators().listPoliciesResponseIterator(
+                        ListPoliciesRequest.builder()
+                                .compartmentId(compartmentOcid)
+                                .build()),
+                response -> response.getItems().stream()
+                        .map(policy -> new PolicyDto(policy.getId(), policy.getName()))
+                        .collect(Collectors.toList()));
+    }
+
+    private List<PolicyDto> fetchPolicies() {
+        return streamPolicyPages()
+                .flatMap(List::stream)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Retrieves all compartments in the tenancy, including nested ones.
+     *
+     * @return compartments: id, name, parentId.
+     * @throws OciUnavailableException if OCI is unavailable and no previous result is cached
+     */
+    public List<CompartmentDto> getCompartments() {
+        return compartmentCache.get(tenancyId.get(), this::fetchCompartments);
+    }
+
+    /**
+     * Streams the whole compartment tree of the tenancy page by page, following
+     * opc-next-page lazily while the stream is consumed. Pages are not cached.
+     */
+    public Stream<List<CompartmentDto>> streamCompartmentPages() {
+        return pages(identityClient.getPaginators().listCompartmentsResponseIterator(
+                        ListCompartmentsRequest.builder()
+                                .compartmentId(tenancyId.get()) // root tenancy OCID
+                                .accessLevel(ListCompartmentsRequest.AccessLevel.Accessible)
+                                .compartmentIdInSubtree(true)
+                                .build()),
+                response -> response.getItems().stream()
+                        .map(compartment -> new CompartmentDto(
+                                compartment.getId(), compartment.getName(), compartment.getCompartmentId()))
+                        .collect(Collectors.toList()));
+    }
+
+    private List<CompartmentDto> fetchCompartments() {
+        return streamCompartmentPages()
+                .flatMap(List::stream)
+                .collect(Collectors.toList());
     }
 
     /**
      * Retrieves identity domains in the tenancy.
      *
-     * @return List of maps: id, name.
+     * @return domains: id, name.
+     * @throws OciUnavailableException if OCI is unavailable and no previous result is cached
      */
-    public List<Map<String, String>> getDomains() {
-        try {
-            return identityClient.listDomains(
-                            ListDomainsRequest.builder()
-                                    .compartmentId(provider.getTenantId()) // root tenancy OCID
-                                    .build())
-                    .getItems()
-                    .stream()
-                    .map(domain -> Map.of(
-                            "id", domain.getId(),
-                            "name", domain.getDisplayName()))
-                    .collect(Collectors.toList());
-        } catch (Exception e) {
-            System.err.println("Failed to fetch domains: " + e.getMessage());
-            return Collections.emptyList();
-        }
+    public List<DomainDto> getDomains() {
+        return domainCache.get(tenancyId.get(), this::fetchDomains);
+    }
+
+    /**
+     * Streams identity domains of the tenancy page by page, following opc-next-page
+     * lazily while the stream is consumed. Pages are not cached.
+     */
+    public Stream<List<DomainDto>> streamDomainPages() {
+        return pages(identityClient.getPaginators().listDomainsResponseIterator(
+                        ListDomainsRequest.builder()
+                                .compartmentId(tenancyId.get()) // root tenancy OCID
+                                .build()),
+                response -> response.getItems().stream()
+                        .map(domain -> new DomainDto(domain.getId(), domain.getDisplayName()))
+                        .collect(Collectors.toList()));
+    }
+
+    private List<DomainDto> fetchDomains() {
+        return streamDomainPages()
+                .flatMap(List::stream)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Turns a lazy paginator response iterator into a stream of mapped pages.
+     */
+    private static <R, P> Stream<P> pages(Iterable<R> responses, Function<R, P> toPage) {
+        return StreamSupport.stream(responses.spliterator(), false).map(toPage);
     }
 }
@@ -0,0 +1,255 @@
+package techthor.ocimonitor.service;
+
+import com.oracle.bmc.core.Compute;
+import com.oracle.bmc.core.VirtualNetwork;
+import com.oracle.bmc.core.model.Instance;
+import com.oracle.bmc.core.model.PrivateIp;
+import com.oracle.bmc.core.model.PublicIp;
+import com.oracle.bmc.core.model.VnicAttachment;
+import com.oracle.bmc.core.requests.ListInstancesRequest;
+import com.oracle.bmc.core.requests.ListPrivateIpsRequest;
+import com.oracle.bmc.core.requests.ListPublicIpsRequest;
+import com.oracle.bmc.core.requests.ListVnicAttachmentsRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import techthor.ocimonitor.cache.CacheRegistry;
+import techthor.ocimonitor.cache.RefreshingCache;
+import techthor.ocimonitor.cache.Versioned;
+import techthor.ocimonitor.dto.InstanceRow;
+import techthor.ocimonitor.inventory.InstanceTable;
+import techthor.ocimonitor.metrics.MetricWindowStore;
+import techthor.ocimonitor.resilience.OciUnavailableException;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Builds the enriched instance table of the dashboard: every compute instance joined with
+ * its newest CPU and memory datapoints and the addresses of its primary VNIC.
+ * <p>
+ * A build costs a fixed number of OCI calls, independent of the number of instances: the
+ * instance list, one metric query per metric grouped by resourceId (see
+ * {@link DashboardService#getLatestMetrics}), the VNIC attachments of the compartment, the
+ * private IPs of each subnet in use, and the public IPs of the region and of each
+ * availability domain in use. Metrics and addresses are fetched concurrently on virtual
+ * threads, then hash-joined to the instances by OCID. Metrics and addresses only enrich the
+ * rows: if they cannot be fetched, the affected columns stay empty.
+ * <p>
+ * The joined rows are cached as one precomputed {@link InstanceTable}, so sorting, filtering
+ * and paging are served from memory until the table expires.
+ */
+@Service
+public class InstanceTableService {
+
+    private static final List<String> METRICS = List.of("cpu", "memory");
+
+    private final String compartmentOcid;
+    private final Compute computeClient;
+    private final VirtualNetwork virtualNetworkClient;
+    private final DashboardService dashboard;
+    private final RefreshingCache<String, InstanceTable> tableCache;
+
+    /**
+     * @param compartmentOcid      compartment whose instances are listed
+     * @param computeClient        shared OCI Compute client
+     * @param virtualNetworkClient shared OCI VirtualNetwork client
+     * @param dashboard            source of the newest metric datapoints
+     * @param caches               registry used to create the table cache
+     * @param tableTtl             freshness period of the joined table
+     */
+    public InstanceTableService(@Value("${oci.compartment.ocid}") String compartmentOcid,
+                                Compute computeClient,
+                                VirtualNetwork virtualNetworkClient,
+                                DashboardService dashboard,
+                                CacheRegistry caches,
+                                @Value("${oci.cache.ttl.instance-table:1m}") Duration tableTtl) {
+        this.compartmentOcid = compartmentOcid;
+        this.computeClient = computeClient;
+        this.virtualNetworkClient = virtualNetworkClient;
+        this.dashboard = dashboard;
+        this.tableCache = caches.create("instance-table", tableTtl);
+    }
+
+    /**
+     * @return the joined instance table
+     * @throws OciUnavailableException if the instances cannot be listed and no previous table is cached
+     */
+    public InstanceTable getTable() {
+        return tableCache.get(compartmentOcid, this::buildTable);
+    }
+
+    /**
+     * The joined instance table with its entity tag, for conditional requests.
+     *
+     * @see #getTable()
+     */
+    public Versioned<InstanceTable> getTableVersioned() {
+        return tableCache.getVersioned(compartmentOcid, this::buildTable);
+    }
+
+    private InstanceTable buildTable() {
+        List<Instance> instances = new ArrayList<>();
+        computeClient.getPaginators().listInstancesRecordIterator(ListInstancesRequest.builder()
+                        .compartmentId(compartmentOcid)
+                        .build())
+                .forEach(instances::add);
+        Set<String> availabilityDomains = new TreeSet<>();
+        instances.forEach(instance -> {
+            if (instance.getAvailabilityDomain() != null) {
+                availabilityDomains.add(instance.getAvailabilityDomain());
+            }
+        });
+
+        Map<String, Map<String, MetricWindowStore.Point>> metrics = Map.of();
+        Map<String, PrimaryVnic> vnics = Map.of();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<Map<String, Map<String, MetricWindowStore.Point>>> metricsFuture =
+                    executor.submit(() -> dashboard.getLatestMetrics(METRICS));
+            Future<Map<String, PrimaryVnic>> vnicsFuture = executor.submit(() -> primaryVnics(availabilityDomains));
+            try {
+                metrics = metricsFuture.get();
+            } catch (Exception e) {
+                System.err.println("Failed to load metrics for the instance table: " + e.getMessage());
+            }
+            try {
+                vnics = vnicsFuture.get();
+            } catch (Exception e) {
+                System.err.println("Failed to load VNICs for the instance table: " + e.getMessage());
+            }
+        }
+
+        Map<String, MetricWindowStore.Point> cpu = metrics.getOrDefault("cpu", Map.of());
+        Map<String, MetricWindowStore.Point> memory = metrics.getOrDefault("memory", Map.of());
+        List<InstanceRow> rows = new ArrayList<>(instances.size());
+        for (Instance instance : instances) {
+            MetricWindowStore.Point cpuPoint = cpu.get(instance.getId());
+            MetricWindowStore.Point memoryPoint = memory.get(instance.getId());
+            long ts = Math.max(cpuPoint != null ? cpuPoint.timestamp() : Long.MIN_VALUE,
+                    memoryPoint != null ? memoryPoint.timestamp() : Long.MIN_VALUE);
+            PrimaryVnic vnic = vnics.get(instance.getId());
+            rows.add(new InstanceRow(
+                    instance.getId(),
+                    instance.getDisplayName(),
+                    instance.getLifecycleState() != null ? instance.getLifecycleState().getValue() : null,
+                    instance.getShape(),
+                    instance.getAvailabilityDomain(),
+                    cpuPoint != null ? cpuPoint.value() : null,
+                    memoryPoint != null ? memoryPoint.value() : null,
+                    ts != Long.MIN_VALUE ? Instant.ofEpochMilli(ts).toString() : null,
+                    vnic != null ? vnic.privateIp() : null,
+                    vnic != null ? vnic.publicIp() : null,
+                    vnic != null ? vnic.subnetId() : null));
+        }
+        return new InstanceTable(rows, System.currentTimeMillis());
+    }
+
+    /**
+     * Addresses of the primary VNIC of every instance in the compartment.
+     * <p>
+     * The primary VNIC is the attached VNIC with the lowest NIC index. Its primary private
+     * IP comes from the private IP list of its subnet, and its public IP from the reserved
+     * (region-scoped) and ephemeral (AD-scoped) public IP lists, matched by the private IP
+     * they are assigned to. The per-subnet and per-scope lookups run concurrently; a failed
+     * lookup is logged and leaves the addresses it would have provided empty.
+     *
+     * @return addresses keyed by instance OCID
+     */
+    private Map<String, PrimaryVnic> primaryVnics(Set<String> availabilityDomains) {
+        Map<String, VnicAttachment> attachments = new HashMap<>();
+        computeClient.getPaginators().listVnicAttachmentsRecordIterator(ListVnicAttachmentsRequest.builder()
+                        .compartmentId(compartmentOcid)
+                        .build())
+                .forEach(attachment -> {
+                    if (attachment.getLifecycleState() == VnicAttachment.LifecycleState.Attached
+                            && attachment.getInstanceId() != null) {
+                        attachments.merge(attachment.getInstanceId(), attachment,
+                                (a, b) -> nicIndex(b) < nicIndex(a) ? b : a);
+                    }
+                });
+        Set<String> subnetIds = new TreeSet<>();
+        attachments.values().forEach(attachment -> {
+            if (attachment.getSubnetId() != null) {
+                subnetIds.add(attachment.getSubnetId());
+            }
+        });
+
+        Map<String, PrivateIp> privateIpsByVnic = new ConcurrentHashMap<>();
+        Map<String, String> publicIpsByPrivateIp = new ConcurrentHashMap<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (String subnetId : subnetIds) {
+                executor.submit(() -> lookup("private IPs of subnet " + subnetId, () ->
+                        virtualNetworkClient.getPaginators().listPrivateIpsRecordIterator(ListPrivateIpsRequest.builder()
+                                        .subnetId(subnetId)
+                                        .build())
+                                .forEach(ip -> {
+                                    if (Boolean.TRUE.equals(ip.getIsPrimary()) && ip.getVnicId() != null) {
+                                        privateIpsByVnic.put(ip.getVnicId(), ip);
+                                    }
+                                })));
+            }
+            executor.submit(() -> lookup("reserved public IPs", () ->
+                    collectPublicIps(ListPublicIpsRequest.builder()
+                            .scope(ListPublicIpsRequest.Scope.Region)
+                            .compartmentId(compartmentOcid)
+                            .lifetime(ListPublicIpsRequest.Lifetime.Reserved)
+                            .build(), publicIpsByPrivateIp)));
+            for (String availabilityDomain : availabilityDomains) {
+                executor.submit(() -> lookup("ephemeral public IPs in " + availabilityDomain, () ->
+                        collectPublicIps(ListPublicIpsRequest.builder()
+                                .scope(ListPublicIpsRequest.Scope.AvailabilityDomain)
+                                .availabilityDomain(availabilityDomain)
+                                .compartmentId(compartmentOcid)
+                                .lifetime(ListPublicIpsRequest.Lifetime.Ephemeral)
+                                .build(), publicIpsByPrivateIp)));
+            }
+        }
+
+        Map<String, PrimaryVnic> vnics = new HashMap<>();
+        attachments.forEach((instanceId, attachment) -> {
+            PrivateIp privateIp = privateIpsByVnic.get(attachment.getVnicId());
+            vnics.put(instanceId, new PrimaryVnic(
+                    privateIp != null ? privateIp.getIpAddress() : null,
+                    privateIp != null ? publicIpsByPrivateIp.get(privateIp.getId()) : null,
+                    attachment.getSubnetId()));
+        });
+        return vnics;
+    }
+
+    private void collectPublicIps(ListPublicIpsRequest request, Map<String, String> publicIpsByPrivateIp) {
+        virtualNetworkClient.getPaginators().listPublicIpsRecordIterator(request).forEach(ip -> {
+            if (ip.getAssignedEntityType() == PublicIp.AssignedEntityType.PrivateIp
+                    && ip.getAssignedEntityId() != null && ip.getIpAddress() != null) {
+                publicIpsByPrivateIp.put(ip.getAssignedEntityId(), ip.getIpAddress());
+            }
+        });
+    }
+
+    private static void lookup(String what, Runnable lookup) {
+        try {
+            lookup.run();
+        } catch (Exception e) {
+            System.err.println("Failed to load " + what + ": " + e.getMessage());
+        }
+    }
+
+    private static int nicIndex(VnicAttachment attachment) {
+        return Objects.requireNonNullElse(attachment.getNicIndex(), Integer.MAX_VALUE);
+    }
+
+    /**
+     * Addresses of the primary VNIC of an instance.
+     */
+    private record PrimaryVnic(String privateIp, String publicIp, String subnetId) {
+    }
+}
@@ -0,0 +1,289 @@
+package techthor.ocimonitor.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import techthor.ocimonitor.dto.MetricSeriesDto;
+import techthor.ocimonitor.dto.ResourceRow;
+import techthor.ocimonitor.metrics.MetricColumns;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Server-side inventory poller that pushes changes to dashboard viewers over Server-Sent Events.
+ * <p>
+ * Once per interval, regardless of how many viewers are connected, the poller refreshes
+ * instances, VCNs, policies and CPU/memory metrics through the {@link DashboardService}.
+ * It then diffs the result against the previous poll and broadcasts only the changes:
+ * <ul>
+ *   <li>{@code snapshot} – full state, sent once to each new subscriber</li>
+ *   <li>{@code diff} – per list section: added rows, removed IDs, changed rows</li>
+ *   <li>{@code metrics} – per metric section: columnar datapoints at or after the last pushed timestamp, by resource</li>
+ * </ul>
+ * Upstream API cost is therefore independent of the number of viewers.
+ * <p>
+ * OCI is polled without holding any lock that subscribers need. The diff against the
+ * previous poll and the swap of the snapshot happen under a short state lock, and events
+ * are sent under a separate send lock, so a new viewer waits at most for one broadcast. Each
+ * viewer remembers the snapshot version it was sent and skips diffs it already contains.
+ */
+@Service
+public class InventoryPushService {
+
+    private static final List<String> LIST_SECTIONS = List.of("computeInstances", "vcns", "policies");
+    private static final List<String> METRIC_SECTIONS = List.of("cpuMetrics", "memoryMetrics");
+
+    private final DashboardService dashboardService;
+    private final long emitterTimeoutMillis;
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+
+    // Serializes polls, so an older poll cannot overwrite a newer one
+    private final ReentrantLock pollLock = new ReentrantLock();
+    // Orders snapshot and broadcast sends, so a viewer never gets a diff before its snapshot
+    private final ReentrantLock sendLock = new ReentrantLock();
+    // Guards the state of the previous poll
+    private final ReentrantLock stateLock = new ReentrantLock();
+    private final Map<String, Map<String, ResourceRow>> lastRows = new HashMap<>();
+    private final Map<String, Map<String, Long>> lastPushedTimestamps = new HashMap<>();
+    private Map<String, Object> lastSnapshot = Map.of();
+    private long snapshotVersion;
+
+    /**
+     * A connected viewer and the version of the snapshot it was sent.
+     */
+    private record Subscriber(SseEmitter emitter, long snapshotVersion) {
+    }
+
+    /**
+     * @param dashboardService     source of inventory and metric data
+     * @param emitterTimeoutMillis how long an SSE connection stays open before the browser reconnects
+     */
+    public InventoryPushService(DashboardService dashboardService,
+                                @Value("${oci.poller.emitter-timeout-ms:1800000}") long emitterTimeoutMillis) {
+        this.dashboardService = dashboardService;
+        this.emitterTimeoutMillis = emitterTimeoutMillis;
+    }
+
+    /**
+     * Registers a new viewer and sends it the current snapshot.
+     *
+     * @return emitter bound to the viewer's HTTP connection
+     */
+    public SseEmitter subscribe() {
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMillis);
+        emitter.onCompletion(() -> unsubscribe(emitter));
+        emitter.onTimeout(() -> unsubscribe(emitter));
+        emitter.onError(e -> unsubscribe(emitter));
+        sendLock.lock();
+        try {
+            Map<String, Object> snapshot;
+            long version;
+            stateLock.lock();
+            try {
+                snapshot = lastSnapshot;
+                version = snapshotVersion;
+            } finally {
+                stateLock.unlock();
+            }
+            emitter.send(SseEmitter.event().name("snapshot").data(snapshot));
+            subscribers.add(new Subscriber(emitter, version));
+        } catch (IOException e) {
+            emitter.completeWithError(e);
+        } finally {
+            sendLock.unlock();
+        }
+        return emitter;
+    }
+
+    private void unsubscribe(SseEmitter emitter) {
+        subscribers.removeIf(subscriber -> subscriber.emitter() == emitter);
+    }
+
+    /**
+     * @return number of connected viewers
+     */
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    /**
+     * Polls OCI once and pushes the changes to all viewers.
+     */
+    @Scheduled(fixedDelayString = "${oci.poller.interval-ms:60000}", initialDelayString = "${oci.poller.initial-delay-ms:0}")
+    public void poll() {
+        pollLock.lock();
+        try {
+            pollAndBroadcast();
+        } finally {
+            pollLock.unlock();
+        }
+    }
+
+    private void pollAndBroadcast() {
+        dashboardService.refreshCaches();
+
+        // A section that cannot be loaded is skipped, so viewers keep their rows instead of seeing them removed
+        Map<String, List<? extends ResourceRow>> lists = new LinkedHashMap<>();
+        putIfLoaded(lists, "computeInstances", dashboardService::getResources);
+        putIfLoaded(lists, "vcns", dashboardService::getVcns);
+        putIfLoaded(lists, "policies", dashboardService::getPolicies);
+
+        Map<String, List<MetricSeriesDto>> metrics = new LinkedHashMap<>();
+        metrics.put("cpuMetrics", dashboardService.getCpuMetrics());
+        metrics.put("memoryMetrics", dashboardService.getMemoryMetrics());
+
+        List<Map.Entry<String, Object>> events = new ArrayList<>();
+        long version;
+        stateLock.lock();
+        try {
+            for (String section : LIST_SECTIONS) {
+                if (!lists.containsKey(section)) {
+                    continue;
+                }
+                Map<String, Object> diff = diffRows(section, lists.get(section));
+                if (diff != null) {
+                    events.add(Map.entry("diff", diff));
+                }
+            }
+            for (String section : METRIC_SECTIONS) {
+                Map<String, Object> delta = newPoints(section, metrics.get(section));
+                if (delta != null) {
+                    events.add(Map.entry("metrics", delta));
+                }
+            }
+
+            Map<String, Object> snapshot = new LinkedHashMap<>(lastSnapshot);
+            snapshot.putAll(lists);
+            snapshot.putAll(metrics);
+            lastSnapshot = snapshot;
+            version = ++snapshotVersion;
+        } finally {
+            stateLock.unlock();
+        }
+
+        if (!events.isEmpty()) {
+            broadcast(events, version);
+        }
+    }
+
+    private static <T> void putIfLoaded(Map<String, T> sections, String section, Supplier<T> loader) {
+        try {
+            sections.put(section, loader.get());
+        } catch (RuntimeException e) {
+            System.err.println("Poller could not load " + section + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Compares a list section against the previous poll by row ID.
+     *
+     * @return diff payload, or null if nothing changed
+     */
+    private Map<String, Object> diffRows(String section, List<? extends ResourceRow> rows) {
+        Map<String, ResourceRow> previous = lastRows.getOrDefault(section, Map.of());
+        Map<String, ResourceRow> current = new LinkedHashMap<>();
+        rows.forEach(row -> current.put(row.id(), row));
+
+        List<ResourceRow> added = new ArrayList<>();
+        List<ResourceRow> changed = new ArrayList<>();
+        List<String> removed = new ArrayList<>();
+        current.forEach((id, row) -> {
+            ResourceRow old = previous.get(id);
+            if (old == null) {
+                added.add(row);
+            } else if (!Objects.equals(old, row)) {
+                changed.add(row);
+            }
+        });
+        previous.keySet().forEach(id -> {
+            if (!current.containsKey(id)) {
+                removed.add(id);
+            }
+        });
+        lastRows.put(section, current);
+
+        if (added.isEmpty() && changed.isEmpty() && removed.isEmpty()) {
+            return null;
+        }
+        Map<String, Object> diff = new LinkedHashMap<>();
+        diff.put("section", section);
+        diff.put("added", added);
+        diff.put("changed", changed);
+        diff.put("removed", removed);
+        return diff;
+    }
+
+    /**
+     * Collects datapoints at or after the last pushed timestamp of each series. The last
+     * pushed point is included again because OCI may still revise the newest minute.
+     *
+     * @return delta payload with columnar 't'/'v' arrays per resource, or null if there are no points
+     */
+    private Map<String, Object> newPoints(String section, List<MetricSeriesDto> seriesList) {
+        Map<String, Long> pushed = lastPushedTimestamps.computeIfAbsent(section, s -> new HashMap<>());
+        Map<String, MetricColumns> points = new LinkedHashMap<>();
+
+        for (MetricSeriesDto series : seriesList) {
+            String resourceId = series.resourceId();
+            long since = pushed.getOrDefault(resourceId, Long.MIN_VALUE);
+            long[] t = series.t();
+            double[] v = series.v();
+
+            int first = 0;
+            while (first < t.length && t[first] < since) {
+                first++;
+            }
+            if (first < t.length) {
+                points.put(resourceId, new MetricColumns(
+                        Arrays.copyOfRange(t, first, t.length),
+                        Arrays.copyOfRange(v, first, v.length)));
+                pushed.put(resourceId, t[t.length - 1]);
+            }
+        }
+
+        if (points.isEmpty()) {
+            return null;
+        }
+        Map<String, Object> delta = new LinkedHashMap<>();
+        delta.put("section", section);
+        delta.put("series", points);
+        return delta;
+    }
+
+    /**
+     * Sends the events of one poll to every viewer whose snapshot predates them.
+     *
+     * @param version snapshot version the events lead to
+     */
+    private void broadcast(List<Map.Entry<String, Object>> events, long version) {
+        sendLock.lock();
+        try {
+            for (Subscriber subscriber : subscribers) {
+                if (subscriber.snapshotVersion() >= version) {
+                    continue;
+                }
+                try {
+                    for (Map.Entry<String, Object> event : events) {
+                        subscriber.emitter().send(SseEmitter.event().name(event.getKey()).data(event.getValue()));
+                    }
+                } catch (IOException | IllegalStateException e) {
+                    // Viewer went away; the container completes the emitter
+                    subscribers.remove(subscriber);
+                }
+            }
+        } finally {
+            sendLock.unlock();
+        }
+    }
+}
@@ -0,0 +1,334 @@
+package techthor.ocimonitor.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import techthor.ocimonitor.cache.Versioned;
+import techthor.ocimonitor.dto.OciObjectDto;
+import techthor.ocimonitor.inventory.BucketIndex;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Tenancy-wide object inventory, kept as one compact {@link BucketIndex} per bucket.
+ * <p>
+ * Browsing, prefix search, size aggregation and top-N queries are answered from the
+ * in-memory indexes without calling OCI. The indexes are maintained in the background:
+ * <ul>
+ *   <li>A bucket that is not indexed yet (or whose last full scan is older than the
+ *       full-rescan interval) is listed completely. The new index replaces the old one,
+ *       which also drops deleted objects.</li>
+ *   <li>Otherwise only objects sorting after the last indexed name are listed
+ *       ({@code startAfter}), which picks up new objects in append-style buckets such as
+ *       logs and backups with one cheap call.</li>
+ * </ul>
+ * A bucket requested before the background refresh has reached it is indexed on demand.
+ */
+@Service
+public class ObjectInventoryService {
+
+    private final ObjectStorageService objectStorageService;
+    private final boolean enabled;
+    private final long fullRescanMillis;
+    private final int concurrency;
+    private final Map<String, BucketState> buckets = new ConcurrentHashMap<>();
+    private final AtomicLong indexVersions = new AtomicLong();
+
+    /**
+     * @param objectStorageService service used for bucket discovery and object listings
+     * @param enabled              whether the background refresh runs
+     * @param fullRescan           maximum age of a bucket's last complete listing
+     * @param concurrency          buckets listed in parallel during a refresh
+     */
+    public ObjectInventoryService(ObjectStorageService objectStorageService,
+                                  @Value("${oci.storage.inventory.enabled:true}") boolean enabled,
+                                  @Value("${oci.storage.inventory.full-rescan:6h}") Duration fullRescan,
+                                  @Value("${oci.storage.inventory.concurrency:8}") int concurrency) {
+        this.objectStorageService = objectStorageService;
+        this.enabled = enabled;
+        this.fullRescanMillis = fullRescan.toMillis();
+        this.concurrency = concurrency;
+    }
+
+    /**
+     * Refreshes the indexes of all buckets in the tenancy and drops buckets that no longer exist.
+     */
+    @Scheduled(fixedDelayString = "${oci.storage.inventory.refresh-interval-ms:300000}",
+            initialDelayString = "${oci.storage.inventory.initial-delay-ms:10000}")
+    public void refresh() {
+        if (!enabled) {
+            return;
+        }
+        List<String> bucketNames;
+        try {
+            bucketNames = objectStorageService.refreshBucketNames();
+        } catch (Exception e) {
+            System.err.println("Failed to list buckets for the object inventory: " + e.getMessage());
+            return;
+        }
+        buckets.keySet().retainAll(bucketNames);
+
+        // Virtual threads for the blocking listings, bounded to avoid bursts against the API
+        Semaphore permits = new Semaphore(concurrency);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            bucketNames.forEach(bucket -> executor.submit(() -> {
+                try {
+                    permits.acquire();
+                    try {
+                        refreshBucket(bucket);
+                    } finally {
+                        permits.release();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (Exception e) {
+                    System.err.println("Failed to index bucket " + bucket + ": " + e.getMessage());
+                }
+            }));
+        }
+    }
+
+    /**
+     * @return names of all objects in the bucket, in name order
+     */
+    public List<String> getObjectNames(String bucket) {
+        BucketIndex index = index(bucket);
+        List<String> names = new ArrayList<>(index.size());
+        index.forEachName(0, index.size(), (position, name) -> names.add(name));
+        return names;
+    }
+
+    /**
+     * Entity tag of the bucket's current index. It changes whenever the index is replaced, so
+     * a caller can check it before building a listing. Indexes the bucket if needed.
+     *
+     * @return weak entity tag
+     */
+    public String getObjectsEtag(String bucket) {
+        index(bucket);
+        BucketState state = buckets.get(bucket);
+        return Versioned.etag("objects", state != null ? state.version() : indexVersions.incrementAndGet());
+    }
+
+    /**
+     * @return all objects of the bucket, in name order
+     */
+    public List<OciObjectDto> getObjects(String bucket) {
+        BucketIndex index = index(bucket);
+        return index.toList(0, index.size());
+    }
+
+    /**
+     * @return objects of every bucket in the tenancy, keyed by bucket name
+     */
+    public Map<String, List<OciObjectDto>> getObjectsByBucket() {
+        Map<String, List<OciObjectDto>> inventory = new TreeMap<>();
+        objectStorageService.getAllBucketNames().forEach(bucket -> inventory.put(bucket, getObjects(bucket)));
+        return inventory;
+    }
+
+    /**
+     * Finds objects by name prefix.
+     *
+     * @param bucket bucket to search, or null for all indexed buckets
+     * @param prefix name prefix, empty for all objects
+     * @param limit  maximum number of objects returned per bucket
+     * @return matching objects keyed by bucket name; buckets without matches are omitted
+     */
+    public Map<String, List<OciObjectDto>> search(String bucket, String prefix, int limit) {
+        Map<String, List<OciObjectDto>> result = new TreeMap<>();
+        indexes(bucket).forEach((name, index) -> {
+            int[] range = index.prefixRange(prefix);
+            if (range[0] < range[1]) {
+                result.put(name, index.toList(range[0], range[0] + Math.clamp(limit, 0, range[1] - range[0])));
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Aggregates object count and size under a prefix.
+     * <p>
+     * For a single bucket, the result also breaks the prefix down into its direct children
+     * (next path segment up to '/'), which is what a folder view needs. Without a bucket,
+     * totals are returned per indexed bucket.
+     *
+     * @param bucket bucket to aggregate, or null for all indexed buckets
+     * @param prefix name prefix, empty for the whole bucket
+     * @return map with 'prefix', 'objectCount', 'totalBytes' and 'buckets' or 'children'
+     */
+    public Map<String, Object> usage(String bucket, String prefix) {
+        String effectivePrefix = prefix == null ? "" : prefix;
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("prefix", effectivePrefix);
+
+        if (bucket == null) {
+            List<Map<String, Object>> perBucket = new ArrayList<>();
+            long[] totals = new long[2];
+            indexes(null).forEach((name, index) -> {
+                int[] range = index.prefixRange(effectivePrefix);
+                long bytes = index.totalBytes(range[0], range[1]);
+                totals[0] += range[1] - range[0];
+                totals[1] += bytes;
+                perBucket.add(aggregate("bucket", name, range[1] - range[0], bytes));
+            });
+            perBucket.sort(Comparator.comparing((Map<String, Object> m) -> (Long) m.get("totalBytes")).reversed());
+            result.put("objectCount", totals[0]);
+            result.put("totalBytes", totals[1]);
+            result.put("buckets", perBucket);
+            return result;
+        }
+
+        BucketIndex index = index(bucket);
+        int[] range = index.prefixRange(effectivePrefix);
+        result.put("bucket", bucket);
+        result.put("objectCount", (long) (range[1] - range[0]));
+        result.put("totalBytes", index.totalBytes(range[0], range[1]));
+
+        // Children are contiguous in sort order, so each one is a single run of positions
+        List<Map<String, Object>> children = new ArrayList<>();
+        String[] current = {null};
+        int[] runStart = {range[0]};
+        index.forEachName(range[0], range[1], (position, name) -> {
+            String child = childOf(name, effectivePrefix);
+            if (!child.equals(current[0])) {
+                if (current[0] != null) {
+                    children.add(aggregate("name", current[0], position - runStart[0],
+                            index.totalBytes(runStart[0], position)));
+                }
+                current[0] = child;
+                runStart[0] = position;
+            }
+        });
+        if (current[0] != null) {
+            children.add(aggregate("name", current[0], range[1] - runStart[0],
+                    index.totalBytes(runStart[0], range[1])));
+        }
+        result.put("children", children);
+        return result;
+    }
+
+    /**
+     * Returns the largest objects.
+     *
+     * @param bucket bucket to search, or null for all indexed buckets
+     * @param prefix name prefix, empty for all objects
+     * @param n      number of objects
+     * @return up to {@code n} maps with 'bucket', 'name', 'size', 'etag' and 'timeCreated', largest first
+     */
+    public List<Map<String, Object>> largest(String bucket, String prefix, int n) {
+        List<Map<String, Object>> candidates = new ArrayList<>();
+        indexes(bucket).forEach((name, index) -> {
+            int[] range = index.prefixRange(prefix);
+            for (int position : index.largest(range[0], range[1], n)) {
+                OciObjectDto object = index.get(position);
+                Map<String, Object> entry = new LinkedHashMap<>();
+                entry.put("bucket", name);
+                entry.put("name", object.name());
+                entry.put("size", object.size());
+                entry.put("etag", object.etag());
+                entry.put("timeCreated", object.timeCreated());
+                candidates.add(entry);
+            }
+        });
+        return candidates.stream()
+                .sorted(Comparator.comparing((Map<String, Object> m) -> (Long) m.get("size")).reversed())
+                .limit(Math.max(0, n))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * @return indexed bucket and object counts and the approximate memory used by the indexes
+     */
+    public Map<String, Object> stats() {
+        long objects = 0;
+        long bytes = 0;
+        for (BucketState state : buckets.values()) {
+            objects += state.index().size();
+            bytes += state.index().memoryBytes();
+        }
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("buckets", buckets.size());
+        stats.put("objects", objects);
+        stats.put("indexBytes", bytes);
+        return stats;
+    }
+
+    /**
+     * Lists a bucket completely or incrementally, depending on the age of its last full scan.
+     */
+    private BucketIndex refreshBucket(String bucket) {
+        long now = System.currentTimeMillis();
+        BucketState state = buckets.get(bucket);
+
+        if (state == null || now - state.fullScanAt() >= fullRescanMillis) {
+            BucketIndex index = BucketIndex.of(list(bucket, null));
+            buckets.put(bucket, new BucketState(index, now, indexVersions.incrementAndGet()));
+            return index;
+        }
+
+        List<OciObjectDto> newer = list(bucket, state.index().lastName());
+        if (newer.isEmpty()) {
+            return state.index();
+        }
+        BucketIndex index = state.index().withObjects(newer);
+        buckets.put(bucket, new BucketState(index, state.fullScanAt(), indexVersions.incrementAndGet()));
+        return index;
+    }
+
+    private List<OciObjectDto> list(String bucket, String startAfter) {
+        return objectStorageService.streamObjectPages(bucket, startAfter)
+                .flatMap(List::stream)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Index of a bucket, built on demand if the background refresh has not reached it yet.
+     */
+    private BucketIndex index(String bucket) {
+        BucketState state = buckets.get(bucket);
+        return state != null ? state.index() : refreshBucket(bucket);
+    }
+
+    private Map<String, BucketIndex> indexes(String bucket) {
+        if (bucket != null) {
+            return Map.of(bucket, index(bucket));
+        }
+        Map<String, BucketIndex> indexes = new TreeMap<>();
+        buckets.forEach((name, state) -> indexes.put(name, state.index()));
+        return indexes;
+    }
+
+    /**
+     * Direct child of the prefix that contains the name: a "folder/" or the object itself.
+     */
+    private static String childOf(String name, String prefix) {
+        int slash = name.indexOf('/', prefix.length());
+        return slash < 0 ? name.substring(prefix.length()) : name.substring(prefix.length(), slash + 1);
+    }
+
+    private static Map<String, Object> aggregate(String key, String value, long count, long bytes) {
+        Map<String, Object> aggregate = new LinkedHashMap<>();
+        aggregate.put(key, value);
+        aggregate.put("objectCount", count);
+        aggregate.put("totalBytes", bytes);
+        return aggregate;
+    }
+
+    /**
+     * Current index of a bucket, the time of its last complete listing and the version of the index.
+     */
+    private record BucketState(BucketIndex index, long fullScanAt, long version) {}
+}
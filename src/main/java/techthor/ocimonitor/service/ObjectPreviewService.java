@@ -0,0 +1,362 @@
+package techthor.ocimonitor.service;
+
+import com.oracle.bmc.model.BmcException;
+import com.oracle.bmc.model.Range;
+import com.oracle.bmc.objectstorage.ObjectStorage;
+import com.oracle.bmc.objectstorage.requests.GetObjectRequest;
+import com.oracle.bmc.objectstorage.requests.HeadObjectRequest;
+import com.oracle.bmc.objectstorage.responses.GetObjectResponse;
+import com.oracle.bmc.objectstorage.responses.HeadObjectResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+import techthor.ocimonitor.config.ObjectStorageNamespace;
+import techthor.ocimonitor.dto.ObjectPreview;
+import techthor.ocimonitor.preview.ContentSniffer;
+import techthor.ocimonitor.preview.ParquetFooter;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded previews of object content.
+ * <p>
+ * A preview reads only the first bytes of an object with a ranged {@code GetObject}, so
+ * previewing a 50 GB log costs the same as a small file. gzip and zstd content is
+ * decompressed on the fly, and the result is classified as text, JSON, NDJSON, CSV or
+ * binary by {@link ContentSniffer}. For Parquet files the schema and row count are read
+ * from the footer with a second ranged request for the last bytes.
+ * <p>
+ * Previews are kept in an LRU cache bounded by their approximate size in bytes, one entry
+ * per object, valid for the object version (ETag) it was built from. Within the
+ * revalidation period a cached preview is served without calling OCI; after that, the
+ * ranged request is sent with {@code If-None-Match}, so an unchanged object costs one
+ * bodiless 304 and a changed one is re-read in the same request.
+ */
+@Service
+public class ObjectPreviewService {
+
+    private static final long ENTRY_OVERHEAD_BYTES = 256;
+
+    private final ObjectStorage objectStorageClient;
+    private final ObjectStorageNamespace objectStorageNamespace;
+    private final int defaultSize;
+    private final int maxSize;
+    private final int maxDecoded;
+    private final long cacheBudget;
+    private final long revalidateNanos;
+    private final Counter bytesFetched;
+
+    // Access-ordered map gives LRU eviction; guarded by the lock
+    private final Map<String, CachedPreview> cache = new LinkedHashMap<>(16, 0.75f, true);
+    private final ReentrantLock lock = new ReentrantLock();
+    private long cachedBytes;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder revalidations = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * @param objectStorageClient    OCI Object Storage client
+     * @param objectStorageNamespace cached namespace of the tenancy
+     * @param defaultSize            bytes fetched from the start of an object by default
+     * @param maxSize                largest fetch a caller may ask for
+     * @param maxDecoded             decoded bytes kept per preview (at least the fetch size)
+     * @param cacheSize              budget of the preview cache
+     * @param revalidateAfter        how long a cached preview is served without asking OCI
+     * @param meterRegistry          registry for the fetched-bytes counter and cache meters
+     */
+    public ObjectPreviewService(ObjectStorage objectStorageClient,
+                                ObjectStorageNamespace objectStorageNamespace,
+                                @Value("${oci.storage.preview.size:64KB}") DataSize defaultSize,
+                                @Value("${oci.storage.preview.max-size:1MB}") DataSize maxSize,
+                                @Value("${oci.storage.preview.max-decoded:256KB}") DataSize maxDecoded,
+                                @Value("${oci.storage.preview.cache-size:32MB}") DataSize cacheSize,
+                                @Value("${oci.storage.preview.revalidate-after:1m}") Duration revalidateAfter,
+                                MeterRegistry meterRegistry) {
+        this.objectStorageClient = objectStorageClient;
+        this.objectStorageNamespace = objectStorageNamespace;
+        this.maxSize = (int) Math.max(1, maxSize.toBytes());
+        this.defaultSize = (int) Math.min(this.maxSize, Math.max(1, defaultSize.toBytes()));
+        this.maxDecoded = (int) Math.min(Integer.MAX_VALUE - 8, maxDecoded.toBytes());
+        this.cacheBudget = cacheSize.toBytes();
+        this.revalidateNanos = revalidateAfter.toNanos();
+        this.bytesFetched = Counter.builder("oci.storage.bytes")
+                .description("Object bytes transferred to or from Object Storage, by transfer kind")
+                .baseUnit("bytes")
+                .tag("transfer", "preview")
+                .register(meterRegistry);
+        bindTo(meterRegistry);
+    }
+
+    /**
+     * Returns a preview of the start of an object.
+     *
+     * @param bucketName the bucket that contains the object
+     * @param objectName the object name
+     * @param kilobytes  how much of the object to read, or null for the configured default;
+     *                   capped at the configured maximum
+     * @return preview of the current object version
+     */
+    public ObjectPreview preview(String bucketName, String objectName, Integer kilobytes) {
+        int size = kilobytes == null ? defaultSize : (int) Math.min(maxSize, Math.max(1, kilobytes) * 1024L);
+        String key = bucketName + '/' + objectName;
+        long now = System.nanoTime();
+
+        CachedPreview cached;
+        lock.lock();
+        try {
+            cached = cache.get(key);
+        } finally {
+            lock.unlock();
+        }
+        if (cached != null && !cached.covers(size)) {
+            cached = null;
+        }
+        if (cached != null && now - cached.checkedAt() < revalidateNanos) {
+            hits.increment();
+            return cached.preview();
+        }
+
+        ObjectPreview preview = load(bucketName, objectName, size, cached != null ? cached.preview().etag() : null);
+        if (preview == null) {
+            // Not modified: the cached preview is valid for another period
+            revalidations.increment();
+            put(key, new CachedPreview(cached.preview(), cached.size(), now, cached.weight()));
+            return cached.preview();
+        }
+        misses.increment();
+        put(key, new CachedPreview(preview, size, now, weight(preview)));
+        return preview;
+    }
+
+    /**
+     * Returns the counters of the preview cache.
+     */
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("name", "previews");
+        stats.put("size", cachedEntries());
+        stats.put("bytes", cachedBytes());
+        stats.put("budgetBytes", cacheBudget);
+        stats.put("hits", hits.sum());
+        stats.put("revalidations", revalidations.sum());
+        stats.put("misses", misses.sum());
+        stats.put("evictions", evictions.sum());
+        return stats;
+    }
+
+    /**
+     * Reads the start of the object and builds its preview.
+     *
+     * @param knownEtag ETag of a cached preview, sent as {@code If-None-Match}; null if none
+     * @return the preview, or null if the object still has {@code knownEtag}
+     */
+    private ObjectPreview load(String bucketName, String objectName, int size, String knownEtag) {
+        String namespace = objectStorageNamespace.get();
+        GetObjectResponse response;
+        try {
+            response = objectStorageClient.getObject(GetObjectRequest.builder()
+                    .namespaceName(namespace)
+                    .bucketName(bucketName)
+                    .objectName(objectName)
+                    .range(new Range(0L, (long) size - 1))
+                    .ifNoneMatch(knownEtag)
+                    .build());
+        } catch (BmcException e) {
+            if (e.getStatusCode() == 416) {
+                return emptyPreview(namespace, bucketName, objectName, knownEtag);
+            }
+            throw e;
+        }
+        if (response.isNotModified()) {
+            return null;
+        }
+
+        Range contentRange = response.getContentRange();
+        long objectSize = contentRange != null && contentRange.getContentLength() != null
+                ? contentRange.getContentLength()
+                : response.getContentLength() != null ? response.getContentLength() : -1;
+        ContentSniffer.Decoded decoded;
+        try (InputStream stream = response.getInputStream()) {
+            decoded = ContentSniffer.decode(stream, Math.max(maxDecoded, size));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read preview of " + objectName, e);
+        }
+        bytesFetched.increment(decoded.rawBytes());
+        boolean truncated = !decoded.complete() || (decoded.compression().equals("none")
+                && (objectSize < 0 || decoded.rawBytes() < objectSize));
+
+        if (decoded.compression().equals("none") && ContentSniffer.isParquet(decoded.bytes())) {
+            ObjectPreview.Parquet parquet = parquetFooter(namespace, bucketName, objectName, response.getETag(),
+                    decoded.bytes(), objectSize, size);
+            if (parquet != null) {
+                return new ObjectPreview(bucketName, objectName, response.getETag(), response.getContentType(),
+                        objectSize, "none", "parquet", decoded.rawBytes(), decoded.bytes().length, truncated,
+                        null, null, parquet);
+            }
+        }
+
+        ContentSniffer.Description description = ContentSniffer.describe(decoded.bytes(), truncated);
+        return new ObjectPreview(bucketName, objectName, response.getETag(), response.getContentType(),
+                objectSize, decoded.compression(), description.format(), decoded.rawBytes(), decoded.bytes().length,
+                truncated, description.text(), description.rows(), null);
+    }
+
+    /**
+     * Reads the Parquet footer: from the bytes already fetched if they hold the whole file,
+     * otherwise with a ranged request for the last bytes, pinned to the same object version.
+     */
+    private ObjectPreview.Parquet parquetFooter(String namespace, String bucketName, String objectName, String etag,
+                                                byte[] head, long objectSize, int size) {
+        if (objectSize >= 0 && head.length >= objectSize) {
+            return ParquetFooter.parse(head);
+        }
+        GetObjectResponse response = objectStorageClient.getObject(GetObjectRequest.builder()
+                .namespaceName(namespace)
+                .bucketName(bucketName)
+                .objectName(objectName)
+                .range(new Range(null, (long) size))
+                .ifMatch(etag)
+                .build());
+        try (InputStream stream = response.getInputStream()) {
+            byte[] tail = stream.readNBytes(size);
+            bytesFetched.increment(tail.length);
+            return ParquetFooter.parse(tail);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read Parquet footer of " + objectName, e);
+        }
+    }
+
+    /**
+     * A range request on an empty object fails with 416; its metadata comes from a HEAD instead.
+     */
+    private ObjectPreview emptyPreview(String namespace, String bucketName, String objectName, String knownEtag) {
+        HeadObjectResponse head = objectStorageClient.headObject(HeadObjectRequest.builder()
+                .namespaceName(namespace)
+                .bucketName(bucketName)
+                .objectName(objectName)
+                .ifNoneMatch(knownEtag)
+                .build());
+        if (head.isNotModified()) {
+            return null;
+        }
+        return new ObjectPreview(bucketName, objectName, head.getETag(), head.getContentType(),
+                head.getContentLength() != null ? head.getContentLength() : 0, "none", "empty", 0, 0, false,
+                "", null, null);
+    }
+
+    private void put(String key, CachedPreview entry) {
+        if (entry.weight() > cacheBudget) {
+            return;
+        }
+        lock.lock();
+        try {
+            CachedPreview previous = cache.put(key, entry);
+            cachedBytes += entry.weight() - (previous != null ? previous.weight() : 0);
+            Iterator<CachedPreview> eldest = cache.values().iterator();
+            while (cachedBytes > cacheBudget && eldest.hasNext()) {
+                cachedBytes -= eldest.next().weight();
+                eldest.remove();
+                evictions.increment();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Approximate heap size of a preview: its text and CSV cells at one byte per character
+     * (compact strings), plus a fixed overhead per entry and row.
+     */
+    private static long weight(ObjectPreview preview) {
+        long weight = ENTRY_OVERHEAD_BYTES + preview.bucket().length() + preview.objectName().length();
+        if (preview.text() != null) {
+            weight += preview.text().length();
+        }
+        if (preview.rows() != null) {
+            for (List<String> row : preview.rows()) {
+                weight += 32;
+                for (String cell : row) {
+                    weight += 24 + cell.length();
+                }
+            }
+        }
+        if (preview.parquet() != null) {
+            for (String column : preview.parquet().columns()) {
+                weight += 24 + column.length();
+            }
+        }
+        return weight;
+    }
+
+    private void bindTo(MeterRegistry registry) {
+        counter(registry, "hit", hits);
+        counter(registry, "revalidated", revalidations);
+        counter(registry, "miss", misses);
+        FunctionCounter.builder("cache.evictions", evictions, LongAdder::sum)
+                .tag("cache", "previews")
+                .register(registry);
+        Gauge.builder("cache.size", this, ObjectPreviewService::cachedEntries)
+                .tag("cache", "previews")
+                .register(registry);
+        Gauge.builder("cache.weight", this, ObjectPreviewService::cachedBytes)
+                .description("Approximate bytes held by the cache")
+                .baseUnit("bytes")
+                .tag("cache", "previews")
+                .register(registry);
+    }
+
+    private int cachedEntries() {
+        lock.lock();
+        try {
+            return cache.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private long cachedBytes() {
+        lock.lock();
+        try {
+            return cachedBytes;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static void counter(MeterRegistry registry, String result, LongAdder counter) {
+        FunctionCounter.builder("cache.gets", counter, LongAdder::sum)
+                .tag("cache", "previews")
+                .tag("result", result)
+                .register(registry);
+    }
+
+    /**
+     * Cached preview, the fetch size it was built from, when its ETag was last confirmed, and
+     * its approximate size.
+     */
+    private record CachedPreview(ObjectPreview preview, int size, long checkedAt, long weight) {
+
+        /**
+         * Whether this preview answers a request for {@code requested} bytes: it read at least
+         * that much, or the whole content.
+         */
+        boolean covers(int requested) {
+            return size >= requested || !preview.truncated();
+        }
+    }
+}
@@ -1,121 +1,209 @@
 package techthor.ocimonitor.service;
 
-import com.oracle.bmc.identity.Identity;
-import com.oracle.bmc.identity.model.Compartment;
-import com.oracle.bmc.identity.requests.ListCompartmentsRequest;
+import com.oracle.bmc.model.Range;
 import com.oracle.bmc.objectstorage.ObjectStorage;
 import com.oracle.bmc.objectstorage.model.BucketSummary;
+import com.oracle.bmc.objectstorage.model.ListObjects;
 import com.oracle.bmc.objectstorage.model.ObjectSummary;
-import com.oracle.bmc.objectstorage.requests.GetNamespaceRequest;
 import com.oracle.bmc.objectstorage.requests.GetObjectRequest;
-import com.oracle.bmc.objectstorage.requests.ListBucketsRequest;
 import com.oracle.bmc.objectstorage.requests.ListObjectsRequest;
 import com.oracle.bmc.objectstorage.responses.GetObjectResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import techthor.ocimonitor.cache.CacheRegistry;
+import techthor.ocimonitor.cache.RefreshingCache;
+import techthor.ocimonitor.cache.Versioned;
+import techthor.ocimonitor.config.ObjectStorageNamespace;
+import techthor.ocimonitor.dto.ObjectContent;
+import techthor.ocimonitor.dto.OciObjectDto;
 
-import java.io.ByteArrayOutputStream;
-import java.io.InputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Duration;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 /**
  * Service for OCI Object Storage operations such as listing buckets/objects
- * and retrieving object content. Also leverages Identity to enumerate
- * compartments for tenancy-wide bucket discovery.
+ * and retrieving object content. Tenancy-wide bucket discovery is delegated
+ * to the {@link BucketCrawler}; the bucket names are cached per namespace.
  */
 @Service
 public class ObjectStorageService {
 
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
     private final ObjectStorage objectStorageClient;
-    private final Identity identityClient;
-    private final String tenancyOcid;
+    private final ObjectStorageNamespace objectStorageNamespace;
+    private final BucketCrawler bucketCrawler;
+    private final Counter bytesStreamed;
+    private final RefreshingCache<String, List<String>> bucketNameCache;
 
     /**
      * Creates a new ObjectStorageService with required clients.
      *
-     * @param objectStorageClient OCI Object Storage client
-     * @param identityClient      OCI Identity client (for compartment traversal)
-     * @param tenancyOcid         Root tenancy OCID
+     * @param objectStorageClient    OCI Object Storage client
+     * @param objectStorageNamespace cached namespace of the tenancy
+     * @param bucketCrawler          parallel crawler for tenancy-wide bucket discovery
+     * @param meterRegistry          registry for the streamed-bytes counter
+     * @param caches                 registry used to create the bucket name cache
+     * @param bucketTtl              freshness period for the bucket names
      */
     public ObjectStorageService(ObjectStorage objectStorageClient,
-                                Identity identityClient,
-                                String tenancyOcid) {
+                                ObjectStorageNamespace objectStorageNamespace,
+                                BucketCrawler bucketCrawler,
+                                MeterRegistry meterRegistry,
+                                CacheRegistry caches,
+                                @Value("${oci.cache.ttl.buckets:5m}") Duration bucketTtl) {
         this.objectStorageClient = objectStorageClient;
-        this.identityClient = identityClient;
-        this.tenancyOcid = tenancyOcid;
+        this.objectStorageNamespace = objectStorageNamespace;
+        this.bucketCrawler = bucketCrawler;
+        this.bytesStreamed = Counter.builder("oci.storage.bytes")
+                .description("Object bytes transferred to or from Object Storage, by transfer kind")
+                .baseUnit("bytes")
+                .tag("transfer", "stream")
+                .register(meterRegistry);
+        this.bucketNameCache = caches.create("buckets", bucketTtl);
     }
 
     /**
      * Reads and returns the full content of a specific object as bytes.
+     * <p>
+     * The whole object is held in memory, so this is only suitable for small objects;
+     * use {@link #openObject} to stream larger ones.
      *
      * @param bucketName the bucket that contains the object
      * @param objectName the object name
      * @return raw object bytes
      */
     public byte[] getObjectContent(String bucketName, String objectName) {
-        String namespace = objectStorageClient.getNamespace(GetNamespaceRequest.builder().build()).getValue();
+        try (ObjectContent content = openObject(bucketName, objectName, null)) {
+            // Content-Length is known up front, so read straight into a single array of that size
+            if (content.contentLength() > Integer.MAX_VALUE - 8) {
+                throw new IllegalStateException("Object too large to buffer: " + objectName);
+            }
+            return content.stream().readNBytes((int) content.contentLength());
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read object: " + objectName, e);
+        }
+    }
+
+    /**
+     * Opens an object, or a byte range of it, for streaming without buffering it.
+     *
+     * @param bucketName the bucket that contains the object
+     * @param objectName the object name
+     * @param range      byte range to fetch (passed through as an OCI range GET), or null for the whole object
+     * @return open content handle; the caller must close it
+     */
+    public ObjectContent openObject(String bucketName, String objectName, Range range) {
+        String namespace = objectStorageNamespace.get();
 
         GetObjectRequest request = GetObjectRequest.builder()
                 .namespaceName(namespace)
                 .bucketName(bucketName)
                 .objectName(objectName)
+                .range(range)
                 .build();
 
         GetObjectResponse response = objectStorageClient.getObject(request);
 
-        try (InputStream inputStream = response.getInputStream();
-             ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
+        Range contentRange = response.getContentRange();
+        return new ObjectContent(
+                response.getInputStream(),
+                response.getContentLength(),
+                response.getETag(),
+                response.getContentType(),
+                contentRange == null ? -1 : contentRange.getStartByte(),
+                contentRange == null ? -1 : contentRange.getEndByte(),
+                contentRange == null || contentRange.getContentLength() == null ? -1 : contentRange.getContentLength());
+    }
 
-            byte[] buffer = new byte[8192];
+    /**
+     * Copies an open object to the given output through a fixed-size buffer, so memory
+     * use per download is constant regardless of object size.
+     *
+     * @param content open object handle; closed when done
+     * @param out     destination, e.g. the servlet response stream
+     */
+    public void copyTo(ObjectContent content, OutputStream out) throws IOException {
+        try (content) {
+            byte[] buffer = new byte[COPY_BUFFER_SIZE];
             int bytesRead;
-            while ((bytesRead = inputStream.read(buffer)) != -1) {
-                baos.write(buffer, 0, bytesRead);
+            while ((bytesRead = content.stream().read(buffer)) != -1) {
+                out.write(buffer, 0, bytesRead);
+                bytesStreamed.increment(bytesRead);
             }
-            return baos.toByteArray();
-
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to read object: " + objectName, e);
+            out.flush();
         }
     }
 
     /**
      * Lists all buckets across the entire tenancy (root and all accessible subcompartments).
+     * Compartments are crawled in parallel by the {@link BucketCrawler}.
      *
      * @return list of BucketSummary entries
      */
     public List<BucketSummary> listAllBucketsFromRoot() {
-        String namespace = objectStorageClient.getNamespace(GetNamespaceRequest.builder().build()).getValue();
-
-        Stream<String> allCompartmentIds = Stream.concat(
-                Stream.of(tenancyOcid),
-                identityClient.listCompartments(
-                                ListCompartmentsRequest.builder()
-                                        .compartmentId(tenancyOcid)
-                                        .accessLevel(ListCompartmentsRequest.AccessLevel.Accessible)
-                                        .compartmentIdInSubtree(true)
-                                        .build()
-                        ).getItems().stream()
-                        .map(Compartment::getId)
-        );
-
-        return allCompartmentIds
-                .flatMap(compId -> objectStorageClient.listBuckets(
-                                ListBucketsRequest.builder()
-                                        .namespaceName(namespace)
-                                        .compartmentId(compId)
-                                        .build()
-                        ).getItems().stream()
-                )
-                .collect(Collectors.toList());
+        String namespace = objectStorageNamespace.get();
+
+        try (Stream<List<BucketSummary>> buckets = bucketCrawler.crawl(namespace)) {
+            return buckets
+                    .flatMap(List::stream)
+                    .collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Streams all buckets across the tenancy, one list per compartment as soon as that
+     * compartment has been crawled.
+     *
+     * @return stream of pages, each a list of maps: name, compartmentId
+     */
+    public Stream<List<Map<String, String>>> streamAllBuckets() {
+        String namespace = objectStorageNamespace.get();
+
+        return bucketCrawler.crawl(namespace)
+                .map(page -> page.stream()
+                        .map(bucket -> Map.of(
+                                "name", bucket.getName(),
+                                "compartmentId", bucket.getCompartmentId()))
+                        .collect(Collectors.toList()));
     }
 
     /**
-     * Returns the names of all buckets across the tenancy.
+     * Returns the names of all buckets across the tenancy, from the cache.
      *
      * @return list of bucket names
      */
     public List<String> getAllBucketNames() {
+        return bucketNameCache.get(objectStorageNamespace.get(), this::fetchBucketNames);
+    }
+
+    /**
+     * Bucket names with their entity tag, for conditional requests.
+     *
+     * @see #getAllBucketNames()
+     */
+    public Versioned<List<String>> getAllBucketNamesVersioned() {
+        return bucketNameCache.getVersioned(objectStorageNamespace.get(), this::fetchBucketNames);
+    }
+
+    /**
+     * Crawls the bucket names now and updates the cache.
+     *
+     * @return current list of bucket names
+     */
+    public List<String> refreshBucketNames() {
+        return bucketNameCache.reload(objectStorageNamespace.get(), this::fetchBucketNames);
+    }
+
+    private List<String> fetchBucketNames() {
         return listAllBucketsFromRoot()
                 .stream()
                 .map(BucketSummary::getName)
@@ -123,23 +211,69 @@ public class ObjectStorageService {
     }
 
     /**
-     * Lists object names within a specific bucket.
+     * Lists object names within a specific bucket, following all pages. Prefer
+     * {@link ObjectInventoryService#getObjectNames}, which answers from the local index.
      *
      * @param bucketName the bucket to list
      * @return list of object names
      */
     public List<String> getObjectNamesFromBucket(String bucketName) {
-        String namespace = objectStorageClient.getNamespace(GetNamespaceRequest.builder().build()).getValue();
+        return streamObjectPages(bucketName)
+                .flatMap(List::stream)
+                .map(OciObjectDto::name)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Streams the objects of a bucket page by page. The next page (via nextStartWith)
+     * is only requested once the previous one has been consumed.
+     *
+     * @param bucketName the bucket to list
+     * @return stream of pages, each a list of objects with name, size, ETag and creation time
+     */
+    public Stream<List<OciObjectDto>> streamObjectPages(String bucketName) {
+        return streamObjectPages(bucketName, null);
+    }
+
+    /**
+     * Streams the objects of a bucket whose name sorts after {@code startAfter}, page by page.
+     * Used for incremental listings that continue after the last known object.
+     *
+     * @param bucketName the bucket to list
+     * @param startAfter exclusive lower bound of object names, or null for all objects
+     * @return stream of pages, each a list of objects with name, size, ETag and creation time
+     */
+    public Stream<List<OciObjectDto>> streamObjectPages(String bucketName, String startAfter) {
+        String namespace = objectStorageNamespace.get();
+
+        return Stream.iterate(
+                        listObjectsPage(namespace, bucketName, null, startAfter),
+                        Objects::nonNull,
+                        page -> page.getNextStartWith() == null
+                                ? null
+                                : listObjectsPage(namespace, bucketName, page.getNextStartWith(), null))
+                .map(page -> page.getObjects().stream()
+                        .map(ObjectStorageService::toDto)
+                        .collect(Collectors.toList()));
+    }
 
+    private ListObjects listObjectsPage(String namespace, String bucketName, String start, String startAfter) {
         return objectStorageClient.listObjects(
-                        ListObjectsRequest.builder()
-                                .namespaceName(namespace)
-                                .bucketName(bucketName)
-                                .build()
-                ).getListObjects()
-                .getObjects()
-                .stream()
-                .map(ObjectSummary::getName)
-                .collect(Collectors.toList());
+                ListObjectsRequest.builder()
+                        .namespaceName(namespace)
+                        .bucketName(bucketName)
+                        .fields("name,size,etag,timeCreated")
+                        .start(start)
+                        .startAfter(startAfter)
+                        .build()
+        ).getListObjects();
+    }
+
+    private static OciObjectDto toDto(ObjectSummary object) {
+        return new OciObjectDto(
+                object.getName(),
+                object.getSize() == null ? 0L : object.getSize(),
+                object.getEtag(),
+                object.getTimeCreated() == null ? 0L : object.getTimeCreated().getTime());
     }
 }
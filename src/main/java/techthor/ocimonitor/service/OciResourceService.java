@@ -1,12 +1,25 @@
 package techthor.ocimonitor.service;
 
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import techthor.ocimonitor.dao.ObjectStorageDao;
 import techthor.ocimonitor.dto.OciObjectDto;
 
+import java.time.Duration;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
 
 /**
  * Facade service that aggregates and orchestrates calls to multiple OCI-related domain services.
@@ -14,7 +27,8 @@ import java.util.Map;
  * Acts as the single integration point for controllers that need combined data from:
  * <ul>
  *   <li>{@link DashboardService} – compute, networking, IAM, and metrics</li>
- *   <li>{@link ObjectStorageDao} – bucket listings and object metadata</li>
+ *   <li>{@link ObjectStorageDao} – bucket listings</li>
+ *   <li>{@link ObjectInventoryService} – indexed object metadata</li>
  * </ul>
  * This reduces coupling in the controller layer and provides a high-level API to
  * fetch related OCI resource data in one shot.
@@ -24,17 +38,32 @@ public class OciResourceService {
 
     private final DashboardService dashboardService;
     private final ObjectStorageDao objectStorageDao;
+    private final ObjectInventoryService objectInventoryService;
+    private final Duration sectionTimeout;
+    private final ObservationRegistry observationRegistry;
+
+    // One virtual thread per section: the work is blocking I/O against OCI, so platform threads would only idle
+    private final ExecutorService snapshotExecutor = Executors.newVirtualThreadPerTaskExecutor();
 
     /**
      * Constructs the OciResourceService with its dependent domain services.
      *
      * @param dashboardService  service providing compute, networking, IAM and metric operations
      * @param objectStorageDao  DAO providing direct access to Object Storage API
+     * @param objectInventoryService indexed object inventory of all buckets
+     * @param sectionTimeout    deadline applied to every snapshot section, measured from the start of the snapshot
+     * @param observationRegistry registry for the snapshot and per-section timers and spans
      */
     public OciResourceService(DashboardService dashboardService,
-                              ObjectStorageDao objectStorageDao) {
+                              ObjectStorageDao objectStorageDao,
+                              ObjectInventoryService objectInventoryService,
+                              @Value("${oci.snapshot.section-timeout:5s}") Duration sectionTimeout,
+                              ObservationRegistry observationRegistry) {
         this.dashboardService = dashboardService;
         this.objectStorageDao = objectStorageDao;
+        this.objectInventoryService = objectInventoryService;
+        this.sectionTimeout = sectionTimeout;
+        this.observationRegistry = observationRegistry;
     }
 
     /**
@@ -48,36 +77,107 @@ public class OciResourceService {
      *   <li>IAM policies, compartments, and domains</li>
      *   <li>Object Storage buckets</li>
      * </ul>
+     * All sections are fetched concurrently, so the snapshot takes roughly as long as the slowest
+     * section. A section that misses the deadline or fails is returned as an empty list, and the
+     * {@code sections} entry reports status ({@code OK}, {@code TIMEOUT}, {@code FAILED}) and
+     * duration for every section.
+     * <p>
+     * The snapshot is observed as {@code oci.snapshot}, each section as a child
+     * {@code oci.snapshot.section}, and the OCI calls of a section nest under it, so a slow
+     * snapshot can be broken down per section and per upstream call.
      *
      * @return a map keyed by section name containing the relevant data
      */
     public Map<String, Object> getDashboardSnapshot() {
+        Map<String, Supplier<?>> sections = new LinkedHashMap<>();
+        sections.put("computeInstances", dashboardService::getResources);
+        sections.put("cpuMetrics", dashboardService::getCpuMetrics);
+        sections.put("memoryMetrics", dashboardService::getMemoryMetrics);
+        sections.put("vcns", dashboardService::getVcns);
+        sections.put("policies", dashboardService::getPolicies);
+        sections.put("compartments", dashboardService::getCompartments);
+        sections.put("domains", dashboardService::getDomains);
+        sections.put("buckets", objectStorageDao::listBuckets);
+
+        long start = System.nanoTime();
+        long deadline = start + sectionTimeout.toNanos();
+        Observation snapshotObservation = Observation.start("oci.snapshot", observationRegistry);
+
+        Map<String, Future<SectionResult>> futures = new LinkedHashMap<>();
+        sections.forEach((name, supplier) -> futures.put(name, snapshotExecutor.submit(() -> {
+            long sectionStart = System.nanoTime();
+            Object data = Observation.createNotStarted("oci.snapshot.section", observationRegistry)
+                    .parentObservation(snapshotObservation)
+                    .contextualName("snapshot " + name)
+                    .lowCardinalityKeyValue("section", name)
+                    .observe(supplier);
+            return new SectionResult(data, elapsedMillis(sectionStart));
+        })));
+
         Map<String, Object> snapshot = new HashMap<>();
-        snapshot.put("computeInstances", dashboardService.getResources());
-        snapshot.put("cpuMetrics", dashboardService.getCpuMetrics());
-        snapshot.put("memoryMetrics", dashboardService.getMemoryMetrics());
-        snapshot.put("vcns", dashboardService.getVcns());
-        snapshot.put("policies", dashboardService.getPolicies());
-        snapshot.put("compartments", dashboardService.getCompartments());
-        snapshot.put("domains", dashboardService.getDomains());
-        snapshot.put("buckets", objectStorageDao.listBuckets());
+        Map<String, Map<String, Object>> status = new LinkedHashMap<>();
+
+        futures.forEach((name, future) -> {
+            Map<String, Object> sectionStatus = new LinkedHashMap<>();
+            try {
+                SectionResult result = future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                snapshot.put(name, result.data());
+                sectionStatus.put("status", "OK");
+                sectionStatus.put("durationMs", result.durationMs());
+            } catch (TimeoutException e) {
+                future.cancel(true);
+                snapshot.put(name, List.of());
+                sectionStatus.put("status", "TIMEOUT");
+                sectionStatus.put("durationMs", elapsedMillis(start));
+            } catch (ExecutionException e) {
+                snapshot.put(name, List.of());
+                sectionStatus.put("status", "FAILED");
+                sectionStatus.put("durationMs", elapsedMillis(start));
+                sectionStatus.put("error", String.valueOf(e.getCause().getMessage()));
+                System.err.println("Snapshot section '" + name + "' failed: " + e.getCause().getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                future.cancel(true);
+                snapshot.put(name, List.of());
+                sectionStatus.put("status", "FAILED");
+                sectionStatus.put("durationMs", elapsedMillis(start));
+                sectionStatus.put("error", "interrupted");
+            }
+            status.put(name, sectionStatus);
+        });
+
+        snapshotObservation.stop();
+        snapshot.put("sections", status);
+        snapshot.put("totalDurationMs", elapsedMillis(start));
         return snapshot;
     }
 
     /**
      * Builds an inventory of all objects within all buckets in the tenancy.
      * <p>
-     * Uses {@link ObjectStorageDao} to fetch the bucket list, then delegates
-     * to an Object Service (if implemented) to fetch objects for each bucket.
+     * Served from the {@link ObjectInventoryService} indexes; buckets that are not indexed
+     * yet are listed on demand.
      *
      * @return a map keyed by bucket name with a list of {@link OciObjectDto} entries
      */
     public Map<String, List<OciObjectDto>> getObjectsByBucket() {
-        Map<String, List<OciObjectDto>> inventory = new HashMap<>();
-        objectStorageDao.listBuckets().forEach(bucket -> {
-            // For now we stub empty lists — replace with real object listing when available
-            inventory.put(bucket.getName(), List.of());
-        });
-        return inventory;
+        return objectInventoryService.getObjectsByBucket();
     }
+
+    /**
+     * Stops the snapshot executor when the application context shuts down.
+     */
+    @PreDestroy
+    public void shutdown() {
+        snapshotExecutor.shutdownNow();
+    }
+
+    private static long elapsedMillis(long startNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Data and wall-clock duration of a single snapshot section.
+     */
+    private record SectionResult(Object data, long durationMs) {}
 }
@@ -0,0 +1,270 @@
+package techthor.ocimonitor.service;
+
+import com.oracle.bmc.model.BmcException;
+import com.oracle.bmc.model.Range;
+import com.oracle.bmc.objectstorage.ObjectStorage;
+import com.oracle.bmc.objectstorage.requests.GetObjectRequest;
+import com.oracle.bmc.objectstorage.requests.HeadObjectRequest;
+import com.oracle.bmc.objectstorage.responses.GetObjectResponse;
+import com.oracle.bmc.objectstorage.responses.HeadObjectResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import techthor.ocimonitor.config.ObjectStorageNamespace;
+import techthor.ocimonitor.dto.DownloadResult;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Downloads large objects as concurrent byte ranges into a local file.
+ * <p>
+ * The object is split into fixed-size chunks. Each chunk is fetched with its own ranged
+ * {@code GetObject} call and written at its offset with positioned {@link FileChannel}
+ * writes, so the chunks can finish in any order. Every range request is pinned to the
+ * ETag from the initial {@code HeadObject} call, so a concurrent overwrite of the object
+ * fails the download instead of mixing versions. Failed {@code GetObject} calls are retried by
+ * the resilience layer; this class only repeats ranges whose body stream breaks off, which the
+ * resilience layer cannot see. Each download writes its own temporary file next to the target,
+ * so concurrent downloads of the same object do not share one, and the finished file is checked
+ * against Content-MD5 when OCI provides it before it replaces the target.
+ */
+@Component
+public class ParallelObjectDownloader {
+
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+
+    private final ObjectStorage objectStorageClient;
+    private final ObjectStorageNamespace objectStorageNamespace;
+    private final long chunkSize;
+    private final int concurrency;
+    private final int maxRetries;
+    private final Path downloadDir;
+    private final Counter bytesDownloaded;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    /**
+     * @param objectStorageClient    OCI Object Storage client
+     * @param objectStorageNamespace cached namespace of the tenancy
+     * @param chunkSize              size of each byte range
+     * @param concurrency            maximum number of ranges fetched at once per download
+     * @param maxRetries             repeats per range whose body stream breaks off before the download fails
+     * @param downloadDir            directory downloads are written to
+     * @param meterRegistry          registry for the downloaded-bytes counter
+     */
+    public ParallelObjectDownloader(ObjectStorage objectStorageClient,
+                                    ObjectStorageNamespace objectStorageNamespace,
+                                    @Value("${oci.storage.download.chunk-size:8MB}") DataSize chunkSize,
+                                    @Value("${oci.storage.download.concurrency:8}") int concurrency,
+                                    @Value("${oci.storage.download.max-retries:3}") int maxRetries,
+                                    @Value("${oci.storage.download.dir:${java.io.tmpdir}/oci-downloads}") Path downloadDir,
+                                    MeterRegistry meterRegistry) {
+        this.objectStorageClient = objectStorageClient;
+        this.objectStorageNamespace = objectStorageNamespace;
+        this.chunkSize = chunkSize.toBytes();
+        this.concurrency = concurrency;
+        this.maxRetries = maxRetries;
+        this.downloadDir = downloadDir.toAbsolutePath().normalize();
+        this.bytesDownloaded = Counter.builder("oci.storage.bytes")
+                .description("Object bytes transferred to or from Object Storage, by transfer kind")
+                .baseUnit("bytes")
+                .tag("transfer", "download")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Downloads an object into the download directory, under {@code <bucket>/<objectName>}.
+     *
+     * @param bucketName the bucket that contains the object
+     * @param objectName the object name
+     * @return download statistics and verification outcome
+     */
+    public DownloadResult download(String bucketName, String objectName) throws IOException {
+        Path target = downloadDir.resolve(bucketName).resolve(objectName).normalize();
+        if (!target.startsWith(downloadDir)) {
+            throw new IllegalArgumentException("Object name escapes the download directory: " + objectName);
+        }
+        return download(bucketName, objectName, target);
+    }
+
+    /**
+     * Downloads an object to the given file, replacing it if it exists.
+     *
+     * @param bucketName the bucket that contains the object
+     * @param objectName the object name
+     * @param target     local file to write
+     * @return download statistics and verification outcome
+     */
+    public DownloadResult download(String bucketName, String objectName, Path target) throws IOException {
+        long start = System.nanoTime();
+        String namespace = objectStorageNamespace.get();
+
+        HeadObjectResponse head = objectStorageClient.headObject(HeadObjectRequest.builder()
+                .namespaceName(namespace)
+                .bucketName(bucketName)
+                .objectName(objectName)
+                .build());
+        long size = head.getContentLength();
+        String etag = head.getETag();
+
+        Files.createDirectories(target.toAbsolutePath().getParent());
+        Path partial = Files.createTempFile(target.toAbsolutePath().getParent(), target.getFileName().toString(), ".part");
+
+        int chunks = (int) ((size + chunkSize - 1) / chunkSize);
+        AtomicInteger retries = new AtomicInteger();
+        Semaphore permits = new Semaphore(concurrency);
+
+        try (FileChannel channel = FileChannel.open(partial, StandardOpenOption.WRITE)) {
+            List<Future<?>> tasks = new ArrayList<>(chunks);
+            for (int i = 0; i < chunks; i++) {
+                long first = i * chunkSize;
+                long last = Math.min(size, first + chunkSize) - 1;
+                tasks.add(executor.submit(() -> {
+                    permits.acquire();
+                    try {
+                        fetchRangeWithRetries(namespace, bucketName, objectName, etag, first, last, channel, retries);
+                    } finally {
+                        permits.release();
+                    }
+                    return null;
+                }));
+            }
+            awaitAll(tasks);
+            channel.force(false);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(partial);
+            throw e;
+        }
+
+        boolean verified = false;
+        try {
+            if (head.getContentMd5() != null && head.getOpcMultipartMd5() == null) {
+                String actual = md5Base64(partial);
+                if (!actual.equals(head.getContentMd5())) {
+                    throw new IOException("MD5 mismatch for " + objectName + ": expected "
+                            + head.getContentMd5() + ", got " + actual);
+                }
+                verified = true;
+            }
+            Files.move(partial, target, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(partial);
+            throw e;
+        }
+
+        return new DownloadResult(target.toString(), size, chunks, retries.get(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), etag, verified);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void fetchRangeWithRetries(String namespace, String bucketName, String objectName, String etag,
+                                       long first, long last, FileChannel channel, AtomicInteger retries)
+            throws IOException, InterruptedException {
+        for (int attempt = 0; ; attempt++) {
+            try {
+                fetchRange(namespace, bucketName, objectName, etag, first, last, channel);
+                return;
+            } catch (IOException e) {
+                // The body broke off after the call succeeded; failed calls (BmcException) were already
+                // retried by the resilience layer, and a 412 means the object changed since HEAD
+                if (attempt >= maxRetries) {
+                    throw e;
+                }
+                retries.incrementAndGet();
+                Thread.sleep(100L << attempt);
+            }
+        }
+    }
+
+    private void fetchRange(String namespace, String bucketName, String objectName, String etag,
+                            long first, long last, FileChannel channel) throws IOException {
+        GetObjectResponse response = objectStorageClient.getObject(GetObjectRequest.builder()
+                .namespaceName(namespace)
+                .bucketName(bucketName)
+                .objectName(objectName)
+                .ifMatch(etag)
+                .range(new Range(first, last))
+                .build());
+
+        ByteBuffer buffer = ByteBuffer.allocate(WRITE_BUFFER_SIZE);
+        long position = first;
+        try (InputStream in = response.getInputStream()) {
+            int read;
+            while ((read = in.read(buffer.array())) != -1) {
+                buffer.limit(read).position(0);
+                while (buffer.hasRemaining()) {
+                    position += channel.write(buffer, position);
+                }
+                bytesDownloaded.increment(read);
+                buffer.clear();
+            }
+        }
+        if (position != last + 1) {
+            throw new IOException("Short read for range " + first + "-" + last + ": got " + (position - first) + " bytes");
+        }
+    }
+
+    private static void awaitAll(List<Future<?>> tasks) throws IOException {
+        try {
+            for (Future<?> task : tasks) {
+                task.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            tasks.forEach(t -> t.cancel(true));
+            throw new IOException("Download interrupted", e);
+        } catch (ExecutionException e) {
+            tasks.forEach(t -> t.cancel(true));
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException io) {
+                throw io;
+            }
+            if (cause instanceof RuntimeException re) {
+                throw re;
+            }
+            throw new IOException("Range download failed", cause);
+        }
+    }
+
+    private static String md5Base64(Path file) throws IOException {
+        try {
+            MessageDigest md5 = MessageDigest.getInstance("MD5");
+            ByteBuffer buffer = ByteBuffer.allocate(WRITE_BUFFER_SIZE);
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                while (channel.read(buffer) != -1) {
+                    buffer.flip();
+                    md5.update(buffer);
+                    buffer.clear();
+                }
+            }
+            return Base64.getEncoder().encodeToString(md5.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
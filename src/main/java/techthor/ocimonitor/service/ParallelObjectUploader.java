@@ -0,0 +1,300 @@
+package techthor.ocimonitor.service;
+
+import com.oracle.bmc.model.BmcException;
+import com.oracle.bmc.objectstorage.ObjectStorage;
+import com.oracle.bmc.objectstorage.model.CommitMultipartUploadDetails;
+import com.oracle.bmc.objectstorage.model.CommitMultipartUploadPartDetails;
+import com.oracle.bmc.objectstorage.model.CreateMultipartUploadDetails;
+import com.oracle.bmc.objectstorage.requests.AbortMultipartUploadRequest;
+import com.oracle.bmc.objectstorage.requests.CommitMultipartUploadRequest;
+import com.oracle.bmc.objectstorage.requests.CreateMultipartUploadRequest;
+import com.oracle.bmc.objectstorage.requests.PutObjectRequest;
+import com.oracle.bmc.objectstorage.requests.UploadPartRequest;
+import com.oracle.bmc.objectstorage.responses.CommitMultipartUploadResponse;
+import com.oracle.bmc.objectstorage.responses.UploadPartResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.server.ResponseStatusException;
+import techthor.ocimonitor.config.ObjectStorageNamespace;
+import techthor.ocimonitor.dto.UploadResult;
+import techthor.ocimonitor.resilience.OciUnavailableException;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Streams an upload into Object Storage as concurrent multipart upload parts.
+ * <p>
+ * The request body is read in fixed-size parts. Each part is uploaded with its own
+ * {@code UploadPart} call while the next part is read, and the parts are committed in order
+ * once all have finished. At most {@code concurrency} part buffers exist per upload: reading
+ * the next part waits until an uploaded part returns its buffer, so heap use per upload is
+ * {@code concurrency × partSize} whatever the object size, and a slow client simply feeds
+ * fewer parts in flight.
+ * <p>
+ * Part uploads are not idempotent from the resilience layer's point of view, so it does not
+ * retry them; this class retries failed parts itself from the buffer it still holds, waiting at
+ * least the suggested Retry-After when the resilience layer rejects a part. Every part
+ * carries its Content-MD5, so OCI rejects corrupted parts. If a part, the commit or reading the
+ * body fails, the multipart upload is aborted so no uncommitted parts are left behind. A body
+ * that fits into a single part is written with one {@code PutObject} call instead.
+ */
+@Component
+public class ParallelObjectUploader {
+
+    // Object Storage limit on parts per multipart upload
+    private static final int MAX_PARTS = 10_000;
+
+    private final ObjectStorage objectStorageClient;
+    private final ObjectStorageNamespace objectStorageNamespace;
+    private final int partSize;
+    private final int concurrency;
+    private final int maxRetries;
+    private final Counter bytesUploaded;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    /**
+     * @param objectStorageClient    OCI Object Storage client
+     * @param objectStorageNamespace cached namespace of the tenancy
+     * @param partSize               size of each part (at most 2 GB); objects up to this size use a single PutObject
+     * @param concurrency            maximum number of parts uploaded, and buffered, at once per upload
+     * @param maxRetries             retries per part before the upload fails
+     * @param meterRegistry          registry for the uploaded-bytes counter
+     */
+    public ParallelObjectUploader(ObjectStorage objectStorageClient,
+                                  ObjectStorageNamespace objectStorageNamespace,
+                                  @Value("${oci.storage.upload.part-size:16MB}") DataSize partSize,
+                                  @Value("${oci.storage.upload.concurrency:4}") int concurrency,
+                                  @Value("${oci.storage.upload.max-retries:3}") int maxRetries,
+                                  MeterRegistry meterRegistry) {
+        this.objectStorageClient = objectStorageClient;
+        this.objectStorageNamespace = objectStorageNamespace;
+        this.partSize = (int) Math.min(Integer.MAX_VALUE - 8, partSize.toBytes());
+        this.concurrency = Math.max(1, concurrency);
+        this.maxRetries = maxRetries;
+        this.bytesUploaded = Counter.builder("oci.storage.bytes")
+                .description("Object bytes transferred to or from Object Storage, by transfer kind")
+                .baseUnit("bytes")
+                .tag("transfer", "upload")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Uploads a stream as an object, replacing an existing object of the same name.
+     *
+     * @param bucketName  target bucket
+     * @param objectName  object name
+     * @param contentType content type stored with the object, or null
+     * @param body        object content; read to the end but not closed
+     * @return upload statistics
+     * @throws ResponseStatusException 413 if the body needs more than {@value #MAX_PARTS} parts
+     */
+    public UploadResult upload(String bucketName, String objectName, String contentType, InputStream body)
+            throws IOException {
+        long start = System.nanoTime();
+        String namespace = objectStorageNamespace.get();
+
+        byte[] first = new byte[partSize];
+        int firstLength = body.readNBytes(first, 0, partSize);
+        if (firstLength < partSize) {
+            String etag = objectStorageClient.putObject(PutObjectRequest.builder()
+                    .namespaceName(namespace)
+                    .bucketName(bucketName)
+                    .objectName(objectName)
+                    .contentType(contentType)
+                    .contentLength((long) firstLength)
+                    .contentMD5(md5Base64(first, firstLength))
+                    .putObjectBody(new ByteArrayInputStream(first, 0, firstLength))
+                    .build()).getETag();
+            bytesUploaded.increment(firstLength);
+            return new UploadResult(bucketName, objectName, firstLength, 1, false, 0,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), etag);
+        }
+
+        String uploadId = objectStorageClient.createMultipartUpload(CreateMultipartUploadRequest.builder()
+                .namespaceName(namespace)
+                .bucketName(bucketName)
+                .createMultipartUploadDetails(CreateMultipartUploadDetails.builder()
+                        .object(objectName)
+                        .contentType(contentType)
+                        .build())
+                .build()).getMultipartUpload().getUploadId();
+
+        BlockingQueue<byte[]> freeBuffers = new ArrayBlockingQueue<>(concurrency);
+        List<Future<CommitMultipartUploadPartDetails>> parts = new ArrayList<>();
+        AtomicBoolean failed = new AtomicBoolean();
+        AtomicInteger retries = new AtomicInteger();
+        try {
+            int allocated = 1;
+            byte[] buffer = first;
+            int length = firstLength;
+            long size = 0;
+            while (length > 0) {
+                if (parts.size() == MAX_PARTS) {
+                    throw new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE, "Object exceeds " + MAX_PARTS
+                            + " parts of " + partSize + " bytes; raise oci.storage.upload.part-size");
+                }
+                int partNum = parts.size() + 1;
+                byte[] partBuffer = buffer;
+                int partLength = length;
+                parts.add(executor.submit(() -> {
+                    try {
+                        return uploadPartWithRetries(namespace, bucketName, objectName, uploadId, partNum,
+                                partBuffer, partLength, retries);
+                    } catch (Exception e) {
+                        failed.set(true);
+                        throw e;
+                    } finally {
+                        freeBuffers.add(partBuffer);
+                    }
+                }));
+                size += length;
+
+                // Wait for a free buffer once the pool is exhausted; a failed part also returns its buffer
+                if (allocated < concurrency) {
+                    buffer = new byte[partSize];
+                    allocated++;
+                } else {
+                    buffer = freeBuffers.take();
+                }
+                if (failed.get()) {
+                    break;
+                }
+                length = body.readNBytes(buffer, 0, partSize);
+            }
+
+            List<CommitMultipartUploadPartDetails> committed = awaitAll(parts);
+            CommitMultipartUploadResponse response = objectStorageClient.commitMultipartUpload(
+                    CommitMultipartUploadRequest.builder()
+                            .namespaceName(namespace)
+                            .bucketName(bucketName)
+                            .objectName(objectName)
+                            .uploadId(uploadId)
+                            .commitMultipartUploadDetails(CommitMultipartUploadDetails.builder()
+                                    .partsToCommit(committed)
+                                    .build())
+                            .build());
+            return new UploadResult(bucketName, objectName, size, committed.size(), true, retries.get(),
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), response.getETag());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            abort(namespace, bucketName, objectName, uploadId, parts);
+            throw new IOException("Upload interrupted", e);
+        } catch (IOException | RuntimeException e) {
+            abort(namespace, bucketName, objectName, uploadId, parts);
+            throw e;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private CommitMultipartUploadPartDetails uploadPartWithRetries(String namespace, String bucketName,
+                                                                   String objectName, String uploadId, int partNum,
+                                                                   byte[] buffer, int length, AtomicInteger retries)
+            throws InterruptedException {
+        String md5 = md5Base64(buffer, length);
+        for (int attempt = 0; ; attempt++) {
+            try {
+                UploadPartResponse response = objectStorageClient.uploadPart(UploadPartRequest.builder()
+                        .namespaceName(namespace)
+                        .bucketName(bucketName)
+                        .objectName(objectName)
+                        .uploadId(uploadId)
+                        .uploadPartNum(partNum)
+                        .contentLength((long) length)
+                        .contentMD5(md5)
+                        .uploadPartBody(new ByteArrayInputStream(buffer, 0, length))
+                        .build());
+                bytesUploaded.increment(length);
+                return CommitMultipartUploadPartDetails.builder()
+                        .partNum(partNum)
+                        .etag(response.getETag())
+                        .build();
+            } catch (BmcException e) {
+                // Other 4xx (bad MD5, upload gone, no permission) fail the same way on every attempt
+                boolean retryable = e.getStatusCode() == 429 || e.getStatusCode() >= 500 || e.getStatusCode() <= 0;
+                if (!retryable || attempt >= maxRetries) {
+                    throw e;
+                }
+                retries.incrementAndGet();
+                Thread.sleep(100L << attempt);
+            } catch (OciUnavailableException e) {
+                // Open circuit, full bulkhead or no rate-limit token: the part was not sent, so wait as suggested
+                if (attempt >= maxRetries) {
+                    throw e;
+                }
+                retries.incrementAndGet();
+                Thread.sleep(Math.max(e.getRetryAfterMillis(), 100L << attempt));
+            }
+        }
+    }
+
+    /**
+     * Cancels the remaining parts and aborts the multipart upload. Abort failures are logged;
+     * OCI lifecycle rules can still clean up uncommitted uploads.
+     */
+    private void abort(String namespace, String bucketName, String objectName, String uploadId,
+                       List<Future<CommitMultipartUploadPartDetails>> parts) {
+        parts.forEach(part -> part.cancel(true));
+        try {
+            objectStorageClient.abortMultipartUpload(AbortMultipartUploadRequest.builder()
+                    .namespaceName(namespace)
+                    .bucketName(bucketName)
+                    .objectName(objectName)
+                    .uploadId(uploadId)
+                    .build());
+        } catch (RuntimeException e) {
+            System.err.println("Failed to abort multipart upload " + uploadId + " of " + objectName + ": " + e.getMessage());
+        }
+    }
+
+    private static List<CommitMultipartUploadPartDetails> awaitAll(List<Future<CommitMultipartUploadPartDetails>> parts)
+            throws IOException, InterruptedException {
+        List<CommitMultipartUploadPartDetails> committed = new ArrayList<>(parts.size());
+        try {
+            for (Future<CommitMultipartUploadPartDetails> part : parts) {
+                committed.add(part.get());
+            }
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException re) {
+                throw re;
+            }
+            throw new IOException("Part upload failed", cause);
+        }
+        return committed;
+    }
+
+    private static String md5Base64(byte[] buffer, int length) {
+        try {
+            MessageDigest md5 = MessageDigest.getInstance("MD5");
+            md5.update(buffer, 0, length);
+            return Base64.getEncoder().encodeToString(md5.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
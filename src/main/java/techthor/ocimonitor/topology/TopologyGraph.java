@@ -0,0 +1,616 @@
+package techthor.ocimonitor.topology;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory adjacency graph of the network topology.
+ * <p>
+ * Every node gets a compact integer ID when it first appears, and adjacency is kept per node
+ * as int arrays of outgoing and incoming edges, so traversals touch primitive arrays only and
+ * the OCID is looked up once per query. Edges point from the containing or referencing
+ * resource to the contained or referenced one: VCN → subnet, route table and security list;
+ * subnet → route table, security list and VNIC; route table → route target; VNIC → instance.
+ * <p>
+ * {@link #apply} replaces the content with a new snapshot by changing only what differs:
+ * removed nodes release their ID and edges, changed nodes are replaced in place, and only
+ * added or removed edges touch the adjacency arrays. Unchanged nodes keep their ID. Queries
+ * hold the read lock and run concurrently; {@link #apply} holds the write lock.
+ */
+public final class TopologyGraph {
+
+    private static final int INITIAL_CAPACITY = 64;
+    private static final int[] NO_EDGES = new int[0];
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Integer> ids = new HashMap<>();
+    private final Set<Long> edges = new HashSet<>();
+    private TopologyNode[] nodes = new TopologyNode[INITIAL_CAPACITY];
+    private int[][] out = new int[INITIAL_CAPACITY][];
+    private int[] outDegree = new int[INITIAL_CAPACITY];
+    private int[][] in = new int[INITIAL_CAPACITY][];
+    private int[] inDegree = new int[INITIAL_CAPACITY];
+    // First IPv4 block of VCNs and subnets as [start, end]; start > end if there is none
+    private long[] rangeStart = new long[INITIAL_CAPACITY];
+    private long[] rangeEnd = new long[INITIAL_CAPACITY];
+    private int[] freeIds = new int[16];
+    private int freeCount;
+    private int highWater; // highest ID ever assigned + 1
+    private long version;
+
+    /**
+     * An edge between two nodes, by OCID.
+     */
+    public record Edge(String from, String to) {
+    }
+
+    /**
+     * Result of {@link #apply}: what differed between the graph and the snapshot.
+     */
+    public record Changes(int nodesAdded, int nodesChanged, int nodesRemoved, int edgesAdded, int edgesRemoved) {
+
+        public boolean isEmpty() {
+            return nodesAdded + nodesChanged + nodesRemoved + edgesAdded + edgesRemoved == 0;
+        }
+    }
+
+    /**
+     * Nodes around a center node and the edges between them.
+     *
+     * @param nodes     nodes in breadth-first order, center first
+     * @param edges     edges whose both ends are in {@code nodes}
+     * @param truncated whether the node limit cut the neighbourhood short
+     */
+    public record Subgraph(List<TopologyNode> nodes, List<Edge> edges, boolean truncated) {
+    }
+
+    /**
+     * Sources that the security lists of an instance's subnets admit.
+     *
+     * @param instance the instance
+     * @param subnets  subnets of the instance's VNICs
+     * @param sources  admitted sources, one per matching rule and source
+     */
+    public record Reachability(TopologyNode instance, List<TopologyNode> subnets, List<Source> sources) {
+    }
+
+    /**
+     * A source admitted by an ingress rule.
+     *
+     * @param kind           {@code internet} (0.0.0.0/0 into a public subnet routed to an internet
+     *                       gateway), {@code subnet} (a subnet of the same VCN inside the rule's CIDR)
+     *                       or {@code cidr} (a range outside the VCN, e.g. on-premises)
+     * @param id             subnet OCID, or null
+     * @param name           subnet name, or null
+     * @param cidr           source CIDR of the rule
+     * @param protocol       protocol of the rule
+     * @param ports          destination ports of the rule
+     * @param securityListId security list holding the rule
+     */
+    public record Source(String kind, String id, String name, String cidr, String protocol, String ports,
+                         String securityListId) {
+    }
+
+    /**
+     * Makes the graph equal to the snapshot, changing only what differs.
+     *
+     * @param snapshot      all nodes; a node missing from it is removed
+     * @param snapshotEdges all edges; edges with an end missing from {@code snapshot} are ignored
+     * @return the applied differences
+     */
+    public Changes apply(Collection<TopologyNode> snapshot, Collection<Edge> snapshotEdges) {
+        Map<String, TopologyNode> incoming = new LinkedHashMap<>();
+        snapshot.forEach(node -> incoming.put(node.id(), node));
+
+        lock.writeLock().lock();
+        try {
+            int nodesAdded = 0;
+            int nodesChanged = 0;
+            int nodesRemoved = 0;
+            int edgesRemoved = 0;
+            // Removals first, so that their IDs are reused by the additions
+            for (Iterator<Map.Entry<String, Integer>> it = ids.entrySet().iterator(); it.hasNext(); ) {
+                Map.Entry<String, Integer> entry = it.next();
+                if (!incoming.containsKey(entry.getKey())) {
+                    edgesRemoved += removeNode(entry.getValue());
+                    it.remove();
+                    nodesRemoved++;
+                }
+            }
+            for (TopologyNode node : incoming.values()) {
+                Integer id = ids.get(node.id());
+                if (id == null) {
+                    id = allocate();
+                    ids.put(node.id(), id);
+                    setNode(id, node);
+                    nodesAdded++;
+                } else if (!nodes[id].equals(node)) {
+                    setNode(id, node);
+                    nodesChanged++;
+                }
+            }
+
+            Set<Long> target = new HashSet<>(snapshotEdges.size() * 2);
+            for (Edge edge : snapshotEdges) {
+                Integer from = ids.get(edge.from());
+                Integer to = ids.get(edge.to());
+                if (from != null && to != null && !from.equals(to)) {
+                    target.add(edgeKey(from, to));
+                }
+            }
+            for (Iterator<Long> it = edges.iterator(); it.hasNext(); ) {
+                long key = it.next();
+                if (!target.contains(key)) {
+                    unlink(edgeFrom(key), edgeTo(key));
+                    it.remove();
+                    edgesRemoved++;
+                }
+            }
+            int edgesAdded = 0;
+            for (long key : target) {
+                if (edges.add(key)) {
+                    link(edgeFrom(key), edgeTo(key));
+                    edgesAdded++;
+                }
+            }
+
+            Changes changes = new Changes(nodesAdded, nodesChanged, nodesRemoved, edgesAdded, edgesRemoved);
+            if (!changes.isEmpty()) {
+                version++;
+            }
+            return changes;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return the node with the given OCID, or null
+     */
+    public TopologyNode node(String id) {
+        lock.readLock().lock();
+        try {
+            Integer node = ids.get(id);
+            return node == null ? null : nodes[node];
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @param kind  kind to list, or null for all
+     * @param limit maximum nodes to return
+     * @return nodes sorted by kind and name
+     */
+    public List<TopologyNode> nodes(TopologyNode.Kind kind, int limit) {
+        List<TopologyNode> result = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            for (int id = 0; id < highWater; id++) {
+                if (nodes[id] != null && (kind == null || nodes[id].kind() == kind)) {
+                    result.add(nodes[id]);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        result.sort(Comparator.comparing(TopologyNode::kind)
+                .thenComparing(node -> String.valueOf(node.name()))
+                .thenComparing(TopologyNode::id));
+        return result.size() > limit ? List.copyOf(result.subList(0, Math.max(0, limit))) : result;
+    }
+
+    /**
+     * Breadth-first neighbourhood of a node, following edges in both directions.
+     *
+     * @param id       OCID of the center node
+     * @param depth    maximum number of hops from the center
+     * @param maxNodes maximum number of nodes returned
+     * @return the neighbourhood, or null if the node is unknown
+     */
+    public Subgraph neighbourhood(String id, int depth, int maxNodes) {
+        lock.readLock().lock();
+        try {
+            Integer start = ids.get(id);
+            if (start == null) {
+                return null;
+            }
+            BitSet seen = new BitSet(highWater);
+            int[] queue = new int[Math.max(1, maxNodes)];
+            int head = 0;
+            int tail = 0;
+            queue[tail++] = start;
+            seen.set(start);
+            boolean truncated = false;
+            for (int level = 0; level < depth && head < tail; level++) {
+                int levelEnd = tail;
+                while (head < levelEnd) {
+                    int node = queue[head++];
+                    for (int pass = 0; pass < 2; pass++) {
+                        int[] adjacent = pass == 0 ? out[node] : in[node];
+                        int degree = pass == 0 ? outDegree[node] : inDegree[node];
+                        for (int i = 0; i < degree; i++) {
+                            int next = adjacent[i];
+                            if (seen.get(next)) {
+                                continue;
+                            }
+                            if (tail == queue.length) {
+                                truncated = true;
+                                continue;
+                            }
+                            seen.set(next);
+                            queue[tail++] = next;
+                        }
+                    }
+                }
+            }
+
+            List<TopologyNode> subgraphNodes = new ArrayList<>(tail);
+            List<Edge> subgraphEdges = new ArrayList<>();
+            for (int i = 0; i < tail; i++) {
+                int node = queue[i];
+                subgraphNodes.add(nodes[node]);
+                for (int j = 0; j < outDegree[node]; j++) {
+                    int to = out[node][j];
+                    if (seen.get(to)) {
+                        subgraphEdges.add(new Edge(nodes[node].id(), nodes[to].id()));
+                    }
+                }
+            }
+            return new Subgraph(subgraphNodes, subgraphEdges, truncated);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Shortest path between two nodes, following edges in both directions.
+     *
+     * @return nodes from {@code from} to {@code to}; empty if they are not connected; null if
+     *         either node is unknown
+     */
+    public List<TopologyNode> path(String from, String to) {
+        lock.readLock().lock();
+        try {
+            Integer source = ids.get(from);
+            Integer target = ids.get(to);
+            if (source == null || target == null) {
+                return null;
+            }
+            int[] parent = new int[highWater];
+            Arrays.fill(parent, -1);
+            parent[source] = source;
+            int[] queue = new int[highWater];
+            int head = 0;
+            int tail = 0;
+            queue[tail++] = source;
+            while (head < tail && parent[target] < 0) {
+                int node = queue[head++];
+                for (int pass = 0; pass < 2; pass++) {
+                    int[] adjacent = pass == 0 ? out[node] : in[node];
+                    int degree = pass == 0 ? outDegree[node] : inDegree[node];
+                    for (int i = 0; i < degree; i++) {
+                        int next = adjacent[i];
+                        if (parent[next] < 0) {
+                            parent[next] = node;
+                            queue[tail++] = next;
+                        }
+                    }
+                }
+            }
+            if (parent[target] < 0) {
+                return List.of();
+            }
+            List<TopologyNode> path = new ArrayList<>();
+            for (int node = target; node != source; node = parent[node]) {
+                path.add(nodes[node]);
+            }
+            path.add(nodes[source]);
+            return path.reversed();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * What can reach an instance according to the security lists of its subnets.
+     * <p>
+     * Every ingress rule of every security list of a subnet the instance has a VNIC in is
+     * matched against the subnets of the same VCN (a subnet is a source if its CIDR lies
+     * inside the rule's CIDR). A rule for 0.0.0.0/0 also admits the internet if the subnet
+     * allows public IPs and its route table has a route to an internet gateway; whether the
+     * instance actually has a public IP is not part of the graph. Rules whose CIDR covers no
+     * subnet of the VCN are reported as external ranges. Network security groups and
+     * stateless rule details are not modelled.
+     *
+     * @param instanceId instance OCID
+     * @return the admitted sources, or null if the instance is unknown
+     */
+    public Reachability reachability(String instanceId) {
+        lock.readLock().lock();
+        try {
+            Integer instance = ids.get(instanceId);
+            if (instance == null || nodes[instance].kind() != TopologyNode.Kind.INSTANCE) {
+                return null;
+            }
+            Set<Integer> subnets = new LinkedHashSet<>();
+            for (int i = 0; i < inDegree[instance]; i++) {
+                int vnic = in[instance][i];
+                for (int j = 0; j < inDegree[vnic]; j++) {
+                    if (nodes[in[vnic][j]].kind() == TopologyNode.Kind.SUBNET) {
+                        subnets.add(in[vnic][j]);
+                    }
+                }
+            }
+
+            Set<Source> sources = new LinkedHashSet<>();
+            for (int subnet : subnets) {
+                List<Integer> vcnSubnets = new ArrayList<>();
+                for (int i = 0; i < inDegree[subnet]; i++) {
+                    int vcn = in[subnet][i];
+                    if (nodes[vcn].kind() == TopologyNode.Kind.VCN) {
+                        for (int j = 0; j < outDegree[vcn]; j++) {
+                            if (nodes[out[vcn][j]].kind() == TopologyNode.Kind.SUBNET) {
+                                vcnSubnets.add(out[vcn][j]);
+                            }
+                        }
+                    }
+                }
+                boolean internetRoute = routesToInternet(subnet);
+
+                for (int i = 0; i < outDegree[subnet]; i++) {
+                    TopologyNode securityList = nodes[out[subnet][i]];
+                    if (securityList.kind() != TopologyNode.Kind.SECURITY_LIST) {
+                        continue;
+                    }
+                    for (TopologyNode.Rule rule : securityList.rules()) {
+                        long[] range = Cidr.parse(rule.cidr());
+                        boolean anywhere = range != null && range[0] == 0 && range[1] == Cidr.MAX;
+                        if (anywhere && internetRoute && nodes[subnet].publicIps()) {
+                            sources.add(new Source("internet", null, null, rule.cidr(), rule.protocol(), rule.ports(),
+                                    securityList.id()));
+                        }
+                        boolean matched = false;
+                        for (int candidate : vcnSubnets) {
+                            if (range != null && rangeStart[candidate] <= rangeEnd[candidate]
+                                    && range[0] <= rangeStart[candidate] && rangeEnd[candidate] <= range[1]) {
+                                TopologyNode source = nodes[candidate];
+                                sources.add(new Source("subnet", source.id(), source.name(), rule.cidr(),
+                                        rule.protocol(), rule.ports(), securityList.id()));
+                                matched = true;
+                            }
+                        }
+                        if (!matched && !anywhere) {
+                            sources.add(new Source("cidr", null, null, rule.cidr(), rule.protocol(), rule.ports(),
+                                    securityList.id()));
+                        }
+                    }
+                }
+            }
+            return new Reachability(nodes[instance], subnets.stream().map(id -> nodes[id]).toList(),
+                    List.copyOf(sources));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return number of nodes per kind, the edge count and the version
+     */
+    public Map<String, Object> stats() {
+        lock.readLock().lock();
+        try {
+            Map<String, Integer> kinds = new TreeMap<>();
+            for (int id = 0; id < highWater; id++) {
+                if (nodes[id] != null) {
+                    kinds.merge(nodes[id].kind().name(), 1, Integer::sum);
+                }
+            }
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("nodes", ids.size());
+            stats.put("edges", edges.size());
+            stats.put("kinds", kinds);
+            stats.put("version", version);
+            return stats;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return ids.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return counter incremented by every {@link #apply} that changed the graph
+     */
+    public long version() {
+        lock.readLock().lock();
+        try {
+            return version;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Whether a route table of the subnet has a rule targeting an internet gateway
+    private boolean routesToInternet(int subnet) {
+        for (int i = 0; i < outDegree[subnet]; i++) {
+            TopologyNode routeTable = nodes[out[subnet][i]];
+            if (routeTable.kind() == TopologyNode.Kind.ROUTE_TABLE) {
+                for (TopologyNode.Rule rule : routeTable.rules()) {
+                    if ("internetgateway".equals(ocidType(rule.target()))) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return the resource type of an OCID ({@code ocid1.<type>.…}), or null
+     */
+    static String ocidType(String ocid) {
+        if (ocid == null || !ocid.startsWith("ocid1.")) {
+            return null;
+        }
+        int end = ocid.indexOf('.', 6);
+        return end < 0 ? null : ocid.substring(6, end);
+    }
+
+    private void setNode(int id, TopologyNode node) {
+        nodes[id] = node;
+        long[] range = node.cidrs().isEmpty() ? null : Cidr.parse(node.cidrs().get(0));
+        rangeStart[id] = range != null ? range[0] : 1;
+        rangeEnd[id] = range != null ? range[1] : 0;
+    }
+
+    private int allocate() {
+        if (freeCount > 0) {
+            return freeIds[--freeCount];
+        }
+        if (highWater == nodes.length) {
+            int capacity = nodes.length * 2;
+            nodes = Arrays.copyOf(nodes, capacity);
+            out = Arrays.copyOf(out, capacity);
+            outDegree = Arrays.copyOf(outDegree, capacity);
+            in = Arrays.copyOf(in, capacity);
+            inDegree = Arrays.copyOf(inDegree, capacity);
+            rangeStart = Arrays.copyOf(rangeStart, capacity);
+            rangeEnd = Arrays.copyOf(rangeEnd, capacity);
+        }
+        return highWater++;
+    }
+
+    /**
+     * Removes a node and its edges and releases its ID.
+     *
+     * @return number of edges removed
+     */
+    private int removeNode(int id) {
+        int removed = 0;
+        while (outDegree[id] > 0) {
+            int to = out[id][outDegree[id] - 1];
+            unlink(id, to);
+            edges.remove(edgeKey(id, to));
+            removed++;
+        }
+        while (inDegree[id] > 0) {
+            int from = in[id][inDegree[id] - 1];
+            unlink(from, id);
+            edges.remove(edgeKey(from, id));
+            removed++;
+        }
+        nodes[id] = null;
+        out[id] = null;
+        in[id] = null;
+        if (freeCount == freeIds.length) {
+            freeIds = Arrays.copyOf(freeIds, freeCount * 2);
+        }
+        freeIds[freeCount++] = id;
+        return removed;
+    }
+
+    private void link(int from, int to) {
+        out[from] = append(out[from], outDegree[from]++, to);
+        in[to] = append(in[to], inDegree[to]++, from);
+    }
+
+    private void unlink(int from, int to) {
+        outDegree[from] = remove(out[from], outDegree[from], to);
+        inDegree[to] = remove(in[to], inDegree[to], from);
+    }
+
+    private static int[] append(int[] adjacent, int degree, int value) {
+        int[] result = adjacent == null ? NO_EDGES : adjacent;
+        if (degree == result.length) {
+            result = Arrays.copyOf(result, Math.max(4, degree * 2));
+        }
+        result[degree] = value;
+        return result;
+    }
+
+    // Swap-removes a value; the order of adjacency lists carries no meaning
+    private static int remove(int[] adjacent, int degree, int value) {
+        for (int i = 0; i < degree; i++) {
+            if (adjacent[i] == value) {
+                adjacent[i] = adjacent[degree - 1];
+                return degree - 1;
+            }
+        }
+        return degree;
+    }
+
+    private static long edgeKey(int from, int to) {
+        return (long) from << 32 | (to & 0xffffffffL);
+    }
+
+    private static int edgeFrom(long key) {
+        return (int) (key >>> 32);
+    }
+
+    private static int edgeTo(long key) {
+        return (int) key;
+    }
+
+    /**
+     * IPv4 CIDR blocks as address ranges.
+     */
+    static final class Cidr {
+        static final long MAX = 0xffffffffL;
+
+        private Cidr() {
+        }
+
+        /**
+         * @return first and last address of an IPv4 CIDR block, or null for anything else
+         */
+        static long[] parse(String cidr) {
+            if (cidr == null) {
+                return null;
+            }
+            int slash = cidr.indexOf('/');
+            String[] octets = (slash < 0 ? cidr : cidr.substring(0, slash)).split("\\.");
+            if (octets.length != 4) {
+                return null;
+            }
+            try {
+                long address = 0;
+                for (String octet : octets) {
+                    int value = Integer.parseInt(octet);
+                    if (value < 0 || value > 255) {
+                        return null;
+                    }
+                    address = address << 8 | value;
+                }
+                int prefix = slash < 0 ? 32 : Integer.parseInt(cidr.substring(slash + 1));
+                if (prefix < 0 || prefix > 32) {
+                    return null;
+                }
+                long mask = prefix == 0 ? 0 : (MAX << (32 - prefix)) & MAX;
+                return new long[]{address & mask, (address & mask) | (~mask & MAX)};
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+    }
+}
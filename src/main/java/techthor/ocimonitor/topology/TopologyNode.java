@@ -0,0 +1,42 @@
+package techthor.ocimonitor.topology;
+
+import java.util.List;
+
+/**
+ * A node of the network topology: a VCN, subnet, route table, security list, route target
+ * (gateway), VNIC or compute instance. Nodes are records, so a refresh can tell a changed
+ * node from an unchanged one by equality.
+ *
+ * @param id        OCID
+ * @param kind      node kind
+ * @param name      display name; for gateways the resource type taken from the OCID
+ * @param state     lifecycle state, e.g. {@code AVAILABLE} or {@code RUNNING}; null for gateways and VNICs
+ * @param cidrs     CIDR blocks of VCNs and subnets; empty for other kinds
+ * @param publicIps for subnets, whether VNICs in the subnet may have public IPs; false for other kinds
+ * @param rules     ingress rules of security lists and route rules of route tables; empty for other kinds
+ */
+public record TopologyNode(String id,
+                           Kind kind,
+                           String name,
+                           String state,
+                           List<String> cidrs,
+                           boolean publicIps,
+                           List<Rule> rules) {
+
+    public enum Kind {
+        VCN, SUBNET, ROUTE_TABLE, SECURITY_LIST, GATEWAY, VNIC, INSTANCE
+    }
+
+    /**
+     * A security list ingress rule or a route rule.
+     *
+     * @param cidr     source CIDR (ingress) or destination CIDR (route)
+     * @param protocol {@code all}, {@code tcp}, {@code udp}, {@code icmp}, {@code icmpv6} or the
+     *                 protocol number (ingress); null for routes
+     * @param ports    destination port or range, e.g. {@code 22} or {@code 8000-8080}; {@code all}
+     *                 if unrestricted (ingress); null for routes
+     * @param target   OCID of the route target (route); null for ingress rules
+     */
+    public record Rule(String cidr, String protocol, String ports, String target) {
+    }
+}
@@ -0,0 +1,303 @@
+package techthor.ocimonitor.topology;
+
+import com.oracle.bmc.core.Compute;
+import com.oracle.bmc.core.VirtualNetwork;
+import com.oracle.bmc.core.model.IngressSecurityRule;
+import com.oracle.bmc.core.model.Instance;
+import com.oracle.bmc.core.model.PortRange;
+import com.oracle.bmc.core.model.RouteRule;
+import com.oracle.bmc.core.model.RouteTable;
+import com.oracle.bmc.core.model.SecurityList;
+import com.oracle.bmc.core.model.Subnet;
+import com.oracle.bmc.core.model.Vcn;
+import com.oracle.bmc.core.model.VnicAttachment;
+import com.oracle.bmc.core.requests.ListInstancesRequest;
+import com.oracle.bmc.core.requests.ListRouteTablesRequest;
+import com.oracle.bmc.core.requests.ListSecurityListsRequest;
+import com.oracle.bmc.core.requests.ListSubnetsRequest;
+import com.oracle.bmc.core.requests.ListVcnsRequest;
+import com.oracle.bmc.core.requests.ListVnicAttachmentsRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Loads the network topology of the configured compartment into a {@link TopologyGraph}
+ * and keeps it current.
+ * <p>
+ * A refresh lists VCNs, subnets, route tables, security lists, VNIC attachments and
+ * instances of the whole compartment, each as one paginated listing, all six concurrently on
+ * virtual threads. The number of calls therefore does not grow with the number of VCNs or
+ * instances. The listings are turned into a snapshot of nodes and edges, which the graph
+ * applies as a difference, so a refresh that finds nothing new changes nothing and queries
+ * keep running against unchanged node IDs. A refresh only applies a complete snapshot: if
+ * any listing fails, the graph keeps its previous content.
+ */
+@Component
+public class TopologyService {
+
+    private final String compartmentOcid;
+    private final VirtualNetwork virtualNetworkClient;
+    private final Compute computeClient;
+    private final boolean enabled;
+
+    private final TopologyGraph graph = new TopologyGraph();
+    private final ReentrantLock refreshLock = new ReentrantLock();
+    private volatile boolean loaded;
+    private volatile Map<String, Object> lastRefresh = Map.of("status", "NOT_RUN");
+
+    /**
+     * @param compartmentOcid      compartment whose network is loaded
+     * @param virtualNetworkClient shared OCI VirtualNetwork client
+     * @param computeClient        shared OCI Compute client
+     * @param enabled              whether the scheduled refresh runs
+     */
+    public TopologyService(@Value("${oci.compartment.ocid}") String compartmentOcid,
+                           VirtualNetwork virtualNetworkClient,
+                           Compute computeClient,
+                           @Value("${oci.topology.enabled:true}") boolean enabled) {
+        this.compartmentOcid = compartmentOcid;
+        this.virtualNetworkClient = virtualNetworkClient;
+        this.computeClient = computeClient;
+        this.enabled = enabled;
+    }
+
+    /**
+     * Periodic refresh.
+     */
+    @Scheduled(fixedDelayString = "${oci.topology.interval-ms:300000}",
+            initialDelayString = "${oci.topology.initial-delay-ms:20000}")
+    public void scheduledRefresh() {
+        if (enabled) {
+            refresh();
+        }
+    }
+
+    /**
+     * The topology graph, loaded on first use if no refresh has completed yet.
+     */
+    public TopologyGraph graph() {
+        if (!loaded) {
+            refreshLock.lock();
+            try {
+                if (!loaded) {
+                    lastRefresh = runRefreshLogged();
+                }
+            } finally {
+                refreshLock.unlock();
+            }
+        }
+        return graph;
+    }
+
+    /**
+     * Reloads the topology and applies the differences. If a refresh is already running,
+     * returns the status of the previous refresh without starting another.
+     *
+     * @return status of the refresh: duration, listed resources and applied changes
+     */
+    public Map<String, Object> refresh() {
+        if (!refreshLock.tryLock()) {
+            return status();
+        }
+        try {
+            lastRefresh = runRefreshLogged();
+            return lastRefresh;
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    /**
+     * @return status of the last refresh, the graph size and whether a refresh is running
+     */
+    public Map<String, Object> status() {
+        Map<String, Object> status = new LinkedHashMap<>(lastRefresh);
+        status.put("graph", graph.stats());
+        status.put("running", refreshLock.isLocked());
+        return status;
+    }
+
+    private Map<String, Object> runRefreshLogged() {
+        try {
+            return runRefresh();
+        } catch (RuntimeException e) {
+            System.err.println("Topology refresh failed: " + e.getMessage());
+            Map<String, Object> failed = new LinkedHashMap<>(lastRefresh);
+            failed.put("status", "FAILED");
+            failed.put("error", String.valueOf(e.getMessage()));
+            return failed;
+        }
+    }
+
+    private Map<String, Object> runRefresh() {
+        long start = System.nanoTime();
+        List<Vcn> vcns = new ArrayList<>();
+        List<Subnet> subnets = new ArrayList<>();
+        List<RouteTable> routeTables = new ArrayList<>();
+        List<SecurityList> securityLists = new ArrayList<>();
+        List<VnicAttachment> attachments = new ArrayList<>();
+        List<Instance> instances = new ArrayList<>();
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> listings = List.of(
+                    executor.submit(() -> virtualNetworkClient.getPaginators().listVcnsRecordIterator(
+                            ListVcnsRequest.builder().compartmentId(compartmentOcid).build()).forEach(vcns::add)),
+                    executor.submit(() -> virtualNetworkClient.getPaginators().listSubnetsRecordIterator(
+                            ListSubnetsRequest.builder().compartmentId(compartmentOcid).build()).forEach(subnets::add)),
+                    executor.submit(() -> virtualNetworkClient.getPaginators().listRouteTablesRecordIterator(
+                            ListRouteTablesRequest.builder().compartmentId(compartmentOcid).build()).forEach(routeTables::add)),
+                    executor.submit(() -> virtualNetworkClient.getPaginators().listSecurityListsRecordIterator(
+                            ListSecurityListsRequest.builder().compartmentId(compartmentOcid).build()).forEach(securityLists::add)),
+                    executor.submit(() -> computeClient.getPaginators().listVnicAttachmentsRecordIterator(
+                            ListVnicAttachmentsRequest.builder().compartmentId(compartmentOcid).build()).forEach(attachments::add)),
+                    executor.submit(() -> computeClient.getPaginators().listInstancesRecordIterator(
+                            ListInstancesRequest.builder().compartmentId(compartmentOcid).build()).forEach(instances::add)));
+            for (Future<?> listing : listings) {
+                listing.get();
+            }
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while loading the topology", e);
+        }
+
+        Snapshot snapshot = new Snapshot();
+        vcns.forEach(vcn -> snapshot.node(new TopologyNode(vcn.getId(), TopologyNode.Kind.VCN, vcn.getDisplayName(),
+                state(vcn.getLifecycleState(), Vcn.LifecycleState::getValue), cidrs(vcn.getCidrBlocks()), false, List.of())));
+        subnets.forEach(subnet -> {
+            snapshot.node(new TopologyNode(subnet.getId(), TopologyNode.Kind.SUBNET, subnet.getDisplayName(),
+                    state(subnet.getLifecycleState(), Subnet.LifecycleState::getValue),
+                    subnet.getCidrBlock() != null ? List.of(subnet.getCidrBlock()) : List.of(),
+                    !Boolean.TRUE.equals(subnet.getProhibitPublicIpOnVnic()), List.of()));
+            snapshot.edge(subnet.getVcnId(), subnet.getId());
+            snapshot.edge(subnet.getId(), subnet.getRouteTableId());
+            if (subnet.getSecurityListIds() != null) {
+                subnet.getSecurityListIds().forEach(securityListId -> snapshot.edge(subnet.getId(), securityListId));
+            }
+        });
+        routeTables.forEach(routeTable -> {
+            List<TopologyNode.Rule> rules = new ArrayList<>();
+            if (routeTable.getRouteRules() != null) {
+                for (RouteRule rule : routeTable.getRouteRules()) {
+                    rules.add(new TopologyNode.Rule(rule.getDestination(), null, null, rule.getNetworkEntityId()));
+                    if (rule.getNetworkEntityId() != null) {
+                        snapshot.node(new TopologyNode(rule.getNetworkEntityId(), TopologyNode.Kind.GATEWAY,
+                                TopologyGraph.ocidType(rule.getNetworkEntityId()), null, List.of(), false, List.of()));
+                        snapshot.edge(routeTable.getId(), rule.getNetworkEntityId());
+                    }
+                }
+            }
+            snapshot.node(new TopologyNode(routeTable.getId(), TopologyNode.Kind.ROUTE_TABLE, routeTable.getDisplayName(),
+                    state(routeTable.getLifecycleState(), RouteTable.LifecycleState::getValue), List.of(), false,
+                    List.copyOf(rules)));
+            snapshot.edge(routeTable.getVcnId(), routeTable.getId());
+        });
+        securityLists.forEach(securityList -> {
+            List<TopologyNode.Rule> rules = new ArrayList<>();
+            if (securityList.getIngressSecurityRules() != null) {
+                securityList.getIngressSecurityRules().forEach(rule -> rules.add(ingressRule(rule)));
+            }
+            snapshot.node(new TopologyNode(securityList.getId(), TopologyNode.Kind.SECURITY_LIST,
+                    securityList.getDisplayName(),
+                    state(securityList.getLifecycleState(), SecurityList.LifecycleState::getValue), List.of(), false,
+                    List.copyOf(rules)));
+            snapshot.edge(securityList.getVcnId(), securityList.getId());
+        });
+        instances.forEach(instance -> {
+            if (instance.getLifecycleState() != Instance.LifecycleState.Terminated) {
+                snapshot.node(new TopologyNode(instance.getId(), TopologyNode.Kind.INSTANCE, instance.getDisplayName(),
+                        state(instance.getLifecycleState(), Instance.LifecycleState::getValue), List.of(), false, List.of()));
+            }
+        });
+        attachments.forEach(attachment -> {
+            if (attachment.getLifecycleState() == VnicAttachment.LifecycleState.Attached && attachment.getVnicId() != null) {
+                snapshot.node(new TopologyNode(attachment.getVnicId(), TopologyNode.Kind.VNIC,
+                        "nic" + (attachment.getNicIndex() != null ? attachment.getNicIndex() : 0), null, List.of(), false,
+                        List.of()));
+                snapshot.edge(attachment.getSubnetId(), attachment.getVnicId());
+                snapshot.edge(attachment.getVnicId(), attachment.getInstanceId());
+            }
+        });
+
+        TopologyGraph.Changes changes = graph.apply(snapshot.nodes.values(), snapshot.edges);
+        loaded = true;
+
+        Map<String, Object> listed = new LinkedHashMap<>();
+        listed.put("vcns", vcns.size());
+        listed.put("subnets", subnets.size());
+        listed.put("routeTables", routeTables.size());
+        listed.put("securityLists", securityLists.size());
+        listed.put("vnicAttachments", attachments.size());
+        listed.put("instances", instances.size());
+
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("status", "OK");
+        status.put("refreshedAt", System.currentTimeMillis());
+        status.put("durationMs", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        status.put("listed", listed);
+        status.put("changes", changes);
+        return status;
+    }
+
+    private static TopologyNode.Rule ingressRule(IngressSecurityRule rule) {
+        String protocol = switch (String.valueOf(rule.getProtocol())) {
+            case "all" -> "all";
+            case "1" -> "icmp";
+            case "6" -> "tcp";
+            case "17" -> "udp";
+            case "58" -> "icmpv6";
+            default -> rule.getProtocol();
+        };
+        PortRange ports = null;
+        if (protocol.equals("tcp") && rule.getTcpOptions() != null) {
+            ports = rule.getTcpOptions().getDestinationPortRange();
+        } else if (protocol.equals("udp") && rule.getUdpOptions() != null) {
+            ports = rule.getUdpOptions().getDestinationPortRange();
+        }
+        String portText = ports == null || ports.getMin() == null ? "all"
+                : ports.getMin().equals(ports.getMax()) || ports.getMax() == null ? String.valueOf(ports.getMin())
+                : ports.getMin() + "-" + ports.getMax();
+        return new TopologyNode.Rule(rule.getSource(), protocol, portText, null);
+    }
+
+    private static List<String> cidrs(List<String> cidrs) {
+        return cidrs != null ? List.copyOf(cidrs) : List.of();
+    }
+
+    private static <S> String state(S state, Function<S, String> value) {
+        return state != null ? value.apply(state) : null;
+    }
+
+    /**
+     * Nodes and edges of one refresh, before they are applied to the graph. Edges with a
+     * missing end are dropped by the graph.
+     */
+    private static final class Snapshot {
+        private final Map<String, TopologyNode> nodes = new LinkedHashMap<>();
+        private final List<TopologyGraph.Edge> edges = new ArrayList<>();
+
+        void node(TopologyNode node) {
+            nodes.put(node.id(), node);
+        }
+
+        void edge(String from, String to) {
+            if (from != null && to != null) {
+                edges.add(new TopologyGraph.Edge(from, to));
+            }
+        }
+    }
+}
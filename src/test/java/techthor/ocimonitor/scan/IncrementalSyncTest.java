@@ -0,0 +1,161 @@
+package techthor.ocimonitor.scan;
+
+import io.micrometer.observation.ObservationRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import techthor.ocimonitor.config.TenancyId;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * Drives {@link IncrementalSync} through {@link ReplayChangeFeed} with the canned events of
+ * {@code sync/replay-example.json}, on a clock the test advances.
+ */
+class IncrementalSyncTest {
+
+    private static final String VCN = "ocid1.vcn.oc1.eu-frankfurt-1.replay1";
+    private static final String INSTANCE = "ocid1.instance.oc1.eu-frankfurt-1.replay1";
+    private static final String POLICY = "ocid1.policy.oc1..replay1";
+
+    private final MutableClock clock = new MutableClock(Instant.parse("2026-01-01T00:00:00Z"));
+    private ChangeLog changeLog;
+    private TenancyScanner scanner;
+    private ReplayChangeFeed replay;
+
+    @BeforeEach
+    void setUp() {
+        changeLog = new ChangeLog(100);
+        // No scan runs in these tests, so the scanner needs no OCI clients
+        scanner = new TenancyScanner(null, null, TenancyId.of("ocid1.tenancy.oc1..test"), false, "eu-frankfurt-1", 1,
+                ObservationRegistry.NOOP, changeLog);
+        replay = new ReplayChangeFeed(new ClassPathResource("sync/replay-example.json"), clock);
+    }
+
+    @Test
+    void appliesReplayedChangesAndAdvancesTheWatermark() {
+        IncrementalSync sync = sync(replay);
+
+        clock.advance(Duration.ofSeconds(60));
+        Map<String, Object> first = sync.sync();
+        assertThat(first).containsEntry("status", "OK").containsEntry("hints", 2).containsEntry("changes", 2);
+        assertThat(sync.status()).containsEntry("watermark", clock.instant().toString());
+        assertThat(changes(0)).extracting(ChangeLog.Change::type, ChangeLog.Change::id, ChangeLog.Change::state)
+                .containsExactly(tuple("CREATED", VCN, "AVAILABLE"), tuple("CREATED", INSTANCE, "PROVISIONING"));
+
+        // The overlap reaches back before the watermark, so the VCN is named again but not re-recorded
+        clock.advance(Duration.ofSeconds(140));
+        Map<String, Object> second = sync.sync();
+        assertThat(second).containsEntry("status", "OK").containsEntry("hints", 3).containsEntry("changes", 2);
+        assertThat(changes(2)).extracting(ChangeLog.Change::type, ChangeLog.Change::id, ChangeLog.Change::state,
+                        ChangeLog.Change::previousState)
+                .containsExactlyInAnyOrder(tuple("UPDATED", INSTANCE, "STOPPED", "PROVISIONING"),
+                        tuple("CREATED", POLICY, null, null));
+        assertThat(changes(0)).allSatisfy(change -> assertThat(change.source()).isEqualTo("sync"));
+    }
+
+    @Test
+    void refetchWinsOverDeletionHintAndRecordsTheDeletion() {
+        IncrementalSync sync = sync(replay);
+        clock.advance(Duration.ofSeconds(60));
+        sync.sync();
+        long afterCreate = (long) changeLog.since(0, 100).get("lastSeq");
+
+        // The window holds UPDATED and DELETED hints for the instance: it is re-fetched once,
+        // and the re-fetch finds it gone
+        clock.advance(Duration.ofSeconds(240));
+        Map<String, Object> status = sync.sync();
+        assertThat(status).containsEntry("status", "OK").containsEntry("fetched", 3);
+        assertThat(changes(afterCreate)).extracting(ChangeLog.Change::type, ChangeLog.Change::id)
+                .contains(tuple("DELETED", INSTANCE))
+                .doesNotContain(tuple("UPDATED", INSTANCE));
+        assertThat(scanner.inventory().resources()).extracting(ScannedResource::id)
+                .containsExactlyInAnyOrder(VCN, POLICY);
+    }
+
+    @Test
+    void partialSyncKeepsTheWatermarkAndRepeatsTheWindow() {
+        AtomicBoolean failInstance = new AtomicBoolean(true);
+        ChangeFeed flaky = new ChangeFeed() {
+            @Override
+            public List<ChangeHint> poll(Instant since, Instant until, ScanInventory inventory, List<String> regions) {
+                return replay.poll(since, until, inventory, regions);
+            }
+
+            @Override
+            public Optional<ScannedResource> fetch(ChangeHint hint) {
+                if (hint.id().equals(INSTANCE) && failInstance.get()) {
+                    throw new IllegalStateException("instance unavailable");
+                }
+                return replay.fetch(hint);
+            }
+        };
+        IncrementalSync sync = sync(flaky);
+        String initialWatermark = clock.instant().toString();
+
+        clock.advance(Duration.ofSeconds(60));
+        Map<String, Object> partial = sync.sync();
+        assertThat(partial).containsEntry("status", "PARTIAL").containsEntry("changes", 1);
+        assertThat((List<?>) partial.get("errors")).hasSize(1);
+        assertThat(sync.status()).containsEntry("watermark", initialWatermark);
+        assertThat(changes(0)).extracting(ChangeLog.Change::id).containsExactly(VCN);
+
+        failInstance.set(false);
+        clock.advance(Duration.ofSeconds(10));
+        Map<String, Object> retried = sync.sync();
+        assertThat(retried).containsEntry("status", "OK").containsEntry("since", partial.get("since"));
+        assertThat(sync.status()).containsEntry("watermark", clock.instant().toString());
+        assertThat(changes(1)).extracting(ChangeLog.Change::type, ChangeLog.Change::id)
+                .containsExactly(tuple("CREATED", INSTANCE));
+    }
+
+    private IncrementalSync sync(ChangeFeed feed) {
+        return new IncrementalSync(feed, scanner, false, Duration.ofMinutes(2), 4, ObservationRegistry.NOOP, clock);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<ChangeLog.Change> changes(long afterSeq) {
+        return (List<ChangeLog.Change>) changeLog.since(afterSeq, 100).get("changes");
+    }
+
+    /**
+     * Clock that only moves when the test advances it.
+     */
+    private static final class MutableClock extends Clock {
+        private volatile Instant now;
+
+        private MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+    }
+}